@@ -0,0 +1,106 @@
+"""
+EXPORT DU MODÈLE PRICE PREDICTION (JSON)
+========================================
+Ce module :
+- exporte le GradientBoostingRegressor entraîné vers un fichier JSON
+  (arbres sous forme de tableaux, comme sklearn les stocke)
+- enregistre des réponses réelles de l'API (/price/predict) sur des lignes du dataset
+
+Le listing-service charge ce fichier pour prédire en local (sans appel HTTP)
+et vérifie, à chaque chargement, qu'il retrouve les réponses enregistrées.
+
+Python reste la référence pour l'entraînement : ré-exporter après chaque
+entraînement (python -m app.services.export_price_model)
+"""
+
+import json
+import pickle
+from datetime import datetime, timezone
+from pathlib import Path
+
+import pandas as pd
+
+from app.schemas.price import create_price_response
+from app.services.price_model import MODEL_PATH, DATA_PATH, PricePredictionModel
+
+# =========================
+# PATHS
+# =========================
+EXPORT_PATH = Path("models/price_prediction_model.json")
+
+FORMAT = "gbr-trees/1"
+SAMPLE_COUNT = 200
+
+
+def export_trees(model) -> dict:
+    """GradientBoostingRegressor → init + learning_rate + arbres (tableaux parallèles)"""
+    trees = []
+    for estimator in model.estimators_[:, 0]:
+        tree = estimator.tree_
+        trees.append({
+            "feature": tree.feature.tolist(),
+            "threshold": tree.threshold.tolist(),
+            "left": tree.children_left.tolist(),
+            "right": tree.children_right.tolist(),
+            "value": tree.value[:, 0, 0].tolist(),
+        })
+
+    # init_ = DummyRegressor(strategy="mean") par défaut
+    init = float(model.init_.constant_[0][0]) if model.init != "zero" else 0.0
+
+    return {
+        "model_type": "gradient_boosting",
+        "init": init,
+        "learning_rate": float(model.learning_rate),
+        "trees": trees,
+    }
+
+
+def record_samples(wrapper: PricePredictionModel, df: pd.DataFrame, features: list) -> list:
+    """Réponses de l'API sur des lignes du dataset (mêmes fonctions que le router /price)"""
+    samples = []
+    for _, row in df.head(SAMPLE_COUNT).iterrows():
+        data = {name: row[name].item() for name in features}
+        result = wrapper.predict_with_confidence(data)
+        response = create_price_response(
+            price_eth=result["price_eth"],
+            confidence_range_eth=result["confidence_range"]
+        )
+        samples.append({"input": data, "output": response.model_dump()})
+    return samples
+
+
+def export_price_model():
+    wrapper = PricePredictionModel()
+
+    with open(MODEL_PATH, "rb") as f:
+        model_data = pickle.load(f)
+    features = model_data.get("feature_names") if isinstance(model_data, dict) else None
+    features = features or ["surface", "rooms", "amenities_count", "avg_rating", "occupancy_rate"]
+
+    artifact = {
+        "format": FORMAT,
+        "exported_at": datetime.now(timezone.utc).isoformat(),
+        "feature_names": features,
+        **export_trees(wrapper.model),
+        "samples": record_samples(wrapper, pd.read_csv(DATA_PATH), features),
+    }
+
+    # Écriture atomique : le listing-service recharge le fichier dès qu'il change
+    tmp = EXPORT_PATH.with_suffix(".json.tmp")
+    tmp.write_text(json.dumps(artifact))
+    tmp.replace(EXPORT_PATH)
+
+    print(f"💾 Modèle exporté dans: {EXPORT_PATH}")
+    print(f"   {len(artifact['trees'])} arbres, {len(artifact['samples'])} réponses enregistrées")
+
+
+# =========================
+# MAIN
+# =========================
+if __name__ == "__main__":
+    """
+    Usage (depuis ai-service/):
+        python -m app.services.export_price_model
+    """
+    export_price_model()
@@ -6,6 +6,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Client Feign pour communiquer avec le Listing Service (Property Service)
@@ -15,9 +16,9 @@ import java.util.List;
 public interface PropertyServiceClient {
 
     /**
-     * Récupérer les détails d'une propriété
+     * Récupérer les détails d'une propriété (vue réduite, servie depuis le cache de listing-service)
      */
-    @GetMapping("/properties/{id}")
+    @GetMapping("/properties/{id}/booking-view")
     PropertyDTO getPropertyById(@PathVariable("id") Integer id);
 
     /**
@@ -30,6 +31,13 @@ public interface PropertyServiceClient {
             @RequestParam("checkOut") LocalDateTime checkOut
     );
 
+    /**
+     * Vérifier la disponibilité de plusieurs propriétés en un seul appel
+     * Body: { "propertyIds": [..], "start": .., "end": .. } → { propertyId: true si libre }
+     */
+    @PostMapping("/properties/availability/batch")
+    Map<Integer, Boolean> checkAvailabilityBatch(@RequestBody Map<String, Object> request);
+
     /**
      * Récupérer le prix d'une propriété
      */
@@ -56,6 +64,41 @@ public interface PropertyServiceClient {
             @RequestParam("reservationId") Integer reservationId
     );
 
+    /**
+     * Bloquer provisoirement des dates pendant le paiement (vérification + blocage atomiques)
+     * Body: { "start": "2025-07-01", "end": "2025-07-05", "holder": .., "ttlSeconds": .. } → { holdId, expiresAt, .. }
+     * 409 si la période est indisponible
+     */
+    @PostMapping("/properties/{id}/holds")
+    Map<String, Object> placeHold(@PathVariable("id") Integer propertyId, @RequestBody Map<String, Object> request);
+
+    /**
+     * Transformer le hold en période bloquée définitive (409 si expiré)
+     */
+    @PostMapping("/properties/{id}/holds/{holdId}/confirm")
+    void confirmHold(
+            @PathVariable("id") Integer propertyId,
+            @PathVariable("holdId") Long holdId,
+            @RequestParam("reservationId") Integer reservationId
+    );
+
+    /**
+     * Libérer un hold (réservation abandonnée avant paiement)
+     */
+    @DeleteMapping("/properties/{id}/holds/{holdId}")
+    void releaseHold(@PathVariable("id") Integer propertyId, @PathVariable("holdId") Long holdId);
+
+    /**
+     * Version courante de la propriété, modifications encore en file comprises
+     * (listing-service versionne en différé : sans ensureCurrent, la dernière version peut être en retard)
+     * → { versionId, propertyId, numVersion, .. }
+     */
+    @GetMapping("/property-versions/property/{id}/current")
+    Map<String, Object> getCurrentVersion(
+            @PathVariable("id") Integer propertyId,
+            @RequestParam("ensureCurrent") boolean ensureCurrent
+    );
+
     /**
      * Vérifier que l'utilisateur est le propriétaire
      */
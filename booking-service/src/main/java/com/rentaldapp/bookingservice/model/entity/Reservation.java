@@ -78,6 +78,10 @@ public class Reservation {
     private Double platformFeePercentage = 5.00;
 
 
+    // Blocage provisoire des dates dans listing-service (jusqu'à la confirmation)
+    @Column(name = "hold_id")
+    private Long holdId;
+
     @Column(name = "blockchain_tx_hash", length = 255)
     private String blockchainTxHash;
 
@@ -14,11 +14,14 @@ import com.rentaldapp.bookingservice.model.enums.ReservationStatus;
 import com.rentaldapp.bookingservice.repository.PropertyVersionRepository;
 import com.rentaldapp.bookingservice.repository.ReservationRepository;
 import com.rentaldapp.bookingservice.repository.ReservationStatusHistoryRepository;
+import feign.FeignException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
@@ -93,21 +96,28 @@ public class BookingService {
         // 3. Validation des dates
         validateDates(createBookingDTO.getCheckInDate(), createBookingDTO.getCheckOutDate());
 
-        // 4. Vérifier la disponibilité via Property Service
+        // 4. Bloquer provisoirement les dates via Property Service
+        //    (vérification + blocage atomiques : pas de double réservation pendant le paiement)
+        Long holdId = null;
         try {
-            Boolean isAvailable = propertyServiceClient.checkAvailability(
+            Map<String, Object> hold = propertyServiceClient.placeHold(
                     createBookingDTO.getPropertyId(),
-                    createBookingDTO.getCheckInDate(),
-                    createBookingDTO.getCheckOutDate()
+                    Map.of(
+                            "start", createBookingDTO.getCheckInDate().toLocalDate().toString(),
+                            "end", createBookingDTO.getCheckOutDate().toLocalDate().toString(),
+                            "holder", "user:" + userId
+                    )
             );
-
-            if (!isAvailable) {
-                throw new PropertyNotAvailableException("La propriété n'est pas disponible pour ces dates");
-            }
-        } catch (PropertyNotAvailableException e) {
-            throw e;
+            holdId = ((Number) hold.get("holdId")).longValue();
+            logger.info("✅ Dates held (hold {}) until {}", holdId, hold.get("expiresAt"));
+        } catch (FeignException.Conflict e) {
+            throw new PropertyNotAvailableException("La propriété n'est pas disponible pour ces dates");
         } catch (Exception e) {
-            logger.error("❌ Failed to check availability", e);
+            logger.error("❌ Failed to place hold, falling back to availability check", e);
+            checkAvailability(createBookingDTO);
+        }
+        if (holdId != null) {
+            releaseHoldOnRollback(createBookingDTO.getPropertyId(), holdId);
         }
 
         // 5. Vérifier les chevauchements locaux
@@ -172,6 +182,7 @@ public class BookingService {
         reservation.setTotalNights((int) totalNights);
         reservation.setNumGuests(createBookingDTO.getNumGuests());
         reservation.setStatus(ReservationStatus.PENDING);
+        reservation.setHoldId(holdId);
 
         // Prix
         reservation.setLockedPricePerNight(priceBreakdown.getLockedPricePerNight());
@@ -197,6 +208,48 @@ public class BookingService {
         return responseDTO;
     }
 
+    // Contrôle sans hold, si Property Service ne répond pas à la demande de hold
+    private void checkAvailability(CreateBookingDTO createBookingDTO) {
+        try {
+            Boolean isAvailable = propertyServiceClient.checkAvailability(
+                    createBookingDTO.getPropertyId(),
+                    createBookingDTO.getCheckInDate(),
+                    createBookingDTO.getCheckOutDate()
+            );
+
+            if (!isAvailable) {
+                throw new PropertyNotAvailableException("La propriété n'est pas disponible pour ces dates");
+            }
+        } catch (PropertyNotAvailableException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("❌ Failed to check availability", e);
+        }
+    }
+
+    // Compensation : toute erreur après la pose du hold (chevauchement, version, prix, enregistrement,
+    // publication) annule la transaction, le hold est alors libéré au lieu d'attendre son expiration
+    private void releaseHoldOnRollback(Integer propertyId, Long holdId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    releaseHold(propertyId, holdId);
+                }
+            }
+        });
+    }
+
+    // Libère le hold d'une réservation abandonnée (sinon il expire seul)
+    private void releaseHold(Integer propertyId, Long holdId) {
+        if (holdId == null) return;
+        try {
+            propertyServiceClient.releaseHold(propertyId, holdId);
+        } catch (Exception e) {
+            logger.warn("⚠️ Failed to release hold {} (it will expire)", holdId, e);
+        }
+    }
+
     private Integer determinePropertyVersion(Integer propertyId, Integer requestedVersionId) {
         if (requestedVersionId != null) {
             PropertyVersion version = propertyVersionRepository.findById(requestedVersionId)
@@ -209,6 +262,18 @@ public class BookingService {
             return requestedVersionId;
         }
 
+        // Version à jour : listing-service versionne immédiatement les modifications encore en file
+        try {
+            Map<String, Object> current = propertyServiceClient.getCurrentVersion(propertyId, true);
+            if (current != null && current.get("versionId") != null) {
+                return ((Number) current.get("versionId")).intValue();
+            }
+        } catch (FeignException.NotFound e) {
+            throw new InvalidBookingException("Aucune version trouvée pour cette propriété");
+        } catch (Exception e) {
+            logger.warn("⚠️ Failed to get current version of property {}, using latest stored version", propertyId, e);
+        }
+
         PropertyVersion latestVersion = propertyVersionRepository
                 .findLatestVersionByPropertyId(propertyId)
                 .orElseThrow(() -> new InvalidBookingException("Aucune version trouvée pour cette propriété"));
@@ -271,17 +336,31 @@ public class BookingService {
         saveStatusHistory(reservationId, oldStatus.name(), ReservationStatus.CONFIRMED.name(),
                 reservation.getUserId(), "Paiement confirmé");
 
-        // Bloquer les dates dans Property Service
-        try {
-            propertyServiceClient.blockDates(
-                    reservation.getPropertyId(),
-                    reservation.getCheckInDate(),
-                    reservation.getCheckOutDate(),
-                    reservationId
-            );
-            logger.info("✅ Dates blocked in Property Service");
-        } catch (Exception e) {
-            logger.error("❌ Failed to block dates", e);
+        // Bloquer les dates dans Property Service : le hold devient une période bloquée
+        boolean blocked = false;
+        if (reservation.getHoldId() != null) {
+            try {
+                propertyServiceClient.confirmHold(reservation.getPropertyId(), reservation.getHoldId(), reservationId);
+                blocked = true;
+                logger.info("✅ Hold {} confirmed in Property Service", reservation.getHoldId());
+            } catch (Exception e) {
+                logger.warn("⚠️ Hold {} could not be confirmed, blocking dates directly", reservation.getHoldId(), e);
+            }
+        }
+        if (!blocked) {
+            // Le hold encore actif ferait refuser le blocage direct de ses propres dates
+            releaseHold(reservation.getPropertyId(), reservation.getHoldId());
+            try {
+                propertyServiceClient.blockDates(
+                        reservation.getPropertyId(),
+                        reservation.getCheckInDate(),
+                        reservation.getCheckOutDate(),
+                        reservationId
+                );
+                logger.info("✅ Dates blocked in Property Service");
+            } catch (Exception e) {
+                logger.error("❌ Failed to block dates", e);
+            }
         }
 
         ReservationResponseDTO responseDTO = convertToDTO(updated);
@@ -407,12 +486,16 @@ public class BookingService {
         saveStatusHistory(reservationId, oldStatus.name(), ReservationStatus.CANCELLED.name(),
                 userId, reason != null ? reason : "Annulation demandée");
 
-        // Débloquer les dates
-        try {
-            propertyServiceClient.unblockDates(reservation.getPropertyId(), reservationId);
-            logger.info("✅ Dates unblocked");
-        } catch (Exception e) {
-            logger.error("❌ Failed to unblock dates", e);
+        // Débloquer les dates (réservation non payée : simple libération du hold)
+        if (oldStatus == ReservationStatus.PENDING && reservation.getHoldId() != null) {
+            releaseHold(reservation.getPropertyId(), reservation.getHoldId());
+        } else {
+            try {
+                propertyServiceClient.unblockDates(reservation.getPropertyId(), reservationId);
+                logger.info("✅ Dates unblocked");
+            } catch (Exception e) {
+                logger.error("❌ Failed to unblock dates", e);
+            }
         }
 
         ReservationResponseDTO responseDTO = convertToDTO(updated);
@@ -6,7 +6,7 @@ import { ApiService } from './api.service';
 import {environment} from "../../../environments/environment";
 
 /**
- * Service pour récupérer les versions de property avec leurs snapshots
+ * Service pour récupérer les versions de property (reconstruites depuis l'historique compact)
  */
 @Injectable({
   providedIn: 'root'
@@ -57,29 +57,21 @@ export interface PropertyVersionResponse {
 }
 
 export interface GeneralSnapshot {
-  snapshotId: number;
-  snapshotHash: string;
   generalJson: string;
   createdAt: string;
 }
 
 export interface AmenitiesSnapshot {
-  snapshotId: number;
-  snapshotHash: string;
   amenitiesJson: string;
   createdAt: string;
 }
 
 export interface PhotosSnapshot {
-  snapshotId: number;
-  snapshotHash: string;
   photosJson: string;
   createdAt: string;
 }
 
 export interface RulesSnapshot {
-  snapshotId: number;
-  snapshotHash: string;
   childrenAllowed: boolean;
   babiesAllowed: boolean;
   petsAllowed: boolean;
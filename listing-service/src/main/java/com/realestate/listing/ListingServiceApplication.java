@@ -5,6 +5,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 
@@ -13,6 +14,7 @@ import java.util.Properties;
 
 @EnableDiscoveryClient
 @EnableFeignClients //  AJOUTÉ Pour IA: Active Feign
+@EnableScheduling   // Workers en arrière-plan (versions en file)
 @SpringBootApplication
 public class ListingServiceApplication {
 
@@ -0,0 +1,56 @@
+package com.realestate.listing.availability;
+
+import com.realestate.listing.repository.PropertyAvailabilityRepository;
+import com.realestate.listing.service.PropertyAvailabilityService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * ========================================
+ * DÉFRAGMENTATION DES PÉRIODES BLOQUÉES
+ * ========================================
+ * Met en forme normale (BlockIntervals.normalize) les properties dont une même raison
+ * est répartie sur plusieurs lignes : données antérieures à la fusion au blocage,
+ * ou morceaux laissés par des déblocages successifs. Une transaction par property.
+ */
+@Component
+public class AvailabilityDefragJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityDefragJob.class);
+
+    @Autowired
+    private PropertyAvailabilityRepository repo;
+
+    @Autowired
+    private PropertyAvailabilityService availabilityService;
+
+    @Value("${listing.availability.defrag.enabled:true}")
+    private boolean enabled;
+
+    @Scheduled(initialDelayString = "${listing.availability.defrag.interval-ms:3600000}",
+            fixedDelayString = "${listing.availability.defrag.interval-ms:3600000}")
+    public void defragment() {
+        if (!enabled) return;
+
+        int properties = 0;
+        int removed = 0;
+        for (Integer propertyId : repo.findFragmentedPropertyIds()) {
+            try {
+                int count = availabilityService.defragment(propertyId);
+                if (count > 0) {
+                    properties++;
+                    removed += count;
+                }
+            } catch (Exception e) {
+                logger.error("Échec de la défragmentation des disponibilités de la property {}", propertyId, e);
+            }
+        }
+        if (removed > 0) {
+            logger.info("Disponibilités défragmentées : {} lignes fusionnées sur {} properties", removed, properties);
+        }
+    }
+}
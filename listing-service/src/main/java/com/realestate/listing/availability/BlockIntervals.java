@@ -0,0 +1,132 @@
+package com.realestate.listing.availability;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * ========================================
+ * ALGÈBRE D'INTERVALLES DES PÉRIODES BLOQUÉES
+ * ========================================
+ * Bornes incluses (dateDebut et dateFin sont bloquées).
+ * Forme normale d'une property : pour une même raison, aucun chevauchement
+ * ni contiguïté (fin + 1 jour = début suivant) → une seule ligne par plage continue.
+ * Chaque opération renvoie un Diff minimal : lignes supprimées, bornes modifiées, lignes créées
+ * (les lignes existantes sont réutilisées plutôt que supprimées puis recréées).
+ */
+public final class BlockIntervals {
+
+    private BlockIntervals() {
+    }
+
+    /** Période bloquée (id null = nouvelle ligne) */
+    public record Interval(Integer id, LocalDate start, LocalDate end, String reason) {
+        Interval withBounds(LocalDate newStart, LocalDate newEnd) {
+            return new Interval(id, newStart, newEnd, reason);
+        }
+    }
+
+    public record Diff(List<Integer> deletes, List<Interval> updates, List<Interval> inserts) {
+        public boolean isEmpty() {
+            return deletes.isEmpty() && updates.isEmpty() && inserts.isEmpty();
+        }
+    }
+
+    /**
+     * Bloque [start, end] : fusion avec les périodes de même raison qui chevauchent
+     * ou touchent la plage (candidates = périodes de [start - 1, end + 1])
+     */
+    public static Diff block(Collection<Interval> candidates, LocalDate start, LocalDate end, String reason) {
+        LocalDate mergedStart = start;
+        LocalDate mergedEnd = end;
+        List<Interval> absorbed = new ArrayList<>();
+        for (Interval interval : candidates) {
+            if (Objects.equals(interval.reason(), reason) && touches(interval, start, end)) {
+                absorbed.add(interval);
+                if (interval.start().isBefore(mergedStart)) mergedStart = interval.start();
+                if (interval.end().isAfter(mergedEnd)) mergedEnd = interval.end();
+            }
+        }
+        if (absorbed.isEmpty()) {
+            return new Diff(List.of(), List.of(), List.of(new Interval(null, start, end, reason)));
+        }
+
+        absorbed.sort(BY_START);
+        Interval kept = absorbed.get(0);
+        List<Interval> updates = kept.start().equals(mergedStart) && kept.end().equals(mergedEnd)
+                ? List.of()
+                : List.of(kept.withBounds(mergedStart, mergedEnd));
+        return new Diff(ids(absorbed.subList(1, absorbed.size())), updates, List.of());
+    }
+
+    /**
+     * Débloque [start, end] quelle que soit la raison :
+     * couverte → supprimée, débordant d'un côté → raccourcie, débordant des deux côtés → coupée en deux
+     */
+    public static Diff unblock(Collection<Interval> overlapping, LocalDate start, LocalDate end) {
+        List<Integer> deletes = new ArrayList<>();
+        List<Interval> updates = new ArrayList<>();
+        List<Interval> inserts = new ArrayList<>();
+
+        for (Interval interval : overlapping) {
+            if (interval.end().isBefore(start) || interval.start().isAfter(end)) continue;
+
+            boolean left = interval.start().isBefore(start);
+            boolean right = interval.end().isAfter(end);
+            if (left && right) {
+                updates.add(interval.withBounds(interval.start(), start.minusDays(1)));
+                inserts.add(new Interval(null, end.plusDays(1), interval.end(), interval.reason()));
+            } else if (left) {
+                updates.add(interval.withBounds(interval.start(), start.minusDays(1)));
+            } else if (right) {
+                updates.add(interval.withBounds(end.plusDays(1), interval.end()));
+            } else {
+                deletes.add(interval.id());
+            }
+        }
+        return new Diff(deletes, updates, inserts);
+    }
+
+    /**
+     * Forme normale de toutes les périodes d'une property (défragmentation)
+     */
+    public static Diff normalize(Collection<Interval> all) {
+        Map<String, List<Interval>> byReason = new HashMap<>();
+        for (Interval interval : all) {
+            byReason.computeIfAbsent(Objects.requireNonNullElse(interval.reason(), ""), k -> new ArrayList<>())
+                    .add(interval);
+        }
+
+        List<Integer> deletes = new ArrayList<>();
+        List<Interval> updates = new ArrayList<>();
+        for (List<Interval> intervals : byReason.values()) {
+            intervals.sort(BY_START);
+            Interval run = intervals.get(0);
+            LocalDate runEnd = run.end();
+            for (Interval next : intervals.subList(1, intervals.size())) {
+                if (!next.start().isAfter(runEnd.plusDays(1))) {
+                    deletes.add(next.id());
+                    if (next.end().isAfter(runEnd)) runEnd = next.end();
+                } else {
+                    if (!runEnd.equals(run.end())) updates.add(run.withBounds(run.start(), runEnd));
+                    run = next;
+                    runEnd = next.end();
+                }
+            }
+            if (!runEnd.equals(run.end())) updates.add(run.withBounds(run.start(), runEnd));
+        }
+        return new Diff(deletes, updates, List.of());
+    }
+
+    // Chevauche ou touche [start, end]
+    private static boolean touches(Interval interval, LocalDate start, LocalDate end) {
+        return !interval.start().isAfter(end.plusDays(1)) && !interval.end().isBefore(start.minusDays(1));
+    }
+
+    private static List<Integer> ids(List<Interval> intervals) {
+        return intervals.stream().map(Interval::id).toList();
+    }
+
+    private static final Comparator<Interval> BY_START = Comparator
+            .comparing(Interval::start)
+            .thenComparing(Interval::end);
+}
@@ -0,0 +1,137 @@
+package com.realestate.listing.availability;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ========================================
+ * HOLDS ACTIFS EN MÉMOIRE
+ * ========================================
+ * - verrous répartis par property (STRIPES verrous, propertyId % STRIPES) :
+ *   la vérification de chevauchement + l'enregistrement d'un hold (ou d'une période bloquée)
+ *   sont atomiques sans sérialiser les properties entre elles
+ * - état de chaque hold changé par compare-and-set : l'expiration (reaper),
+ *   la confirmation et la libération ne se bloquent jamais, une seule gagne
+ * - expiration par roue temporelle : le reaper ne traite que les slots échus
+ */
+@Component
+public class HoldRegistry {
+
+    private static final int STRIPES = 64;
+    private static final int WHEEL_SIZE = 512;
+
+    public enum State { ACTIVE, CONFIRMING, RELEASED, EXPIRED }
+
+    public static final class Hold {
+        private final Long holdId;
+        private final Integer propertyId;
+        private final LocalDate start;
+        private final LocalDate end;
+        private final long expiresAtMillis;
+        private final AtomicReference<State> state = new AtomicReference<>(State.ACTIVE);
+
+        public Hold(Long holdId, Integer propertyId, LocalDate start, LocalDate end, long expiresAtMillis) {
+            this.holdId = holdId;
+            this.propertyId = propertyId;
+            this.start = start;
+            this.end = end;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public Long holdId() { return holdId; }
+        public Integer propertyId() { return propertyId; }
+        public LocalDate start() { return start; }
+        public LocalDate end() { return end; }
+        public long expiresAtMillis() { return expiresAtMillis; }
+        public State state() { return state.get(); }
+
+        public boolean transition(State from, State to) {
+            return state.compareAndSet(from, to);
+        }
+
+        // Un hold en cours de confirmation occupe toujours ses dates
+        boolean occupies(LocalDate from, LocalDate to, long nowMillis) {
+            State current = state.get();
+            boolean alive = current == State.CONFIRMING || (current == State.ACTIVE && expiresAtMillis > nowMillis);
+            return alive && !start.isAfter(to) && !end.isBefore(from);
+        }
+    }
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final ConcurrentHashMap<Long, Hold> byId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Set<Hold>> byProperty = new ConcurrentHashMap<>();
+    private final TimingWheel<Hold> wheel;
+
+    public HoldRegistry(@Value("${listing.holds.tick-ms:1000}") long tickMs) {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.wheel = new TimingWheel<>(tickMs, WHEEL_SIZE, System.currentTimeMillis());
+    }
+
+    public ReentrantLock lockFor(Integer propertyId) {
+        return stripes[Math.floorMod(propertyId, STRIPES)];
+    }
+
+    public boolean hasOverlap(Integer propertyId, LocalDate start, LocalDate end, long nowMillis) {
+        return hasOverlap(propertyId, start, end, nowMillis, null);
+    }
+
+    /** Chevauchement avec un autre hold que exceptHoldId (le hold en cours de confirmation) */
+    public boolean hasOverlap(Integer propertyId, LocalDate start, LocalDate end, long nowMillis, Long exceptHoldId) {
+        Set<Hold> holds = byProperty.get(propertyId);
+        if (holds == null) return false;
+        for (Hold hold : holds) {
+            if (!hold.holdId().equals(exceptHoldId) && hold.occupies(start, end, nowMillis)) return true;
+        }
+        return false;
+    }
+
+    public void register(Hold hold) {
+        byId.put(hold.holdId(), hold);
+        byProperty.computeIfAbsent(hold.propertyId(), id -> ConcurrentHashMap.newKeySet()).add(hold);
+        wheel.schedule(hold, hold.expiresAtMillis());
+    }
+
+    public Hold get(Long holdId) {
+        return byId.get(holdId);
+    }
+
+    public void remove(Hold hold) {
+        byId.remove(hold.holdId());
+        byProperty.computeIfPresent(hold.propertyId(), (id, holds) -> {
+            holds.remove(hold);
+            return holds.isEmpty() ? null : holds;
+        });
+    }
+
+    /** Confirmation annulée (rollback) : le hold redevient actif jusqu'à son échéance */
+    public void reactivate(Hold hold) {
+        if (hold.transition(State.CONFIRMING, State.ACTIVE)) {
+            wheel.schedule(hold, hold.expiresAtMillis());
+        }
+    }
+
+    /**
+     * Expire les holds échus (appelé par un seul thread) : IDs à supprimer en BDD
+     * Un hold en cours de confirmation n'est pas expiré.
+     */
+    public List<Long> expire(long nowMillis) {
+        List<Long> expired = new ArrayList<>();
+        wheel.advance(nowMillis, hold -> {
+            if (hold.transition(State.ACTIVE, State.EXPIRED)) {
+                remove(hold);
+                expired.add(hold.holdId());
+            }
+        });
+        return expired;
+    }
+}
@@ -0,0 +1,64 @@
+package com.realestate.listing.availability;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Roue temporelle (hashed timing wheel) : slots de tickMs millisecondes,
+ * échéance → slot (échéance / tickMs) % taille.
+ * - schedule() : ajout sans verrou (file concurrente du slot)
+ * - advance() : traite uniquement les slots écoulés depuis le dernier appel,
+ *   sans parcourir les éléments des autres slots ; une échéance plus lointaine
+ *   qu'un tour de roue est remise dans son slot jusqu'au bon tour
+ * advance() est appelé par un seul thread (tâche planifiée).
+ */
+public class TimingWheel<T> {
+
+    private record Entry<T>(T item, long deadlineMillis) {}
+
+    private final long tickMs;
+    private final Queue<Entry<T>>[] slots;
+    private volatile long processedTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, int size, long nowMillis) {
+        this.tickMs = tickMs;
+        this.slots = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.processedTick = nowMillis / tickMs - 1;
+    }
+
+    public void schedule(T item, long deadlineMillis) {
+        // Échéance déjà passée : slot du prochain tick
+        long tick = Math.max(deadlineMillis / tickMs, processedTick + 1);
+        slots[(int) (tick % slots.length)].add(new Entry<>(item, deadlineMillis));
+    }
+
+    /** Passe les éléments échus à expired ; retourne leur nombre */
+    public int advance(long nowMillis, Consumer<T> expired) {
+        // Ticks entièrement écoulés : toutes leurs échéances sont passées
+        long lastTick = nowMillis / tickMs - 1;
+        // Retard de plus d'un tour : chaque slot une seule fois
+        long from = Math.max(processedTick + 1, lastTick - slots.length + 1);
+        int count = 0;
+
+        for (long tick = from; tick <= lastTick; tick++) {
+            Queue<Entry<T>> slot = slots[(int) (tick % slots.length)];
+            for (int n = slot.size(); n > 0; n--) {
+                Entry<T> entry = slot.poll();
+                if (entry == null) break;
+                if (entry.deadlineMillis() <= nowMillis) {
+                    expired.accept(entry.item());
+                    count++;
+                } else {
+                    slot.add(entry); // tour suivant
+                }
+            }
+        }
+        processedTick = Math.max(processedTick, lastTick);
+        return count;
+    }
+}
@@ -0,0 +1,101 @@
+package com.realestate.listing.cache;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Calendrier immuable d'une property : 1 bit par jour (1 = bloqué) à partir de start
+ * Toute modification produit une nouvelle instance (lecture sans verrou)
+ */
+final class AvailabilityCalendar {
+
+    private final LocalDate start;
+    private final int days;
+    private final long[] words;
+
+    private AvailabilityCalendar(LocalDate start, int days, long[] words) {
+        this.start = start;
+        this.days = days;
+        this.words = words;
+    }
+
+    static AvailabilityCalendar empty(LocalDate start, int days) {
+        return new AvailabilityCalendar(start, days, new long[(days + 63) >>> 6]);
+    }
+
+    LocalDate getStart() {
+        return start;
+    }
+
+    int getDays() {
+        return days;
+    }
+
+    /** La période [from, to] est-elle entièrement dans la fenêtre ? */
+    boolean covers(LocalDate from, LocalDate to) {
+        return !from.isBefore(start) && offset(to) < days && !from.isAfter(to);
+    }
+
+    /** Au moins un jour bloqué dans [from, to] (la période doit être couverte) */
+    boolean anyBlocked(LocalDate from, LocalDate to) {
+        int a = offset(from);
+        int b = offset(to);
+        int wa = a >>> 6;
+        int wb = b >>> 6;
+        long first = -1L << a;
+        long last = -1L >>> (63 - (b & 63));
+
+        if (wa == wb) {
+            return (words[wa] & first & last) != 0;
+        }
+        if ((words[wa] & first) != 0) return true;
+        for (int w = wa + 1; w < wb; w++) {
+            if (words[w] != 0) return true;
+        }
+        return (words[wb] & last) != 0;
+    }
+
+    /** Nouvelle instance avec [from, to] bloqué ou débloqué (coupé à la fenêtre) */
+    AvailabilityCalendar withRange(LocalDate from, LocalDate to, boolean blocked) {
+        long[] copy = Arrays.copyOf(words, words.length);
+        applyRange(copy, from, to, blocked);
+        return new AvailabilityCalendar(start, days, copy);
+    }
+
+    /** Modification en place : réservé à la construction initiale */
+    void fill(LocalDate from, LocalDate to) {
+        applyRange(words, from, to, true);
+    }
+
+    private void applyRange(long[] target, LocalDate from, LocalDate to, boolean blocked) {
+        int a = Math.max(0, offset(from));
+        int b = Math.min(days - 1, offset(to));
+        if (a > b) return;
+
+        int wa = a >>> 6;
+        int wb = b >>> 6;
+        for (int w = wa; w <= wb; w++) {
+            long mask = -1L;
+            if (w == wa) mask &= -1L << a;
+            if (w == wb) mask &= -1L >>> (63 - (b & 63));
+            if (blocked) {
+                target[w] |= mask;
+            } else {
+                target[w] &= ~mask;
+            }
+        }
+    }
+
+    /** Bits bloqués, octets little-endian (bit 0 de l'octet 0 = start) */
+    byte[] toByteArray() {
+        return BitSet.valueOf(words).toByteArray();
+    }
+
+    private int offset(LocalDate date) {
+        long offset = ChronoUnit.DAYS.between(start, date);
+        if (offset < 0) return -1;
+        return (int) Math.min(offset, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,198 @@
+package com.realestate.listing.cache;
+
+import com.realestate.listing.dto.AvailabilityCalendarDTO;
+import com.realestate.listing.event.AvailabilityChangedEvent;
+import com.realestate.listing.event.PropertyChangedEvent;
+import com.realestate.listing.repository.PropertyAvailabilityRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ========================================
+ * CACHE DES CALENDRIERS DE DISPONIBILITÉ
+ * ========================================
+ * Un bitset par property (1 bit/jour) sur la fenêtre [1er du mois courant, +N mois[
+ * - chargé à la demande depuis property_availability (en lot pour la recherche)
+ * - mis à jour après commit par AvailabilityChangedEvent (copie + remplacement atomique)
+ * - chargement dans une transaction neuve (REQUIRES_NEW), jamais dans celle de l'appelant :
+ *   sa lecture voit toutes les modifications déjà notifiées
+ * - version par property, incrémentée et comparée sous le verrou de l'entrée (compute) :
+ *   un chargement concurrent à une modification n'est pas mis en cache
+ * - une vérification de conflit = quelques AND sur des mots de 64 bits
+ */
+@Component
+public class AvailabilityCalendarCache {
+
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private PropertyAvailabilityRepository repo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${listing.availability.calendar-months:12}")
+    private int calendarMonths;
+
+    // ConcurrentHashMap : partitionné en interne, compute() verrouille uniquement l'entrée
+    private final ConcurrentHashMap<Integer, AvailabilityCalendar> calendars = new ConcurrentHashMap<>();
+
+    // propertyId → nombre de modifications (écrit uniquement dans calendars.compute(propertyId, ..))
+    private final ConcurrentHashMap<Integer, Long> versions = new ConcurrentHashMap<>();
+
+    private TransactionTemplate loadTransaction;
+
+    @PostConstruct
+    void init() {
+        loadTransaction = new TransactionTemplate(transactionManager);
+        loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        loadTransaction.setReadOnly(true);
+    }
+
+    // ======================
+    // === LECTURE ===
+    // ======================
+
+    /**
+     * Conflit sur [start, end] depuis le cache
+     * Optional.empty() si la période sort de la fenêtre (l'appelant interroge la BDD)
+     */
+    public Optional<Boolean> hasConflict(Integer propertyId, LocalDate start, LocalDate end) {
+        if (!covers(start, end)) return Optional.empty();
+        return Optional.of(getOrLoad(propertyId).anyBlocked(start, end));
+    }
+
+    /** La période est-elle dans la fenêtre du cache ? */
+    public boolean covers(LocalDate start, LocalDate end) {
+        LocalDate windowStart = windowStart();
+        return !start.isBefore(windowStart) && !start.isAfter(end) && end.isBefore(windowEnd(windowStart));
+    }
+
+    /**
+     * IDs bloqués sur [start, end] parmi propertyIds (période couverte par la fenêtre)
+     * Les calendriers absents sont chargés en une requête par tranche de 1000 IDs
+     */
+    public Set<Integer> findBlocked(Collection<Integer> propertyIds, LocalDate start, LocalDate end) {
+        LocalDate windowStart = windowStart();
+        Map<Integer, AvailabilityCalendar> found = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+
+        for (Integer id : new LinkedHashSet<>(propertyIds)) {
+            AvailabilityCalendar calendar = current(id, windowStart);
+            if (calendar != null) {
+                found.put(id, calendar);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            found.putAll(loadAll(missing, windowStart));
+        }
+
+        Set<Integer> blocked = new HashSet<>();
+        for (Map.Entry<Integer, AvailabilityCalendar> entry : found.entrySet()) {
+            if (entry.getValue().anyBlocked(start, end)) {
+                blocked.add(entry.getKey());
+            }
+        }
+        return blocked;
+    }
+
+    /** Calendrier complet encodé (pour le frontend) */
+    public AvailabilityCalendarDTO getCalendar(Integer propertyId) {
+        AvailabilityCalendar calendar = getOrLoad(propertyId);
+        return new AvailabilityCalendarDTO(
+                propertyId,
+                calendar.getStart(),
+                calendar.getDays(),
+                Base64.getEncoder().encodeToString(calendar.toByteArray()));
+    }
+
+    // ======================
+    // === MISES À JOUR ===
+    // ======================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(AvailabilityChangedEvent event) {
+        calendars.compute(event.propertyId(), (id, calendar) -> {
+            versions.merge(id, 1L, Long::sum);
+            return calendar == null ? null : calendar.withRange(event.start(), event.end(), event.blocked());
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (event.isDeleted()) {
+            calendars.compute(event.propertyId(), (id, calendar) -> {
+                versions.merge(id, 1L, Long::sum);
+                return null;
+            });
+        }
+    }
+
+    // ======================
+    // === CHARGEMENT ===
+    // ======================
+
+    private AvailabilityCalendar getOrLoad(Integer propertyId) {
+        LocalDate windowStart = windowStart();
+        AvailabilityCalendar calendar = current(propertyId, windowStart);
+        if (calendar != null) return calendar;
+        return loadAll(List.of(propertyId), windowStart).get(propertyId);
+    }
+
+    // Calendrier en cache, si sa fenêtre est toujours la fenêtre courante (changement de mois → rechargement)
+    private AvailabilityCalendar current(Integer propertyId, LocalDate windowStart) {
+        AvailabilityCalendar calendar = calendars.get(propertyId);
+        return calendar != null && calendar.getStart().equals(windowStart) ? calendar : null;
+    }
+
+    private Map<Integer, AvailabilityCalendar> loadAll(List<Integer> propertyIds, LocalDate windowStart) {
+        LocalDate windowEnd = windowEnd(windowStart);
+        int days = (int) ChronoUnit.DAYS.between(windowStart, windowEnd);
+
+        // Versions lues AVANT l'ouverture de la transaction de lecture
+        Map<Integer, Long> stamps = new HashMap<>();
+        Map<Integer, AvailabilityCalendar> loaded = new HashMap<>();
+        for (Integer id : propertyIds) {
+            stamps.put(id, versions.getOrDefault(id, 0L));
+            loaded.put(id, AvailabilityCalendar.empty(windowStart, days));
+        }
+
+        loadTransaction.executeWithoutResult(status -> {
+            for (int from = 0; from < propertyIds.size(); from += IN_CHUNK_SIZE) {
+                List<Integer> chunk = propertyIds.subList(from, Math.min(from + IN_CHUNK_SIZE, propertyIds.size()));
+                for (Object[] row : repo.findPeriodsInWindow(chunk, windowStart, windowEnd.minusDays(1))) {
+                    loaded.get((Integer) row[0]).fill((LocalDate) row[1], (LocalDate) row[2]);
+                }
+            }
+        });
+
+        // Mis en cache seulement si aucune modification de la property depuis la lecture de sa version
+        for (Map.Entry<Integer, AvailabilityCalendar> entry : loaded.entrySet()) {
+            long stamp = stamps.get(entry.getKey());
+            calendars.compute(entry.getKey(), (id, cached) ->
+                    versions.getOrDefault(id, 0L) == stamp ? entry.getValue() : cached);
+        }
+        return loaded;
+    }
+
+    private LocalDate windowStart() {
+        return LocalDate.now().withDayOfMonth(1);
+    }
+
+    private LocalDate windowEnd(LocalDate windowStart) {
+        return windowStart.plusMonths(calendarMonths);
+    }
+}
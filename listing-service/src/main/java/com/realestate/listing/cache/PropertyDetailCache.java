@@ -0,0 +1,160 @@
+package com.realestate.listing.cache;
+
+import com.realestate.listing.event.AvailabilityChangedEvent;
+import com.realestate.listing.event.DiscountChangedEvent;
+import com.realestate.listing.event.PropertyChangedEvent;
+import com.realestate.listing.event.PropertyContentChangedEvent;
+import com.google.common.hash.Hashing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * ========================================
+ * CACHE DES FICHES PROPERTY SÉRIALISÉES
+ * ========================================
+ * JSON déjà sérialisé (byte[]) par property et par vue, servi tel quel par le controller
+ * - LRU borné en octets (listing.cache.detail-max-bytes)
+ * - invalidé après commit par les événements de modification (property, photos — y compris
+ *   celles écrites par media-service —, règles, disponibilités, discounts, amenities, préférences)
+ * - TTL (listing.cache.detail-ttl-seconds) en filet de sécurité pour une écriture non notifiée
+ * - ETag = hash du JSON servi : change avec tout contenu, même sans modification de updatedAt
+ * - un chargement concurrent à une invalidation n'est pas mis en cache
+ */
+@Component
+public class PropertyDetailCache {
+
+    public enum View {
+        ENTITY,     // GET /properties/{id}
+        DETAIL,     // GET /properties/{id}/details
+        BOOKING     // GET /properties/{id}/booking-view
+    }
+
+    /**
+     * JSON sérialisé, son hash (calculé une fois) et l'instant de chargement
+     */
+    public record Entry(byte[] json, String hash, long loadedAtMillis) {
+
+        public static Entry of(byte[] json) {
+            return new Entry(json, Hashing.murmur3_128().hashBytes(json).toString(), System.currentTimeMillis());
+        }
+
+        /** ETag fort : propertyId, vue et hash du contenu */
+        public String etag(Integer propertyId, View view) {
+            return "\"" + propertyId + "-" + view.name().toLowerCase() + "-" + hash + "\"";
+        }
+    }
+
+    private record Key(Integer propertyId, View view) {}
+
+    @Value("${listing.cache.detail-max-bytes:33554432}")
+    private long maxBytes;
+
+    @Value("${listing.cache.detail-ttl-seconds:300}")
+    private long ttlSeconds;
+
+    // accessOrder = true : l'itération commence par l'entrée la moins récemment lue
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes = 0;
+
+    // Incrémenté à chaque invalidation (protégé par le verrou de l'instance)
+    private long modifications = 0;
+
+    /**
+     * Entrée en cache, ou chargée par loader (null si la property n'existe pas)
+     */
+    public Entry getOrLoad(Integer propertyId, View view, Supplier<Entry> loader) {
+        Key key = new Key(propertyId, view);
+        long stamp;
+        synchronized (this) {
+            Entry cached = entries.get(key);
+            if (cached != null) {
+                if (System.currentTimeMillis() - cached.loadedAtMillis() < ttlSeconds * 1000) return cached;
+                entries.remove(key);
+                totalBytes -= cached.json().length;
+            }
+            stamp = modifications;
+        }
+
+        Entry loaded = loader.get();
+        if (loaded != null) {
+            put(key, loaded, stamp);
+        }
+        return loaded;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long sizeInBytes() {
+        return totalBytes;
+    }
+
+    // ======================
+    // === INVALIDATION ===
+    // ======================
+
+    public synchronized void invalidate(Integer propertyId) {
+        modifications++;
+        for (View view : View.values()) {
+            Entry removed = entries.remove(new Key(propertyId, view));
+            if (removed != null) totalBytes -= removed.json().length;
+        }
+    }
+
+    public synchronized void clear() {
+        modifications++;
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        invalidate(event.propertyId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(AvailabilityChangedEvent event) {
+        invalidate(event.propertyId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(PropertyContentChangedEvent event) {
+        if (event.propertyId() == null) {
+            clear();
+        } else {
+            invalidate(event.propertyId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDiscountChanged(DiscountChangedEvent event) {
+        // Un discount peut être partagé : on vide tout (modifications rares)
+        clear();
+    }
+
+    // ======================
+    // === INTERNE ===
+    // ======================
+
+    private synchronized void put(Key key, Entry entry, long stamp) {
+        if (stamp != modifications) return;          // invalidé pendant le chargement
+        if (entry.json().length > maxBytes / 4) return; // trop gros pour être mis en cache
+
+        Entry previous = entries.put(key, entry);
+        if (previous != null) totalBytes -= previous.json().length;
+        totalBytes += entry.json().length;
+
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().json().length;
+            eldest.remove();
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.realestate.listing.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.primitives.Ints;
+import com.realestate.listing.dto.PropertyFilterDTO;
+import com.realestate.listing.event.AvailabilityChangedEvent;
+import com.realestate.listing.event.PropertyChangedEvent;
+import com.realestate.listing.search.PropertyDocument;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * ========================================
+ * CACHE DES RÉSULTATS DE RECHERCHE
+ * ========================================
+ * IDs des properties correspondant à une recherche (filtres normalisés, + dates pour les
+ * recherches avec disponibilité), jamais les DTO : prix et contenu restent lus à jour.
+ * - invalidation par ville : compteurs de génération (contenu / disponibilité) par ville,
+ *   plus un compteur « toutes villes » pour les recherches sans ville ; une entrée dont les
+ *   générations ont changé est ignorée à la lecture
+ * - création, modification, publication, archivage, suppression → génération contenu
+ *   de l'ancienne et de la nouvelle ville (appelé par PropertyIndexSynchronizer, après les index)
+ * - blocage / déblocage → génération disponibilité de la ville (recherches avec dates seulement)
+ * - un chargement concurrent à une invalidation est stocké avec les anciennes générations
+ * - borné en nombre total d'IDs (listing.search.result-cache.max-ids), TTL en filet de sécurité
+ * Métriques : listing.search.cache.requests (hit / miss / stale), .hit.ratio, .size, .ids,
+ * .invalidations (property / availability / rebuild), .evictions
+ */
+@Component
+public class SearchResultCache {
+
+    /**
+     * Recherche canonique : textes normalisés comme dans les index, amenities triées sans doublon
+     * checkIn / checkOut null → recherche sans disponibilité
+     */
+    public record Key(
+            String city, String country, String propertyType, String placeType,
+            Double minPrice, Double maxPrice,
+            Integer bedrooms, Integer bathrooms, Integer beds, Integer maxGuests,
+            Boolean instantBooking, List<Integer> amenityIds,
+            Boolean childrenAllowed, Boolean babiesAllowed, Boolean petsAllowed,
+            Boolean smokingAllowed, Boolean eventsAllowed,
+            LocalDate checkIn, LocalDate checkOut) {
+
+        public static Key of(PropertyFilterDTO filter) {
+            return of(filter, null, null);
+        }
+
+        public static Key of(PropertyFilterDTO f, LocalDate checkIn, LocalDate checkOut) {
+            List<Integer> amenities = f.getAmenityIds() == null ? List.of() : f.getAmenityIds().stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .sorted()
+                    .toList();
+            return new Key(
+                    PropertyDocument.normalize(f.getCity()), PropertyDocument.normalize(f.getCountry()),
+                    PropertyDocument.normalize(f.getPropertyType()), PropertyDocument.normalize(f.getPlaceType()),
+                    f.getMinPrice(), f.getMaxPrice(),
+                    f.getBedrooms(), f.getBathrooms(), f.getBeds(), f.getMaxGuests(),
+                    f.getInstantBooking(), amenities,
+                    f.getChildrenAllowed(), f.getBabiesAllowed(), f.getPetsAllowed(),
+                    f.getSmokingAllowed(), f.getEventsAllowed(),
+                    checkIn, checkOut);
+        }
+
+        boolean dated() {
+            return checkIn != null;
+        }
+    }
+
+    // Générations d'une ville (ou de « toutes villes »)
+    private static final class Generations {
+        final AtomicLong content = new AtomicLong();
+        final AtomicLong availability = new AtomicLong();
+    }
+
+    // IDs + générations lues avant le chargement
+    private record Entry(int[] ids, long epoch, long content, long availability) {}
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${listing.search.result-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${listing.search.result-cache.max-ids:2000000}")
+    private long maxIds;
+
+    @Value("${listing.search.result-cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private Cache<Key, Entry> entries;
+
+    private final Map<String, Generations> generations = new ConcurrentHashMap<>();
+    private final Generations allCities = new Generations();
+
+    // Reconstruction des index : toutes les entrées sont périmées
+    private final AtomicLong epoch = new AtomicLong();
+
+    // propertyId → ville normalisée des properties ACTIVE (ancienne ville lors d'une modification)
+    private final Map<Integer, String> cityByProperty = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder propertyInvalidations = new LongAdder();
+    private final LongAdder availabilityInvalidations = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        entries = CacheBuilder.newBuilder()
+                .maximumWeight(maxIds)
+                .weigher((Key key, Entry entry) -> entry.ids().length + 1)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+
+        requests("hit", hits);
+        requests("miss", misses);
+        requests("stale", stale);
+        invalidations("property", propertyInvalidations);
+        invalidations("availability", availabilityInvalidations);
+        invalidations("rebuild", rebuilds);
+        Gauge.builder("listing.search.cache.hit.ratio", this, SearchResultCache::hitRatio)
+                .description("Part des recherches servies depuis le cache")
+                .register(meterRegistry);
+        Gauge.builder("listing.search.cache.size", entries, Cache::size)
+                .description("Recherches en cache")
+                .register(meterRegistry);
+        Gauge.builder("listing.search.cache.ids", entries, cache -> cache.asMap().values().stream()
+                        .mapToLong(entry -> entry.ids().length).sum())
+                .description("IDs de properties en cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("listing.search.cache.evictions", entries, cache -> cache.stats().evictionCount())
+                .description("Entrées évincées (taille ou TTL)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * IDs en cache pour cette recherche, sinon chargés par loader et mis en cache (liste non modifiable)
+     */
+    public List<Integer> getOrLoad(Key key, Supplier<List<Integer>> loader) {
+        if (!enabled) return loader.get();
+
+        Generations scope = scope(key.city());
+        long currentEpoch = epoch.get();
+        long content = scope.content.get();
+        long availability = key.dated() ? scope.availability.get() : 0;
+
+        Entry cached = entries.getIfPresent(key);
+        if (cached != null) {
+            if (cached.epoch() == currentEpoch && cached.content() == content
+                    && cached.availability() == availability) {
+                hits.increment();
+                return view(cached.ids());
+            }
+            stale.increment();
+        } else {
+            misses.increment();
+        }
+
+        int[] ids = Ints.toArray(loader.get());
+        entries.put(key, new Entry(ids, currentEpoch, content, availability));
+        return view(ids);
+    }
+
+    public double hitRatio() {
+        long hit = hits.sum();
+        long total = hit + misses.sum() + stale.sum();
+        return total == 0 ? 0 : hit / (double) total;
+    }
+
+    // ======================
+    // === INVALIDATION ===
+    // ======================
+
+    /** Index reconstruits : villes des properties ACTIVE rechargées, tout le cache périmé */
+    public void rebuild(Collection<PropertyDocument> documents) {
+        cityByProperty.clear();
+        for (PropertyDocument document : documents) {
+            if (document.isActive()) cityByProperty.put(document.propertyId(), cityOf(document));
+        }
+        epoch.incrementAndGet();
+        rebuilds.increment();
+    }
+
+    /**
+     * Property modifiée ou supprimée, appliquée après la mise à jour des index
+     * Ancienne et nouvelle ville invalidées (déplacement, publication, archivage)
+     */
+    public void onPropertyIndexed(PropertyChangedEvent event) {
+        String previous = event.isDeleted() || !event.document().isActive()
+                ? cityByProperty.remove(event.propertyId())
+                : cityByProperty.put(event.propertyId(), cityOf(event.document()));
+        boolean wasActive = previous != null;
+        boolean isActive = !event.isDeleted() && event.document().isActive();
+        if (!wasActive && !isActive) return; // jamais visible dans les résultats
+
+        allCities.content.incrementAndGet();
+        if (wasActive) bump(previous, false);
+        if (isActive && !Objects.equals(previous, cityOf(event.document()))) bump(cityOf(event.document()), false);
+        propertyInvalidations.increment();
+    }
+
+    // Après AvailabilityCalendarCache (ordre 0) : un chargement concurrent ne relit pas l'ancien calendrier
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onAvailabilityChanged(AvailabilityChangedEvent event) {
+        String city = cityByProperty.get(event.propertyId());
+        if (city == null) return; // property non ACTIVE : absente des résultats
+
+        allCities.availability.incrementAndGet();
+        bump(city, true);
+        availabilityInvalidations.increment();
+    }
+
+    // ======================
+    // === INTERNE ===
+    // ======================
+
+    private void bump(String city, boolean availability) {
+        if (city.isEmpty()) return; // sans ville : seules les recherches « toutes villes » sont concernées
+        Generations generation = generations.computeIfAbsent(city, c -> new Generations());
+        (availability ? generation.availability : generation.content).incrementAndGet();
+    }
+
+    private Generations scope(String city) {
+        return city == null ? allCities : generations.computeIfAbsent(city, c -> new Generations());
+    }
+
+    // "" pour une property sans ville (ConcurrentHashMap : pas de valeur null)
+    private static String cityOf(PropertyDocument document) {
+        return Objects.toString(PropertyDocument.normalize(document.city()), "");
+    }
+
+    private static List<Integer> view(int[] ids) {
+        return Collections.unmodifiableList(Ints.asList(ids));
+    }
+
+    private void requests(String result, LongAdder counter) {
+        FunctionCounter.builder("listing.search.cache.requests", counter, LongAdder::sum)
+                .description("Recherches par résultat du cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private void invalidations(String cause, LongAdder counter) {
+        FunctionCounter.builder("listing.search.cache.invalidations", counter, LongAdder::sum)
+                .description("Invalidations de ville par cause")
+                .tag("cause", cause)
+                .register(meterRegistry);
+    }
+}
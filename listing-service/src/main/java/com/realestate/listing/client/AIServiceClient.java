@@ -23,6 +23,14 @@ public interface AIServiceClient {
     @PostMapping("/price/predict")
     Map<String, Object> predictPrice(@RequestBody Map<String, Object> request);
 
+    /**
+     * 💰 Prédire le prix de plusieurs propriétés en une requête
+     * POST http://localhost:8090/price/predict/batch
+     * {"properties": [...]} → {"predictions": [...], "count": n} (même ordre)
+     */
+    @PostMapping("/price/predict/batch")
+    Map<String, Object> predictPriceBatch(@RequestBody Map<String, Object> request);
+
     /**
      * ⚠️ Évaluer le risque d'un locataire
      * POST http://localhost:8090/scoring/predict
@@ -0,0 +1,26 @@
+package com.realestate.listing.client;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.Map;
+
+/**
+ * Client Feign pour le cours de l'ETH (API publique CoinGecko)
+ * Appelé uniquement en arrière-plan par EthRateCache, jamais pendant une requête
+ */
+@FeignClient(
+        name = "eth-rate",
+        url = "${listing.pricing.eth-rate.url:https://api.coingecko.com}"
+)
+public interface EthRateClient {
+
+    /**
+     * GET https://api.coingecko.com/api/v3/simple/price?ids=ethereum&vs_currencies=eur
+     * → {"ethereum": {"eur": 3212.5}}
+     */
+    @GetMapping("/api/v3/simple/price")
+    Map<String, Map<String, Double>> simplePrice(@RequestParam("ids") String ids,
+                                                 @RequestParam("vs_currencies") String currencies);
+}
@@ -0,0 +1,91 @@
+package com.realestate.listing.config;
+
+import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Configuration RabbitMQ : événements consommés pour les caractéristiques de prix
+ * - booking.exchange (booking-service) : séjours confirmés / terminés / annulés
+ * - review.exchange (review-service) : nouveaux avis
+ * Files propres au listing-service : les autres consommateurs des mêmes événements ne sont pas affectés
+ */
+@Configuration
+public class RabbitMQConfig {
+
+    // Échanges (déclarés à l'identique par booking-service et review-service)
+    public static final String BOOKING_EXCHANGE = "booking.exchange";
+    public static final String REVIEW_EXCHANGE = "review.exchange";
+
+    // Files d'attente
+    public static final String PRICING_BOOKING_QUEUE = "listing.pricing.booking.queue";
+    public static final String PRICING_REVIEW_QUEUE = "listing.pricing.review.queue";
+
+    // Routing keys
+    public static final String BOOKING_CONFIRMED_KEY = "booking.confirmed";
+    public static final String BOOKING_CANCELLED_KEY = "booking.cancelled";
+    public static final String BOOKING_COMPLETED_KEY = "booking.completed";
+    public static final String REVIEW_CREATED_KEY = "review.created";
+
+    @Bean
+    public TopicExchange bookingExchange() {
+        return new TopicExchange(BOOKING_EXCHANGE);
+    }
+
+    @Bean
+    public TopicExchange reviewExchange() {
+        return new TopicExchange(REVIEW_EXCHANGE);
+    }
+
+    @Bean
+    public Queue pricingBookingQueue() {
+        return new Queue(PRICING_BOOKING_QUEUE, true);
+    }
+
+    @Bean
+    public Queue pricingReviewQueue() {
+        return new Queue(PRICING_REVIEW_QUEUE, true);
+    }
+
+    @Bean
+    public Declarables pricingBindings() {
+        return new Declarables(
+                BindingBuilder.bind(pricingBookingQueue()).to(bookingExchange()).with(BOOKING_CONFIRMED_KEY),
+                BindingBuilder.bind(pricingBookingQueue()).to(bookingExchange()).with(BOOKING_CANCELLED_KEY),
+                BindingBuilder.bind(pricingBookingQueue()).to(bookingExchange()).with(BOOKING_COMPLETED_KEY),
+                BindingBuilder.bind(pricingReviewQueue()).to(reviewExchange()).with(REVIEW_CREATED_KEY));
+    }
+
+    /**
+     * booking-service publie des Map sérialisées Java (convertisseur par défaut),
+     * review-service du JSON : conversion choisie selon le content-type du message
+     */
+    @Bean
+    public MessageConverter pricingMessageConverter() {
+        SimpleMessageConverter serialized = new SimpleMessageConverter();
+        serialized.setAllowedListPatterns(List.of("java.util.*", "java.lang.*", "java.time.*", "java.math.*"));
+
+        ContentTypeDelegatingMessageConverter converter = new ContentTypeDelegatingMessageConverter(serialized);
+        converter.addDelegate(MessageProperties.CONTENT_TYPE_JSON, new Jackson2JsonMessageConverter());
+        return converter;
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory pricingListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setMessageConverter(pricingMessageConverter());
+        return factory;
+    }
+}
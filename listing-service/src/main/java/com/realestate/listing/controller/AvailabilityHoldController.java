@@ -0,0 +1,58 @@
+package com.realestate.listing.controller;
+
+import com.realestate.listing.dto.HoldDTO;
+import com.realestate.listing.dto.HoldRequestDTO;
+import com.realestate.listing.service.AvailabilityHoldService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Blocages provisoires pendant le paiement (booking-service)
+ * 409 CONFLICT : période indisponible, hold expiré ou déjà utilisé
+ */
+@RestController
+@RequestMapping("/properties/{propertyId}/holds")
+public class AvailabilityHoldController {
+
+    @Autowired
+    private AvailabilityHoldService holdService;
+
+    @PostMapping
+    public ResponseEntity<HoldDTO> place(
+            @PathVariable Integer propertyId,
+            @RequestBody HoldRequestDTO request) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(holdService.placeHold(propertyId, request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PostMapping("/{holdId}/confirm")
+    public ResponseEntity<Void> confirm(
+            @PathVariable Integer propertyId,
+            @PathVariable Long holdId,
+            @RequestParam Integer reservationId) {
+        try {
+            holdService.confirmHold(propertyId, holdId, reservationId);
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @DeleteMapping("/{holdId}")
+    public ResponseEntity<Void> release(
+            @PathVariable Integer propertyId,
+            @PathVariable Long holdId) {
+        return holdService.releaseHold(propertyId, holdId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
@@ -1,21 +1,32 @@
 // src/main/java/com/realestate/listing/controller/PropertyController.java
 package com.realestate.listing.controller;
 
+import com.realestate.listing.cache.PropertyDetailCache;
+import com.realestate.listing.dto.AvailabilityBatchRequestDTO;
+import com.realestate.listing.dto.AvailabilityCalendarDTO;
+import com.realestate.listing.dto.CursorPageDTO;
+import com.realestate.listing.dto.NearbyPropertyDTO;
+import com.realestate.listing.dto.PhotoGalleryDTO;
 import com.realestate.listing.dto.PricePredictionRequestDTO;
+import com.realestate.listing.dto.PriceSeriesDTO;
 import com.realestate.listing.dto.PropertyCardDTO;
-import com.realestate.listing.dto.PropertyDetailDTO;
+import com.realestate.listing.dto.PropertyFacetsDTO;
+import com.realestate.listing.dto.PropertyFilterDTO;
+import com.realestate.listing.dto.PropertyImportReportDTO;
 import com.realestate.listing.dto.PropertySearchResultDTO;
 import com.realestate.listing.entity.Amenity;
 import com.realestate.listing.entity.Discount;
 import com.realestate.listing.entity.PriceHistory;
 import com.realestate.listing.entity.Property;
 import com.realestate.listing.entity.Property.PropertyStatus;
-import com.realestate.listing.mapper.PropertyCardMapper;
-import com.realestate.listing.mapper.PropertyDetailMapper;
+import com.realestate.listing.pricing.PriceQuote;
 import com.realestate.listing.repository.DiscountRepository;
+import com.realestate.listing.search.SearchSort;
 import com.realestate.listing.service.AmenityService;
+import com.realestate.listing.service.PhotoGalleryService;
 import com.realestate.listing.service.PriceHistoryService;
 import com.realestate.listing.service.PropertyAvailabilityService;
+import com.realestate.listing.service.PropertyImportService;
 import com.realestate.listing.service.PropertyService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,14 +34,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.realestate.listing.dto.PricePredictionRequestDTO;
 import com.realestate.listing.service.PricePredictionService;
@@ -49,13 +66,15 @@ public class PropertyController {
     private PropertyAvailabilityService availabilityService;
 
     @Autowired
-    private PriceHistoryService priceHistoryService;
+    private PropertyImportService propertyImportService;
 
     @Autowired
-    private PropertyDetailMapper propertyDetailMapper;
+    private PhotoGalleryService photoGalleryService;
 
     @Autowired
-    private PropertyCardMapper propertyCardMapper;
+    private PriceHistoryService priceHistoryService;
+
+
 
     @Autowired
     private AmenityService amenityService;
@@ -82,6 +101,39 @@ public class PropertyController {
     }
 
 
+    /**
+     * ✅ Disponibilité groupée : plusieurs properties, une seule requête
+     * Endpoint: POST /properties/availability/batch
+     * Body: { "propertyIds": [..], "start": "2025-07-01", "end": "2025-07-07" } (bornes incluses)
+     * Réponse: { propertyId: true si libre }
+     */
+    @PostMapping("/availability/batch")
+    public ResponseEntity<Map<Integer, Boolean>> checkAvailabilityBatch(
+            @RequestBody AvailabilityBatchRequestDTO request
+    ) {
+        try {
+            return ResponseEntity.ok(availabilityService.checkAvailabilityBatch(
+                    request.propertyIds(), request.start(), request.end()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+
+    /**
+     * ✅ Calendrier de disponibilité (mois courant + 12 mois) en un seul appel
+     * Endpoint: GET /properties/{id}/calendar
+     */
+    @GetMapping("/{id}/calendar")
+    public ResponseEntity<AvailabilityCalendarDTO> getCalendar(@PathVariable Integer id) {
+        try {
+            return ResponseEntity.ok(availabilityService.getCalendar(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+
     /**
      * ✅ NOUVEAU : Vérifier si un utilisateur est propriétaire
      * Endpoint: GET /api/properties/{id}/owner/{userId}
@@ -99,15 +151,41 @@ public class PropertyController {
     // === CRUD ===
     @GetMapping("/all")
     public Page<PropertyCardDTO> getAll(Pageable pageable) {
-        Page<Property> properties = propertyService.getAllProperties(pageable);
-        return properties.map(propertyCardMapper::toCardDTO);
+        return propertyService.getActivePropertyCards(pageable);
+    }
+
+    /**
+     * GET /properties/all/cursor?cursor=..&size=20&withTotal=false
+     * Pagination keyset (propertyId croissant) : coût constant quelle que soit la profondeur
+     */
+    @GetMapping("/all/cursor")
+    public ResponseEntity<CursorPageDTO<PropertyCardDTO>> getAllByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            return ResponseEntity.ok(propertyService.getActivePropertyCardsPage(cursor, size, withTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Property> getById(@PathVariable Integer id) {
-        return propertyService.getPropertyById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<byte[]> getById(
+            @PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return cachedJson(id, PropertyDetailCache.View.ENTITY, ifNoneMatch);
+    }
+
+    /**
+     * Vue réduite utilisée par booking-service (createBooking, checkOut)
+     * GET /properties/{id}/booking-view
+     */
+    @GetMapping("/{id}/booking-view")
+    public ResponseEntity<byte[]> getBookingView(
+            @PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return cachedJson(id, PropertyDetailCache.View.BOOKING, ifNoneMatch);
     }
 
     @PostMapping("/new")
@@ -119,6 +197,25 @@ public class PropertyController {
         }
     }
 
+    /**
+     * ========================================
+     * IMPORT EN MASSE
+     * POST /properties/import?userId=..
+     * Content-Type: application/x-ndjson (un objet par ligne) ou text/csv (en-tête = noms des champs)
+     * Properties créées en DRAFT ; bilan avec les erreurs par ligne
+     * ========================================
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<PropertyImportReportDTO> importProperties(
+            @RequestParam Integer userId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        boolean csv = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"));
+        return ResponseEntity.ok(csv
+                ? propertyImportService.importCsv(body, userId)
+                : propertyImportService.importNdjson(body, userId));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Property> update(@PathVariable Integer id, @RequestBody Property property) {
         return ResponseEntity.ok(propertyService.updateProperty(id, property));
@@ -132,9 +229,9 @@ public class PropertyController {
 
     @GetMapping("/my")
     public List<PropertyCardDTO> getMyProperties(@RequestParam Integer userId) {
-        return propertyService.getAllByUserId(userId).stream()
-                .map(propertyCardMapper::toCardDTO)
-                .toList();
+        // L'hôte consultera probablement les prix suggérés : précalcul en arrière-plan
+        pricePredictionService.requestHostWarmup(userId);
+        return propertyService.getCardsByUserId(userId);
     }
 
     @GetMapping("/my/status")
@@ -176,16 +273,136 @@ public class PropertyController {
         int totalGuests = (adults != null ? adults : 1) + children + babies;
 
         // Recherche avec les filtres (sans vérification de disponibilité)
-        return propertyService.searchProperties(
-                city, country, propertyType, placeType,
-                minPrice, maxPrice, bedrooms, bathrooms, beds, totalGuests,
-                instantBooking, amenityIds,
-                children > 0 ? true : null,
-                babies > 0 ? true : null,
-                pets > 0 ? true : null,
-                smokingAllowed,
-                eventsAllowed
-        );
+        return propertyService.searchProperties(toFilter(
+                city, country, totalGuests, children, babies, pets, propertyType, placeType,
+                minPrice, maxPrice, bedrooms, bathrooms, beds, instantBooking, amenityIds,
+                smokingAllowed, eventsAllowed));
+    }
+
+    /**
+     * ========================================
+     * FILTRAGE PAR CURSEUR
+     * GET /properties/filter/cursor?...&cursor=..&size=20&withTotal=false
+     * Mêmes filtres que /filter, pages bornées (max 100) triées par propertyId
+     * ========================================
+     */
+    @GetMapping("/filter/cursor")
+    public ResponseEntity<CursorPageDTO<PropertyCardDTO>> filterPropertiesByCursor(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) Integer adults,
+            @RequestParam(defaultValue = "0") Integer children,
+            @RequestParam(defaultValue = "0") Integer babies,
+            @RequestParam(defaultValue = "0") Integer pets,
+            @RequestParam(required = false) String propertyType,
+            @RequestParam(required = false) String placeType,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer bedrooms,
+            @RequestParam(required = false) Integer bathrooms,
+            @RequestParam(required = false) Integer beds,
+            @RequestParam(required = false) Boolean instantBooking,
+            @RequestParam(required = false) List<Integer> amenityIds,
+            @RequestParam(required = false) Boolean smokingAllowed,
+            @RequestParam(required = false) Boolean eventsAllowed,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+
+        int totalGuests = (adults != null ? adults : 1) + children + babies;
+        PropertyFilterDTO filter = toFilter(
+                city, country, totalGuests, children, babies, pets, propertyType, placeType,
+                minPrice, maxPrice, bedrooms, bathrooms, beds, instantBooking, amenityIds,
+                smokingAllowed, eventsAllowed);
+        try {
+            return ResponseEntity.ok(propertyService.searchPropertyCardsPage(filter, cursor, size, withTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * ========================================
+     * FACETTES DU PANNEAU DE FILTRES
+     * GET /properties/facets?city=..&propertyType=..&amenityIds=..
+     * Mêmes filtres que /filter ; compteurs par type, amenity, règle
+     * et tranche de prix calculés sur l'index en mémoire
+     * ========================================
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<PropertyFacetsDTO> getFacets(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) Integer adults,
+            @RequestParam(defaultValue = "0") Integer children,
+            @RequestParam(defaultValue = "0") Integer babies,
+            @RequestParam(defaultValue = "0") Integer pets,
+            @RequestParam(required = false) String propertyType,
+            @RequestParam(required = false) String placeType,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer bedrooms,
+            @RequestParam(required = false) Integer bathrooms,
+            @RequestParam(required = false) Integer beds,
+            @RequestParam(required = false) Boolean instantBooking,
+            @RequestParam(required = false) List<Integer> amenityIds,
+            @RequestParam(required = false) Boolean smokingAllowed,
+            @RequestParam(required = false) Boolean eventsAllowed) {
+
+        int totalGuests = (adults != null ? adults : 1) + children + babies;
+        PropertyFilterDTO filter = toFilter(
+                city, country, totalGuests, children, babies, pets, propertyType, placeType,
+                minPrice, maxPrice, bedrooms, bathrooms, beds, instantBooking, amenityIds,
+                smokingAllowed, eventsAllowed);
+        try {
+            return ResponseEntity.ok(propertyService.getFacets(filter));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).build();
+        }
+    }
+
+    /**
+     * ========================================
+     * RECHERCHE PLEIN TEXTE
+     * GET /properties/search/text?q=piscine vue mer&city=..&...&limit=20
+     * Titre, description, quartier et amenities ; mêmes filtres que /filter ;
+     * triée par pertinence (max 100)
+     * ========================================
+     */
+    @GetMapping("/search/text")
+    public ResponseEntity<List<PropertyCardDTO>> searchByText(
+            @RequestParam String q,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) Integer adults,
+            @RequestParam(defaultValue = "0") Integer children,
+            @RequestParam(defaultValue = "0") Integer babies,
+            @RequestParam(defaultValue = "0") Integer pets,
+            @RequestParam(required = false) String propertyType,
+            @RequestParam(required = false) String placeType,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer bedrooms,
+            @RequestParam(required = false) Integer bathrooms,
+            @RequestParam(required = false) Integer beds,
+            @RequestParam(required = false) Boolean instantBooking,
+            @RequestParam(required = false) List<Integer> amenityIds,
+            @RequestParam(required = false) Boolean smokingAllowed,
+            @RequestParam(required = false) Boolean eventsAllowed,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        int totalGuests = (adults != null ? adults : 1) + children + babies;
+        PropertyFilterDTO filter = toFilter(
+                city, country, totalGuests, children, babies, pets, propertyType, placeType,
+                minPrice, maxPrice, bedrooms, bathrooms, beds, instantBooking, amenityIds,
+                smokingAllowed, eventsAllowed);
+        try {
+            return ResponseEntity.ok(propertyService.searchByText(q, filter, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).build();
+        }
     }
 
     /**
@@ -195,10 +412,13 @@ public class PropertyController {
      * <p>
      * Utilisé quand on recherche depuis la search bar
      * AVEC dates (checkIn/checkOut REQUIRED)
+     * <p>
+     * Avec sort=total_price|price_per_night|rating|distance|newest (&lat=..&lng=.. pour distance) :
+     * tri côté serveur, seule la page demandée (page, size max 100) est chargée et tarifée
      * ========================================
      */
     @GetMapping("/search/tenant")
-    public List<PropertySearchResultDTO> searchForTenant(
+    public ResponseEntity<List<PropertySearchResultDTO>> searchForTenant(
             @RequestParam(required = false) String city,
             @RequestParam(required = false) String country,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
@@ -219,68 +439,198 @@ public class PropertyController {
             @RequestParam(required = false) Boolean smokingAllowed,
             @RequestParam(required = false) Boolean eventsAllowed,
             @RequestParam(defaultValue = "false") boolean isFirstBooking,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bookingDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bookingDate,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lng,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size) {
 
         LocalDate today = LocalDate.now();
         LocalDate finalBookingDate = bookingDate != null ? bookingDate : today;
         int totalGuests = adults + children + babies;
+        PropertyFilterDTO filter = toFilter(
+                city, country, totalGuests, children, babies, pets, propertyType, placeType,
+                minPrice, maxPrice, bedrooms, bathrooms, beds, instantBooking, amenityIds,
+                smokingAllowed, eventsAllowed);
+
+        // === Tri serveur : top-K, seule la page est tarifée ===
+        if (sort != null && !sort.isBlank()) {
+            try {
+                List<Property> ranked = propertyService.searchAvailableRanked(
+                        filter, checkIn, checkOut, finalBookingDate,
+                        SearchSort.parse(sort), lat, lng, page, size);
+                return ResponseEntity.ok(toSearchResults(ranked, checkIn, checkOut, isFirstBooking, finalBookingDate));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(503).build();
+            }
+        }
+
+        // === 1-2. Filtres de base + disponibilité (IDs mis en cache par ville et par dates) ===
+        List<Property> available;
+        try {
+            available = propertyService.searchAvailableProperties(filter, checkIn, checkOut);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // === 3. Calcul du prix (une passe pour tout le lot) + DTO ===
+        return ResponseEntity.ok(toSearchResults(available, checkIn, checkOut, isFirstBooking, finalBookingDate));
+    }
+
+    /**
+     * ========================================
+     * RECHERCHE AVEC DATES PAR CURSEUR
+     * GET /properties/search/tenant/cursor?...&cursor=..&size=20&withTotal=false
+     * Seuls les candidats nécessaires pour remplir la page sont vérifiés et tarifés
+     * totalEstimate = candidats avant vérification de disponibilité
+     * ========================================
+     */
+    @GetMapping("/search/tenant/cursor")
+    public ResponseEntity<CursorPageDTO<PropertySearchResultDTO>> searchForTenantByCursor(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String country,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut,
+            @RequestParam Integer adults,
+            @RequestParam(defaultValue = "0") Integer children,
+            @RequestParam(defaultValue = "0") Integer babies,
+            @RequestParam(defaultValue = "0") Integer pets,
+            @RequestParam(required = false) String propertyType,
+            @RequestParam(required = false) String placeType,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer bedrooms,
+            @RequestParam(required = false) Integer bathrooms,
+            @RequestParam(required = false) Integer beds,
+            @RequestParam(required = false) Boolean instantBooking,
+            @RequestParam(required = false) List<Integer> amenityIds,
+            @RequestParam(required = false) Boolean smokingAllowed,
+            @RequestParam(required = false) Boolean eventsAllowed,
+            @RequestParam(defaultValue = "false") boolean isFirstBooking,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bookingDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+
+        if (!checkOut.isAfter(checkIn)) {
+            return ResponseEntity.badRequest().build();
+        }
+        LocalDate finalBookingDate = bookingDate != null ? bookingDate : LocalDate.now();
+        int totalGuests = adults + children + babies;
+        PropertyFilterDTO filter = toFilter(
+                city, country, totalGuests, children, babies, pets, propertyType, placeType,
+                minPrice, maxPrice, bedrooms, bathrooms, beds, instantBooking, amenityIds,
+                smokingAllowed, eventsAllowed);
+
+        try {
+            CursorPageDTO<Property> page = propertyService.searchAvailablePropertiesPage(
+                    filter, checkIn, checkOut, cursor, size, withTotal);
+            return ResponseEntity.ok(new CursorPageDTO<>(
+                    toSearchResults(page.items(), checkIn, checkOut, isFirstBooking, finalBookingDate),
+                    page.size(), page.nextCursor(), page.totalEstimate()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private PropertyFilterDTO toFilter(String city, String country, int totalGuests,
+                                       int children, int babies, int pets,
+                                       String propertyType, String placeType,
+                                       Double minPrice, Double maxPrice,
+                                       Integer bedrooms, Integer bathrooms, Integer beds,
+                                       Boolean instantBooking, List<Integer> amenityIds,
+                                       Boolean smokingAllowed, Boolean eventsAllowed) {
+        return PropertyFilterDTO.builder()
+                .city(city).country(country)
+                .propertyType(propertyType).placeType(placeType)
+                .minPrice(minPrice).maxPrice(maxPrice)
+                .bedrooms(bedrooms).bathrooms(bathrooms).beds(beds).maxGuests(totalGuests)
+                .instantBooking(instantBooking)
+                .amenityIds(amenityIds)
+                .childrenAllowed(children > 0 ? true : null)
+                .babiesAllowed(babies > 0 ? true : null)
+                .petsAllowed(pets > 0 ? true : null)
+                .smokingAllowed(smokingAllowed)
+                .eventsAllowed(eventsAllowed)
+                .build();
+    }
+
+    private List<PropertySearchResultDTO> toSearchResults(List<Property> available,
+                                                          LocalDate checkIn, LocalDate checkOut,
+                                                          boolean isFirstBooking, LocalDate bookingDate) {
         long nights = ChronoUnit.DAYS.between(checkIn, checkOut);
+        List<PriceQuote> quotes = propertyService.calculateTotalPrices(
+                available, checkIn, checkOut, isFirstBooking, bookingDate);
+
+        List<PropertySearchResultDTO> results = new ArrayList<>(available.size());
+        for (int i = 0; i < available.size(); i++) {
+            Property p = available.get(i);
+            PriceQuote quote = quotes.get(i);
+            results.add(new PropertySearchResultDTO(
+                    p.getPropertyId(),
+                    p.getTitle(),
+                    p.getCity(),
+                    p.getCountry(),
+                    quote.averagePricePerNight(),
+                    quote.totalPrice(),
+                    quote.discountPercentage(),
+                    quote.discountType(),
+                    checkIn,
+                    checkOut,
+                    (int) nights
+            ));
+        }
+        return results;
+    }
 
-        // === 1. Filtres de base ===
-        List<Property> candidates = propertyService.searchProperties(
-                city, country, propertyType, placeType,
-                minPrice, maxPrice, bedrooms, bathrooms, beds, totalGuests,
-                instantBooking, amenityIds,
-                children > 0 ? true : null,
-                babies > 0 ? true : null,
-                pets > 0 ? true : null,
-                smokingAllowed,
-                eventsAllowed
-        );
-
-        // === 2. Disponibilité ===
-        List<Property> available = candidates.stream()
-                .filter(p -> !availabilityService.hasConflict(p.getPropertyId(), checkIn, checkOut.minusDays(1)))
-                .toList();
-
-        // === 3. Calcul du prix + DTO ===
-        return available.stream()
-                .map(p -> {
-                    double total = propertyService.calculateTotalPrice(p, checkIn, checkOut, isFirstBooking, finalBookingDate);
-                    double avgPerNight = total / nights;
-
-                    // Trouver la réduction appliquée
-                    double bestDiscount = 0.0;
-                    String discountType = "Aucune";
-                    for (Discount d : p.getDiscounts()) {
-                        if (d.getMinNights() != null && nights < d.getMinNights()) continue;
-                        boolean applies = switch (d.getDiscountType()) {
-                            case "first_booking" -> isFirstBooking;
-                            case "last_minute" -> ChronoUnit.DAYS.between(finalBookingDate, checkIn) <= 14;
-                            case "weekly", "monthly" -> true;
-                            default -> false;
-                        };
-                        if (applies && d.getDiscountPercentage() > bestDiscount) {
-                            bestDiscount = d.getDiscountPercentage();
-                            discountType = d.getDiscountType();
-                        }
-                    }
+    /**
+     * ========================================
+     * RECHERCHE GÉOGRAPHIQUE : RAYON
+     * GET /properties/search/nearby?lat=..&lng=..&radiusKm=10&limit=100
+     * Triée par distance croissante
+     * ========================================
+     */
+    @GetMapping("/search/nearby")
+    public ResponseEntity<List<NearbyPropertyDTO>> searchNearby(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "10") double radiusKm,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(propertyService.searchNearby(lat, lng, radiusKm, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).build();
+        }
+    }
 
-                    return new PropertySearchResultDTO(
-                            p.getPropertyId(),
-                            p.getTitle(),
-                            p.getCity(),
-                            p.getCountry(),
-                            avgPerNight,
-                            total,
-                            bestDiscount,
-                            discountType,
-                            checkIn,
-                            checkOut,
-                            (int) nights
-                    );
-                })
-                .toList();
+    /**
+     * ========================================
+     * RECHERCHE GÉOGRAPHIQUE : VIEWPORT DE LA CARTE
+     * GET /properties/search/bbox?south=..&west=..&north=..&east=..&limit=200
+     * Triée par distance au centre du viewport (ou à lat/lng si fournis)
+     * ========================================
+     */
+    @GetMapping("/search/bbox")
+    public ResponseEntity<List<NearbyPropertyDTO>> searchInBoundingBox(
+            @RequestParam double south,
+            @RequestParam double west,
+            @RequestParam double north,
+            @RequestParam double east,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lng,
+            @RequestParam(defaultValue = "200") int limit) {
+        try {
+            return ResponseEntity.ok(propertyService.searchInBoundingBox(south, west, north, east, lat, lng, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).build();
+        }
     }
 
     @PatchMapping("/{id}/publish")
@@ -293,12 +643,44 @@ public class PropertyController {
         return priceHistoryService.getByPropertyId(id);
     }
 
+    // Série pour graphiques : changements récents + agrégats jour / semaine, ré-échantillonnés
+    @GetMapping("/{id}/price-history/series")
+    public ResponseEntity<PriceSeriesDTO> getPriceSeries(
+            @PathVariable Integer id,
+            @RequestParam(defaultValue = "Night price") String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "200") int points) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusYears(1);
+        try {
+            return ResponseEntity.ok(priceHistoryService.getSeries(id, type, start, end, points));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}/details")
-    public ResponseEntity<PropertyDetailDTO> getPropertyDetails(@PathVariable Integer id) {
-        return propertyService.getPropertyById(id)
-                .map(property -> {
-                    PropertyDetailDTO dto = propertyDetailMapper.toDTO(property);
-                    return ResponseEntity.ok(dto);
+    public ResponseEntity<byte[]> getPropertyDetails(
+            @PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return cachedJson(id, PropertyDetailCache.View.DETAIL, ifNoneMatch);
+    }
+
+    /**
+     * JSON déjà sérialisé depuis le cache, 304 si l'ETag du client est à jour
+     */
+    private ResponseEntity<byte[]> cachedJson(Integer id, PropertyDetailCache.View view, String ifNoneMatch) {
+        return propertyService.getPropertyJson(id, view)
+                .map(entry -> {
+                    String etag = entry.etag(id, view);
+                    if (etag.equals(ifNoneMatch)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<byte[]>build();
+                    }
+                    return ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .eTag(etag)
+                            .body(entry.json());
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -378,37 +760,84 @@ public class PropertyController {
 
     /**
      * Définir une photo comme couverture
+     * Réponse : nouvel ordre de la galerie
      */
     @PutMapping("/{propertyId}/photos/{photoId}/cover")
-    public ResponseEntity<Void> setPhotoCover(
+    public ResponseEntity<PhotoGalleryDTO> setPhotoCover(
             @PathVariable Integer propertyId,
             @PathVariable Integer photoId
     ) {
-        propertyService.setPhotoCover(propertyId, photoId);
-        return ResponseEntity.ok().build();
+        try {
+            return galleryResponse(propertyService.setPhotoCover(propertyId, photoId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
-     * Réorganiser les photos
+     * Réorganiser les photos (liste éventuellement partielle, couverture inchangée)
+     * Réponse : nouvel ordre de la galerie
      */
     @PutMapping("/{propertyId}/photos/reorder")
-    public ResponseEntity<Void> reorderPhotos(
+    public ResponseEntity<PhotoGalleryDTO> reorderPhotos(
             @PathVariable Integer propertyId,
             @RequestBody Map<String, List<Integer>> request
     ) {
         List<Integer> photoIds = request.get("photoIds");
-        propertyService.reorderPhotos(propertyId, photoIds);
-        return ResponseEntity.ok().build();
+        if (photoIds == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return galleryResponse(propertyService.reorderPhotos(propertyId, photoIds));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
+    /**
+     * ========================================
+     * ORDRE DE LA GALERIE (VERSIONNÉ)
+     * GET /properties/{propertyId}/photos/order → ordre + ETag
+     * PUT /properties/{propertyId}/photos/order  {"photoIds": [...]}  + If-Match: <ETag>
+     * Ordre complet, la première photo devient la couverture ;
+     * 409 si la galerie a changé depuis la lecture (upload, suppression, autre réordonnancement)
+     * ========================================
+     */
+    @GetMapping("/{propertyId}/photos/order")
+    public ResponseEntity<PhotoGalleryDTO> getPhotoOrder(@PathVariable Integer propertyId) {
+        return galleryResponse(photoGalleryService.getGallery(propertyId));
+    }
 
+    @PutMapping("/{propertyId}/photos/order")
+    public ResponseEntity<PhotoGalleryDTO> updatePhotoOrder(
+            @PathVariable Integer propertyId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody Map<String, List<Integer>> request
+    ) {
+        List<Integer> photoIds = request.get("photoIds");
+        if (photoIds == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return galleryResponse(photoGalleryService.reorder(propertyId, photoIds, unquoteETag(ifMatch)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
 
+    private static ResponseEntity<PhotoGalleryDTO> galleryResponse(PhotoGalleryDTO gallery) {
+        return ResponseEntity.ok().eTag(gallery.version()).body(gallery);
+    }
 
-
-
-
-
-
+    // "g-abc" ou W/"g-abc" → g-abc ; absent ou * → pas de contrôle
+    private static String unquoteETag(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) value = value.substring(2);
+        return value.replace("\"", "");
+    }
 
     /**
      * ✅ NOUVEAU: Suggérer le prix optimal pour une propriété EXISTANTE
@@ -430,6 +859,24 @@ public class PropertyController {
         }
     }
 
+    /**
+     * Prix suggérés de toutes les propriétés d'un hôte
+     * GET /properties/my/suggest-price?userId=
+     *
+     * Réponse : propertyId → même contenu que /{id}/suggest-price
+     */
+    @GetMapping("/my/suggest-price")
+    public ResponseEntity<?> suggestPricesForHost(@RequestParam Integer userId) {
+        try {
+            return ResponseEntity.ok(pricePredictionService.suggestForHost(userId));
+        } catch (Exception e) {
+            logger.error("❌ Failed to suggest prices for host {}", userId, e);
+            return ResponseEntity.status(500).body(
+                    Map.of("error", "Impossible de calculer les prix suggérés", "message", e.getMessage())
+            );
+        }
+    }
+
     /**
      * ✅ NOUVEAU: Suggérer le prix pour une NOUVELLE propriété (avant création)
      * POST /properties/suggest-price
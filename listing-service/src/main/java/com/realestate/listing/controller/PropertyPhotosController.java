@@ -31,6 +31,13 @@ public class PropertyPhotosController {
         return photosService.updatePhoto(photoId, photo);
     }
 
+    // Appelé par media-service après l'écriture de property_photos
+    @PostMapping("/changed")
+    public ResponseEntity<Void> changed(@PathVariable Integer propertyId) {
+        photosService.notifyExternalChange(propertyId);
+        return ResponseEntity.noContent().build();
+    }
+
     @DeleteMapping("/{photoId}")
     public ResponseEntity<Void> delete(@PathVariable Integer photoId) {
         photosService.deletePhoto(photoId);
@@ -1,15 +1,23 @@
 // src/main/java/com/realestate/listing/controller/PropertyVersionController.java
 package com.realestate.listing.controller;
 
+import com.realestate.listing.dto.CursorPageDTO;
 import com.realestate.listing.dto.PropertyVersionDTO;
+import com.realestate.listing.dto.PropertyVersionDiffDTO;
+import com.realestate.listing.dto.PropertyVersionStateDTO;
 import com.realestate.listing.entity.PropertyVersion;
 import com.realestate.listing.mapper.PropertyVersionMapper;
+import com.realestate.listing.search.PageCursor;
+import com.realestate.listing.service.PropertyVersionHistoryService;
 import com.realestate.listing.service.PropertyVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @RestController
@@ -22,18 +30,49 @@ public class PropertyVersionController {
     @Autowired
     private PropertyVersionMapper versionMapper;
 
+    @Autowired
+    private PropertyVersionHistoryService historyService;
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     // === CRUD avec DTO ===
 
+    // Contenu des versions reconstruit depuis l'historique compact (PropertyVersionHistoryService)
+
+    /**
+     * GET /property-versions?cursor=..&size=20
+     * Pagination keyset (versionId croissant) : seules les versions de la page sont reconstruites
+     */
     @GetMapping
-    public List<PropertyVersionDTO> getAll() {
-        return versionService.getAllVersions().stream()
+    public ResponseEntity<CursorPageDTO<PropertyVersionDTO>> getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        int afterId;
+        int limit;
+        try {
+            afterId = PageCursor.decode(cursor);
+            limit = PageCursor.clampSize(size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // limit + 1 : savoir s'il reste une page sans requête COUNT
+        List<PropertyVersion> rows = versionService.getVersionsAfter(afterId, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<PropertyVersion> page = hasMore ? rows.subList(0, limit) : rows;
+
+        List<PropertyVersionDTO> items = page.stream()
+                .map(version -> historyService.reconstruct(version.getVersionId()))
+                .flatMap(Optional::stream)
                 .map(versionMapper::toDTO)
                 .collect(Collectors.toList());
+        String next = hasMore ? PageCursor.encode(page.get(page.size() - 1).getVersionId()) : null;
+        return ResponseEntity.ok(new CursorPageDTO<>(items, limit, next, null));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<PropertyVersionDTO> getById(@PathVariable Integer id) {
-        return versionService.getVersionByIdWithSnapshots(id)  // ← Changé
+        return historyService.reconstruct(id)
                 .map(versionMapper::toDTO)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
@@ -44,7 +83,7 @@ public class PropertyVersionController {
     /** Toutes les versions d'une propriété */
     @GetMapping("/property/{propertyId}")
     public List<PropertyVersionDTO> getAllByProperty(@PathVariable Integer propertyId) {
-        return versionService.getAllByPropertyId(propertyId).stream()
+        return historyService.reconstructAll(propertyId).stream()
                 .map(versionMapper::toDTO)
                 .collect(Collectors.toList());
     }
@@ -54,18 +93,60 @@ public class PropertyVersionController {
     public ResponseEntity<PropertyVersionDTO> getByVersion(
             @PathVariable Integer propertyId,
             @PathVariable Integer numVersion) {
-        return versionService.getByPropertyIdAndVersion(propertyId, numVersion)
+        return historyService.reconstruct(propertyId, numVersion)
                 .map(versionMapper::toDTO)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    /** Version actuelle */
+    /**
+     * Version actuelle
+     * ensureCurrent=true : les modifications encore en file sont versionnées avant de répondre
+     * (versionId garanti à jour, ex. pour une réservation)
+     */
     @GetMapping("/property/{propertyId}/current")
-    public ResponseEntity<PropertyVersionDTO> getCurrent(@PathVariable Integer propertyId) {
-        return versionService.getCurrentVersion(propertyId)
+    public ResponseEntity<PropertyVersionDTO> getCurrent(
+            @PathVariable Integer propertyId,
+            @RequestParam(defaultValue = "false") boolean ensureCurrent) {
+        return (ensureCurrent
+                ? versionService.ensureCurrentVersion(propertyId)
+                : versionService.getCurrentVersion(propertyId))
+                .flatMap(version -> historyService.reconstruct(propertyId, version.getNumVersion()))
                 .map(versionMapper::toDTO)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
-}
\ No newline at end of file
+
+    // ==========================================
+    // === HISTORIQUE COMPACT (champs modifiés) ===
+    // ==========================================
+
+    /** État de la property à une version, reconstruit depuis le dernier checkpoint */
+    @GetMapping("/property/{propertyId}/version/{numVersion}/state")
+    public ResponseEntity<PropertyVersionStateDTO> getState(
+            @PathVariable Integer propertyId,
+            @PathVariable Integer numVersion) {
+        return historyService.reconstruct(propertyId, numVersion)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /** Champs modifiés par version, après la version "after" (ordre croissant) */
+    @GetMapping("/property/{propertyId}/diffs")
+    public ResponseEntity<List<PropertyVersionDiffDTO>> getDiffs(
+            @PathVariable Integer propertyId,
+            @RequestParam(defaultValue = "0") Integer after,
+            @RequestParam(defaultValue = "50") int limit) {
+        if (limit <= 0 || limit > 500) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(historyService.getDiffs(propertyId, after, limit));
+    }
+
+    /** Historique complet en NDJSON (un diff par ligne) */
+    @GetMapping("/property/{propertyId}/history")
+    public ResponseEntity<StreamingResponseBody> streamHistory(@PathVariable Integer propertyId) {
+        StreamingResponseBody body = out -> historyService.streamDiffs(propertyId, out);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
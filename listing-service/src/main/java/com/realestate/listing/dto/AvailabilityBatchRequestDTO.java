@@ -0,0 +1,13 @@
+package com.realestate.listing.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Requête de disponibilité groupée : plusieurs properties, une même période (bornes incluses)
+ */
+public record AvailabilityBatchRequestDTO(
+        List<Integer> propertyIds,
+        LocalDate start,
+        LocalDate end
+) {}
@@ -0,0 +1,15 @@
+package com.realestate.listing.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Calendrier de disponibilité encodé en bitmap
+ * blockedDays : Base64 d'octets little-endian, bit i = jour (start + i), 1 = bloqué
+ * (les octets nuls de fin sont omis)
+ */
+public record AvailabilityCalendarDTO(
+        Integer propertyId,
+        LocalDate start,
+        Integer days,
+        String blockedDays
+) {}
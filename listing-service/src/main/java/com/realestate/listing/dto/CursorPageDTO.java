@@ -0,0 +1,15 @@
+package com.realestate.listing.dto;
+
+import java.util.List;
+
+/**
+ * Page d'une pagination par curseur (keyset)
+ * - nextCursor : jeton opaque à renvoyer pour la page suivante, null en fin de liste
+ * - totalEstimate : nombre total estimé de résultats, null si non demandé
+ */
+public record CursorPageDTO<T>(
+        List<T> items,
+        Integer size,
+        String nextCursor,
+        Long totalEstimate
+) {}
@@ -0,0 +1,12 @@
+package com.realestate.listing.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record HoldDTO(
+        Long holdId,
+        Integer propertyId,
+        LocalDate start,
+        LocalDate end,
+        LocalDateTime expiresAt
+) {}
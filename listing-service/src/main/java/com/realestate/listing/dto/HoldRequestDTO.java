@@ -0,0 +1,14 @@
+package com.realestate.listing.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Demande de blocage provisoire [start, end] (bornes incluses)
+ * ttlSeconds null → durée par défaut (listing.holds.default-ttl-seconds)
+ */
+public record HoldRequestDTO(
+        LocalDate start,
+        LocalDate end,
+        String holder,
+        Integer ttlSeconds
+) {}
@@ -19,7 +19,7 @@ public class LocationDTO {
     private String city;
     private String country;
     private String displayName;
-
+    private Long propertyCount;   // properties ACTIVE (null pour la liste statique)
 
     /**
      * Constructeur avec génération automatique du displayName
@@ -28,7 +28,7 @@ public class LocationDTO {
         this.city = city;
         this.country = country;
         this.displayName = city + ", " + country;
-
+        this.propertyCount = propertyCount;
     }
 
     /**
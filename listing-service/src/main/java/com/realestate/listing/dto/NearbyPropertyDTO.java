@@ -0,0 +1,15 @@
+package com.realestate.listing.dto;
+
+/**
+ * Résultat d'une recherche géographique (carte) : construit depuis l'index, sans requête BDD
+ */
+public record NearbyPropertyDTO(
+        Integer propertyId,
+        String title,
+        String city,
+        String country,
+        Double latitude,
+        Double longitude,
+        Double pricePerNight,
+        Double distanceKm
+) {}
@@ -0,0 +1,16 @@
+package com.realestate.listing.dto;
+
+import java.util.List;
+
+/**
+ * Ordre de la galerie photo d'une property
+ * - version : jeton de l'état de la galerie (ETag), à renvoyer en If-Match pour modifier l'ordre
+ * - photos : dans l'ordre d'affichage (displayOrder 1..N), la première est la couverture
+ */
+public record PhotoGalleryDTO(
+        String version,
+        List<PhotoOrder> photos
+) {
+
+    public record PhotoOrder(Integer photoId, int displayOrder, boolean isCover) {}
+}
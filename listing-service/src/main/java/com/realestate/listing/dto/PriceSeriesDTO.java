@@ -0,0 +1,22 @@
+package com.realestate.listing.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Série de prix ré-échantillonnée pour les graphiques (GET /properties/{id}/price-history/series)
+ * - bucketSeconds : largeur d'un point ; un point agrège les changements bruts et les agrégats
+ *   jour / semaine qui commencent dans [start, start + bucketSeconds[
+ * - points vides omis ; last = dernier prix connu dans le point
+ */
+public record PriceSeriesDTO(
+        Integer propertyId,
+        String priceType,
+        LocalDateTime from,
+        LocalDateTime to,
+        long bucketSeconds,
+        List<Point> points
+) {
+
+    public record Point(LocalDateTime start, double min, double max, double avg, double last, int changes) {}
+}
@@ -0,0 +1,47 @@
+package com.realestate.listing.dto;
+
+/**
+ * Vue réduite d'une property pour booking-service (création et checkout d'une réservation) :
+ * les champs lus par son PropertyDTO, sans les collections de l'entité
+ */
+public record PropertyBookingViewDTO(
+        Integer propertyId,
+        Integer userId,
+        String title,
+        String description,
+        String propertyType,
+        String city,
+        String country,
+
+        // Capacités
+        Integer maxGuests,
+        Integer bedrooms,
+        Integer beds,
+        Integer bathrooms,
+
+        // Prix
+        Double pricePerNight,
+        Double weekendPricePerNight,
+        Double cleaningFee,
+        Double petFee,
+        Double platformFeePercentage,
+
+        // Règles de réservation
+        Integer minStayNights,
+        Integer maxStayNights,
+        Integer bookingAdvanceDays,
+        Boolean instantBooking,
+        String cancellationPolicy,
+
+        // Horaires
+        String checkInTimeStart,
+        String checkInTimeEnd,
+        String checkOutTime,
+
+        // Statut
+        String status,
+
+        // Blockchain
+        String blockchainPropertyId,
+        String blockchainTxHash
+) {}
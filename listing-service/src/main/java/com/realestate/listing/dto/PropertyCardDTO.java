@@ -1,6 +1,6 @@
 package com.realestate.listing.dto;
 
-
+import com.realestate.listing.entity.Property;
 import lombok.*;
 
 /**
@@ -35,4 +35,29 @@ public class PropertyCardDTO {
     private Double averageRating;
     private Integer reviewCount;
     private String status;
+
+    /**
+     * Constructeur de projection JPQL (PropertyRepository.CARD_SELECT) :
+     * la card et sa photo principale en une seule requête
+     */
+    public PropertyCardDTO(Integer propertyId, String title, String city, String country,
+                           String propertyType, String placeType,
+                           Integer maxGuests, Integer bedrooms, Integer beds, Integer bathrooms,
+                           Double pricePerNight, Double weekendPricePerNight,
+                           String mainPhotoUrl, Property.PropertyStatus status) {
+        this.propertyId = propertyId;
+        this.title = title;
+        this.city = city;
+        this.country = country;
+        this.propertyType = propertyType;
+        this.placeType = placeType;
+        this.maxGuests = maxGuests;
+        this.bedrooms = bedrooms;
+        this.beds = beds;
+        this.bathrooms = bathrooms;
+        this.pricePerNight = pricePerNight;
+        this.weekendPricePerNight = weekendPricePerNight;
+        this.mainPhotoUrl = mainPhotoUrl;
+        this.status = status != null ? status.name() : null;
+    }
 }
\ No newline at end of file
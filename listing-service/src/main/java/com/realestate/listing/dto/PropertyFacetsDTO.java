@@ -0,0 +1,24 @@
+package com.realestate.listing.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compteurs du panneau de filtres (/properties/facets) pour la sélection courante
+ * - propertyTypes, placeTypes, flags, priceBuckets : comptés sans le filtre de leur propre dimension
+ *   (le compteur d'une option = nombre de résultats si on choisit cette option à la place)
+ * - amenities : comptées avec tous les filtres (les amenities se cumulent)
+ * - flags : properties où la règle/option vaut true (instantBooking, petsAllowed, ...)
+ */
+public record PropertyFacetsDTO(
+        long total,
+        Map<String, Long> propertyTypes,
+        Map<String, Long> placeTypes,
+        Map<Integer, Long> amenities,
+        Map<String, Long> flags,
+        List<PriceBucket> priceBuckets
+) {
+
+    /** Tranche de prix par nuit [min, max[ (null = non bornée) */
+    public record PriceBucket(Double min, Double max, long count) {}
+}
@@ -0,0 +1,42 @@
+package com.realestate.listing.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Critères de filtrage d'une recherche de properties (/properties/filter, /properties/search/tenant)
+ * Tous les champs sont optionnels : null = pas de filtre
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PropertyFilterDTO {
+    private String city;
+    private String country;
+    private String propertyType;
+    private String placeType;
+
+    private Double minPrice;
+    private Double maxPrice;
+
+    // Valeurs minimales (>=)
+    private Integer bedrooms;
+    private Integer bathrooms;
+    private Integer beds;
+    private Integer maxGuests;
+
+    private Boolean instantBooking;
+
+    // Toutes les amenities doivent être présentes
+    private List<Integer> amenityIds;
+
+    // Règles
+    private Boolean childrenAllowed;
+    private Boolean babiesAllowed;
+    private Boolean petsAllowed;
+    private Boolean smokingAllowed;
+    private Boolean eventsAllowed;
+}
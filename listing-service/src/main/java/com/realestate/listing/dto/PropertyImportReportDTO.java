@@ -0,0 +1,21 @@
+package com.realestate.listing.dto;
+
+import java.util.List;
+
+/**
+ * Bilan d'un import en masse
+ * - rows = lignes de données lues (hors en-tête CSV et lignes vides)
+ * - errors : une entrée par ligne rejetée ou en doublon (les premières seulement si errorsTruncated)
+ */
+public record PropertyImportReportDTO(
+        long rows,
+        long imported,
+        long duplicates,
+        long rejected,
+        List<RowError> errors,
+        boolean errorsTruncated
+) {
+
+    /** line = numéro de ligne dans le fichier (1 = première ligne) */
+    public record RowError(long line, String title, String message) {}
+}
@@ -0,0 +1,65 @@
+package com.realestate.listing.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Une ligne d'import en masse (/properties/import), en NDJSON ou CSV
+ * - CSV : en-tête = noms des champs, listes (amenityIds, photoUrls) séparées par '|'
+ * - règles absentes : mêmes valeurs par défaut que POST /properties/new
+ * - photos : dans l'ordre d'affichage, la première est la couverture
+ */
+@Data
+@NoArgsConstructor
+public class PropertyImportRowDTO {
+
+    // === GÉNÉRAL ===
+    private String title;
+    private String description;
+    private String propertyType;
+    private String placeType;
+
+    // === ADRESSE ===
+    private String adresseLine;
+    private String city;
+    private String country;
+    private String postalCode;
+    private Double latitude;
+    private Double longitude;
+    private String neighborhoodDescription;
+    private Integer floorNumber;
+    private Double surfaceArea;
+
+    // === CAPACITÉ ===
+    private Integer maxGuests;
+    private Integer bedrooms;
+    private Integer beds;
+    private Integer bathrooms;
+
+    // === PRIX ET SÉJOUR ===
+    private Double pricePerNight;
+    private Double weekendPricePerNight;
+    private Double cleaningFee;
+    private Double petFee;
+    private Integer minStayNights;
+    private Integer maxStayNights;
+    private String checkInTimeStart;
+    private String checkInTimeEnd;
+    private String checkOutTime;
+    private Boolean instantBooking;
+    private String cancellationPolicy;
+
+    // === RÈGLES ===
+    private Boolean childrenAllowed;
+    private Boolean babiesAllowed;
+    private Boolean petsAllowed;
+    private Boolean smokingAllowed;
+    private Boolean eventsAllowed;
+    private String customRules;
+
+    // === RELATIONS ===
+    private List<Integer> amenityIds;
+    private List<String> photoUrls;
+}
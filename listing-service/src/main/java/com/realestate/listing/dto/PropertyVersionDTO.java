@@ -4,6 +4,10 @@ package com.realestate.listing.dto;
 import lombok.*;
 import java.time.LocalDateTime;
 
+/**
+ * Version reconstruite depuis l'historique compact (PropertyVersionHistoryService),
+ * sections au format des anciens snapshots (JSON en texte), sans ID ni hash de snapshot
+ */
 @Getter
 @Setter
 @NoArgsConstructor
@@ -26,8 +30,6 @@ public class PropertyVersionDTO {
     @AllArgsConstructor
     @Builder
     public static class GeneralSnapshotDTO {
-        private Integer snapshotId;
-        private String snapshotHash;
         private String generalJson;
         private LocalDateTime createdAt;
     }
@@ -38,8 +40,6 @@ public class PropertyVersionDTO {
     @AllArgsConstructor
     @Builder
     public static class AmenitiesSnapshotDTO {
-        private Integer snapshotId;
-        private String snapshotHash;
         private String amenitiesJson;
         private LocalDateTime createdAt;
     }
@@ -50,8 +50,6 @@ public class PropertyVersionDTO {
     @AllArgsConstructor
     @Builder
     public static class PhotosSnapshotDTO {
-        private Integer snapshotId;
-        private String snapshotHash;
         private String photosJson;
         private LocalDateTime createdAt;
     }
@@ -62,8 +60,6 @@ public class PropertyVersionDTO {
     @AllArgsConstructor
     @Builder
     public static class RulesSnapshotDTO {
-        private Integer snapshotId;
-        private String snapshotHash;
         private Boolean childrenAllowed;
         private Boolean babiesAllowed;
         private Boolean petsAllowed;
@@ -0,0 +1,20 @@
+package com.realestate.listing.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Changements d'une version par rapport à la précédente (sans snapshots complets)
+ * - changes : chemin du champ ("general.title", "amenities.12", ...) → nouvelle valeur, null = retiré
+ * - la première version liste tous ses champs
+ */
+public record PropertyVersionDiffDTO(
+        Integer versionId,
+        Integer numVersion,
+        LocalDateTime createdAt,
+        boolean checkpoint,
+        List<String> changedSections,
+        JsonNode changes
+) {}
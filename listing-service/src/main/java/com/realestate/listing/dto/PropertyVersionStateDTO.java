@@ -0,0 +1,20 @@
+package com.realestate.listing.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDateTime;
+
+/**
+ * État d'une property à une version donnée, reconstruit depuis l'historique compact
+ * (les champs null sont omis de general et rules)
+ */
+public record PropertyVersionStateDTO(
+        Integer versionId,
+        Integer propertyId,
+        Integer numVersion,
+        LocalDateTime createdAt,
+        JsonNode general,
+        JsonNode amenities,
+        JsonNode photos,
+        JsonNode rules
+) {}
@@ -0,0 +1,47 @@
+package com.realestate.listing.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Blocage provisoire (TTL) posé par booking-service pendant le paiement.
+ * La ligne n'existe que tant que le hold est actif : confirmé → transformé en PropertyAvailability,
+ * libéré ou expiré → supprimé. Les holds actifs sont rechargés en mémoire au démarrage.
+ */
+@Entity
+@Table(name = "availability_hold",
+        indexes = @Index(name = "idx_hold_property", columnList = "property_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailabilityHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "hold_id")
+    private Long holdId;
+
+    @Column(name = "property_id", nullable = false)
+    private Integer propertyId;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    // Demandeur (ex. "user:42"), informatif
+    @Column(name = "holder", length = 100)
+    private String holder;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,32 @@
+package com.realestate.listing.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * File d'attente des versions à créer : une ligne par modification d'une property ACTIVE,
+ * insérée dans la transaction de la modification et consommée par PropertyVersionWorker
+ */
+@Entity
+@Table(name = "pending_property_version",
+        indexes = @Index(name = "idx_pending_version_property", columnList = "property_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PendingPropertyVersion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "pending_id")
+    private Long pendingId;
+
+    @Column(name = "property_id", nullable = false)
+    private Integer propertyId;
+
+    @Column(name = "enqueued_at", nullable = false)
+    private LocalDateTime enqueuedAt;
+}
@@ -6,7 +6,8 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "price_history")
+@Table(name = "price_history",
+        indexes = @Index(name = "idx_price_history_series", columnList = "property_id, price_type, changed_at"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,77 @@
+package com.realestate.listing.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Agrégat compacté de l'historique de prix : changements d'un jour ou d'une semaine (lundi)
+ * pour une property et un type de prix (price_type de PriceHistory).
+ * Écrit uniquement par PriceHistoryCompactionJob (upsert additif : min/max/somme/nombre
+ * fusionnables quel que soit le découpage des lots). Moyenne = sumPrice / changeCount.
+ */
+@Entity
+@Table(name = "price_history_bucket",
+        uniqueConstraints = @UniqueConstraint(name = "uk_price_history_bucket",
+                columnNames = {"property_id", "price_type", "granularity", "bucket_start"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceHistoryBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "bucket_id")
+    private Long bucketId;
+
+    @Column(name = "property_id", nullable = false)
+    private Integer propertyId;
+
+    // "" pour les changements sans type
+    @Column(name = "price_type", nullable = false, length = 100)
+    private String priceType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 8)
+    private Granularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDate bucketStart;
+
+    @Column(name = "min_price", nullable = false)
+    private Double minPrice;
+
+    @Column(name = "max_price", nullable = false)
+    private Double maxPrice;
+
+    @Column(name = "sum_price", nullable = false)
+    private Double sumPrice;
+
+    @Column(name = "change_count", nullable = false)
+    private Integer changeCount;
+
+    // Dernier prix de la période (continuité des courbes)
+    @Column(name = "last_price", nullable = false)
+    private Double lastPrice;
+
+    @Column(name = "last_changed_at", nullable = false)
+    private LocalDateTime lastChangedAt;
+
+    public enum Granularity {
+        DAY(1), WEEK(7);
+
+        private final int days;
+
+        Granularity(int days) {
+            this.days = days;
+        }
+
+        public int days() {
+            return days;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.realestate.listing.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * État global du store de caractéristiques de prix (ligne unique, id = 1).
+ * trackingSince : premier jour d'écoute des événements de réservation ; avant cette date
+ * l'occupation est inconnue (pas de reprise d'historique depuis booking-service)
+ */
+@Entity
+@Table(name = "pricing_feature_store")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PricingFeatureStoreState {
+
+    public static final int SINGLETON_ID = 1;
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "tracking_since", nullable = false)
+    private LocalDate trackingSince;
+}
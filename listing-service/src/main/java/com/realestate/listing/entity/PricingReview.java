@@ -0,0 +1,29 @@
+package com.realestate.listing.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Note reçue de review-service (RabbitMQ), utilisée pour la note moyenne du modèle de prix.
+ * Clé = id de réservation (un avis par réservation côté review-service) : un événement rejoué est ignoré.
+ */
+@Entity
+@Table(name = "pricing_review",
+        indexes = @Index(name = "idx_pricing_review_property", columnList = "property_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PricingReview {
+
+    @Id
+    @Column(name = "reservation_id")
+    private Integer reservationId;
+
+    @Column(name = "property_id", nullable = false)
+    private Integer propertyId;
+
+    @Column(name = "rating", nullable = false)
+    private Double rating;
+}
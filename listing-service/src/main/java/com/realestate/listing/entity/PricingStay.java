@@ -0,0 +1,39 @@
+package com.realestate.listing.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Séjour confirmé reçu de booking-service (RabbitMQ), utilisé pour le taux d'occupation du modèle de prix.
+ * Clé = id de réservation : un événement rejoué ou une mise à jour remplace la ligne.
+ * Une annulation supprime la ligne ; les séjours sortis de la fenêtre de 90 jours sont purgés.
+ */
+@Entity
+@Table(name = "pricing_stay",
+        indexes = {
+                @Index(name = "idx_pricing_stay_property", columnList = "property_id"),
+                @Index(name = "idx_pricing_stay_check_out", columnList = "check_out")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PricingStay {
+
+    @Id
+    @Column(name = "reservation_id")
+    private Integer reservationId;
+
+    @Column(name = "property_id", nullable = false)
+    private Integer propertyId;
+
+    @Column(name = "check_in", nullable = false)
+    private LocalDate checkIn;
+
+    // Exclu (jour du départ)
+    @Column(name = "check_out", nullable = false)
+    private LocalDate checkOut;
+}
@@ -147,7 +147,9 @@ public class Property {
     @JsonIgnore
     private PropertyRule rules;
 
+    // Historique complet hors fiche : GET /properties/{id}/price-history/series
     @OneToMany(mappedBy = "property", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonIgnore
     private Set<PriceHistory> priceHistory = new HashSet<>();
 
     @OneToOne(mappedBy = "property", cascade = CascadeType.ALL, orphanRemoval = true)
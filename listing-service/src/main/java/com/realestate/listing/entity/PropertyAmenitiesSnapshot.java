@@ -1,6 +1,7 @@
 package com.realestate.listing.entity;
 
 import com.google.common.hash.Hashing;
+import com.realestate.listing.snapshot.SnapshotCodecs;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -22,9 +23,15 @@ public class PropertyAmenitiesSnapshot {
     @Column(name = "snapshot_hash", length = 64, unique = true)
     private String snapshotHash;
 
+    // Ancien format (JSON texte), relu par VersionHistoryMigrationJob
     @Column(columnDefinition = "JSON")
     private String amenitiesJson;
 
+    // Format encodé (octet d'en-tête = codec, voir SnapshotCodecs)
+    @Lob
+    @Column(name = "amenities_data", columnDefinition = "LONGBLOB")
+    private byte[] amenitiesData;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -51,18 +58,24 @@ public class PropertyAmenitiesSnapshot {
     //transformer un JSON stocké dans amenitiesJson en Set<Amenity>
     public Set<Amenity> getAmenities() {
         try {
-            return mapper.readValue(this.amenitiesJson, mapper.getTypeFactory()
+            return mapper.readValue(getAmenitiesJson(), mapper.getTypeFactory()
                     .constructCollectionType(HashSet.class, Amenity.class));
         } catch (Exception e) {
             return new HashSet<>();
         }
     }
 
+    /** JSON du snapshot, quel que soit le format de stockage */
+    public String getAmenitiesJson() {
+        return amenitiesData != null ? SnapshotCodecs.decode(amenitiesData) : amenitiesJson;
+    }
+
     // avant insert
     @PrePersist
     private void generateHash() {  // generer le snapchot_hash
         if (this.snapshotHash == null) {
-            String data = amenitiesJson != null ? amenitiesJson : "";
+            String json = getAmenitiesJson();
+            String data = json != null ? json : "";
             this.snapshotHash = Hashing.sha256().hashString(data, StandardCharsets.UTF_8).toString();
         }
     }
@@ -1,6 +1,7 @@
 // src/main/java/com/realestate/listing/entity/PropertyGeneralSnapshot.java
 package com.realestate.listing.entity;
 
+import com.realestate.listing.snapshot.SnapshotCodecs;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
@@ -17,9 +18,20 @@ public class PropertyGeneralSnapshot {
     @Column(name = "snapshot_hash", unique = true, nullable = false)
     private String snapshotHash;
 
+    // Ancien format (JSON texte), relu par VersionHistoryMigrationJob
     @Column(name = "general_json", columnDefinition = "TEXT")
     private String generalJson;
 
+    // Format encodé (octet d'en-tête = codec, voir SnapshotCodecs)
+    @Lob
+    @Column(name = "general_data", columnDefinition = "LONGBLOB")
+    private byte[] generalData;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
+
+    /** JSON du snapshot, quel que soit le format de stockage */
+    public String getGeneralJson() {
+        return generalData != null ? SnapshotCodecs.decode(generalData) : generalJson;
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.realestate.listing.entity;
 
 import com.google.common.hash.Hashing;
+import com.realestate.listing.snapshot.SnapshotCodecs;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -21,7 +22,12 @@ public class PropertyPhotosSnapshot {
 
 
     @Column(columnDefinition = "JSON")
-    private String photosJson;  // Stocke un tableau JSON
+    private String photosJson;  // Stocke un tableau JSON (ancien format, relu par VersionHistoryMigrationJob)
+
+    // Format encodé (octet d'en-tête = codec, voir SnapshotCodecs)
+    @Lob
+    @Column(name = "photos_data", columnDefinition = "LONGBLOB")
+    private byte[] photosData;
 
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -48,7 +54,7 @@ public class PropertyPhotosSnapshot {
     //transformer un JSON stocké dans photosJson en List<PropertyPhoto>
     public java.util.List<PropertyPhoto> getPhotosAsList() {
         try {
-            return mapper.readValue(this.photosJson, mapper.getTypeFactory()
+            return mapper.readValue(getPhotosJson(), mapper.getTypeFactory()
                     .constructCollectionType(java.util.List.class, PropertyPhoto.class));
         } catch (Exception e) {
             throw new RuntimeException("Erreur lors de la désérialisation des photos", e);
@@ -56,11 +62,17 @@ public class PropertyPhotosSnapshot {
     }
 
 
+    /** JSON du snapshot, quel que soit le format de stockage */
+    public String getPhotosJson() {
+        return photosData != null ? SnapshotCodecs.decode(photosData) : photosJson;
+    }
+
     // avant insert
     @PrePersist
     private void generateHash() {  // generer le snapchot_hash
         if (this.snapshotHash == null) {
-            String data = photosJson != null ? photosJson : "";
+            String json = getPhotosJson();
+            String data = json != null ? json : "";
             this.snapshotHash = Hashing.sha256().hashString(data, StandardCharsets.UTF_8).toString();
         }
     }
@@ -5,7 +5,8 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "property_version")
+@Table(name = "property_version",
+        uniqueConstraints = @UniqueConstraint(name = "uk_property_version_num", columnNames = {"property_id", "num_version"}))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -27,21 +28,22 @@ public class PropertyVersion {
     @Column(name = "num_version")
     private Integer numVersion;
 
-    // Relations snapshots
+    // Snapshots complets : versions antérieures à l'historique compact uniquement,
+    // remis à null par VersionHistoryMigrationJob (le contenu est dans PropertyVersionDelta)
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "amenities_snapshot_id", nullable = false)
+    @JoinColumn(name = "amenities_snapshot_id")
     private PropertyAmenitiesSnapshot amenitiesSnapshot;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "rules_snapshot_id", nullable = false)
+    @JoinColumn(name = "rules_snapshot_id")
     private PropertyRulesSnapshot rulesSnapshot;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "photos_snapshot_id", nullable = false)
+    @JoinColumn(name = "photos_snapshot_id")
     private PropertyPhotosSnapshot photosSnapshot;
 
-    @ManyToOne
-    @JoinColumn(name = "general_snapshot_id", nullable = false)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "general_snapshot_id")
     private PropertyGeneralSnapshot generalSnapshot;
 
     @PrePersist
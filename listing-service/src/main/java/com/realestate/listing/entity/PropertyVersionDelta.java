@@ -0,0 +1,64 @@
+package com.realestate.listing.entity;
+
+import com.realestate.listing.snapshot.SnapshotCodecs;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Contenu d'une version : champs modifiés depuis la version précédente
+ * ("general.title", "amenities.12", "photos.<url>", "rules.petsAllowed" → nouvelle valeur, null = retiré).
+ * Toutes les N versions, un checkpoint stocke en plus l'état complet (point de départ des reconstructions) :
+ * c'est le seul état complet stocké.
+ * Les valeurs sont encodées par SnapshotStorage (même format que les snapshots).
+ */
+@Entity
+@Table(name = "property_version_delta",
+        uniqueConstraints = @UniqueConstraint(name = "uk_version_delta_property_num",
+                columnNames = {"property_id", "num_version"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PropertyVersionDelta {
+
+    // Même ID que la PropertyVersion
+    @Id
+    @Column(name = "version_id")
+    private Integer versionId;
+
+    @Column(name = "property_id", nullable = false)
+    private Integer propertyId;
+
+    @Column(name = "num_version", nullable = false)
+    private Integer numVersion;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "checkpoint", nullable = false)
+    private boolean checkpoint;
+
+    // Sections modifiées, ex. "general,photos" (liste des diffs sans décoder les changements)
+    @Column(name = "changed_sections", length = 64)
+    private String changedSections;
+
+    @Lob
+    @Column(name = "changes_data", columnDefinition = "LONGBLOB", nullable = false)
+    private byte[] changesData;
+
+    // État complet (checkpoints uniquement)
+    @Lob
+    @Column(name = "state_data", columnDefinition = "LONGBLOB")
+    private byte[] stateData;
+
+    public String getChangesJson() {
+        return SnapshotCodecs.decode(changesData);
+    }
+
+    public String getStateJson() {
+        return SnapshotCodecs.decode(stateData);
+    }
+}
@@ -0,0 +1,9 @@
+package com.realestate.listing.event;
+
+import java.time.LocalDate;
+
+/**
+ * Publié par PropertyAvailabilityService quand une période est bloquée ou débloquée
+ * [start, end] bornes incluses
+ */
+public record AvailabilityChangedEvent(Integer propertyId, LocalDate start, LocalDate end, boolean blocked) {}
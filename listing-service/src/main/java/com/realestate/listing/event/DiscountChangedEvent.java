@@ -0,0 +1,6 @@
+package com.realestate.listing.event;
+
+/**
+ * Publié quand un discount est modifié (il peut être partagé par plusieurs properties)
+ */
+public record DiscountChangedEvent(Integer discountId) {}
@@ -0,0 +1,18 @@
+package com.realestate.listing.event;
+
+import com.realestate.listing.search.PropertyDocument;
+
+/**
+ * Publié par PropertyService à chaque modification d'une property
+ * document == null → la property a été supprimée
+ */
+public record PropertyChangedEvent(Integer propertyId, PropertyDocument document) {
+
+    public static PropertyChangedEvent deleted(Integer propertyId) {
+        return new PropertyChangedEvent(propertyId, null);
+    }
+
+    public boolean isDeleted() {
+        return document == null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.realestate.listing.event;
+
+/**
+ * Publié quand un élément rattaché à une property change (photos, règles,
+ * préférences de l'hôte, historique de prix) sans passer par PropertyService
+ * propertyId == null → property inconnue, tous les caches de contenu sont vidés
+ */
+public record PropertyContentChangedEvent(Integer propertyId) {
+
+    public static PropertyContentChangedEvent unknownProperty() {
+        return new PropertyContentChangedEvent(null);
+    }
+}
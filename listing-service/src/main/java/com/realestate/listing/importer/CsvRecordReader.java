@@ -0,0 +1,90 @@
+package com.realestate.listing.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecteur CSV en flux (RFC 4180) : un enregistrement à la fois, sans charger le fichier
+ * - champs entre guillemets : séparateurs, retours à la ligne et "" (guillemet échappé) autorisés
+ * - fins de ligne \n ou \r\n, BOM UTF-8 ignoré
+ */
+public class CsvRecordReader {
+
+    private final Reader reader;
+    private final char delimiter;
+    private int pending = -2;        // caractère lu d'avance (-2 = aucun)
+    private long line = 1;          // ligne courante du fichier
+    private long recordLine = 1;    // ligne de début du dernier enregistrement lu
+
+    public CsvRecordReader(Reader reader, char delimiter) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+    }
+
+    /** Champs de l'enregistrement suivant, null en fin de fichier */
+    public List<String> next() throws IOException {
+        int c = read();
+        if (c == 0xFEFF && line == 1) c = read();
+        if (c == -1) return null;
+
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) throw new IOException("Guillemet non fermé (ligne " + recordLine + ")");
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') line++;
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') unread(next);
+                }
+                if (c != -1) line++;
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /** Ligne du fichier où commence le dernier enregistrement renvoyé par next() */
+    public long recordLine() {
+        return recordLine;
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pending = c;
+    }
+}
@@ -0,0 +1,73 @@
+package com.realestate.listing.importer;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.realestate.listing.search.PropertyDocument;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Clés anti-doublon (titre, ville, adresse) des properties existantes, chargées une fois par import
+ * - inventaire ≤ exactLimit : ensemble exact en mémoire
+ * - au-delà : filtre de Bloom (1 % de faux positifs), chaque touche est confirmée en BDD
+ *   sur les mêmes champs normalisés que l'ensemble exact
+ * Même règle que PropertyService.createProperty : sans adresse, pas de contrôle de doublon
+ */
+public class ExistingPropertyKeys {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final Set<String> exact;
+    private final BloomFilter<CharSequence> bloom;
+    private final Predicate<String[]> confirm;
+
+    private ExistingPropertyKeys(Set<String> exact, BloomFilter<CharSequence> bloom, Predicate<String[]> confirm) {
+        this.exact = exact;
+        this.bloom = bloom;
+        this.confirm = confirm;
+    }
+
+    /** Ensemble exact, rempli par add() */
+    public static ExistingPropertyKeys exact(int expected) {
+        return new ExistingPropertyKeys(new HashSet<>(Math.max(16, expected * 2)), null, null);
+    }
+
+    /**
+     * Filtre de Bloom, rempli par add()
+     * @param confirm vérification exacte d'une touche du filtre, reçoit (titre, ville, adresse) normalisés
+     */
+    public static ExistingPropertyKeys bloom(int expected, Predicate<String[]> confirm) {
+        BloomFilter<CharSequence> bloom = BloomFilter.create(
+                Funnels.stringFunnel(StandardCharsets.UTF_8), Math.max(1000, expected), FALSE_POSITIVE_RATE);
+        return new ExistingPropertyKeys(null, bloom, confirm);
+    }
+
+    public void add(String title, String city, String adresseLine) {
+        String key = key(title, city, adresseLine);
+        if (key == null) return;
+        if (exact != null) {
+            exact.add(key);
+        } else {
+            bloom.put(key);
+        }
+    }
+
+    public boolean contains(String title, String city, String adresseLine) {
+        String key = key(title, city, adresseLine);
+        if (key == null) return false;
+        if (exact != null) return exact.contains(key);
+        return bloom.mightContain(key) && confirm.test(new String[]{
+                PropertyDocument.normalize(title), PropertyDocument.normalize(city), PropertyDocument.normalize(adresseLine)});
+    }
+
+    /** Clé normalisée, null si un des champs manque */
+    public static String key(String title, String city, String adresseLine) {
+        if (title == null || city == null || adresseLine == null) return null;
+        return PropertyDocument.normalize(title) + '\u0000'
+                + PropertyDocument.normalize(city) + '\u0000'
+                + PropertyDocument.normalize(adresseLine);
+    }
+}
@@ -0,0 +1,167 @@
+package com.realestate.listing.importer;
+
+import com.realestate.listing.dto.PropertyImportRowDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * ========================================
+ * ÉCRITURE JDBC PAR LOTS DES PROPERTIES IMPORTÉES
+ * ========================================
+ * Hibernate ne batch pas les INSERT en IDENTITY : un lot de lignes passe ici en 4 batchs JDBC
+ * (properties avec récupération des ids générés, règles, liens amenities, photos)
+ * Avec rewriteBatchedStatements=true, chaque batch devient un INSERT multi-lignes côté MySQL.
+ * Doit être appelé dans une transaction (un lot = tout ou rien).
+ */
+@Component
+public class PropertyBatchWriter {
+
+    private static final String INSERT_PROPERTY = """
+            INSERT INTO property (user_id, title, description, property_type, place_type,
+                adresse_line, city, country, postal_code, latitude, longitude, neighborhood_description,
+                floor_number, surface_area, max_guests, bedrooms, beds, bathrooms,
+                price_per_night, weekend_price_per_night, cleaning_fee, pet_fee,
+                min_stay_nights, max_stay_nights, check_in_time_start, check_in_time_end, check_out_time,
+                instant_booking, cancellation_policy, status, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'DRAFT', ?, ?)
+            """;
+
+    private static final String INSERT_RULES = """
+            INSERT INTO property_rules (property_id, children_allowed, babies_allowed, pets_allowed,
+                smoking_allowed, events_allowed, custom_rules)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_AMENITY_LINK =
+            "INSERT INTO property_amenities (property_id, amenity_id) VALUES (?, ?)";
+
+    private static final String INSERT_PHOTO =
+            "INSERT INTO property_photos (property_id, photo_url, is_cover, display_order) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insère un lot (status DRAFT, comme POST /properties/new) et renvoie les ids générés dans l'ordre des lignes
+     */
+    public int[] insert(List<PropertyImportRowDTO> rows, Integer userId) {
+        int[] ids = insertProperties(rows, userId);
+
+        jdbcTemplate.batchUpdate(INSERT_RULES, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PropertyImportRowDTO row = rows.get(i);
+                ps.setInt(1, ids[i]);
+                // Valeurs par défaut de PropertyService.createProperty
+                ps.setBoolean(2, Objects.requireNonNullElse(row.getChildrenAllowed(), true));
+                ps.setBoolean(3, Objects.requireNonNullElse(row.getBabiesAllowed(), true));
+                ps.setBoolean(4, Objects.requireNonNullElse(row.getPetsAllowed(), false));
+                ps.setBoolean(5, Objects.requireNonNullElse(row.getSmokingAllowed(), false));
+                ps.setBoolean(6, Objects.requireNonNullElse(row.getEventsAllowed(), false));
+                ps.setString(7, row.getCustomRules());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+
+        List<int[]> amenityLinks = new ArrayList<>();
+        List<Object[]> photos = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            PropertyImportRowDTO row = rows.get(i);
+            if (row.getAmenityIds() != null) {
+                for (Integer amenityId : new LinkedHashSet<>(row.getAmenityIds())) {
+                    amenityLinks.add(new int[]{ids[i], amenityId});
+                }
+            }
+            if (row.getPhotoUrls() != null) {
+                for (int order = 0; order < row.getPhotoUrls().size(); order++) {
+                    photos.add(new Object[]{ids[i], row.getPhotoUrls().get(order), order == 0, order});
+                }
+            }
+        }
+
+        if (!amenityLinks.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_AMENITY_LINK, amenityLinks, amenityLinks.size(), (ps, link) -> {
+                ps.setInt(1, link[0]);
+                ps.setInt(2, link[1]);
+            });
+        }
+        if (!photos.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_PHOTO, photos);
+        }
+        return ids;
+    }
+
+    private int[] insertProperties(List<PropertyImportRowDTO> rows, Integer userId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.execute((ConnectionCallback<int[]>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_PROPERTY, Statement.RETURN_GENERATED_KEYS)) {
+                for (PropertyImportRowDTO row : rows) {
+                    int c = 1;
+                    ps.setObject(c++, userId);
+                    ps.setString(c++, row.getTitle());
+                    ps.setString(c++, row.getDescription());
+                    ps.setString(c++, row.getPropertyType());
+                    ps.setString(c++, row.getPlaceType());
+                    ps.setString(c++, row.getAdresseLine());
+                    ps.setString(c++, row.getCity());
+                    ps.setString(c++, row.getCountry());
+                    ps.setString(c++, row.getPostalCode());
+                    ps.setObject(c++, row.getLatitude());
+                    ps.setObject(c++, row.getLongitude());
+                    ps.setString(c++, row.getNeighborhoodDescription());
+                    ps.setObject(c++, row.getFloorNumber());
+                    ps.setObject(c++, row.getSurfaceArea());
+                    ps.setObject(c++, row.getMaxGuests());
+                    ps.setObject(c++, row.getBedrooms());
+                    ps.setObject(c++, row.getBeds());
+                    ps.setObject(c++, row.getBathrooms());
+                    ps.setObject(c++, row.getPricePerNight());
+                    ps.setObject(c++, row.getWeekendPricePerNight());
+                    ps.setObject(c++, row.getCleaningFee());
+                    ps.setObject(c++, row.getPetFee());
+                    ps.setObject(c++, row.getMinStayNights());
+                    ps.setObject(c++, row.getMaxStayNights());
+                    ps.setString(c++, row.getCheckInTimeStart());
+                    ps.setString(c++, row.getCheckInTimeEnd());
+                    ps.setString(c++, row.getCheckOutTime());
+                    ps.setObject(c++, row.getInstantBooking());
+                    ps.setString(c++, row.getCancellationPolicy());
+                    ps.setTimestamp(c++, now);
+                    ps.setTimestamp(c, now);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                int[] ids = new int[rows.size()];
+                int n = 0;
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    while (keys.next() && n < ids.length) {
+                        ids[n++] = keys.getInt(1);
+                    }
+                }
+                if (n != ids.length) {
+                    throw new IllegalStateException("Ids générés incomplets : " + n + "/" + ids.length);
+                }
+                return ids;
+            }
+        });
+    }
+}
@@ -0,0 +1,110 @@
+package com.realestate.listing.listener;
+
+import com.realestate.listing.config.RabbitMQConfig;
+import com.realestate.listing.prediction.PropertyFeatureStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.*;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Événements de réservation et d'avis → PropertyFeatureStore
+ * - écoute démarrée seulement après le rechargement du store (aucun événement appliqué à un état partiel)
+ * - message illisible : rejeté sans remise en file ; erreur BDD : remis en file
+ */
+@Component
+public class PricingEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PricingEventListener.class);
+
+    private static final String BOOKING_LISTENER = "pricing-booking";
+    private static final String REVIEW_LISTENER = "pricing-review";
+
+    @Autowired
+    private PropertyFeatureStore featureStore;
+
+    @Autowired
+    private RabbitListenerEndpointRegistry listenerRegistry;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        featureStore.load();
+        listenerRegistry.getListenerContainer(BOOKING_LISTENER).start();
+        listenerRegistry.getListenerContainer(REVIEW_LISTENER).start();
+    }
+
+    /**
+     * BOOKING_CONFIRMED / BOOKING_COMPLETED → séjour compté ; BOOKING_CANCELLED → séjour retiré
+     */
+    @RabbitListener(id = BOOKING_LISTENER, queues = RabbitMQConfig.PRICING_BOOKING_QUEUE,
+            containerFactory = "pricingListenerContainerFactory", autoStartup = "false")
+    public void handleBookingEvent(Map<String, Object> event) {
+        String eventType = (String) event.get("eventType");
+        try {
+            Integer reservationId = toInteger(event.get("reservationId"));
+            switch (eventType == null ? "" : eventType) {
+                case "BOOKING_CONFIRMED", "BOOKING_COMPLETED" -> featureStore.recordStay(
+                        reservationId,
+                        toInteger(event.get("propertyId")),
+                        toDate(event.get("checkInDate")),
+                        toDate(event.get("checkOutDate")));
+                case "BOOKING_CANCELLED" -> featureStore.removeStay(reservationId);
+                default -> logger.debug("Événement de réservation ignoré : {}", eventType);
+            }
+        } catch (IllegalArgumentException | ClassCastException | DateTimeException e) {
+            logger.warn("❌ Événement {} illisible, ignoré : {} ({})", eventType, e.getMessage(), event);
+            throw new AmqpRejectAndDontRequeueException(e);
+        }
+    }
+
+    @RabbitListener(id = REVIEW_LISTENER, queues = RabbitMQConfig.PRICING_REVIEW_QUEUE,
+            containerFactory = "pricingListenerContainerFactory", autoStartup = "false")
+    public void handleReviewEvent(Map<String, Object> event) {
+        try {
+            featureStore.recordReview(
+                    toInteger(event.get("reservationId")),
+                    toInteger(event.get("propertyId")),
+                    ((Number) required(event.get("rating"), "rating")).doubleValue());
+        } catch (IllegalArgumentException | ClassCastException e) {
+            logger.warn("❌ Événement d'avis illisible, ignoré : {} ({})", e.getMessage(), event);
+            throw new AmqpRejectAndDontRequeueException(e);
+        }
+    }
+
+    // ======================
+    // === CONVERSIONS ===
+    // ======================
+
+    private static Integer toInteger(Object value) {
+        return ((Number) required(value, "id")).intValue();
+    }
+
+    // LocalDateTime / LocalDate (sérialisation Java), texte ISO ou tableau [a, m, j, ...] (JSON)
+    private static LocalDate toDate(Object value) {
+        Object date = required(value, "date");
+        if (date instanceof LocalDateTime dateTime) return dateTime.toLocalDate();
+        if (date instanceof LocalDate localDate) return localDate;
+        if (date instanceof List<?> parts && parts.size() >= 3) {
+            return LocalDate.of(((Number) parts.get(0)).intValue(), ((Number) parts.get(1)).intValue(),
+                    ((Number) parts.get(2)).intValue());
+        }
+        String text = date.toString();
+        return text.length() == 10 ? LocalDate.parse(text) : LocalDateTime.parse(text).toLocalDate();
+    }
+
+    private static Object required(Object value, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException(name + " manquant");
+        }
+        return value;
+    }
+}
@@ -1,6 +1,7 @@
 // src/main/java/com/realestate/listing/mapper/PropertyDetailMapper.java
 package com.realestate.listing.mapper;
 
+import com.realestate.listing.dto.PropertyBookingViewDTO;
 import com.realestate.listing.dto.PropertyDetailDTO;
 import com.realestate.listing.entity.*;
 import org.springframework.stereotype.Component;
@@ -15,6 +16,45 @@ import java.util.stream.Collectors;
 @Component
 public class PropertyDetailMapper {
 
+    /**
+     * Vue réduite pour booking-service (aucune collection chargée)
+     */
+    public PropertyBookingViewDTO toBookingView(Property property) {
+        if (property == null) {
+            return null;
+        }
+
+        return new PropertyBookingViewDTO(
+                property.getPropertyId(),
+                property.getUserId(),
+                property.getTitle(),
+                property.getDescription(),
+                property.getPropertyType(),
+                property.getCity(),
+                property.getCountry(),
+                property.getMaxGuests(),
+                property.getBedrooms(),
+                property.getBeds(),
+                property.getBathrooms(),
+                property.getPricePerNight(),
+                property.getWeekendPricePerNight(),
+                property.getCleaningFee(),
+                property.getPetFee(),
+                property.getPlatformFeePercentage(),
+                property.getMinStayNights(),
+                property.getMaxStayNights(),
+                property.getBookingAdvanceDays(),
+                property.getInstantBooking(),
+                property.getCancellationPolicy(),
+                property.getCheckInTimeStart(),
+                property.getCheckInTimeEnd(),
+                property.getCheckOutTime(),
+                property.getStatus() != null ? property.getStatus().name() : null,
+                property.getBlockchainPropertyId(),
+                property.getBlockchainTxHash()
+        );
+    }
+
     public PropertyDetailDTO toDTO(Property property) {
         if (property == null) {
             return null;
@@ -1,70 +1,52 @@
 // src/main/java/com/realestate/listing/mapper/PropertyVersionMapper.java
 package com.realestate.listing.mapper;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.realestate.listing.dto.PropertyVersionDTO;
-import com.realestate.listing.entity.*;
+import com.realestate.listing.dto.PropertyVersionStateDTO;
 import org.springframework.stereotype.Component;
 
 @Component
 public class PropertyVersionMapper {
 
-    public PropertyVersionDTO toDTO(PropertyVersion version) {
-        if (version == null) return null;
+    /**
+     * Version reconstruite depuis l'historique compact, au format des snapshots
+     * (JSON des sections en texte ; pas d'ID ni de hash de snapshot)
+     */
+    public PropertyVersionDTO toDTO(PropertyVersionStateDTO state) {
+        if (state == null) return null;
 
+        JsonNode rules = state.rules();
         return PropertyVersionDTO.builder()
-                .versionId(version.getVersionId())
-                .propertyId(version.getPropertyId())
-                .numVersion(version.getNumVersion())
-                .createdAt(version.getCreatedAt())
-                .generalSnapshot(toGeneralDTO(version.getGeneralSnapshot()))
-                .amenitiesSnapshot(toAmenitiesDTO(version.getAmenitiesSnapshot()))
-                .photosSnapshot(toPhotosDTO(version.getPhotosSnapshot()))
-                .rulesSnapshot(toRulesDTO(version.getRulesSnapshot()))
+                .versionId(state.versionId())
+                .propertyId(state.propertyId())
+                .numVersion(state.numVersion())
+                .createdAt(state.createdAt())
+                .generalSnapshot(PropertyVersionDTO.GeneralSnapshotDTO.builder()
+                        .generalJson(state.general().toString())
+                        .createdAt(state.createdAt())
+                        .build())
+                .amenitiesSnapshot(PropertyVersionDTO.AmenitiesSnapshotDTO.builder()
+                        .amenitiesJson(state.amenities().toString())
+                        .createdAt(state.createdAt())
+                        .build())
+                .photosSnapshot(PropertyVersionDTO.PhotosSnapshotDTO.builder()
+                        .photosJson(state.photos().toString())
+                        .createdAt(state.createdAt())
+                        .build())
+                .rulesSnapshot(PropertyVersionDTO.RulesSnapshotDTO.builder()
+                        .childrenAllowed(booleanOrNull(rules, "childrenAllowed"))
+                        .babiesAllowed(booleanOrNull(rules, "babiesAllowed"))
+                        .petsAllowed(booleanOrNull(rules, "petsAllowed"))
+                        .smokingAllowed(booleanOrNull(rules, "smokingAllowed"))
+                        .eventsAllowed(booleanOrNull(rules, "eventsAllowed"))
+                        .customRules(rules.hasNonNull("customRules") ? rules.get("customRules").asText() : null)
+                        .createdAt(state.createdAt())
+                        .build())
                 .build();
     }
 
-    private PropertyVersionDTO.GeneralSnapshotDTO toGeneralDTO(PropertyGeneralSnapshot snapshot) {
-        if (snapshot == null) return null;
-        return PropertyVersionDTO.GeneralSnapshotDTO.builder()
-                .snapshotId(snapshot.getSnapshotId())
-                .snapshotHash(snapshot.getSnapshotHash())
-                .generalJson(snapshot.getGeneralJson())
-                .createdAt(snapshot.getCreatedAt())
-                .build();
-    }
-
-    private PropertyVersionDTO.AmenitiesSnapshotDTO toAmenitiesDTO(PropertyAmenitiesSnapshot snapshot) {
-        if (snapshot == null) return null;
-        return PropertyVersionDTO.AmenitiesSnapshotDTO.builder()
-                .snapshotId(snapshot.getSnapshotId())
-                .snapshotHash(snapshot.getSnapshotHash())
-                .amenitiesJson(snapshot.getAmenitiesJson())
-                .createdAt(snapshot.getCreatedAt())
-                .build();
-    }
-
-    private PropertyVersionDTO.PhotosSnapshotDTO toPhotosDTO(PropertyPhotosSnapshot snapshot) {
-        if (snapshot == null) return null;
-        return PropertyVersionDTO.PhotosSnapshotDTO.builder()
-                .snapshotId(snapshot.getSnapshotId())
-                .snapshotHash(snapshot.getSnapshotHash())
-                .photosJson(snapshot.getPhotosJson())
-                .createdAt(snapshot.getCreatedAt())
-                .build();
-    }
-
-    private PropertyVersionDTO.RulesSnapshotDTO toRulesDTO(PropertyRulesSnapshot snapshot) {
-        if (snapshot == null) return null;
-        return PropertyVersionDTO.RulesSnapshotDTO.builder()
-                .snapshotId(snapshot.getSnapshotId())
-                .snapshotHash(snapshot.getSnapshotHash())
-                .childrenAllowed(snapshot.getChildrenAllowed())
-                .babiesAllowed(snapshot.getBabiesAllowed())
-                .petsAllowed(snapshot.getPetsAllowed())
-                .smokingAllowed(snapshot.getSmokingAllowed())
-                .eventsAllowed(snapshot.getEventsAllowed())
-                .customRules(snapshot.getCustomRules())
-                .createdAt(snapshot.getCreatedAt())
-                .build();
+    private static Boolean booleanOrNull(JsonNode node, String field) {
+        return node.hasNonNull(field) ? node.get(field).asBoolean() : null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package com.realestate.listing.prediction;
+
+import com.realestate.listing.client.EthRateClient;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Cours ETH → EUR en cache, rafraîchi en arrière-plan
+ * - lecture = un champ volatile, jamais d'appel HTTP pendant une requête
+ * - échec du rafraîchissement : le dernier cours connu est conservé (au départ, listing.pricing.eth-rate.default)
+ */
+@Component
+public class EthRateCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(EthRateCache.class);
+
+    @Autowired
+    private EthRateClient ethRateClient;
+
+    @Value("${listing.pricing.eth-rate.enabled:true}")
+    private boolean enabled;
+
+    @Value("${listing.pricing.eth-rate.default:3500}")
+    private double defaultEurPerEth;
+
+    private volatile double eurPerEth;
+
+    @PostConstruct
+    void init() {
+        eurPerEth = defaultEurPerEth;
+    }
+
+    /** 1 ETH = eurPerEth() EUR */
+    public double eurPerEth() {
+        return eurPerEth;
+    }
+
+    public double eurToEth(double eur) {
+        return eur / eurPerEth;
+    }
+
+    @Scheduled(fixedDelayString = "${listing.pricing.eth-rate.refresh-interval-ms:600000}")
+    public void refresh() {
+        if (!enabled) return;
+        try {
+            Map<String, Map<String, Double>> response = ethRateClient.simplePrice("ethereum", "eur");
+            Double rate = response != null && response.get("ethereum") != null ? response.get("ethereum").get("eur") : null;
+            if (rate == null || !(rate > 0)) {
+                logger.warn("⚠️ Cours ETH absent de la réponse, conservé : {} EUR", eurPerEth);
+                return;
+            }
+            eurPerEth = rate;
+            logger.debug("💱 Cours ETH : {} EUR", rate);
+        } catch (Exception e) {
+            logger.warn("⚠️ Cours ETH indisponible ({}), conservé : {} EUR", e.getMessage(), eurPerEth);
+        }
+    }
+}
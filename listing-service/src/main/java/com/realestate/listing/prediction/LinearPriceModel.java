@@ -0,0 +1,31 @@
+package com.realestate.listing.prediction;
+
+/**
+ * Modèle linéaire : intercept + Σ coefficients[i] × x[i]
+ */
+final class LinearPriceModel implements PriceModel {
+
+    private final double intercept;
+    private final double[] coefficients;
+
+    private LinearPriceModel(double intercept, double[] coefficients) {
+        this.intercept = intercept;
+        this.coefficients = coefficients;
+    }
+
+    static LinearPriceModel of(double intercept, double[] coefficients, int features) {
+        if (coefficients == null || coefficients.length != features) {
+            throw new IllegalArgumentException("Modèle linéaire : " + features + " coefficients attendus");
+        }
+        return new LinearPriceModel(intercept, coefficients.clone());
+    }
+
+    @Override
+    public double score(double[] x) {
+        double sum = intercept;
+        for (int i = 0; i < coefficients.length; i++) {
+            sum += coefficients[i] * x[i];
+        }
+        return sum;
+    }
+}
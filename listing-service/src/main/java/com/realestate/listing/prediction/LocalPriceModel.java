@@ -0,0 +1,211 @@
+package com.realestate.listing.prediction;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ========================================
+ * MODÈLE DE PRIX EN LOCAL (dans la JVM)
+ * ========================================
+ * - charge le modèle exporté par ai-service (listing.pricing.local-model.path), sans appel HTTP ensuite
+ * - rechargé à chaud dès que le fichier change ; un nouveau fichier n'est adopté que s'il
+ *   retrouve les réponses ai-service enregistrées dans l'export, sinon l'ancien modèle reste en place
+ * - réponse identique à /price/predict (mêmes arrondis, fourchette ±10 %, recommandation)
+ * - pas de fichier (ou fichier refusé au démarrage) : isReady() = false, PricePredictor appelle ai-service
+ */
+@Component
+public class LocalPriceModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalPriceModel.class);
+
+    // Mêmes constantes que ai-service (app/schemas/price.py)
+    private static final double ETH_EUR_RATE = 3500.0;
+    private static final double CONFIDENCE_MARGIN = 0.1;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${listing.pricing.local-model.path:}")
+    private String path;
+
+    @Value("${listing.pricing.local-model.tolerance-eth:0.0001}")
+    private double toleranceEth;
+
+    /** Modèle en service, remplacé d'un bloc au rechargement */
+    private volatile Loaded current;
+
+    // Dernier fichier examiné (adopté ou refusé) : évite de relire un fichier refusé à chaque passage
+    private volatile FileStamp lastSeen;
+
+    // Buffer d'encodage par thread : score() sans allocation
+    private final ThreadLocal<double[]> buffers =
+            ThreadLocal.withInitial(() -> new double[PriceFeatureEncoder.MAX_FEATURES]);
+
+    private record Loaded(PriceModel model, PriceFeatureEncoder encoder, String version) {}
+
+    private record FileStamp(long modifiedMillis, long size) {}
+
+    @PostConstruct
+    void init() {
+        if (!path.isBlank()) {
+            reloadIfChanged();
+        }
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    /** Date d'export du modèle en service (null si aucun) */
+    public String version() {
+        Loaded loaded = current;
+        return loaded == null ? null : loaded.version();
+    }
+
+    /**
+     * Prédiction locale, même contenu que la réponse de ai-service /price/predict
+     * @throws IllegalStateException aucun modèle chargé
+     */
+    public Map<String, Object> predict(PriceFeatures features) {
+        return response(predictEth(features));
+    }
+
+    /** Prix prédit en ETH, non arrondi */
+    public double predictEth(PriceFeatures features) {
+        Loaded loaded = current;
+        if (loaded == null) {
+            throw new IllegalStateException("Aucun modèle de prix local chargé");
+        }
+        double[] x = buffers.get();
+        loaded.encoder().encode(features, x);
+        return loaded.model().score(x);
+    }
+
+    // ======================
+    // === RECHARGEMENT ===
+    // ======================
+
+    @Scheduled(fixedDelayString = "${listing.pricing.local-model.reload-interval-ms:10000}")
+    public void reloadIfChanged() {
+        if (path.isBlank()) return;
+
+        Path file = Path.of(path);
+        FileStamp stamp;
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            stamp = new FileStamp(attrs.lastModifiedTime().toMillis(), attrs.size());
+        } catch (IOException e) {
+            if (lastSeen == null) {
+                logger.warn("⚠️ Modèle de prix local introuvable ({}), prédictions via ai-service", file);
+                lastSeen = new FileStamp(-1, -1);
+            }
+            return;
+        }
+        if (stamp.equals(lastSeen)) return;
+        lastSeen = stamp;
+
+        try (InputStream in = Files.newInputStream(file)) {
+            load(in);
+        } catch (IOException | RuntimeException e) {
+            logger.error("❌ Modèle de prix {} refusé : {} (modèle en service : {})", file, e.getMessage(), version());
+        }
+    }
+
+    /**
+     * Charge un artefact, le vérifie sur ses échantillons enregistrés puis le met en service
+     * @throws IllegalArgumentException artefact invalide ou écart aux réponses ai-service au-delà de la tolérance
+     */
+    void load(InputStream in) throws IOException {
+        PriceModelArtifact artifact = objectMapper.readValue(in, PriceModelArtifact.class);
+        Loaded candidate = new Loaded(artifact.toModel(), PriceFeatureEncoder.of(artifact.featureNames()), artifact.exportedAt());
+
+        double maxError = verify(candidate.model(), candidate.encoder(), artifact, toleranceEth);
+        current = candidate;
+        logger.info("✅ Modèle de prix local {} en service ({} échantillons, écart max {} ETH)",
+                candidate.version(), artifact.samples() == null ? 0 : artifact.samples().size(), maxError);
+    }
+
+    /**
+     * Rejoue les réponses ai-service enregistrées dans l'artefact
+     * @return écart maximal constaté sur predicted_price_eth
+     */
+    static double verify(PriceModel model, PriceFeatureEncoder encoder, PriceModelArtifact artifact, double toleranceEth) {
+        if (artifact.samples() == null || artifact.samples().isEmpty()) {
+            throw new IllegalArgumentException("Export sans réponses enregistrées, impossible de le vérifier");
+        }
+        double[] x = new double[PriceFeatureEncoder.MAX_FEATURES];
+        double maxError = 0;
+        int index = 0;
+        for (PriceModelArtifact.Sample sample : artifact.samples()) {
+            Object expected = sample.output() == null ? null : sample.output().get("predicted_price_eth");
+            if (!(expected instanceof Number number)) {
+                throw new IllegalArgumentException("Échantillon " + index + " sans predicted_price_eth");
+            }
+            encoder.encode(sample.input(), x);
+            double local = roundEth(model.score(x));
+            double error = Math.abs(local - number.doubleValue());
+            if (error > toleranceEth + 1e-12) {
+                throw new IllegalArgumentException(String.format(
+                        "échantillon %d : %s ETH en local, %s ETH enregistré", index, local, number));
+            }
+            maxError = Math.max(maxError, error);
+            index++;
+        }
+        return maxError;
+    }
+
+    // ======================
+    // === RÉPONSE ===
+    // ======================
+
+    /** Même construction que create_price_response (ai-service) */
+    static Map<String, Object> response(double rawPriceEth) {
+        double price = roundEth(rawPriceEth);
+        double margin = price * CONFIDENCE_MARGIN;
+        double min = roundEth(price - margin);
+        double max = roundEth(price + margin);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("predicted_price_eth", price);
+        response.put("confidence_range_eth", Map.of("min", min, "max", max));
+        response.put("predicted_price_eur", toEur(price));
+        response.put("confidence_range_eur", Map.of("min", (double) toEur(min), "max", (double) toEur(max)));
+        response.put("eth_eur_rate", ETH_EUR_RATE);
+        response.put("recommendation", recommendation(price));
+        return response;
+    }
+
+    // round(x, 4) de Python : arrondi au plus proche pair de la valeur binaire exacte
+    static double roundEth(double eth) {
+        return new BigDecimal(eth).setScale(4, RoundingMode.HALF_EVEN).doubleValue();
+    }
+
+    // int(eth * rate) de Python : troncature
+    private static int toEur(double eth) {
+        return (int) (eth * ETH_EUR_RATE);
+    }
+
+    private static String recommendation(double priceEth) {
+        double priceEur = priceEth * ETH_EUR_RATE;
+        if (priceEur < 200) return "Prix économique - Bon rapport qualité/prix";
+        if (priceEur < 350) return "Prix standard pour ce type de propriété";
+        if (priceEur < 500) return "Prix premium - Propriété de qualité";
+        return "Prix haut de gamme - Propriété d'exception";
+    }
+}
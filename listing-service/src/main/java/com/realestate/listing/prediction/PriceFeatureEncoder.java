@@ -0,0 +1,66 @@
+package com.realestate.listing.prediction;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encode les caractéristiques d'une property dans l'ordre feature_names du modèle chargé
+ * - correspondance nom → champ résolue une fois au chargement, encode() n'alloue rien
+ * - valeurs passées en float32 comme sklearn avant le parcours des arbres (seuils identiques)
+ */
+final class PriceFeatureEncoder {
+
+    private static final List<String> KNOWN = List.of(
+            "surface", "rooms", "amenities_count", "avg_rating", "occupancy_rate");
+
+    /** Taille des buffers d'encodage (un modèle ne peut pas demander plus de champs que KNOWN) */
+    static final int MAX_FEATURES = KNOWN.size();
+
+    // slots[i] = index dans KNOWN du i-ème champ attendu par le modèle
+    private final int[] slots;
+
+    private PriceFeatureEncoder(int[] slots) {
+        this.slots = slots;
+    }
+
+    /**
+     * @throws IllegalArgumentException champ inconnu ou en double
+     */
+    static PriceFeatureEncoder of(List<String> featureNames) {
+        if (featureNames == null || featureNames.isEmpty() || featureNames.size() > MAX_FEATURES) {
+            throw new IllegalArgumentException("feature_names invalides : " + featureNames);
+        }
+        int[] slots = new int[featureNames.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = KNOWN.indexOf(featureNames.get(i));
+            if (slots[i] < 0 || featureNames.indexOf(featureNames.get(i)) != i) {
+                throw new IllegalArgumentException("Feature inconnue ou en double : " + featureNames.get(i));
+            }
+        }
+        return new PriceFeatureEncoder(slots);
+    }
+
+    void encode(PriceFeatures f, double[] out) {
+        for (int i = 0; i < slots.length; i++) {
+            double v = switch (slots[i]) {
+                case 0 -> f.surface();
+                case 1 -> f.rooms();
+                case 2 -> f.amenitiesCount();
+                case 3 -> f.avgRating();
+                default -> f.occupancyRate();
+            };
+            out[i] = (float) v;
+        }
+    }
+
+    /** Entrée brute d'un échantillon enregistré (noms ai-service) */
+    void encode(Map<String, Double> input, double[] out) {
+        for (int i = 0; i < slots.length; i++) {
+            Double v = input.get(KNOWN.get(slots[i]));
+            if (v == null) {
+                throw new IllegalArgumentException("Échantillon sans " + KNOWN.get(slots[i]));
+            }
+            out[i] = (float) v.doubleValue();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.realestate.listing.prediction;
+
+import java.util.Map;
+
+/**
+ * Entrées du modèle de prix (ai-service /price/predict), normalisées :
+ * - bornées aux plages acceptées par le modèle (surface ]0, 500], chambres 1..10, équipements 0..20, ...)
+ * - arrondies (surface à 5 m², note à 0,1, occupation à 0,05) pour que des annonces proches
+ *   partagent la même entrée de cache ; la prédiction est calculée sur le vecteur normalisé
+ */
+public record PriceFeatures(
+        double surface,
+        int rooms,
+        int amenitiesCount,
+        double avgRating,
+        double occupancyRate
+) {
+
+    // Valeurs par défaut historiques de PricePredictionService
+    private static final double DEFAULT_SURFACE = 80.0;
+    private static final int DEFAULT_ROOMS = 2;
+    private static final int DEFAULT_AMENITIES = 5;
+
+    public static PriceFeatures of(Double surface, Integer rooms, Integer amenitiesCount,
+                                   double avgRating, double occupancyRate) {
+        double s = surface != null && surface > 0 ? surface : DEFAULT_SURFACE;
+        return new PriceFeatures(
+                Math.min(500, Math.max(5, Math.round(s / 5) * 5.0)),
+                clamp(rooms != null ? rooms : DEFAULT_ROOMS, 1, 10),
+                clamp(amenitiesCount != null ? amenitiesCount : DEFAULT_AMENITIES, 0, 20),
+                Math.round(Math.min(5.0, Math.max(1.0, avgRating)) * 10) / 10.0,
+                Math.round(Math.min(1.0, Math.max(0.0, occupancyRate)) * 20) / 20.0);
+    }
+
+    /** Corps JSON attendu par ai-service */
+    public Map<String, Object> toRequest() {
+        return Map.of(
+                "surface", surface,
+                "rooms", rooms,
+                "amenities_count", amenitiesCount,
+                "avg_rating", avgRating,
+                "occupancy_rate", occupancyRate);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.min(max, Math.max(min, value));
+    }
+}
@@ -0,0 +1,14 @@
+package com.realestate.listing.prediction;
+
+/**
+ * Modèle de prix exécuté dans la JVM
+ * score() ne fait aucune allocation : appelé pour chaque suggestion de prix
+ */
+public interface PriceModel {
+
+    /**
+     * @param x caractéristiques encodées, dans l'ordre feature_names de l'artefact
+     * @return prix par nuit prédit, en ETH (non arrondi)
+     */
+    double score(double[] x);
+}
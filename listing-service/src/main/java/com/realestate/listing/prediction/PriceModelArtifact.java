@@ -0,0 +1,54 @@
+package com.realestate.listing.prediction;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Modèle de prix exporté par ai-service (app/services/export_price_model.py)
+ * - gradient_boosting : prix = init + learning_rate × Σ feuille atteinte de chaque arbre
+ *   (arbres sklearn en tableaux parallèles, feuille : left = right = -1)
+ * - linear : prix = intercept + Σ coefficients[i] × x[i]
+ * - samples : réponses réelles de /price/predict, rejouées à chaque chargement
+ */
+public record PriceModelArtifact(
+        String format,
+        @JsonProperty("exported_at") String exportedAt,
+        @JsonProperty("feature_names") List<String> featureNames,
+        @JsonProperty("model_type") String modelType,
+
+        // gradient_boosting
+        double init,
+        @JsonProperty("learning_rate") double learningRate,
+        List<Tree> trees,
+
+        // linear
+        double intercept,
+        double[] coefficients,
+
+        List<Sample> samples
+) {
+
+    public static final String FORMAT = "gbr-trees/1";
+
+    public record Tree(int[] feature, double[] threshold, int[] left, int[] right, double[] value) {}
+
+    public record Sample(Map<String, Double> input, Map<String, Object> output) {}
+
+    /**
+     * Compile l'artefact en modèle exécutable
+     * @throws IllegalArgumentException format inconnu ou artefact incohérent
+     */
+    public PriceModel toModel() {
+        if (!FORMAT.equals(format)) {
+            throw new IllegalArgumentException("Format de modèle non supporté : " + format);
+        }
+        int features = featureNames == null ? 0 : featureNames.size();
+        return switch (modelType == null ? "" : modelType) {
+            case "gradient_boosting" -> TreeEnsemblePriceModel.of(init, learningRate, trees, features);
+            case "linear" -> LinearPriceModel.of(intercept, coefficients, features);
+            default -> throw new IllegalArgumentException("Type de modèle non supporté : " + modelType);
+        };
+    }
+}
@@ -0,0 +1,217 @@
+package com.realestate.listing.prediction;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.realestate.listing.client.AIServiceClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * ========================================
+ * PRÉDICTIONS DE PRIX GROUPÉES ET MISES EN CACHE
+ * ========================================
+ * - cache borné (taille + TTL) indexé par le vecteur de caractéristiques normalisé
+ * - les demandes concurrentes non cachées sont regroupées en micro-lots envoyés à
+ *   /price/predict/batch : envoi dès batch-size demandes, ou max-wait-ms après la première
+ * - une même entrée demandée plusieurs fois avant la réponse ne part qu'une fois
+ * - si un modèle local est chargé (LocalPriceModel), il répond directement ; ai-service
+ *   ne sert plus que de repli (pas de modèle, ou erreur locale)
+ */
+@Component
+public class PricePredictor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PricePredictor.class);
+
+    @Autowired
+    private AIServiceClient aiServiceClient;
+
+    @Autowired
+    private LocalPriceModel localPriceModel;
+
+    @Value("${listing.pricing.prediction.batch-size:32}")
+    private int batchSize;
+
+    @Value("${listing.pricing.prediction.max-wait-ms:20}")
+    private long maxWaitMs;
+
+    @Value("${listing.pricing.prediction.timeout-ms:5000}")
+    private long timeoutMs;
+
+    @Value("${listing.pricing.prediction.cache-size:10000}")
+    private long cacheSize;
+
+    @Value("${listing.pricing.prediction.cache-ttl-minutes:360}")
+    private long cacheTtlMinutes;
+
+    private Cache<PriceFeatures, Map<String, Object>> cache;
+    private ScheduledExecutorService executor;
+
+    // === LOT EN COURS (protégé par lock) ===
+    private final Object lock = new Object();
+    private final LinkedHashMap<PriceFeatures, CompletableFuture<Map<String, Object>>> pending = new LinkedHashMap<>();
+    private final Map<PriceFeatures, CompletableFuture<Map<String, Object>>> inFlight = new HashMap<>();
+    private boolean flushScheduled = false;
+
+    @PostConstruct
+    void init() {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtlMinutes, TimeUnit.MINUTES)
+                .build();
+        executor = Executors.newScheduledThreadPool(2, new ThreadFactoryBuilder()
+                .setNameFormat("price-prediction-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ======================
+    // === API ===
+    // ======================
+
+    /** Prédiction (bloquante, bornée par timeout-ms) */
+    public Map<String, Object> predict(PriceFeatures features) {
+        return await(predictAsync(features));
+    }
+
+    /** Prédictions d'une liste, dans l'ordre (envoyées ensemble dans le même micro-lot) */
+    public List<Map<String, Object>> predictAll(List<PriceFeatures> features) {
+        List<CompletableFuture<Map<String, Object>>> futures = features.stream().map(this::predictAsync).toList();
+        List<Map<String, Object>> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<Map<String, Object>> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    /** Précalcul en arrière-plan (les échecs sont seulement journalisés) */
+    public void prefetch(Collection<PriceFeatures> features) {
+        for (PriceFeatures f : features) {
+            predictAsync(f).exceptionally(e -> {
+                logger.debug("Précalcul de prix ignoré pour {} : {}", f, e.getMessage());
+                return null;
+            });
+        }
+    }
+
+    public CompletableFuture<Map<String, Object>> predictAsync(PriceFeatures features) {
+        if (localPriceModel.isReady()) {
+            try {
+                return CompletableFuture.completedFuture(localPriceModel.predict(features));
+            } catch (RuntimeException e) {
+                logger.warn("⚠️ Modèle de prix local en échec, repli sur ai-service : {}", e.getMessage());
+            }
+        }
+
+        Map<String, Object> cached = cache.getIfPresent(features);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        synchronized (lock) {
+            CompletableFuture<Map<String, Object>> existing = pending.get(features);
+            if (existing == null) existing = inFlight.get(features);
+            if (existing != null) return existing;
+
+            CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+            pending.put(features, future);
+            scheduleFlush();
+            return future;
+        }
+    }
+
+    // ======================
+    // === MICRO-LOTS ===
+    // ======================
+
+    // Appelé sous lock
+    private void scheduleFlush() {
+        if (pending.size() >= batchSize) {
+            executor.execute(this::flush);
+        } else if (!flushScheduled && !pending.isEmpty()) {
+            flushScheduled = true;
+            executor.schedule(this::flush, maxWaitMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        Map<PriceFeatures, CompletableFuture<Map<String, Object>>> batch = new LinkedHashMap<>();
+        synchronized (lock) {
+            Iterator<Map.Entry<PriceFeatures, CompletableFuture<Map<String, Object>>>> it = pending.entrySet().iterator();
+            while (it.hasNext() && batch.size() < batchSize) {
+                Map.Entry<PriceFeatures, CompletableFuture<Map<String, Object>>> entry = it.next();
+                batch.put(entry.getKey(), entry.getValue());
+                inFlight.put(entry.getKey(), entry.getValue());
+                it.remove();
+            }
+            flushScheduled = false;
+            scheduleFlush();
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void send(Map<PriceFeatures, CompletableFuture<Map<String, Object>>> batch) {
+        List<PriceFeatures> features = new ArrayList<>(batch.keySet());
+        List<Map<String, Object>> results = new ArrayList<>(features.size());
+        RuntimeException failure = null;
+        try {
+            Map<String, Object> response = aiServiceClient.predictPriceBatch(
+                    Map.of("properties", features.stream().map(PriceFeatures::toRequest).toList()));
+            List<Object> predictions = (List<Object>) response.get("predictions");
+            if (predictions == null || predictions.size() != features.size()) {
+                throw new IllegalStateException("Réponse incomplète de /price/predict/batch");
+            }
+            for (int i = 0; i < features.size(); i++) {
+                Map<String, Object> prediction = Collections.unmodifiableMap((Map<String, Object>) predictions.get(i));
+                cache.put(features.get(i), prediction);
+                results.add(prediction);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("❌ Lot de {} prédictions de prix en échec : {}", features.size(), e.getMessage());
+            failure = e;
+        }
+
+        // Retrait d'inFlight après la mise en cache : une nouvelle demande trouve l'un ou l'autre
+        synchronized (lock) {
+            features.forEach(inFlight::remove);
+        }
+        for (int i = 0; i < features.size(); i++) {
+            CompletableFuture<Map<String, Object>> future = batch.get(features.get(i));
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(results.get(i));
+            }
+        }
+    }
+
+    private Map<String, Object> await(CompletableFuture<Map<String, Object>> future) {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("AI service : pas de réponse en " + timeoutMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Prédiction interrompue", e);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.realestate.listing.prediction;
+
+import com.realestate.listing.entity.PricingFeatureStoreState;
+import com.realestate.listing.entity.PricingReview;
+import com.realestate.listing.entity.PricingStay;
+import com.realestate.listing.repository.PricingFeatureStoreStateRepository;
+import com.realestate.listing.repository.PricingReviewRepository;
+import com.realestate.listing.repository.PricingStayRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * ========================================
+ * STORE DE CARACTÉRISTIQUES DE PRIX
+ * ========================================
+ * Occupation (30 / 90 jours glissants), note moyenne et nombre d'avis par property,
+ * alimentés par les événements RabbitMQ de booking-service et review-service
+ * (PricingEventListener), sans aucun appel synchrone à ces services.
+ * - BDD (pricing_stay, pricing_review) : source de vérité, idempotente par id de réservation
+ * - mémoire : séjours de la fenêtre + somme/nombre de notes par property, et un instantané
+ *   PropertyPricingFeatures recalculé à chaque événement et chaque nuit → lecture O(1)
+ * - pas de reprise d'historique : l'occupation n'est calculée que sur les jours écoutés
+ *   depuis trackingSince, et reste inconnue (null) en dessous de min-observed-days
+ */
+@Service
+public class PropertyFeatureStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(PropertyFeatureStore.class);
+
+    static final int SHORT_WINDOW_DAYS = 30;
+    static final int LONG_WINDOW_DAYS = 90;
+
+    @Autowired
+    private PricingStayRepository stayRepository;
+
+    @Autowired
+    private PricingReviewRepository reviewRepository;
+
+    @Autowired
+    private PricingFeatureStoreStateRepository stateRepository;
+
+    @Value("${listing.pricing.features.min-observed-days:7}")
+    private int minObservedDays;
+
+    private final Map<Integer, PropertyState> states = new ConcurrentHashMap<>();
+    private final Map<Integer, PropertyPricingFeatures> snapshots = new ConcurrentHashMap<>();
+
+    // Property sans séjour ni avis : même instantané pour toutes (dépend seulement du jour)
+    private volatile PropertyPricingFeatures emptySnapshot = new PropertyPricingFeatures(null, null, null, 0);
+
+    private volatile LocalDate trackingSince;
+
+    // Séjours (reservationId → [arrivée, départ[ en jours epoch) et notes d'une property
+    private static final class PropertyState {
+        final Map<Integer, long[]> stays = new HashMap<>();
+        double ratingSum;
+        int reviewCount;
+    }
+
+    // ======================
+    // === LECTURE ===
+    // ======================
+
+    /** Instantané des caractéristiques, O(1) */
+    public PropertyPricingFeatures features(Integer propertyId) {
+        PropertyPricingFeatures snapshot = snapshots.get(propertyId);
+        return snapshot != null ? snapshot : emptySnapshot;
+    }
+
+    // ======================
+    // === ÉVÉNEMENTS ===
+    // ======================
+
+    /** Séjour confirmé ou modifié (idempotent) ; ignoré s'il est déjà sorti de la fenêtre */
+    public void recordStay(Integer reservationId, Integer propertyId, LocalDate checkIn, LocalDate checkOut) {
+        if (!checkIn.isBefore(checkOut)) {
+            throw new IllegalArgumentException("Séjour " + reservationId + " : arrivée après le départ");
+        }
+        if (!checkOut.isAfter(windowStart(today()))) return;
+
+        // Déplacé vers une autre property (ne devrait pas arriver) : retiré de l'ancienne
+        stayRepository.findById(reservationId)
+                .filter(previous -> !previous.getPropertyId().equals(propertyId))
+                .ifPresent(previous -> update(previous.getPropertyId(), state -> state.stays.remove(reservationId)));
+
+        stayRepository.save(PricingStay.builder()
+                .reservationId(reservationId)
+                .propertyId(propertyId)
+                .checkIn(checkIn)
+                .checkOut(checkOut)
+                .build());
+        update(propertyId, state -> state.stays.put(reservationId,
+                new long[]{checkIn.toEpochDay(), checkOut.toEpochDay()}));
+    }
+
+    /** Séjour annulé (sans effet si inconnu) */
+    public void removeStay(Integer reservationId) {
+        stayRepository.findById(reservationId).ifPresent(stay -> {
+            stayRepository.delete(stay);
+            update(stay.getPropertyId(), state -> state.stays.remove(reservationId));
+        });
+    }
+
+    /** Nouvel avis ; un avis déjà reçu pour la même réservation est ignoré */
+    public void recordReview(Integer reservationId, Integer propertyId, double rating) {
+        if (rating < 0 || rating > 5) {
+            throw new IllegalArgumentException("Note hors plage : " + rating);
+        }
+        if (reviewRepository.existsById(reservationId)) return;
+
+        reviewRepository.save(PricingReview.builder()
+                .reservationId(reservationId)
+                .propertyId(propertyId)
+                .rating(rating)
+                .build());
+        update(propertyId, state -> {
+            state.ratingSum += rating;
+            state.reviewCount++;
+        });
+    }
+
+    // ======================
+    // === CHARGEMENT / PURGE ===
+    // ======================
+
+    /**
+     * Recharge la mémoire depuis la BDD (appelé au démarrage, avant l'écoute des événements)
+     */
+    @Transactional
+    public void load() {
+        LocalDate today = today();
+        trackingSince = stateRepository.findById(PricingFeatureStoreState.SINGLETON_ID)
+                .orElseGet(() -> stateRepository.save(new PricingFeatureStoreState(PricingFeatureStoreState.SINGLETON_ID, today)))
+                .getTrackingSince();
+
+        stayRepository.deleteEndedBefore(windowStart(today));
+        Map<Integer, PropertyState> loaded = new HashMap<>();
+        List<PricingStay> stays = stayRepository.findByCheckOutAfter(windowStart(today));
+        for (PricingStay stay : stays) {
+            loaded.computeIfAbsent(stay.getPropertyId(), id -> new PropertyState()).stays
+                    .put(stay.getReservationId(), new long[]{stay.getCheckIn().toEpochDay(), stay.getCheckOut().toEpochDay()});
+        }
+        for (Object[] row : reviewRepository.sumRatingsByProperty()) {
+            PropertyState state = loaded.computeIfAbsent((Integer) row[0], id -> new PropertyState());
+            state.ratingSum = ((Number) row[1]).doubleValue();
+            state.reviewCount = ((Number) row[2]).intValue();
+        }
+
+        states.clear();
+        states.putAll(loaded);
+        refreshAll();
+        logger.info("📊 Store de caractéristiques de prix : {} properties, {} séjours (suivi depuis le {})",
+                loaded.size(), stays.size(), trackingSince);
+    }
+
+    /**
+     * Passage au jour suivant : purge des séjours sortis de la fenêtre, instantanés recalculés
+     */
+    @Scheduled(cron = "${listing.pricing.features.rollover-cron:0 5 0 * * *}")
+    @Transactional
+    public void rollover() {
+        if (trackingSince == null) return;
+
+        long windowStart = windowStart(today()).toEpochDay();
+        int purged = stayRepository.deleteEndedBefore(windowStart(today()));
+        for (PropertyState state : states.values()) {
+            synchronized (state) {
+                state.stays.values().removeIf(stay -> stay[1] <= windowStart);
+            }
+        }
+        refreshAll();
+        logger.debug("📊 Caractéristiques de prix recalculées ({} séjours purgés)", purged);
+    }
+
+    // ======================
+    // === INTERNE ===
+    // ======================
+
+    private void update(Integer propertyId, Consumer<PropertyState> change) {
+        PropertyState state = states.computeIfAbsent(propertyId, id -> new PropertyState());
+        synchronized (state) {
+            change.accept(state);
+            snapshots.put(propertyId, compute(state, today().toEpochDay()));
+        }
+    }
+
+    private void refreshAll() {
+        long today = today().toEpochDay();
+        emptySnapshot = compute(new PropertyState(), today);
+        for (Map.Entry<Integer, PropertyState> entry : states.entrySet()) {
+            synchronized (entry.getValue()) {
+                snapshots.put(entry.getKey(), compute(entry.getValue(), today));
+            }
+        }
+        snapshots.keySet().retainAll(states.keySet());
+    }
+
+    private PropertyPricingFeatures compute(PropertyState state, long today) {
+        return new PropertyPricingFeatures(
+                occupancy(state, today, SHORT_WINDOW_DAYS),
+                occupancy(state, today, LONG_WINDOW_DAYS),
+                state.reviewCount > 0 ? state.ratingSum / state.reviewCount : null,
+                state.reviewCount);
+    }
+
+    // Nuits réservées / nuits observées sur [today - window, today[ ; séjours qui se chevauchent comptés une fois
+    private Double occupancy(PropertyState state, long today, int window) {
+        long observed = trackingSince == null ? 0 : Math.min(window, today - trackingSince.toEpochDay());
+        if (observed < minObservedDays) return null;
+
+        long from = today - observed;
+        BitSet nights = new BitSet((int) observed);
+        for (long[] stay : state.stays.values()) {
+            long start = Math.max(stay[0], from);
+            long end = Math.min(stay[1], today);
+            if (start < end) {
+                nights.set((int) (start - from), (int) (end - from));
+            }
+        }
+        return nights.cardinality() / (double) observed;
+    }
+
+    private static LocalDate windowStart(LocalDate today) {
+        return today.minusDays(LONG_WINDOW_DAYS);
+    }
+
+    private static LocalDate today() {
+        return LocalDate.now();
+    }
+}
@@ -0,0 +1,25 @@
+package com.realestate.listing.prediction;
+
+/**
+ * Caractéristiques d'une property maintenues par PropertyFeatureStore
+ * - occupancy30 / occupancy90 : nuits réservées / nuits observées sur les 30 / 90 derniers jours
+ *   (null tant que la fenêtre n'est pas assez observée)
+ * - avgRating : null sans avis
+ */
+public record PropertyPricingFeatures(
+        Double occupancy30,
+        Double occupancy90,
+        Double avgRating,
+        int reviewCount
+) {
+
+    /** Occupation la plus stable disponible (90 jours, sinon 30), sinon fallback */
+    public double occupancyOr(double fallback) {
+        if (occupancy90 != null) return occupancy90;
+        return occupancy30 != null ? occupancy30 : fallback;
+    }
+
+    public double avgRatingOr(double fallback) {
+        return avgRating != null ? avgRating : fallback;
+    }
+}
@@ -0,0 +1,105 @@
+package com.realestate.listing.prediction;
+
+import java.util.List;
+
+/**
+ * Gradient boosting (sklearn GradientBoostingRegressor) : init + learning_rate × Σ valeur de la feuille atteinte
+ * - tous les arbres sont mis à plat dans les mêmes tableaux (indices de fils absolus),
+ *   un parcours = quelques lectures de tableaux contigus
+ * - même règle que sklearn : à gauche si x[feature] <= threshold, x en float32 (cf. PriceFeatureEncoder)
+ * - même ordre d'addition que sklearn, pour retrouver exactement ses prédictions
+ */
+final class TreeEnsemblePriceModel implements PriceModel {
+
+    private static final int LEAF = -1;
+
+    private final double init;
+    private final double learningRate;
+    private final int[] roots;
+    private final int[] feature;
+    private final double[] threshold;
+    private final int[] left;
+    private final int[] right;
+    private final double[] value;
+
+    private TreeEnsemblePriceModel(double init, double learningRate, int[] roots, int[] feature,
+                                   double[] threshold, int[] left, int[] right, double[] value) {
+        this.init = init;
+        this.learningRate = learningRate;
+        this.roots = roots;
+        this.feature = feature;
+        this.threshold = threshold;
+        this.left = left;
+        this.right = right;
+        this.value = value;
+    }
+
+    /**
+     * @throws IllegalArgumentException arbre incohérent (tailles, indices, feature hors plage)
+     */
+    static TreeEnsemblePriceModel of(double init, double learningRate, List<PriceModelArtifact.Tree> trees, int features) {
+        if (trees == null || trees.isEmpty()) {
+            throw new IllegalArgumentException("Modèle sans arbre");
+        }
+
+        int total = 0;
+        for (PriceModelArtifact.Tree tree : trees) {
+            total += tree.value().length;
+        }
+        int[] roots = new int[trees.size()];
+        int[] feature = new int[total];
+        double[] threshold = new double[total];
+        int[] left = new int[total];
+        int[] right = new int[total];
+        double[] value = new double[total];
+
+        int offset = 0;
+        for (int t = 0; t < trees.size(); t++) {
+            PriceModelArtifact.Tree tree = trees.get(t);
+            int n = tree.value().length;
+            if (n == 0 || tree.feature().length != n || tree.threshold().length != n
+                    || tree.left().length != n || tree.right().length != n) {
+                throw new IllegalArgumentException("Arbre " + t + " : tableaux de tailles différentes");
+            }
+            roots[t] = offset;
+            for (int node = 0; node < n; node++) {
+                int l = tree.left()[node];
+                int r = tree.right()[node];
+                int i = offset + node;
+                value[i] = tree.value()[node];
+                if (l == LEAF && r == LEAF) {
+                    left[i] = LEAF;
+                    right[i] = LEAF;
+                    continue;
+                }
+                // Fils toujours après le parent (ordre sklearn) : le parcours termine forcément
+                if (l <= node || l >= n || r <= node || r >= n) {
+                    throw new IllegalArgumentException("Arbre " + t + " : fils invalides au nœud " + node);
+                }
+                int f = tree.feature()[node];
+                if (f < 0 || f >= features) {
+                    throw new IllegalArgumentException("Arbre " + t + " : feature " + f + " inconnue");
+                }
+                feature[i] = f;
+                threshold[i] = tree.threshold()[node];
+                left[i] = offset + l;
+                right[i] = offset + r;
+            }
+            offset += n;
+        }
+        return new TreeEnsemblePriceModel(init, learningRate, roots, feature, threshold, left, right, value);
+    }
+
+    @Override
+    public double score(double[] x) {
+        double sum = init;
+        for (int root : roots) {
+            int node = root;
+            while (left[node] != LEAF) {
+                node = x[feature[node]] <= threshold[node] ? left[node] : right[node];
+            }
+            sum += learningRate * value[node];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,102 @@
+package com.realestate.listing.pricing;
+
+import com.realestate.listing.entity.Discount;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Table de réductions précompilée d'une property, triée par pourcentage décroissant :
+ * la première règle applicable est la meilleure.
+ */
+final class DiscountRules {
+
+    static final String NO_DISCOUNT = "Aucune";
+    static final DiscountRules EMPTY = new DiscountRules(new byte[0], new int[0], new double[0], new String[0]);
+
+    // Types de réduction
+    static final byte OTHER = 0;
+    static final byte LAST_MINUTE = 1;
+    static final byte LONG_STAY = 2;      // weekly, monthly
+    static final byte FIRST_BOOKING = 3;
+
+    private final byte[] types;
+    private final int[] minNights;
+    private final double[] percentages;
+    private final String[] typeNames;
+
+    private DiscountRules(byte[] types, int[] minNights, double[] percentages, String[] typeNames) {
+        this.types = types;
+        this.minNights = minNights;
+        this.percentages = percentages;
+        this.typeNames = typeNames;
+    }
+
+    static DiscountRules compile(Collection<Discount> discounts) {
+        if (discounts == null || discounts.isEmpty()) return EMPTY;
+        List<Rule> rules = new ArrayList<>(discounts.size());
+        for (Discount d : discounts) {
+            rules.add(new Rule(d.getDiscountType(), d.getMinNights(), d.getDiscountPercentage()));
+        }
+        return compile(rules);
+    }
+
+    static DiscountRules compile(List<Rule> rules) {
+        List<Rule> applicable = rules.stream()
+                .filter(r -> r.percentage() != null && r.percentage() > 0 && typeOf(r.type()) != OTHER)
+                .sorted(Comparator.comparingDouble(Rule::percentage).reversed())
+                .toList();
+        if (applicable.isEmpty()) return EMPTY;
+
+        int n = applicable.size();
+        byte[] types = new byte[n];
+        int[] minNights = new int[n];
+        double[] percentages = new double[n];
+        String[] typeNames = new String[n];
+        for (int i = 0; i < n; i++) {
+            Rule r = applicable.get(i);
+            types[i] = typeOf(r.type());
+            minNights[i] = r.minNights() != null ? r.minNights() : 0;
+            percentages[i] = r.percentage();
+            typeNames[i] = r.type();
+        }
+        return new DiscountRules(types, minNights, percentages, typeNames);
+    }
+
+    /** Index de la meilleure règle applicable, -1 si aucune */
+    int best(long nights, boolean isFirstBooking, boolean lastMinute) {
+        for (int i = 0; i < types.length; i++) {
+            if (nights < minNights[i]) continue;
+            boolean applies = switch (types[i]) {
+                case LAST_MINUTE -> lastMinute;
+                case LONG_STAY -> true;
+                case FIRST_BOOKING -> isFirstBooking;
+                default -> false;
+            };
+            if (applies) return i;
+        }
+        return -1;
+    }
+
+    double percentage(int index) {
+        return index < 0 ? 0.0 : percentages[index];
+    }
+
+    String typeName(int index) {
+        return index < 0 ? NO_DISCOUNT : typeNames[index];
+    }
+
+    private static byte typeOf(String type) {
+        if (type == null) return OTHER;
+        return switch (type) {
+            case "last_minute" -> LAST_MINUTE;
+            case "weekly", "monthly" -> LONG_STAY;
+            case "first_booking" -> FIRST_BOOKING;
+            default -> OTHER;
+        };
+    }
+
+    record Rule(String type, Integer minNights, Double percentage) {}
+}
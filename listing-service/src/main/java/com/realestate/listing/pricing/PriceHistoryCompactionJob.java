@@ -0,0 +1,191 @@
+package com.realestate.listing.pricing;
+
+import com.realestate.listing.entity.PriceHistoryBucket.Granularity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.function.IntSupplier;
+
+/**
+ * ========================================
+ * COMPACTION DE L'HISTORIQUE DE PRIX
+ * ========================================
+ * price_history reste le journal brut (ajout seul) ; ce job réduit sa taille sans perdre
+ * l'allure des courbes :
+ * - changements de plus de raw-days jours → agrégats journaliers (price_history_bucket, DAY)
+ * - agrégats journaliers de plus de daily-days jours → agrégats hebdomadaires (WEEK, lundi)
+ * Par lots de batch-size lignes, une transaction par lot : agrégation en mémoire, upsert additif
+ * (min/max/somme/nombre/dernier prix), puis suppression des lignes sources. Un lot interrompu
+ * est annulé en entier : rien n'est compté deux fois.
+ */
+@Component
+public class PriceHistoryCompactionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryCompactionJob.class);
+
+    // Fusion additive ; last_price doit être affecté avant last_changed_at (évaluation de gauche à droite)
+    private static final String UPSERT_BUCKET = """
+            INSERT INTO price_history_bucket
+                (property_id, price_type, granularity, bucket_start, min_price, max_price,
+                 sum_price, change_count, last_price, last_changed_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                min_price = LEAST(min_price, VALUES(min_price)),
+                max_price = GREATEST(max_price, VALUES(max_price)),
+                sum_price = sum_price + VALUES(sum_price),
+                change_count = change_count + VALUES(change_count),
+                last_price = IF(VALUES(last_changed_at) >= last_changed_at, VALUES(last_price), last_price),
+                last_changed_at = GREATEST(last_changed_at, VALUES(last_changed_at))
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${listing.price-history.compaction.enabled:true}")
+    private boolean enabled;
+
+    @Value("${listing.price-history.compaction.raw-days:30}")
+    private int rawDays;
+
+    @Value("${listing.price-history.compaction.daily-days:180}")
+    private int dailyDays;
+
+    @Value("${listing.price-history.compaction.batch-size:5000}")
+    private int batchSize;
+
+    @Scheduled(cron = "${listing.price-history.compaction.cron:0 30 3 * * *}")
+    public void compact() {
+        if (!enabled) return;
+
+        LocalDate today = LocalDate.now();
+        LocalDateTime rawCutoff = today.minusDays(rawDays).atStartOfDay();
+        LocalDate dailyCutoff = today.minusDays(dailyDays).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        try {
+            int raw = drain(() -> compactRaw(rawCutoff));
+            int daily = drain(() -> compactDaily(dailyCutoff));
+            if (raw + daily > 0) {
+                logger.info("🗜️ Historique de prix compacté : {} changements → jours, {} jours → semaines", raw, daily);
+            }
+        } catch (Exception e) {
+            logger.error("Échec de la compaction de l'historique de prix", e);
+        }
+    }
+
+    // Lots successifs jusqu'à épuisement
+    private int drain(IntSupplier batch) {
+        int total = 0;
+        int count;
+        do {
+            Integer done = transactionTemplate.execute(status -> batch.getAsInt());
+            count = done != null ? done : 0;
+            total += count;
+        } while (count >= batchSize);
+        return total;
+    }
+
+    // ======================
+    // === BRUT → JOUR ===
+    // ======================
+
+    private int compactRaw(LocalDateTime cutoff) {
+        Map<BucketKey, Aggregate> buckets = new LinkedHashMap<>();
+        List<Object[]> ids = new ArrayList<>();
+        jdbcTemplate.query("""
+                SELECT history_id, property_id, price_type, new_price, changed_at FROM price_history
+                WHERE changed_at < ? AND property_id IS NOT NULL
+                ORDER BY history_id LIMIT ?
+                """, rs -> {
+            ids.add(new Object[]{rs.getInt("history_id")});
+            double price = rs.getDouble("new_price");
+            if (rs.wasNull()) return; // suppression de prix : rien à agréger
+            LocalDateTime changedAt = rs.getTimestamp("changed_at").toLocalDateTime();
+            BucketKey key = new BucketKey(rs.getInt("property_id"), Objects.toString(rs.getString("price_type"), ""),
+                    Granularity.DAY, changedAt.toLocalDate());
+            buckets.computeIfAbsent(key, k -> new Aggregate()).add(price, price, price, 1, price, changedAt);
+        }, Timestamp.valueOf(cutoff), batchSize);
+
+        upsert(buckets);
+        jdbcTemplate.batchUpdate("DELETE FROM price_history WHERE history_id = ?", ids);
+        return ids.size();
+    }
+
+    // ======================
+    // === JOUR → SEMAINE ===
+    // ======================
+
+    private int compactDaily(LocalDate cutoff) {
+        Map<BucketKey, Aggregate> buckets = new LinkedHashMap<>();
+        List<Object[]> ids = new ArrayList<>();
+        jdbcTemplate.query("""
+                SELECT bucket_id, property_id, price_type, bucket_start, min_price, max_price,
+                       sum_price, change_count, last_price, last_changed_at
+                FROM price_history_bucket
+                WHERE granularity = ? AND bucket_start < ?
+                ORDER BY bucket_id LIMIT ?
+                """, rs -> {
+            ids.add(new Object[]{rs.getLong("bucket_id")});
+            LocalDate weekStart = rs.getDate("bucket_start").toLocalDate()
+                    .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            BucketKey key = new BucketKey(rs.getInt("property_id"), rs.getString("price_type"), Granularity.WEEK, weekStart);
+            buckets.computeIfAbsent(key, k -> new Aggregate()).add(
+                    rs.getDouble("min_price"), rs.getDouble("max_price"), rs.getDouble("sum_price"),
+                    rs.getInt("change_count"), rs.getDouble("last_price"),
+                    rs.getTimestamp("last_changed_at").toLocalDateTime());
+        }, Granularity.DAY.name(), Date.valueOf(cutoff), batchSize);
+
+        upsert(buckets);
+        jdbcTemplate.batchUpdate("DELETE FROM price_history_bucket WHERE bucket_id = ?", ids);
+        return ids.size();
+    }
+
+    // ======================
+    // === INTERNE ===
+    // ======================
+
+    private void upsert(Map<BucketKey, Aggregate> buckets) {
+        if (buckets.isEmpty()) return;
+        List<Object[]> rows = new ArrayList<>(buckets.size());
+        buckets.forEach((key, agg) -> rows.add(new Object[]{
+                key.propertyId(), key.priceType(), key.granularity().name(), Date.valueOf(key.start()),
+                agg.min, agg.max, agg.sum, agg.count, agg.last, Timestamp.valueOf(agg.lastAt)}));
+        jdbcTemplate.batchUpdate(UPSERT_BUCKET, rows);
+    }
+
+    private record BucketKey(int propertyId, String priceType, Granularity granularity, LocalDate start) {}
+
+    private static final class Aggregate {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double sum;
+        int count;
+        double last;
+        LocalDateTime lastAt;
+
+        void add(double min, double max, double sum, int count, double last, LocalDateTime lastAt) {
+            this.min = Math.min(this.min, min);
+            this.max = Math.max(this.max, max);
+            this.sum += sum;
+            this.count += count;
+            if (this.lastAt == null || !lastAt.isBefore(this.lastAt)) {
+                this.last = last;
+                this.lastAt = lastAt;
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.realestate.listing.pricing;
+
+/**
+ * Résultat du calcul de prix d'un séjour pour une property
+ */
+public record PriceQuote(
+        Integer propertyId,
+        double totalPrice,
+        double averagePricePerNight,
+        double discountPercentage,
+        String discountType
+) {}
@@ -0,0 +1,192 @@
+package com.realestate.listing.pricing;
+
+import com.realestate.listing.entity.Property;
+import com.realestate.listing.event.DiscountChangedEvent;
+import com.realestate.listing.event.PropertyChangedEvent;
+import com.realestate.listing.repository.DiscountRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ========================================
+ * MOTEUR DE PRIX
+ * ========================================
+ * - nuits de week-end (vendredi, samedi) comptées arithmétiquement, sans boucle sur les dates
+ * - réductions précompilées par property (DiscountRules), chargées en une requête pour un lot
+ * - un lot de candidats est tarifé en une passe sur des tableaux primitifs
+ * - comme avant : first_booking n'entre pas dans le prix total, il n'est qu'affiché
+ *   (réduction et type du PriceQuote)
+ */
+@Component
+public class PricingEngine {
+
+    private static final int IN_CHUNK_SIZE = 1000;
+    private static final int LAST_MINUTE_DAYS = 14;
+
+    @Autowired
+    private DiscountRepository discountRepository;
+
+    // propertyId → réductions précompilées
+    private final ConcurrentHashMap<Integer, DiscountRules> rulesCache = new ConcurrentHashMap<>();
+
+    /**
+     * Prix d'un séjour pour une property (réductions lues depuis l'entité)
+     */
+    public PriceQuote quote(Property property, LocalDate checkIn, LocalDate checkOut,
+                            boolean isFirstBooking, LocalDate bookingDate) {
+        Stay stay = Stay.of(checkIn, checkOut, bookingDate);
+        DiscountRules rules = DiscountRules.compile(property.getDiscounts());
+        return price(property.getPropertyId(), basePrice(property), weekendPrice(property), rules, stay, isFirstBooking);
+    }
+
+    /**
+     * Prix d'un séjour pour une liste de properties, dans l'ordre de la liste
+     */
+    public List<PriceQuote> quoteAll(List<Property> properties, LocalDate checkIn, LocalDate checkOut,
+                                     boolean isFirstBooking, LocalDate bookingDate) {
+        Stay stay = Stay.of(checkIn, checkOut, bookingDate);
+        int n = properties.size();
+
+        // === COLONNES ===
+        int[] ids = new int[n];
+        double[] base = new double[n];
+        double[] weekend = new double[n];
+        for (int i = 0; i < n; i++) {
+            Property p = properties.get(i);
+            ids[i] = p.getPropertyId();
+            base[i] = basePrice(p);
+            weekend[i] = weekendPrice(p);
+        }
+        DiscountRules[] rules = rulesFor(ids);
+
+        // === UNE PASSE ===
+        List<PriceQuote> quotes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            quotes.add(price(ids[i], base[i], weekend[i], rules[i], stay, isFirstBooking));
+        }
+        return quotes;
+    }
+
+    /**
+     * Prix total du séjour à partir de colonnes (id, prix de base, prix week-end ; NaN = non renseigné),
+     * sans PriceQuote par ligne : sert à classer tous les candidats avant de tarifer la seule page retenue
+     */
+    public double[] totals(int[] ids, double[] base, double[] weekend, LocalDate checkIn, LocalDate checkOut,
+                           LocalDate bookingDate) {
+        Stay stay = Stay.of(checkIn, checkOut, bookingDate);
+        DiscountRules[] rules = rulesFor(ids);
+
+        double[] totals = new double[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            double b = Double.isNaN(base[i]) ? 0.0 : base[i];
+            double w = Double.isNaN(weekend[i]) ? b : weekend[i];
+            totals[i] = total(b, w, rules[i], stay);
+        }
+        return totals;
+    }
+
+    /** Nombre de nuits de vendredi et samedi dans [checkIn, checkIn + nights[ */
+    static long weekendNights(LocalDate checkIn, long nights) {
+        long count = (nights / 7) * 2;
+        int remainder = (int) (nights % 7);
+        int day = checkIn.getDayOfWeek().getValue(); // 1 = lundi ... 7 = dimanche
+        for (int i = 0; i < remainder; i++) {
+            int dow = (day - 1 + i) % 7 + 1;
+            if (dow == 5 || dow == 6) count++;
+        }
+        return count;
+    }
+
+    // ======================
+    // === INVALIDATION ===
+    // ======================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        rulesCache.remove(event.propertyId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDiscountChanged(DiscountChangedEvent event) {
+        // Un discount peut être partagé : on vide tout (modifications rares)
+        rulesCache.clear();
+    }
+
+    // ======================
+    // === INTERNE ===
+    // ======================
+
+    private PriceQuote price(int propertyId, double base, double weekend, DiscountRules rules,
+                             Stay stay, boolean isFirstBooking) {
+        double total = total(base, weekend, rules, stay);
+        int shown = rules.best(stay.nights, isFirstBooking, stay.lastMinute);
+        return new PriceQuote(propertyId, total, total / stay.nights, rules.percentage(shown), rules.typeName(shown));
+    }
+
+    // Sans first_booking
+    private static double total(double base, double weekend, DiscountRules rules, Stay stay) {
+        int best = rules.best(stay.nights, false, stay.lastMinute);
+        return baseTotal(base, weekend, stay) * (1 - rules.percentage(best) / 100.0);
+    }
+
+    private static double baseTotal(double base, double weekend, Stay stay) {
+        return (stay.nights - stay.weekendNights) * base + stay.weekendNights * weekend;
+    }
+
+    private DiscountRules[] rulesFor(int[] ids) {
+        DiscountRules[] result = new DiscountRules[ids.length];
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            result[i] = rulesCache.get(ids[i]);
+            if (result[i] == null) missing.add(ids[i]);
+        }
+        if (missing.isEmpty()) return result;
+
+        // Chargement groupé des réductions manquantes
+        Map<Integer, List<DiscountRules.Rule>> rows = new HashMap<>();
+        for (int from = 0; from < missing.size(); from += IN_CHUNK_SIZE) {
+            List<Integer> chunk = missing.subList(from, Math.min(from + IN_CHUNK_SIZE, missing.size()));
+            for (Object[] row : discountRepository.findDiscountRowsByPropertyIds(chunk)) {
+                rows.computeIfAbsent((Integer) row[0], k -> new ArrayList<>())
+                        .add(new DiscountRules.Rule((String) row[1], (Integer) row[3], (Double) row[2]));
+            }
+        }
+        Map<Integer, DiscountRules> compiled = new HashMap<>();
+        for (Integer id : missing) {
+            List<DiscountRules.Rule> propertyRules = rows.get(id);
+            DiscountRules rules = propertyRules == null ? DiscountRules.EMPTY : DiscountRules.compile(propertyRules);
+            compiled.put(id, rules);
+            rulesCache.put(id, rules);
+        }
+
+        for (int i = 0; i < ids.length; i++) {
+            if (result[i] == null) result[i] = compiled.get(ids[i]);
+        }
+        return result;
+    }
+
+    private static double basePrice(Property p) {
+        return p.getPricePerNight() != null ? p.getPricePerNight() : 0.0;
+    }
+
+    private static double weekendPrice(Property p) {
+        // SI NULL → UTILISE LE PRIX NORMAL
+        return p.getWeekendPricePerNight() != null ? p.getWeekendPricePerNight() : basePrice(p);
+    }
+
+    // Invariants du séjour, calculés une seule fois par lot
+    private record Stay(long nights, long weekendNights, boolean lastMinute) {
+        static Stay of(LocalDate checkIn, LocalDate checkOut, LocalDate bookingDate) {
+            long nights = ChronoUnit.DAYS.between(checkIn, checkOut);
+            if (nights <= 0) throw new IllegalArgumentException("Dates invalides");
+            boolean lastMinute = ChronoUnit.DAYS.between(bookingDate, checkIn) <= LAST_MINUTE_DAYS;
+            return new Stay(nights, PricingEngine.weekendNights(checkIn, nights), lastMinute);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.realestate.listing.repository;
+
+import com.realestate.listing.entity.AvailabilityHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AvailabilityHoldRepository extends JpaRepository<AvailabilityHold, Long> {
+
+    // Holds encore actifs (rechargement au démarrage)
+    List<AvailabilityHold> findByExpiresAtAfter(LocalDateTime now);
+
+    // Holds expirés pendant un arrêt du service
+    @Modifying
+    @Query("DELETE FROM AvailabilityHold h WHERE h.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -2,8 +2,11 @@ package com.realestate.listing.repository;
 
 import com.realestate.listing.entity.Discount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,4 +16,9 @@ public interface DiscountRepository extends JpaRepository<Discount, Integer> {
     List<Discount> findByDiscountId(Integer discountId);
 
     List<Discount> findByProperties_PropertyId(Integer propertyId);
+
+    // (propertyId, discountType, discountPercentage, minNights) pour un lot de properties
+    @Query("SELECT p.propertyId, d.discountType, d.discountPercentage, d.minNights " +
+            "FROM Property p JOIN p.discounts d WHERE p.propertyId IN :propertyIds")
+    List<Object[]> findDiscountRowsByPropertyIds(@Param("propertyIds") Collection<Integer> propertyIds);
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.realestate.listing.repository;
+
+import com.realestate.listing.entity.PendingPropertyVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PendingPropertyVersionRepository extends JpaRepository<PendingPropertyVersion, Long> {
+
+    /**
+     * Une ligne par property en attente : [propertyId, première modification, dernière modification, dernier pendingId]
+     */
+    @Query("""
+        SELECT q.propertyId, MIN(q.enqueuedAt), MAX(q.enqueuedAt), MAX(q.pendingId)
+        FROM PendingPropertyVersion q
+        GROUP BY q.propertyId
+    """)
+    List<Object[]> summarizePending();
+
+    @Query("SELECT MAX(q.pendingId) FROM PendingPropertyVersion q WHERE q.propertyId = :propertyId")
+    Long findLastPendingId(@Param("propertyId") Integer propertyId);
+
+    // Consomme les modifications jusqu'à lastPendingId (celles arrivées ensuite restent en file)
+    @Modifying
+    @Query("DELETE FROM PendingPropertyVersion q WHERE q.propertyId = :propertyId AND q.pendingId <= :lastPendingId")
+    int deleteUpTo(@Param("propertyId") Integer propertyId, @Param("lastPendingId") Long lastPendingId);
+}
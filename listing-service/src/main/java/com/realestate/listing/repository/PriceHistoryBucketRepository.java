@@ -0,0 +1,23 @@
+package com.realestate.listing.repository;
+
+import com.realestate.listing.entity.PriceHistoryBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PriceHistoryBucketRepository extends JpaRepository<PriceHistoryBucket, Long> {
+
+    // Agrégats commençant dans [from, to[ (l'appelant élargit from d'une semaine pour les périodes à cheval)
+    List<PriceHistoryBucket> findByPropertyIdAndPriceTypeAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(
+            Integer propertyId, String priceType, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM PriceHistoryBucket b WHERE b.propertyId = :propertyId")
+    int deleteByPropertyId(@Param("propertyId") Integer propertyId);
+}
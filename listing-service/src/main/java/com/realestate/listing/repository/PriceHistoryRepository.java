@@ -2,11 +2,28 @@ package com.realestate.listing.repository;
 
 import com.realestate.listing.entity.PriceHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface PriceHistoryRepository extends JpaRepository<PriceHistory, Integer> {
     List<PriceHistory> findByProperty_PropertyIdOrderByChangedAtDesc(Integer propertyId);
+
+    /**
+     * Changements bruts (non encore compactés) d'un type de prix sur [from, to[ : [newPrice, changedAt]
+     */
+    @Query("""
+    SELECT h.newPrice, h.changedAt FROM PriceHistory h
+    WHERE h.property.propertyId = :propertyId AND COALESCE(h.priceType, '') = :priceType
+      AND h.changedAt >= :from AND h.changedAt < :to AND h.newPrice IS NOT NULL
+    ORDER BY h.changedAt
+    """)
+    List<Object[]> findRawPoints(@Param("propertyId") Integer propertyId,
+                                 @Param("priceType") String priceType,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to);
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.realestate.listing.repository;
+
+import com.realestate.listing.entity.PricingFeatureStoreState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PricingFeatureStoreStateRepository extends JpaRepository<PricingFeatureStoreState, Integer> {
+}
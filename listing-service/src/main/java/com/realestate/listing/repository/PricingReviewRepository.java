@@ -0,0 +1,18 @@
+package com.realestate.listing.repository;
+
+import com.realestate.listing.entity.PricingReview;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PricingReviewRepository extends JpaRepository<PricingReview, Integer> {
+
+    /**
+     * Agrégats par property : [propertyId, somme des notes, nombre d'avis]
+     */
+    @Query("SELECT r.propertyId, SUM(r.rating), COUNT(r) FROM PricingReview r GROUP BY r.propertyId")
+    List<Object[]> sumRatingsByProperty();
+}
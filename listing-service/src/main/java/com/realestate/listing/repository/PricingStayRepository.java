@@ -0,0 +1,23 @@
+package com.realestate.listing.repository;
+
+import com.realestate.listing.entity.PricingStay;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PricingStayRepository extends JpaRepository<PricingStay, Integer> {
+
+    // Séjours encore dans la fenêtre d'occupation (rechargement au démarrage)
+    List<PricingStay> findByCheckOutAfter(LocalDate date);
+
+    // Séjours sortis de la fenêtre d'occupation
+    @Modifying
+    @Query("DELETE FROM PricingStay s WHERE s.checkOut <= :date")
+    int deleteEndedBefore(@Param("date") LocalDate date);
+}
@@ -1,12 +1,15 @@
 package com.realestate.listing.repository;
 
 import com.realestate.listing.entity.PropertyAvailability;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -35,4 +38,42 @@ public interface PropertyAvailabilityRepository extends JpaRepository<PropertyAv
             @Param("propertyId") Integer propertyId,
             @Param("start") LocalDate start,
             @Param("end") LocalDate end);
-}
\ No newline at end of file
+
+    // Idem en lecture verrouillante : dernières lignes validées, même si la transaction a déjà lu avant
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM PropertyAvailability a " +
+            "WHERE a.property.propertyId = :propertyId " +
+            "AND a.isAvailable = false " +
+            "AND a.dateDebut <= :end AND a.dateFin >= :start")
+    List<PropertyAvailability> findOverlappingBlocksForUpdate(
+            @Param("propertyId") Integer propertyId,
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end);
+
+    // Properties (parmi la liste) ayant au moins un bloc qui chevauche la période
+    @Query("SELECT DISTINCT a.property.propertyId FROM PropertyAvailability a " +
+            "WHERE a.property.propertyId IN :propertyIds " +
+            "AND a.dateDebut <= :end AND a.dateFin >= :start")
+    List<Integer> findBlockedPropertyIds(
+            @Param("propertyIds") Collection<Integer> propertyIds,
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end);
+
+    // Périodes (propertyId, dateDebut, dateFin) qui chevauchent la fenêtre, pour plusieurs properties
+    @Query("SELECT a.property.propertyId, a.dateDebut, a.dateFin FROM PropertyAvailability a " +
+            "WHERE a.property.propertyId IN :propertyIds " +
+            "AND a.dateDebut <= :end AND a.dateFin >= :start")
+    List<Object[]> findPeriodsInWindow(
+            @Param("propertyIds") Collection<Integer> propertyIds,
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end);
+
+    // Toutes les périodes bloquées d'une property (défragmentation)
+    List<PropertyAvailability> findByProperty_PropertyIdAndIsAvailableFalse(Integer propertyId);
+
+    // Properties ayant plusieurs périodes pour une même raison (candidates à la défragmentation)
+    @Query("SELECT DISTINCT a.property.propertyId FROM PropertyAvailability a " +
+            "WHERE a.isAvailable = false " +
+            "GROUP BY a.property.propertyId, a.because HAVING COUNT(a) > 1")
+    List<Integer> findFragmentedPropertyIds();
+}
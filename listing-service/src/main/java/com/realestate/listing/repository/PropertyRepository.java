@@ -1,5 +1,6 @@
 package com.realestate.listing.repository;
 
+import com.realestate.listing.dto.PropertyCardDTO;
 import com.realestate.listing.entity.Property;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -7,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,10 +22,68 @@ public interface PropertyRepository extends JpaRepository<Property, Integer> {
     List<Property> findByStatus(Property.PropertyStatus status);
     Page<Property> findByStatus(Property.PropertyStatus status, Pageable pageable);
 
+    /**
+     * ========================================
+     * CARDS (projection)
+     * Champs de PropertyCardDTO + photo principale (isCover, sinon displayOrder minimal)
+     * par sous-requête corrélée : une requête par page, sans charger les photos
+     * ========================================
+     */
+    String CARD_SELECT = """
+    SELECT new com.realestate.listing.dto.PropertyCardDTO(
+        p.propertyId, p.title, p.city, p.country, p.propertyType, p.placeType,
+        p.maxGuests, p.bedrooms, p.beds, p.bathrooms, p.PricePerNight, p.weekendPricePerNight,
+        COALESCE(
+          (SELECT MIN(pc.photoUrl) FROM PropertyPhoto pc WHERE pc.property = p AND pc.isCover = true),
+          (SELECT MIN(ph.photoUrl) FROM PropertyPhoto ph
+            WHERE ph.property = p
+              AND ph.displayOrder = (SELECT MIN(ph2.displayOrder) FROM PropertyPhoto ph2 WHERE ph2.property = p))),
+        p.status)
+    FROM Property p
+    """;
+
+    @Query(value = CARD_SELECT + "WHERE p.status = :status",
+           countQuery = "SELECT COUNT(p) FROM Property p WHERE p.status = :status")
+    Page<PropertyCardDTO> findCardsByStatus(@Param("status") Property.PropertyStatus status, Pageable pageable);
+
+    @Query(CARD_SELECT + "WHERE p.userId = :userId")
+    List<PropertyCardDTO> findCardsByUserId(@Param("userId") Integer userId);
+
+    @Query(CARD_SELECT + "WHERE p.propertyId IN :ids")
+    List<PropertyCardDTO> findCardsByIds(@Param("ids") Collection<Integer> ids);
+
+    // Pagination keyset : WHERE propertyId > :afterId ORDER BY propertyId LIMIT n (pas d'OFFSET ni de COUNT)
+    @Query(CARD_SELECT + "WHERE p.status = :status AND p.propertyId > :afterId ORDER BY p.propertyId")
+    List<PropertyCardDTO> findCardsByStatusAfter(@Param("status") Property.PropertyStatus status,
+                                                 @Param("afterId") Integer afterId, Pageable pageable);
+
+    long countByStatus(Property.PropertyStatus status);
+
+    /**
+     * Caractéristiques de prédiction de prix, une ligne par property :
+     * [propertyId, userId, surfaceArea, bedrooms, pricePerNight, nombre d'amenities]
+     */
+    String PRICING_FEATURES_SELECT = """
+    SELECT p.propertyId, p.userId, p.surfaceArea, p.bedrooms, p.PricePerNight, COUNT(a)
+    FROM Property p LEFT JOIN p.amenities a
+    """;
+
+    String PRICING_FEATURES_GROUP_BY = """
+     GROUP BY p.propertyId, p.userId, p.surfaceArea, p.bedrooms, p.PricePerNight
+    """;
+
+    @Query(PRICING_FEATURES_SELECT + "WHERE p.propertyId = :propertyId" + PRICING_FEATURES_GROUP_BY)
+    List<Object[]> findPricingFeatures(@Param("propertyId") Integer propertyId);
+
+    @Query(PRICING_FEATURES_SELECT + "WHERE p.userId = :userId AND p.status IN :statuses" + PRICING_FEATURES_GROUP_BY)
+    List<Object[]> findPricingFeaturesByUserId(@Param("userId") Integer userId,
+                                               @Param("statuses") Collection<Property.PropertyStatus> statuses);
+
     /**
      * ========================================
      * RECHERCHE AVANCÉE AVEC FILTRES
      * ✅ CORRECTION : Suppression de r.propertyRuleId du GROUP BY
+     * city, country, propertyType, placeType : déjà normalisés (PropertyDocument.normalize)
      * ========================================
      */
     @Query("""
@@ -31,10 +91,10 @@ public interface PropertyRepository extends JpaRepository<Property, Integer> {
     LEFT JOIN p.amenities a 
     LEFT JOIN p.rules r 
     WHERE p.status = 'ACTIVE'
-      AND (:city IS NULL OR LOWER(p.city) = LOWER(:city))
-      AND (:country IS NULL OR LOWER(p.country) = LOWER(:country))
-      AND (:propertyType IS NULL OR LOWER(p.propertyType) = LOWER(:propertyType))
-      AND (:placeType IS NULL OR LOWER(p.placeType) = LOWER(:placeType))
+      AND (:city IS NULL OR LOWER(TRIM(p.city)) = :city)
+      AND (:country IS NULL OR LOWER(TRIM(p.country)) = :country)
+      AND (:propertyType IS NULL OR LOWER(TRIM(p.propertyType)) = :propertyType)
+      AND (:placeType IS NULL OR LOWER(TRIM(p.placeType)) = :placeType)
       AND (:minPrice IS NULL OR p.PricePerNight >= :minPrice)
       AND (:maxPrice IS NULL OR p.PricePerNight <= :maxPrice)
       AND (:bedrooms IS NULL OR p.bedrooms >= :bedrooms)
@@ -79,8 +139,32 @@ public interface PropertyRepository extends JpaRepository<Property, Integer> {
             @Param("eventsAllowed") Boolean eventsAllowed
     );
 
+    /**
+     * Chargement des properties ACTIVE pour les index en mémoire
+     * (amenities et règles chargées dans la même requête)
+     */
+    @Query("""
+    SELECT DISTINCT p FROM Property p
+    LEFT JOIN FETCH p.amenities
+    LEFT JOIN FETCH p.rules
+    WHERE p.status = 'ACTIVE'
+    """)
+    List<Property> findAllForIndexing();
+
     boolean existsByTitleAndCityAndAdresseLine(String title, String city, String adresseLine);
 
+    /**
+     * Doublon (titre, ville, adresse) comparé comme PropertyDocument.normalize : paramètres déjà normalisés
+     */
+    @Query("""
+    SELECT CASE WHEN COUNT(p) > 0 THEN true ELSE false END FROM Property p
+    WHERE LOWER(TRIM(p.title)) = :title
+    AND LOWER(TRIM(p.city)) = :city
+    AND LOWER(TRIM(p.adresseLine)) = :adresseLine
+    """)
+    boolean existsByNormalizedKey(@Param("title") String title, @Param("city") String city,
+                                  @Param("adresseLine") String adresseLine);
+
     @Query("""
         SELECT p.city, p.country, COUNT(p) 
         FROM Property p 
@@ -89,4 +173,18 @@ public interface PropertyRepository extends JpaRepository<Property, Integer> {
         ORDER BY COUNT(p) DESC
     """)
     List<Object[]> findDistinctCitiesAndCountries();
+
+    /**
+     * Verrou de ligne (SELECT ... FOR UPDATE) : sérialise la création des versions d'une property
+     * (worker et ensureCurrent). null si la property n'existe plus.
+     */
+    @Query(value = "SELECT property_id FROM property WHERE property_id = :propertyId FOR UPDATE", nativeQuery = true)
+    Integer lockForVersioning(@Param("propertyId") Integer propertyId);
+
+    /**
+     * Verrou de ligne (SELECT ... FOR UPDATE) : sérialise les blocages de période d'une property
+     * (blockPeriod, confirmHold). null si la property n'existe pas.
+     */
+    @Query(value = "SELECT property_id FROM property WHERE property_id = :propertyId FOR UPDATE", nativeQuery = true)
+    Integer lockForAvailability(@Param("propertyId") Integer propertyId);
 }
\ No newline at end of file
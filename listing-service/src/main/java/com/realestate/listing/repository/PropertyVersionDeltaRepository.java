@@ -0,0 +1,42 @@
+package com.realestate.listing.repository;
+
+import com.realestate.listing.entity.PropertyVersionDelta;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PropertyVersionDeltaRepository extends JpaRepository<PropertyVersionDelta, Integer> {
+
+    // Dernier checkpoint à ou avant numVersion
+    @Query("""
+        SELECT MAX(d.numVersion) FROM PropertyVersionDelta d
+        WHERE d.propertyId = :propertyId AND d.checkpoint = true AND d.numVersion <= :numVersion
+    """)
+    Integer findLastCheckpoint(@Param("propertyId") Integer propertyId, @Param("numVersion") Integer numVersion);
+
+    // Chaîne checkpoint → version demandée
+    List<PropertyVersionDelta> findByPropertyIdAndNumVersionBetweenOrderByNumVersionAsc(
+            Integer propertyId, Integer fromNumVersion, Integer toNumVersion);
+
+    // Pagination keyset de l'historique
+    List<PropertyVersionDelta> findByPropertyIdAndNumVersionGreaterThanOrderByNumVersionAsc(
+            Integer propertyId, Integer afterNumVersion, Pageable pageable);
+
+    // Historique complet d'une property (reconstruction de toutes ses versions en une passe)
+    List<PropertyVersionDelta> findByPropertyIdOrderByNumVersionAsc(Integer propertyId);
+
+    Optional<PropertyVersionDelta> findByPropertyIdAndNumVersion(Integer propertyId, Integer numVersion);
+
+    // Version suivante (numéros non contigus après une suppression)
+    Optional<PropertyVersionDelta> findFirstByPropertyIdAndNumVersionGreaterThanOrderByNumVersionAsc(
+            Integer propertyId, Integer numVersion);
+
+    long countByPropertyId(Integer propertyId);
+}
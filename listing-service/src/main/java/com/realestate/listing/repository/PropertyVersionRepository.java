@@ -1,7 +1,11 @@
 package com.realestate.listing.repository;
 
 import com.realestate.listing.entity.PropertyVersion;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +19,29 @@ public interface PropertyVersionRepository extends JpaRepository<PropertyVersion
     Optional<PropertyVersion> findByPropertyIdAndNumVersion(Integer propertyId, Integer numVersion);
     // retourne la version actuelle
     Optional<PropertyVersion> findTopByPropertyIdOrderByNumVersionDesc(Integer propertyId);
+    // nombre de versions d'une property (historique compact complet ou non)
+    long countByPropertyId(Integer propertyId);
+    // version précédente (numéros non contigus après une suppression)
+    Optional<PropertyVersion> findTopByPropertyIdAndNumVersionLessThanOrderByNumVersionDesc(Integer propertyId, Integer numVersion);
+    // page de versions par curseur (versionId croissant)
+    List<PropertyVersion> findByVersionIdGreaterThanOrderByVersionIdAsc(Integer afterVersionId, Pageable pageable);
+
+    // properties (après afterPropertyId) dont des versions référencent encore des snapshots complets
+    @Query("""
+        SELECT DISTINCT v.propertyId FROM PropertyVersion v
+        WHERE v.propertyId > :afterPropertyId
+          AND (v.generalSnapshot IS NOT NULL OR v.amenitiesSnapshot IS NOT NULL
+               OR v.photosSnapshot IS NOT NULL OR v.rulesSnapshot IS NOT NULL)
+        ORDER BY v.propertyId
+    """)
+    List<Integer> findPropertyIdsWithSnapshotsAfter(@Param("afterPropertyId") Integer afterPropertyId, Pageable pageable);
+
+    // versions migrées vers l'historique compact : plus de référence aux snapshots
+    @Modifying
+    @Query("""
+        UPDATE PropertyVersion v
+        SET v.generalSnapshot = null, v.amenitiesSnapshot = null, v.photosSnapshot = null, v.rulesSnapshot = null
+        WHERE v.propertyId = :propertyId
+    """)
+    int detachSnapshots(@Param("propertyId") Integer propertyId);
 }
\ No newline at end of file
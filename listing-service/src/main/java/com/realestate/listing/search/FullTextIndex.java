@@ -0,0 +1,353 @@
+package com.realestate.listing.search;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ========================================
+ * INDEX PLEIN TEXTE (properties ACTIVE)
+ * ========================================
+ * Index inversé terme → (propertyId → fréquence pondérée), classement BM25 :
+ * - champs pondérés : titre > amenities > quartier > description
+ * - termes normalisés (minuscules, sans accents), mots vides retirés, pluriels simples ramenés au singulier
+ * - le dernier terme de la requête est aussi cherché comme préfixe (saisie en cours)
+ * Persistance : les termes analysés de chaque property sont écrits sur disque avec l'empreinte
+ * de ses textes ; au redémarrage seules les properties dont le texte a changé sont réanalysées.
+ */
+@Component
+public class FullTextIndex implements PropertyIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(FullTextIndex.class);
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float AMENITY_WEIGHT = 1.5f;
+    private static final float NEIGHBORHOOD_WEIGHT = 1.2f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float PREFIX_FACTOR = 0.5f;
+    private static final int MAX_PREFIX_TERMS = 50;
+
+    private static final int FILE_MAGIC = 0x4C465449; // "LFTI"
+    private static final int FILE_VERSION = 1;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "le", "la", "les", "un", "une", "des", "de", "du", "et", "ou", "en", "au", "aux", "avec",
+            "pour", "dans", "sur", "par", "est", "sont", "ce", "cet", "cette", "ces", "il", "elle", "vous", "nous",
+            "the", "an", "and", "or", "of", "in", "on", "at", "to", "for", "with", "is", "are", "this", "that", "from");
+
+    // Termes analysés d'une property (immuable)
+    private record DocEntry(long fingerprint, float length, Map<String, Float> terms) {}
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Map<Integer, Float>> postings = new TreeMap<>();
+    private final Map<Integer, DocEntry> docs = new HashMap<>();
+    private double totalLength = 0;
+    private volatile boolean ready = false;
+    private volatile boolean dirty = false;
+
+    private final Path file;
+
+    public FullTextIndex(@Value("${listing.fulltext.dir:${java.io.tmpdir}/listing-fulltext}") String dir) {
+        this.file = Path.of(dir, "fulltext.idx");
+    }
+
+    // ======================
+    // === MISE À JOUR ===
+    // ======================
+
+    @Override
+    public void rebuild(Collection<PropertyDocument> all) {
+        Map<Integer, DocEntry> persisted = load();
+        Map<Integer, DocEntry> entries = new HashMap<>();
+        int analyzed = 0;
+        for (PropertyDocument d : all) {
+            if (!d.isActive()) continue;
+            long fingerprint = fingerprint(d);
+            DocEntry entry = persisted.get(d.propertyId());
+            if (entry == null || entry.fingerprint() != fingerprint) {
+                entry = analyze(d, fingerprint);
+                analyzed++;
+            }
+            entries.put(d.propertyId(), entry);
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docs.clear();
+            totalLength = 0;
+            entries.forEach(this::add);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        logger.info("📝 Index plein texte : {} properties, {} réanalysées, {} reprises du disque",
+                entries.size(), analyzed, entries.size() - analyzed);
+        if (analyzed > 0 || persisted.size() != entries.size()) {
+            dirty = true;
+            flush();
+        }
+    }
+
+    @Override
+    public void upsert(PropertyDocument document) {
+        if (!document.isActive()) {
+            remove(document.propertyId());
+            return;
+        }
+        long fingerprint = fingerprint(document);
+        lock.readLock().lock();
+        try {
+            DocEntry current = docs.get(document.propertyId());
+            if (current != null && current.fingerprint() == fingerprint) return; // texte inchangé
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        DocEntry entry = analyze(document, fingerprint);
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.propertyId());
+            add(document.propertyId(), entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        dirty = true;
+    }
+
+    @Override
+    public void remove(Integer propertyId) {
+        lock.writeLock().lock();
+        try {
+            if (removeInternal(propertyId)) dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void add(Integer propertyId, DocEntry entry) {
+        docs.put(propertyId, entry);
+        totalLength += entry.length();
+        entry.terms().forEach((term, tf) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(propertyId, tf));
+    }
+
+    private boolean removeInternal(Integer propertyId) {
+        DocEntry entry = docs.remove(propertyId);
+        if (entry == null) return false;
+        totalLength -= entry.length();
+        for (String term : entry.terms().keySet()) {
+            Map<Integer, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(propertyId);
+                if (posting.isEmpty()) postings.remove(term);
+            }
+        }
+        return true;
+    }
+
+    // ======================
+    // === RECHERCHE ===
+    // ======================
+
+    /**
+     * IDs des properties correspondant à query, par pertinence décroissante
+     * candidates : résultats des filtres structurés (null = toutes les properties)
+     */
+    public List<Integer> search(String query, Set<Integer> candidates, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty() || limit <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            if (docs.isEmpty()) return List.of();
+            int n = docs.size();
+            double avgLength = totalLength / n;
+            Map<Integer, Double> scores = new HashMap<>();
+
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                score(term, postings.get(term), 1.0f, n, avgLength, candidates, scores);
+
+                // Dernier terme : aussi comme préfixe ("pisc" → "piscine")
+                if (i == terms.size() - 1 && term.length() >= 3) {
+                    int expanded = 0;
+                    for (Map.Entry<String, Map<Integer, Float>> entry
+                            : postings.subMap(term, false, term + Character.MAX_VALUE, true).entrySet()) {
+                        if (++expanded > MAX_PREFIX_TERMS) break;
+                        score(entry.getKey(), entry.getValue(), PREFIX_FACTOR, n, avgLength, candidates, scores);
+                    }
+                }
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Appelé sous verrou de lecture
+    private void score(String term, Map<Integer, Float> posting, float factor, int n, double avgLength,
+                       Set<Integer> candidates, Map<Integer, Double> scores) {
+        if (posting == null) return;
+        int df = posting.size();
+        double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+        for (Map.Entry<Integer, Float> entry : posting.entrySet()) {
+            Integer propertyId = entry.getKey();
+            if (candidates != null && !candidates.contains(propertyId)) continue;
+            float tf = entry.getValue();
+            double norm = K1 * (1 - B + B * docs.get(propertyId).length() / avgLength);
+            scores.merge(propertyId, factor * idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+        }
+    }
+
+    // ======================
+    // === ANALYSE ===
+    // ======================
+
+    private static DocEntry analyze(PropertyDocument d, long fingerprint) {
+        Map<String, Float> terms = new HashMap<>();
+        float[] length = {0};
+        addField(terms, length, d.title(), TITLE_WEIGHT);
+        addField(terms, length, d.neighborhoodDescription(), NEIGHBORHOOD_WEIGHT);
+        addField(terms, length, d.description(), DESCRIPTION_WEIGHT);
+        if (d.amenityNames() != null) {
+            for (String name : d.amenityNames()) {
+                addField(terms, length, name, AMENITY_WEIGHT);
+            }
+        }
+        return new DocEntry(fingerprint, length[0], Map.copyOf(terms));
+    }
+
+    private static void addField(Map<String, Float> terms, float[] length, String text, float weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Float::sum);
+            length[0] += weight;
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        String normalized = LocationPrefixIndex.normalize(text);
+        if (normalized.isEmpty()) return List.of();
+        List<String> tokens = new ArrayList<>();
+        for (String token : normalized.split(" ")) {
+            if (token.length() < 2 || STOP_WORDS.contains(token)) continue;
+            tokens.add(stem(token));
+        }
+        return tokens;
+    }
+
+    // Pluriels simples : "piscines" → "piscine", "views" → "view" (pas "access")
+    private static String stem(String token) {
+        if (token.length() > 3 && token.endsWith("s") && !token.endsWith("ss")) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+
+    private static long fingerprint(PropertyDocument d) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (String text : new String[]{d.title(), d.neighborhoodDescription(), d.description()}) {
+            hasher.putString(text != null ? text : "", StandardCharsets.UTF_8).putChar('\u0000');
+        }
+        if (d.amenityNames() != null) {
+            for (String name : d.amenityNames()) {
+                hasher.putString(name, StandardCharsets.UTF_8).putChar('\u0001');
+            }
+        }
+        return hasher.hash().asLong();
+    }
+
+    // ======================
+    // === PERSISTANCE ===
+    // ======================
+
+    @Scheduled(fixedDelayString = "${listing.fulltext.flush-interval-ms:60000}")
+    @PreDestroy
+    public void flush() {
+        if (!dirty || !ready) return;
+        dirty = false;
+
+        Map<Integer, DocEntry> snapshot;
+        lock.readLock().lock();
+        try {
+            snapshot = new HashMap<>(docs);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(FILE_VERSION);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<Integer, DocEntry> entry : snapshot.entrySet()) {
+                    DocEntry doc = entry.getValue();
+                    out.writeInt(entry.getKey());
+                    out.writeLong(doc.fingerprint());
+                    out.writeFloat(doc.length());
+                    out.writeInt(doc.terms().size());
+                    for (Map.Entry<String, Float> term : doc.terms().entrySet()) {
+                        out.writeUTF(term.getKey());
+                        out.writeFloat(term.getValue());
+                    }
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            logger.warn("Échec de l'écriture de l'index plein texte ({})", file, e);
+        }
+    }
+
+    private Map<Integer, DocEntry> load() {
+        if (!Files.exists(file)) return Map.of();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) return Map.of();
+            int count = in.readInt();
+            Map<Integer, DocEntry> entries = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                int propertyId = in.readInt();
+                long fingerprint = in.readLong();
+                float length = in.readFloat();
+                int termCount = in.readInt();
+                Map<String, Float> terms = new HashMap<>(termCount * 2);
+                for (int t = 0; t < termCount; t++) {
+                    terms.put(in.readUTF(), in.readFloat());
+                }
+                entries.put(propertyId, new DocEntry(fingerprint, length, Map.copyOf(terms)));
+            }
+            return entries;
+        } catch (IOException e) {
+            logger.warn("Index plein texte illisible ({}), reconstruction complète", file, e);
+            return Map.of();
+        }
+    }
+}
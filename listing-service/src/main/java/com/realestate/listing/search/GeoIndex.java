@@ -0,0 +1,226 @@
+package com.realestate.listing.search;
+
+import com.realestate.listing.dto.NearbyPropertyDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ========================================
+ * INDEX GÉOGRAPHIQUE (properties ACTIVE)
+ * ========================================
+ * Grille régulière lat/lon (cellules de CELL_DEGREES degrés) : cellule → propertyIds
+ * - rayon : cellules couvrant le rectangle englobant du cercle, puis distance haversine
+ * - viewport : cellules couvrant le rectangle (découpé si l'antiméridien est traversé)
+ * Si le rectangle couvre plus de cellules qu'il n'y a de points, parcours direct des points.
+ */
+@Component
+public class GeoIndex implements PropertyIndex {
+
+    private static final double CELL_DEGREES = 0.05;   // ~5,5 km en latitude
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, PropertyDocument> documents = new HashMap<>();
+    private final Map<Long, Set<Integer>> cells = new HashMap<>();
+    private volatile boolean ready = false;
+
+    // ======================
+    // === MISE À JOUR ===
+    // ======================
+
+    @Override
+    public void rebuild(Collection<PropertyDocument> all) {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            cells.clear();
+            for (PropertyDocument document : all) {
+                add(document);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(PropertyDocument document) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.propertyId());
+            add(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Integer propertyId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(propertyId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void add(PropertyDocument d) {
+        if (!d.isActive() || !d.hasLocation()) return;
+        documents.put(d.propertyId(), d);
+        cells.computeIfAbsent(cellOf(d.latitude(), d.longitude()), k -> new HashSet<>()).add(d.propertyId());
+    }
+
+    private void removeInternal(Integer propertyId) {
+        PropertyDocument d = documents.remove(propertyId);
+        if (d == null) return;
+        long cell = cellOf(d.latitude(), d.longitude());
+        Set<Integer> ids = cells.get(cell);
+        if (ids != null) {
+            ids.remove(propertyId);
+            if (ids.isEmpty()) cells.remove(cell);
+        }
+    }
+
+    // ======================
+    // === RECHERCHE ===
+    // ======================
+
+    /**
+     * Properties à moins de radiusKm du point, triées par distance croissante
+     */
+    public List<NearbyPropertyDTO> findNearby(double latitude, double longitude, double radiusKm, int limit) {
+        double dLat = radiusKm / KM_PER_DEGREE_LAT;
+        double cosLat = Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        double dLon = Math.min(radiusKm / (KM_PER_DEGREE_LAT * cosLat), 180);
+
+        double south = Math.max(-90, latitude - dLat);
+        double north = Math.min(90, latitude + dLat);
+        double west = normalizeLongitude(longitude - dLon);
+        double east = normalizeLongitude(longitude + dLon);
+        if (dLon >= 180) {
+            west = -180;
+            east = 180;
+        }
+
+        lock.readLock().lock();
+        try {
+            List<NearbyPropertyDTO> results = new ArrayList<>();
+            for (PropertyDocument d : candidates(south, west, north, east)) {
+                double distance = haversineKm(latitude, longitude, d.latitude(), d.longitude());
+                if (distance <= radiusKm) {
+                    results.add(toDTO(d, distance));
+                }
+            }
+            return sortAndLimit(results, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Properties dans le viewport, triées par distance au point de référence
+     * (west > east = viewport qui traverse l'antiméridien)
+     */
+    public List<NearbyPropertyDTO> findInBoundingBox(double south, double west, double north, double east,
+                                                     double refLatitude, double refLongitude, int limit) {
+        lock.readLock().lock();
+        try {
+            List<NearbyPropertyDTO> results = new ArrayList<>();
+            for (PropertyDocument d : candidates(south, west, north, east)) {
+                if (inBox(d, south, west, north, east)) {
+                    results.add(toDTO(d, haversineKm(refLatitude, refLongitude, d.latitude(), d.longitude())));
+                }
+            }
+            return sortAndLimit(results, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Appelé sous verrou de lecture : points des cellules couvrant le rectangle (sur-ensemble)
+    private Collection<PropertyDocument> candidates(double south, double west, double north, double east) {
+        if (west > east) {
+            Map<Integer, PropertyDocument> both = new LinkedHashMap<>();
+            for (PropertyDocument d : candidates(south, west, north, 180)) both.put(d.propertyId(), d);
+            for (PropertyDocument d : candidates(south, -180, north, east)) both.put(d.propertyId(), d);
+            return both.values();
+        }
+
+        long latFrom = cellIndex(south), latTo = cellIndex(north);
+        long lonFrom = cellIndex(west), lonTo = cellIndex(east);
+        long cellCount = (latTo - latFrom + 1) * (lonTo - lonFrom + 1);
+        if (cellCount > documents.size()) {
+            return documents.values();
+        }
+
+        List<PropertyDocument> result = new ArrayList<>();
+        for (long lat = latFrom; lat <= latTo; lat++) {
+            for (long lon = lonFrom; lon <= lonTo; lon++) {
+                Set<Integer> ids = cells.get(pack(lat, lon));
+                if (ids == null) continue;
+                for (Integer id : ids) {
+                    result.add(documents.get(id));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean inBox(PropertyDocument d, double south, double west, double north, double east) {
+        if (d.latitude() < south || d.latitude() > north) return false;
+        if (west <= east) {
+            return d.longitude() >= west && d.longitude() <= east;
+        }
+        return d.longitude() >= west || d.longitude() <= east;
+    }
+
+    private static List<NearbyPropertyDTO> sortAndLimit(List<NearbyPropertyDTO> results, int limit) {
+        results.sort(Comparator.comparingDouble(NearbyPropertyDTO::distanceKm));
+        return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+    }
+
+    private static NearbyPropertyDTO toDTO(PropertyDocument d, double distanceKm) {
+        return new NearbyPropertyDTO(
+                d.propertyId(), d.title(), d.city(), d.country(),
+                d.latitude(), d.longitude(), d.pricePerNight(),
+                Math.round(distanceKm * 100.0) / 100.0);
+    }
+
+    // ======================
+    // === GÉOMÉTRIE ===
+    // ======================
+
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static double normalizeLongitude(double longitude) {
+        double lon = ((longitude + 180) % 360 + 360) % 360 - 180;
+        return lon == -180 && longitude > 0 ? 180 : lon;
+    }
+
+    private static long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long cellOf(double latitude, double longitude) {
+        return pack(cellIndex(latitude), cellIndex(longitude));
+    }
+
+    private static long pack(long latCell, long lonCell) {
+        return (latCell << 32) ^ (lonCell & 0xffffffffL);
+    }
+}
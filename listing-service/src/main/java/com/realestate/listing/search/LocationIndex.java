@@ -0,0 +1,70 @@
+package com.realestate.listing.search;
+
+import com.realestate.listing.dto.LocationDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Autocomplete des locations réelles : nombre de properties ACTIVE par ville/pays
+ * Mis à jour à la publication, l'archivage, la modification et la suppression d'une property
+ */
+@Component
+public class LocationIndex implements PropertyIndex {
+
+    private final LocationPrefixIndex index = new LocationPrefixIndex();
+
+    // propertyId → location comptée (pour décrémenter l'ancienne location)
+    private final ConcurrentHashMap<Integer, String[]> locations = new ConcurrentHashMap<>();
+
+    private volatile boolean ready = false;
+
+    @Override
+    public synchronized void rebuild(Collection<PropertyDocument> documents) {
+        index.clear();
+        locations.clear();
+        for (PropertyDocument document : documents) {
+            add(document);
+        }
+        ready = true;
+    }
+
+    @Override
+    public synchronized void upsert(PropertyDocument document) {
+        removeInternal(document.propertyId());
+        add(document);
+    }
+
+    @Override
+    public synchronized void remove(Integer propertyId) {
+        removeInternal(propertyId);
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<LocationDTO> search(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    public List<LocationDTO> top(int limit) {
+        return index.top(limit);
+    }
+
+    private void add(PropertyDocument d) {
+        if (!d.isActive() || d.city() == null || d.country() == null) return;
+        locations.put(d.propertyId(), new String[]{d.city(), d.country()});
+        index.increment(d.city(), d.country());
+    }
+
+    private void removeInternal(Integer propertyId) {
+        String[] location = locations.remove(propertyId);
+        if (location != null) {
+            index.decrement(location[0], location[1]);
+        }
+    }
+}
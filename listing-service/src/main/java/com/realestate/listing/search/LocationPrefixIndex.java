@@ -0,0 +1,164 @@
+package com.realestate.listing.search;
+
+import com.realestate.listing.dto.LocationDTO;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index d'autocomplete ville/pays : termes normalisés triés (TreeMap) → locations
+ * - chaque début de mot de la ville, du pays et de "ville pays" est un terme
+ * - une recherche = plage [préfixe, préfixe + ￿] du TreeMap
+ * - chaque location porte son nombre de properties ACTIVE (tri par popularité)
+ */
+public class LocationPrefixIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final TreeMap<String, Set<String>> terms = new TreeMap<>();
+
+    /** Ajoute une property à la location (crée la location si besoin) */
+    public void increment(String city, String country) {
+        add(city, country, 1);
+    }
+
+    /** Ajoute count properties à la location (crée la location si besoin) */
+    public void add(String city, String country, int count) {
+        if (city == null || country == null || count <= 0) return;
+        String key = key(city, country);
+
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(city.trim(), country.trim());
+                entries.put(key, entry);
+                for (String term : termsOf(entry)) {
+                    terms.computeIfAbsent(term, t -> new HashSet<>()).add(key);
+                }
+            }
+            entry.count += count;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Retire une property de la location (supprime la location à 0) */
+    public void decrement(String city, String country) {
+        if (city == null || country == null) return;
+        String key = key(city, country);
+
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) return;
+            if (--entry.count > 0) return;
+
+            entries.remove(key);
+            for (String term : termsOf(entry)) {
+                Set<String> keys = terms.get(term);
+                if (keys != null) {
+                    keys.remove(key);
+                    if (keys.isEmpty()) terms.remove(term);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            terms.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Locations dont un mot commence par query, triées par nombre de properties */
+    public List<LocationDTO> search(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) return top(limit);
+
+        lock.readLock().lock();
+        try {
+            Set<String> keys = new HashSet<>();
+            for (Set<String> matched : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+                keys.addAll(matched);
+            }
+            return keys.stream()
+                    .map(entries::get)
+                    .sorted(BY_POPULARITY)
+                    .limit(limit)
+                    .map(Entry::toDTO)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Les locations les plus populaires */
+    public List<LocationDTO> top(int limit) {
+        lock.readLock().lock();
+        try {
+            return entries.values().stream()
+                    .sorted(BY_POPULARITY)
+                    .limit(limit)
+                    .map(Entry::toDTO)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Minuscules, sans accents, séparateurs → un espace */
+    public static String normalize(String value) {
+        if (value == null) return "";
+        String stripped = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private static String key(String city, String country) {
+        return normalize(city) + "|" + normalize(country);
+    }
+
+    // "new york united states" → "new york united states", "york united states", "united states", "states", ...
+    private static Set<String> termsOf(Entry entry) {
+        Set<String> result = new HashSet<>();
+        for (String text : List.of(entry.city, entry.country, entry.city + " " + entry.country)) {
+            String normalized = normalize(text);
+            if (normalized.isEmpty()) continue;
+            result.add(normalized);
+            for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+                result.add(normalized.substring(i + 1));
+            }
+        }
+        return result;
+    }
+
+    private static final Comparator<Entry> BY_POPULARITY = Comparator
+            .comparingInt((Entry e) -> e.count).reversed()
+            .thenComparing(e -> e.city);
+
+    private static final class Entry {
+        private final String city;
+        private final String country;
+        private int count;
+
+        private Entry(String city, String country) {
+            this.city = city;
+            this.country = country;
+        }
+
+        private LocationDTO toDTO() {
+            return new LocationDTO(city, country, (long) count);
+        }
+    }
+}
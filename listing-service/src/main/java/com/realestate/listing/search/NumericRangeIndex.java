@@ -0,0 +1,54 @@
+package com.realestate.listing.search;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Index trié valeur → bitmap des ordinaux, pour les filtres de plage (prix, chambres, ...)
+ * Les valeurs null ne sont pas indexées (comme en SQL, elles ne satisfont aucun filtre)
+ * Non thread-safe : protégé par le verrou de PropertySearchIndex
+ */
+class NumericRangeIndex {
+
+    private final TreeMap<Double, BitSet> values = new TreeMap<>();
+
+    void add(int ordinal, Number value) {
+        if (value == null) return;
+        values.computeIfAbsent(value.doubleValue(), v -> new BitSet()).set(ordinal);
+    }
+
+    void remove(int ordinal, Number value) {
+        if (value == null) return;
+        BitSet bits = values.get(value.doubleValue());
+        if (bits == null) return;
+        bits.clear(ordinal);
+        if (bits.isEmpty()) {
+            values.remove(value.doubleValue());
+        }
+    }
+
+    void clear() {
+        values.clear();
+    }
+
+    /** Ordinaux dont la valeur est dans [min, max] (bornes null = ouvertes) */
+    BitSet range(Number min, Number max) {
+        NavigableMap<Double, BitSet> slice = values;
+        if (min != null && max != null) {
+            if (min.doubleValue() > max.doubleValue()) return new BitSet();
+            slice = values.subMap(min.doubleValue(), true, max.doubleValue(), true);
+        } else if (min != null) {
+            slice = values.tailMap(min.doubleValue(), true);
+        } else if (max != null) {
+            slice = values.headMap(max.doubleValue(), true);
+        }
+
+        BitSet result = new BitSet();
+        for (Map.Entry<Double, BitSet> entry : slice.entrySet()) {
+            result.or(entry.getValue());
+        }
+        return result;
+    }
+}
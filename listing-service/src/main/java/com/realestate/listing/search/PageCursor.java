@@ -0,0 +1,42 @@
+package com.realestate.listing.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Jeton de pagination opaque : encode le dernier propertyId renvoyé
+ * (clé de tri stable : propertyId croissant)
+ */
+public final class PageCursor {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String PREFIX = "p1:";
+
+    private PageCursor() {
+    }
+
+    public static String encode(int lastPropertyId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastPropertyId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Dernier propertyId de la page précédente, 0 si pas de curseur */
+    public static int decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return 0;
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) throw new IllegalArgumentException("Curseur invalide");
+            return Integer.parseInt(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {   // Base64 ou nombre invalide
+            throw new IllegalArgumentException("Curseur invalide", e);
+        }
+    }
+
+    /** Taille de page bornée à [1, MAX_PAGE_SIZE] */
+    public static int clampSize(Integer size) {
+        if (size == null || size <= 0) return DEFAULT_PAGE_SIZE;
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+}
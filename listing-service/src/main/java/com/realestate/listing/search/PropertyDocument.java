@@ -0,0 +1,101 @@
+package com.realestate.listing.search;
+
+import com.realestate.listing.entity.Amenity;
+import com.realestate.listing.entity.Property;
+import com.realestate.listing.entity.PropertyRule;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Vue plate et immuable d'une property, utilisée par les index en mémoire
+ * Construite dans la transaction (collections lazy accessibles), appliquée après le commit
+ */
+public record PropertyDocument(
+        Integer propertyId,
+        Property.PropertyStatus status,
+        String title,
+        String city,
+        String country,
+        Double latitude,
+        Double longitude,
+        String propertyType,
+        String placeType,
+        Double pricePerNight,
+        Double weekendPricePerNight,
+        Integer bedrooms,
+        Integer beds,
+        Integer bathrooms,
+        Integer maxGuests,
+        Boolean instantBooking,
+        int[] amenityIds,
+        Boolean childrenAllowed,
+        Boolean babiesAllowed,
+        Boolean petsAllowed,
+        Boolean smokingAllowed,
+        Boolean eventsAllowed,
+        // Texte libre (FullTextIndex)
+        String description,
+        String neighborhoodDescription,
+        String[] amenityNames
+) {
+
+    public static PropertyDocument from(Property property) {
+        int[] amenityIds = property.getAmenities() == null ? new int[0] : property.getAmenities().stream()
+                .map(Amenity::getAmenityId)
+                .filter(Objects::nonNull)
+                .mapToInt(Integer::intValue)
+                .sorted()
+                .toArray();
+
+        String[] amenityNames = property.getAmenities() == null ? new String[0] : property.getAmenities().stream()
+                .map(Amenity::getName)
+                .filter(Objects::nonNull)
+                .toArray(String[]::new);
+
+        PropertyRule rules = property.getRules();
+
+        return new PropertyDocument(
+                property.getPropertyId(),
+                property.getStatus(),
+                property.getTitle(),
+                property.getCity(),
+                property.getCountry(),
+                property.getLatitude(),
+                property.getLongitude(),
+                property.getPropertyType(),
+                property.getPlaceType(),
+                property.getPricePerNight(),
+                property.getWeekendPricePerNight(),
+                property.getBedrooms(),
+                property.getBeds(),
+                property.getBathrooms(),
+                property.getMaxGuests(),
+                property.getInstantBooking(),
+                amenityIds,
+                rules != null ? rules.getChildrenAllowed() : null,
+                rules != null ? rules.getBabiesAllowed() : null,
+                rules != null ? rules.getPetsAllowed() : null,
+                rules != null ? rules.getSmokingAllowed() : null,
+                rules != null ? rules.getEventsAllowed() : null,
+                property.getDescription(),
+                property.getNeighborhoodDescription(),
+                amenityNames
+        );
+    }
+
+    public boolean isActive() {
+        return status == Property.PropertyStatus.ACTIVE;
+    }
+
+    public boolean hasLocation() {
+        return latitude != null && longitude != null
+                && latitude >= -90 && latitude <= 90
+                && longitude >= -180 && longitude <= 180;
+    }
+
+    /** Normalisation des termes texte (même règle que LOWER() côté JPQL) */
+    public static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
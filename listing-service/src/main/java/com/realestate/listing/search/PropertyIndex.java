@@ -0,0 +1,21 @@
+package com.realestate.listing.search;
+
+import java.util.Collection;
+
+/**
+ * Index en mémoire alimenté par PropertyIndexSynchronizer
+ * (reconstruction complète au démarrage, puis mises à jour incrémentales)
+ */
+public interface PropertyIndex {
+
+    /** Remplace tout le contenu de l'index */
+    void rebuild(Collection<PropertyDocument> documents);
+
+    /** Ajoute ou remplace une property (une property non ACTIVE doit être retirée) */
+    void upsert(PropertyDocument document);
+
+    /** Retire une property de l'index */
+    void remove(Integer propertyId);
+
+    boolean isReady();
+}
@@ -0,0 +1,66 @@
+package com.realestate.listing.search;
+
+import com.realestate.listing.cache.SearchResultCache;
+import com.realestate.listing.event.PropertyChangedEvent;
+import com.realestate.listing.repository.PropertyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Alimente tous les PropertyIndex :
+ * - au démarrage : une seule lecture des properties ACTIVE
+ * - ensuite : PropertyChangedEvent appliqué après le commit
+ * puis invalide SearchResultCache, une fois tous les index à jour
+ */
+@Component
+public class PropertyIndexSynchronizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PropertyIndexSynchronizer.class);
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private List<PropertyIndex> indexes;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildAll() {
+        long start = System.currentTimeMillis();
+
+        List<PropertyDocument> documents = propertyRepository.findAllForIndexing().stream()
+                .map(PropertyDocument::from)
+                .toList();
+
+        for (PropertyIndex index : indexes) {
+            index.rebuild(documents);
+        }
+        searchResultCache.rebuild(documents);
+
+        logger.info("🔎 {} properties ACTIVE indexées dans {} index en {} ms",
+                documents.size(), indexes.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        for (PropertyIndex index : indexes) {
+            if (event.isDeleted()) {
+                index.remove(event.propertyId());
+            } else {
+                index.upsert(event.document());
+            }
+        }
+        searchResultCache.onPropertyIndexed(event);
+    }
+}
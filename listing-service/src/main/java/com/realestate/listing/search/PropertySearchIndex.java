@@ -0,0 +1,420 @@
+package com.realestate.listing.search;
+
+import com.realestate.listing.dto.PropertyFacetsDTO;
+import com.realestate.listing.dto.PropertyFilterDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * ========================================
+ * INDEX DE RECHERCHE EN MÉMOIRE (properties ACTIVE)
+ * ========================================
+ * Chaque property reçoit un ordinal dense (réutilisé après suppression) :
+ * - un bitmap par valeur de filtre (ville, pays, type, amenity, règle, ...)
+ * - un index trié par champ numérique (prix, chambres, lits, sdb, voyageurs)
+ * Une recherche = intersection de bitmaps, sans requête MySQL.
+ */
+@Component
+public class PropertySearchIndex implements PropertyIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // === ORDINAUX ===
+    private final Map<Integer, Integer> ordinalByPropertyId = new HashMap<>();
+    private PropertyDocument[] documents = new PropertyDocument[1024];
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private int nextOrdinal = 0;
+    private final BitSet live = new BitSet();
+
+    // === BITMAPS PAR VALEUR ===
+    private final Map<String, BitSet> cities = new HashMap<>();
+    private final Map<String, BitSet> countries = new HashMap<>();
+    private final Map<String, BitSet> propertyTypes = new HashMap<>();
+    private final Map<String, BitSet> placeTypes = new HashMap<>();
+    private final Map<Integer, BitSet> amenities = new HashMap<>();
+    private final Map<String, BitSet> flags = new HashMap<>();   // "petsAllowed=true", "instantBooking=false", ...
+
+    // === PLAGES NUMÉRIQUES ===
+    private final NumericRangeIndex prices = new NumericRangeIndex();
+    private final NumericRangeIndex bedrooms = new NumericRangeIndex();
+    private final NumericRangeIndex beds = new NumericRangeIndex();
+    private final NumericRangeIndex bathrooms = new NumericRangeIndex();
+    private final NumericRangeIndex maxGuests = new NumericRangeIndex();
+
+    private volatile boolean ready = false;
+
+    // === DIMENSIONS (clés des clauses de filtre) ===
+    private static final String CITY = "city";
+    private static final String COUNTRY = "country";
+    private static final String PROPERTY_TYPE = "propertyType";
+    private static final String PLACE_TYPE = "placeType";
+    private static final String AMENITIES = "amenities";
+    private static final String PRICE = "price";
+    private static final List<String> FLAG_NAMES = List.of(
+            "instantBooking", "childrenAllowed", "babiesAllowed", "petsAllowed", "smokingAllowed", "eventsAllowed");
+
+    // ======================
+    // === MISE À JOUR ===
+    // ======================
+
+    @Override
+    public void rebuild(Collection<PropertyDocument> all) {
+        lock.writeLock().lock();
+        try {
+            ordinalByPropertyId.clear();
+            documents = new PropertyDocument[Math.max(1024, all.size() * 2)];
+            freeOrdinals.clear();
+            nextOrdinal = 0;
+            live.clear();
+            cities.clear();
+            countries.clear();
+            propertyTypes.clear();
+            placeTypes.clear();
+            amenities.clear();
+            flags.clear();
+            prices.clear();
+            bedrooms.clear();
+            beds.clear();
+            bathrooms.clear();
+            maxGuests.clear();
+
+            for (PropertyDocument document : all) {
+                if (document.isActive()) {
+                    add(document);
+                }
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(PropertyDocument document) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.propertyId());
+            if (document.isActive()) {
+                add(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Integer propertyId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(propertyId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void add(PropertyDocument d) {
+        int ordinal = freeOrdinals.isEmpty() ? nextOrdinal++ : freeOrdinals.pop();
+        if (ordinal >= documents.length) {
+            documents = Arrays.copyOf(documents, documents.length * 2);
+        }
+        documents[ordinal] = d;
+        ordinalByPropertyId.put(d.propertyId(), ordinal);
+        live.set(ordinal);
+
+        setTerm(cities, PropertyDocument.normalize(d.city()), ordinal);
+        setTerm(countries, PropertyDocument.normalize(d.country()), ordinal);
+        setTerm(propertyTypes, PropertyDocument.normalize(d.propertyType()), ordinal);
+        setTerm(placeTypes, PropertyDocument.normalize(d.placeType()), ordinal);
+        for (int amenityId : d.amenityIds()) {
+            setTerm(amenities, amenityId, ordinal);
+        }
+        forEachFlag(d, (flag) -> setTerm(flags, flag, ordinal));
+
+        prices.add(ordinal, d.pricePerNight());
+        bedrooms.add(ordinal, d.bedrooms());
+        beds.add(ordinal, d.beds());
+        bathrooms.add(ordinal, d.bathrooms());
+        maxGuests.add(ordinal, d.maxGuests());
+    }
+
+    private void removeInternal(Integer propertyId) {
+        Integer ordinal = ordinalByPropertyId.remove(propertyId);
+        if (ordinal == null) return;
+
+        PropertyDocument d = documents[ordinal];
+        documents[ordinal] = null;
+        live.clear(ordinal);
+        freeOrdinals.push(ordinal);
+
+        clearTerm(cities, PropertyDocument.normalize(d.city()), ordinal);
+        clearTerm(countries, PropertyDocument.normalize(d.country()), ordinal);
+        clearTerm(propertyTypes, PropertyDocument.normalize(d.propertyType()), ordinal);
+        clearTerm(placeTypes, PropertyDocument.normalize(d.placeType()), ordinal);
+        for (int amenityId : d.amenityIds()) {
+            clearTerm(amenities, amenityId, ordinal);
+        }
+        forEachFlag(d, (flag) -> clearTerm(flags, flag, ordinal));
+
+        prices.remove(ordinal, d.pricePerNight());
+        bedrooms.remove(ordinal, d.bedrooms());
+        beds.remove(ordinal, d.beds());
+        bathrooms.remove(ordinal, d.bathrooms());
+        maxGuests.remove(ordinal, d.maxGuests());
+    }
+
+    private static <K> void setTerm(Map<K, BitSet> terms, K key, int ordinal) {
+        if (key == null) return;
+        terms.computeIfAbsent(key, k -> new BitSet()).set(ordinal);
+    }
+
+    private static <K> void clearTerm(Map<K, BitSet> terms, K key, int ordinal) {
+        if (key == null) return;
+        BitSet bits = terms.get(key);
+        if (bits == null) return;
+        bits.clear(ordinal);
+        if (bits.isEmpty()) {
+            terms.remove(key);
+        }
+    }
+
+    private static void forEachFlag(PropertyDocument d, Consumer<String> action) {
+        if (d.instantBooking() != null) action.accept(flag("instantBooking", d.instantBooking()));
+        if (d.childrenAllowed() != null) action.accept(flag("childrenAllowed", d.childrenAllowed()));
+        if (d.babiesAllowed() != null) action.accept(flag("babiesAllowed", d.babiesAllowed()));
+        if (d.petsAllowed() != null) action.accept(flag("petsAllowed", d.petsAllowed()));
+        if (d.smokingAllowed() != null) action.accept(flag("smokingAllowed", d.smokingAllowed()));
+        if (d.eventsAllowed() != null) action.accept(flag("eventsAllowed", d.eventsAllowed()));
+    }
+
+    private static String flag(String name, boolean value) {
+        return name + "=" + value;
+    }
+
+    // ======================
+    // === RECHERCHE ===
+    // ======================
+
+    /**
+     * IDs des properties ACTIVE correspondant aux filtres (triés par propertyId croissant)
+     * Mêmes règles que PropertyRepository.searchProperties
+     */
+    public List<Integer> search(PropertyFilterDTO filter) {
+        lock.readLock().lock();
+        try {
+            BitSet result = match(filter);
+
+            List<Integer> ids = new ArrayList<>(result.cardinality());
+            for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+                ids.add(documents[i].propertyId());
+            }
+            ids.sort(null);
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Documents indexés des properties demandées, dans l'ordre (les absentes sont ignorées) */
+    public List<PropertyDocument> documents(List<Integer> propertyIds) {
+        lock.readLock().lock();
+        try {
+            List<PropertyDocument> result = new ArrayList<>(propertyIds.size());
+            for (Integer propertyId : propertyIds) {
+                Integer ordinal = ordinalByPropertyId.get(propertyId);
+                if (ordinal != null) result.add(documents[ordinal]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Nombre de properties ACTIVE indexées */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalByPropertyId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ======================
+    // === FACETTES ===
+    // ======================
+
+    /**
+     * Compteurs par valeur (types, amenities, règles, tranches de prix) sous les filtres courants,
+     * calculés sur les bitmaps en une passe :
+     * - les clauses du filtre sont évaluées une fois
+     * - chaque dimension facettée est comptée sur l'intersection des AUTRES clauses
+     * - les tranches de prix lisent la colonne prix des seuls ordinaux retenus
+     *
+     * @param priceEdges bornes croissantes des tranches ([0, e0[, [e0, e1[, ..., [eN, +∞[)
+     */
+    public PropertyFacetsDTO facets(PropertyFilterDTO filter, double[] priceEdges) {
+        lock.readLock().lock();
+        try {
+            Map<String, BitSet> clauses = clauses(filter);
+            BitSet matched = excluding(clauses, null);
+            BitSet scratch = new BitSet();
+
+            Map<String, Long> propertyTypeCounts = countTerms(propertyTypes, excluding(clauses, PROPERTY_TYPE),
+                    scratch, PropertyDocument::propertyType);
+            Map<String, Long> placeTypeCounts = countTerms(placeTypes, excluding(clauses, PLACE_TYPE),
+                    scratch, PropertyDocument::placeType);
+
+            Map<Integer, Long> amenityCounts = new TreeMap<>();
+            for (Map.Entry<Integer, BitSet> entry : amenities.entrySet()) {
+                long count = andCardinality(matched, entry.getValue(), scratch);
+                if (count > 0) amenityCounts.put(entry.getKey(), count);
+            }
+
+            Map<String, Long> flagCounts = new LinkedHashMap<>();
+            for (String name : FLAG_NAMES) {
+                BitSet bits = flags.get(flag(name, true));
+                flagCounts.put(name, bits == null ? 0L : andCardinality(excluding(clauses, name), bits, scratch));
+            }
+
+            return new PropertyFacetsDTO(
+                    matched.cardinality(),
+                    propertyTypeCounts,
+                    placeTypeCounts,
+                    amenityCounts,
+                    flagCounts,
+                    priceBuckets(excluding(clauses, PRICE), priceEdges));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Intersection de toutes les clauses sauf celle de la dimension exclue (null = aucune)
+    private BitSet excluding(Map<String, BitSet> clauses, String excluded) {
+        BitSet result = (BitSet) live.clone();
+        for (Map.Entry<String, BitSet> clause : clauses.entrySet()) {
+            if (result.isEmpty()) break;
+            if (!clause.getKey().equals(excluded)) {
+                result.and(clause.getValue());
+            }
+        }
+        return result;
+    }
+
+    // Valeur affichée = orthographe du premier document de la valeur (les clés sont normalisées)
+    private Map<String, Long> countTerms(Map<String, BitSet> terms, BitSet base, BitSet scratch,
+                                         Function<PropertyDocument, String> label) {
+        Map<String, Long> counts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (BitSet bits : terms.values()) {
+            long count = andCardinality(base, bits, scratch);
+            if (count > 0) {
+                counts.merge(label.apply(documents[bits.nextSetBit(0)]).trim(), count, Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    private List<PropertyFacetsDTO.PriceBucket> priceBuckets(BitSet base, double[] edges) {
+        long[] counts = new long[edges.length + 1];
+        for (int i = base.nextSetBit(0); i >= 0; i = base.nextSetBit(i + 1)) {
+            Double price = documents[i].pricePerNight();
+            if (price == null) continue;
+            int position = Arrays.binarySearch(edges, price);
+            counts[position >= 0 ? position + 1 : -position - 1]++;
+        }
+
+        List<PropertyFacetsDTO.PriceBucket> buckets = new ArrayList<>(counts.length);
+        for (int b = 0; b < counts.length; b++) {
+            buckets.add(new PropertyFacetsDTO.PriceBucket(
+                    b == 0 ? null : edges[b - 1],
+                    b == edges.length ? null : edges[b],
+                    counts[b]));
+        }
+        return buckets;
+    }
+
+    // |a ∩ b| sans allouer de bitmap
+    private static long andCardinality(BitSet a, BitSet b, BitSet scratch) {
+        scratch.clear();
+        scratch.or(a);
+        scratch.and(b);
+        return scratch.cardinality();
+    }
+
+    // Appelé sous verrou de lecture
+    private BitSet match(PropertyFilterDTO f) {
+        BitSet result = (BitSet) live.clone();
+        for (BitSet clause : clauses(f).values()) {
+            if (result.isEmpty()) break;
+            result.and(clause);
+        }
+        return result;
+    }
+
+    /**
+     * Un bitmap par dimension filtrée (absente = pas de filtre), clés = noms des dimensions
+     * Mêmes règles que PropertyRepository.searchProperties
+     */
+    private Map<String, BitSet> clauses(PropertyFilterDTO f) {
+        Map<String, BitSet> clauses = new LinkedHashMap<>();
+
+        putTerm(clauses, CITY, cities, PropertyDocument.normalize(f.getCity()));
+        putTerm(clauses, COUNTRY, countries, PropertyDocument.normalize(f.getCountry()));
+        putTerm(clauses, PROPERTY_TYPE, propertyTypes, PropertyDocument.normalize(f.getPropertyType()));
+        putTerm(clauses, PLACE_TYPE, placeTypes, PropertyDocument.normalize(f.getPlaceType()));
+
+        if (f.getAmenityIds() != null && !f.getAmenityIds().isEmpty()) {
+            BitSet all = (BitSet) live.clone();
+            for (Integer amenityId : f.getAmenityIds()) {
+                andTerm(all, amenities, amenityId);
+            }
+            clauses.put(AMENITIES, all);
+        }
+
+        putFlag(clauses, "instantBooking", f.getInstantBooking());
+        putFlag(clauses, "childrenAllowed", f.getChildrenAllowed());
+        putFlag(clauses, "babiesAllowed", f.getBabiesAllowed());
+        putFlag(clauses, "petsAllowed", f.getPetsAllowed());
+        putFlag(clauses, "smokingAllowed", f.getSmokingAllowed());
+        putFlag(clauses, "eventsAllowed", f.getEventsAllowed());
+
+        if (f.getMinPrice() != null || f.getMaxPrice() != null) {
+            clauses.put(PRICE, prices.range(f.getMinPrice(), f.getMaxPrice()));
+        }
+        if (f.getBedrooms() != null) clauses.put("bedrooms", bedrooms.range(f.getBedrooms(), null));
+        if (f.getBathrooms() != null) clauses.put("bathrooms", bathrooms.range(f.getBathrooms(), null));
+        if (f.getBeds() != null) clauses.put("beds", beds.range(f.getBeds(), null));
+        if (f.getMaxGuests() != null) clauses.put("maxGuests", maxGuests.range(f.getMaxGuests(), null));
+
+        return clauses;
+    }
+
+    private static <K> void putTerm(Map<String, BitSet> clauses, String dimension, Map<K, BitSet> terms, K key) {
+        if (key == null) return;
+        BitSet bits = terms.get(key);
+        clauses.put(dimension, bits != null ? bits : new BitSet());
+    }
+
+    private void putFlag(Map<String, BitSet> clauses, String name, Boolean value) {
+        if (value == null) return;
+        putTerm(clauses, name, flags, flag(name, value));
+    }
+
+    private static <K> void andTerm(BitSet result, Map<K, BitSet> terms, K key) {
+        if (key == null) return;
+        BitSet bits = terms.get(key);
+        if (bits == null) {
+            result.clear();
+        } else {
+            result.and(bits);
+        }
+    }
+}
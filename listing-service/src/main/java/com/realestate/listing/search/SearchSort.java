@@ -0,0 +1,23 @@
+package com.realestate.listing.search;
+
+import java.util.Locale;
+
+/**
+ * Modes de tri des recherches avec dates (/properties/search/tenant?sort=...)
+ */
+public enum SearchSort {
+    TOTAL_PRICE,       // prix total du séjour, réductions comprises (croissant)
+    PRICE_PER_NIGHT,   // prix de base par nuit (croissant)
+    RATING,            // note moyenne (décroissante), properties sans note en dernier
+    DISTANCE,          // distance au point lat/lng (croissante), properties sans coordonnées en dernier
+    NEWEST;            // dernières publiées d'abord (propertyId décroissant)
+
+    /** "total_price", "price-per-night", "RATING", ... */
+    public static SearchSort parse(String value) {
+        try {
+            return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tri inconnu : " + value, e);
+        }
+    }
+}
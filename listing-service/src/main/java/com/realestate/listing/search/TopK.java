@@ -0,0 +1,38 @@
+package com.realestate.listing.search;
+
+import java.util.*;
+
+/**
+ * Les k meilleurs éléments d'un flux selon un ordre, en O(n log k) et O(k) mémoire :
+ * tas borné dont la tête est le moins bon des k retenus
+ * Non thread-safe
+ */
+public class TopK<T> {
+
+    private final int k;
+    private final Comparator<? super T> order;
+    private final PriorityQueue<T> heap;
+
+    public TopK(int k, Comparator<? super T> order) {
+        if (k <= 0) throw new IllegalArgumentException("k doit être positif");
+        this.k = k;
+        this.order = order;
+        this.heap = new PriorityQueue<>(Math.min(k, 1024) + 1, order.reversed());
+    }
+
+    public void offer(T element) {
+        if (heap.size() < k) {
+            heap.add(element);
+        } else if (order.compare(element, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(element);
+        }
+    }
+
+    /** Éléments retenus, du meilleur au moins bon */
+    public List<T> sorted() {
+        List<T> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+}
@@ -3,9 +3,11 @@ package com.realestate.listing.service;
 
 import com.realestate.listing.entity.Amenity;
 import com.realestate.listing.entity.Property;
+import com.realestate.listing.event.PropertyContentChangedEvent;
 import com.realestate.listing.repository.AmenityRepository;
 import com.realestate.listing.repository.PropertyRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +24,9 @@ public class AmenityService {
     @Autowired
     private PropertyRepository propertyRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // ======================
     // === CRUD DE BASE ===
     // ======================
@@ -47,7 +52,10 @@ public class AmenityService {
                 .orElseThrow(() -> new IllegalArgumentException("Commodité non trouvée avec l'ID : " + id));
 
         updatedAmenity.setAmenityId(id);
-        return amenityRepository.save(updatedAmenity);
+        Amenity saved = amenityRepository.save(updatedAmenity);
+        // Nom / catégorie repris dans les fiches de toutes les properties équipées
+        eventPublisher.publishEvent(PropertyContentChangedEvent.unknownProperty());
+        return saved;
     }
 
 
@@ -57,6 +65,7 @@ public class AmenityService {
             throw new IllegalArgumentException("Commodité non trouvée avec l'ID : " +  id);
         }
         amenityRepository.deleteById(id);
+        eventPublisher.publishEvent(PropertyContentChangedEvent.unknownProperty());
     }
 
     // ============================
@@ -0,0 +1,204 @@
+package com.realestate.listing.service;
+
+import com.realestate.listing.availability.HoldRegistry;
+import com.realestate.listing.availability.HoldRegistry.Hold;
+import com.realestate.listing.availability.HoldRegistry.State;
+import com.realestate.listing.dto.HoldDTO;
+import com.realestate.listing.dto.HoldRequestDTO;
+import com.realestate.listing.entity.AvailabilityHold;
+import com.realestate.listing.repository.AvailabilityHoldRepository;
+import com.realestate.listing.repository.PropertyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ========================================
+ * BLOCAGES PROVISOIRES (HOLDS)
+ * ========================================
+ * Remplace le "vérifier puis bloquer" de booking-service :
+ * - placeHold : vérification + blocage provisoire atomiques (verrou de la property),
+ *   le hold expire seul après son TTL
+ * - confirmHold : hold → période bloquée définitive, dans une seule transaction
+ * - releaseHold : libération anticipée (paiement abandonné)
+ * La mémoire (HoldRegistry) fait foi pour les conflits, la ligne BDD permet de
+ * retrouver les holds actifs après un redémarrage. blockPeriod prend le même verrou
+ * et refuse les dates tenues par un hold : un blocage direct ne passe pas sous un paiement en cours.
+ */
+@Service
+public class AvailabilityHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityHoldService.class);
+    private static final int MIN_TTL_SECONDS = 30;
+
+    @Autowired
+    private AvailabilityHoldRepository holdRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepo;
+
+    @Autowired
+    private PropertyAvailabilityService availabilityService;
+
+    @Autowired
+    private HoldRegistry registry;
+
+    @Value("${listing.holds.default-ttl-seconds:600}")
+    private int defaultTtlSeconds;
+
+    @Value("${listing.holds.max-ttl-seconds:1800}")
+    private int maxTtlSeconds;
+
+    /**
+     * Pose un hold sur [start, end] : IllegalStateException si la période est bloquée ou déjà tenue
+     */
+    public HoldDTO placeHold(Integer propertyId, HoldRequestDTO request) {
+        if (request.start() == null || request.end() == null || request.start().isAfter(request.end())) {
+            throw new IllegalArgumentException("Date de début doit être avant la fin");
+        }
+        if (!propertyRepo.existsById(propertyId)) {
+            throw new IllegalArgumentException("Propriété non trouvée");
+        }
+        int ttl = request.ttlSeconds() != null
+                ? Math.max(MIN_TTL_SECONDS, Math.min(request.ttlSeconds(), maxTtlSeconds))
+                : defaultTtlSeconds;
+
+        ReentrantLock lock = registry.lockFor(propertyId);
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            // BDD et non calendrier en mémoire : le verrou est rendu au commit d'un blockPeriod,
+            // avant que son AvailabilityChangedEvent ait mis le calendrier à jour
+            if (registry.hasOverlap(propertyId, request.start(), request.end(), now)
+                    || availabilityService.hasBlockedOverlap(propertyId, request.start(), request.end())) {
+                throw new IllegalStateException("Période indisponible");
+            }
+
+            long expiresAtMillis = now + ttl * 1000L;
+            AvailabilityHold saved = holdRepository.save(AvailabilityHold.builder()
+                    .propertyId(propertyId)
+                    .startDate(request.start())
+                    .endDate(request.end())
+                    .holder(request.holder())
+                    .createdAt(toLocalDateTime(now))
+                    .expiresAt(toLocalDateTime(expiresAtMillis))
+                    .build());
+
+            registry.register(new Hold(saved.getHoldId(), propertyId, request.start(), request.end(), expiresAtMillis));
+            return toDTO(saved);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hold → période bloquée "Réservation #reservationId" (suppression du hold + blocage, même transaction)
+     * IllegalArgumentException : hold inconnu ; IllegalStateException : expiré ou période prise entre-temps
+     */
+    @Transactional
+    public void confirmHold(Integer propertyId, Long holdId, Integer reservationId) {
+        Hold hold = registry.get(holdId);
+        if (hold == null || !hold.propertyId().equals(propertyId)) {
+            throw new IllegalArgumentException("Hold non trouvé");
+        }
+        if (hold.expiresAtMillis() <= System.currentTimeMillis()) {
+            // Échu mais pas encore traité par le reaper
+            if (hold.transition(State.ACTIVE, State.EXPIRED)) {
+                registry.remove(hold);
+                holdRepository.deleteById(holdId);
+            }
+            throw new IllegalStateException("Hold expiré");
+        }
+        if (!hold.transition(State.ACTIVE, State.CONFIRMING)) {
+            throw new IllegalStateException("Hold expiré ou déjà utilisé");
+        }
+
+        // Retrait de la mémoire au commit, réactivation si rollback
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    registry.remove(hold);
+                } else {
+                    registry.reactivate(hold);
+                }
+            }
+        });
+
+        try {
+            availabilityService.blockPeriod(propertyId, hold.start(), hold.end(), "Réservation #" + reservationId, holdId);
+        } catch (IllegalArgumentException e) {
+            // Période bloquée entre-temps (blocage antérieur au hold)
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        holdRepository.deleteById(holdId);
+    }
+
+    /**
+     * Libère un hold actif ; false s'il n'existe plus (expiré, confirmé ou inconnu)
+     */
+    @Transactional
+    public boolean releaseHold(Integer propertyId, Long holdId) {
+        Hold hold = registry.get(holdId);
+        if (hold == null || !hold.propertyId().equals(propertyId)) return false;
+        if (!hold.transition(State.ACTIVE, State.RELEASED)) return false;
+
+        registry.remove(hold);
+        holdRepository.deleteById(holdId);
+        return true;
+    }
+
+    // ======================
+    // === EXPIRATION ===
+    // ======================
+
+    @Scheduled(fixedRateString = "${listing.holds.tick-ms:1000}")
+    public void expireHolds() {
+        List<Long> expired = registry.expire(System.currentTimeMillis());
+        if (expired.isEmpty()) return;
+        try {
+            holdRepository.deleteAllByIdInBatch(expired);
+            logger.debug("{} holds expirés", expired.size());
+        } catch (Exception e) {
+            // Lignes orphelines supprimées au prochain démarrage (deleteExpired)
+            logger.error("Échec de la suppression de {} holds expirés", expired.size(), e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void loadActiveHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        holdRepository.deleteExpired(now);
+        List<AvailabilityHold> active = holdRepository.findByExpiresAtAfter(now);
+        for (AvailabilityHold hold : active) {
+            registry.register(new Hold(hold.getHoldId(), hold.getPropertyId(), hold.getStartDate(), hold.getEndDate(),
+                    hold.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+        }
+        if (!active.isEmpty()) {
+            logger.info("{} holds actifs rechargés", active.size());
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static HoldDTO toDTO(AvailabilityHold hold) {
+        return new HoldDTO(hold.getHoldId(), hold.getPropertyId(), hold.getStartDate(), hold.getEndDate(), hold.getExpiresAt());
+    }
+}
@@ -2,8 +2,10 @@
 package com.realestate.listing.service;
 
 import com.realestate.listing.entity.Discount;
+import com.realestate.listing.event.DiscountChangedEvent;
 import com.realestate.listing.repository.DiscountRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +19,9 @@ public class DiscountService {
     @Autowired
     private DiscountRepository discountRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // === CRUD ===
     public List<Discount> getAllDiscounts() {
         return discountRepository.findAll();
@@ -34,7 +39,9 @@ public class DiscountService {
         Discount existing = discountRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Réduction non trouvée avec l'ID : " + id));
         updatedDiscount.setDiscountId(id);
-        return discountRepository.save(updatedDiscount);
+        Discount saved = discountRepository.save(updatedDiscount);
+        eventPublisher.publishEvent(new DiscountChangedEvent(id));
+        return saved;
     }
 
     public void deleteDiscount(Integer id) {
@@ -42,6 +49,7 @@ public class DiscountService {
             throw new IllegalArgumentException("Réduction non trouvée avec l'ID : " + id);
         }
         discountRepository.deleteById(id);
+        eventPublisher.publishEvent(new DiscountChangedEvent(id));
     }
 
     // === RECHERCHES SPÉCIFIQUES ===
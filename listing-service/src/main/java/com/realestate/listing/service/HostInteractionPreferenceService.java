@@ -2,8 +2,10 @@
 package com.realestate.listing.service;
 
 import com.realestate.listing.entity.HostInteractionPreference;
+import com.realestate.listing.event.PropertyContentChangedEvent;
 import com.realestate.listing.repository.HostInteractionPreferenceRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +19,9 @@ public class HostInteractionPreferenceService {
     @Autowired
     private HostInteractionPreferenceRepository preferenceRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // === CRUD ===
     public List<HostInteractionPreference> getAllPreferences() {
         return preferenceRepository.findAll();
@@ -32,6 +37,7 @@ public class HostInteractionPreferenceService {
         if (preferenceRepository.findByProperty_PropertyId(propertyId).isPresent()) {
             throw new IllegalArgumentException("Une préférence existe déjà pour cette propriété (ID: " + propertyId + ")");
         }
+        eventPublisher.publishEvent(new PropertyContentChangedEvent(propertyId));
         return preferenceRepository.save(preference);
     }
 
@@ -40,13 +46,14 @@ public class HostInteractionPreferenceService {
                 .orElseThrow(() -> new IllegalArgumentException("Préférence non trouvée avec l'ID : " + id));
 
         updatedPreference.setPreferenceId(id);
+        eventPublisher.publishEvent(new PropertyContentChangedEvent(existing.getProperty().getPropertyId()));
         return preferenceRepository.save(updatedPreference);
     }
 
     public void deletePreference(Integer id) {
-        if (!preferenceRepository.existsById(id)) {
-            throw new IllegalArgumentException("Préférence non trouvée avec l'ID : " + id);
-        }
+        HostInteractionPreference existing = preferenceRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Préférence non trouvée avec l'ID : " + id));
+        eventPublisher.publishEvent(new PropertyContentChangedEvent(existing.getProperty().getPropertyId()));
         preferenceRepository.deleteById(id);
     }
 
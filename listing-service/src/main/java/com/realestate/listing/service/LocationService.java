@@ -3,12 +3,13 @@ package com.realestate.listing.service;
 
 import com.realestate.listing.dto.LocationDTO;
 import com.realestate.listing.repository.PropertyRepository;
+import com.realestate.listing.search.LocationIndex;
+import com.realestate.listing.search.LocationPrefixIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,6 +25,7 @@ import java.util.stream.Collectors;
 public class LocationService {
 
     private final PropertyRepository propertyRepository;
+    private final LocationIndex locationIndex;
 
     // Liste des locations populaires (peut être stockée en base de données plus tard)
     private static final List<LocationDTO> POPULAR_LOCATIONS = Arrays.asList(
@@ -79,13 +81,23 @@ public class LocationService {
             new LocationDTO("Santorini", "Greece")
     );
 
+    // Index préfixe sur la liste statique (rang = position dans la liste)
+    private static final LocationPrefixIndex POPULAR_INDEX = new LocationPrefixIndex();
+
+    static {
+        for (int i = 0; i < POPULAR_LOCATIONS.size(); i++) {
+            LocationDTO location = POPULAR_LOCATIONS.get(i);
+            POPULAR_INDEX.add(location.getCity(), location.getCountry(), POPULAR_LOCATIONS.size() - i);
+        }
+    }
+
     /**
      * ============================
      * RECHERCHER DES LOCATIONS
-     * Retourne les locations correspondant au terme de recherche
+     * Retourne les locations dont un mot (ville ou pays) commence par le terme de recherche
      *
      * @param query Terme de recherche (ville ou pays)
-     * @return Liste des locations filtrées et triées par pertinence
+     * @return Liste des locations filtrées et triées par popularité
      * ============================
      */
     public List<LocationDTO> searchLocations(String query) {
@@ -97,33 +109,8 @@ public class LocationService {
             return getPopularLocations(8);
         }
 
-        String searchTerm = query.toLowerCase().trim();
-
-        // Filtrer les locations qui correspondent à la recherche
-        List<LocationDTO> filtered = POPULAR_LOCATIONS.stream()
-                .filter(location ->
-                        location.getCity().toLowerCase().contains(searchTerm) ||
-                                location.getCountry().toLowerCase().contains(searchTerm) ||
-                                location.getDisplayName().toLowerCase().contains(searchTerm)
-                )
-                .collect(Collectors.toList());
-
-        // Trier par pertinence (correspondances exactes en premier)
-        List<LocationDTO> sorted = filtered.stream()
-                .sorted((a, b) -> {
-                    boolean aStartsWithCity = a.getCity().toLowerCase().startsWith(searchTerm);
-                    boolean bStartsWithCity = b.getCity().toLowerCase().startsWith(searchTerm);
-                    boolean aStartsWithCountry = a.getCountry().toLowerCase().startsWith(searchTerm);
-                    boolean bStartsWithCountry = b.getCountry().toLowerCase().startsWith(searchTerm);
-
-                    if (aStartsWithCity && !bStartsWithCity) return -1;
-                    if (!aStartsWithCity && bStartsWithCity) return 1;
-                    if (aStartsWithCountry && !bStartsWithCountry) return -1;
-                    if (!aStartsWithCountry && bStartsWithCountry) return 1;
-
-                    return a.getCity().compareTo(b.getCity());
-                })
-                .limit(10) // Limiter à 10 résultats
+        List<LocationDTO> sorted = POPULAR_INDEX.search(query, 10).stream()
+                .map(location -> new LocationDTO(location.getCity(), location.getCountry()))
                 .collect(Collectors.toList());
 
         log.info("✅ {} locations trouvées pour '{}'", sorted.size(), query);
@@ -147,24 +134,30 @@ public class LocationService {
     /**
      * ============================
      * OBTENIR LES LOCATIONS DEPUIS LA BASE DE DONNÉES
-     * Récupère les villes/pays UNIQUES depuis les properties existantes
+     * Récupère les villes/pays UNIQUES depuis les properties ACTIVE
      *
-     * Cette méthode est MEILLEURE car elle retourne uniquement les locations
-     * où il y a des properties disponibles
+     * Lu depuis l'index en mémoire (tenu à jour à chaque publication/archivage),
+     * la requête GROUP BY n'est utilisée que tant que l'index n'est pas construit
      * ============================
      */
     public List<LocationDTO> getLocationsFromDatabase() {
         log.info("🔍 Récupération des locations depuis la base de données");
 
+        if (locationIndex.isReady()) {
+            List<LocationDTO> locations = locationIndex.top(Integer.MAX_VALUE);
+            log.info("✅ {} locations trouvées dans l'index", locations.size());
+            return locations;
+        }
+
         // Requête native pour obtenir les city/country uniques avec compteur
         List<Object[]> results = propertyRepository.findDistinctCitiesAndCountries();
 
         List<LocationDTO> locations = results.stream()
                 .map(row -> new LocationDTO(
                         (String) row[0],  // city
-                        (String) row[1] // country
+                        (String) row[1],  // country
+                        ((Number) row[2]).longValue()
                 ))
-
                 .collect(Collectors.toList());
 
         log.info("✅ {} locations trouvées dans la base de données", locations.size());
@@ -177,26 +170,22 @@ public class LocationService {
      * Recherche des locations RÉELLES (avec properties disponibles)
      *
      * @param query Terme de recherche
-     * @return Liste des locations filtrées depuis la BDD
+     * @return Liste des locations filtrées, triées par nombre de properties
      * ============================
      */
     public List<LocationDTO> searchLocationsFromDatabase(String query) {
         log.info("🔍 Recherche de locations dans la BDD pour : {}", query);
 
-        List<LocationDTO> allLocations = getLocationsFromDatabase();
+        boolean tooShort = query == null || query.trim().length() < 2;
 
-        if (query == null || query.trim().length() < 2) {
-            return allLocations.stream().limit(8).collect(Collectors.toList());
+        if (!locationIndex.isReady()) {
+            LocationPrefixIndex snapshot = new LocationPrefixIndex();
+            for (LocationDTO location : getLocationsFromDatabase()) {
+                snapshot.add(location.getCity(), location.getCountry(), location.getPropertyCount().intValue());
+            }
+            return tooShort ? snapshot.top(8) : snapshot.search(query, 10);
         }
 
-        String searchTerm = query.toLowerCase().trim();
-
-        return allLocations.stream()
-                .filter(location ->
-                        location.getCity().toLowerCase().contains(searchTerm) ||
-                                location.getCountry().toLowerCase().contains(searchTerm)
-                )
-                .limit(10)
-                .collect(Collectors.toList());
+        return tooShort ? locationIndex.top(8) : locationIndex.search(query, 10);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,169 @@
+package com.realestate.listing.service;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.realestate.listing.dto.PhotoGalleryDTO;
+import com.realestate.listing.event.PropertyContentChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * ========================================
+ * ORDRE DE LA GALERIE PHOTO (ensembliste)
+ * ========================================
+ * - un nouvel ordre complet = une lecture verrouillante + un seul UPDATE ... CASE, quel que soit N
+ * - version optimiste = empreinte de (photoId, displayOrder, isCover) de toutes les photos :
+ *   un upload ou une suppression par media-service (qui écrit directement en SQL) change aussi
+ *   la version, sans colonne à maintenir côté media-service
+ * - displayOrder 1..N ; un ordre complet ou un changement de couverture met la couverture en tête
+ */
+@Service
+@Transactional
+public class PhotoGalleryService {
+
+    private static final String SELECT_GALLERY = """
+            SELECT photo_id, display_order, is_cover FROM property_photos
+            WHERE property_id = ? ORDER BY COALESCE(display_order, 0), photo_id""";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Transactional(readOnly = true)
+    public PhotoGalleryDTO getGallery(Integer propertyId) {
+        return toDTO(load(propertyId, false));
+    }
+
+    /**
+     * Applique un ordre complet de galerie, la première photo devient la couverture
+     * @param expectedVersion version lue par le client (If-Match) ; null = pas de contrôle
+     * @throws IllegalStateException    version périmée (galerie modifiée entre-temps)
+     * @throws IllegalArgumentException photo inconnue, en double, ou absente de l'ordre
+     */
+    public PhotoGalleryDTO reorder(Integer propertyId, List<Integer> photoIds, String expectedVersion) {
+        List<Row> current = load(propertyId, true);
+        checkVersion(current, expectedVersion);
+
+        List<Integer> ordered = validate(propertyId, current, photoIds);
+        if (ordered.size() < current.size()) {
+            throw new IllegalArgumentException("L'ordre doit contenir toutes les photos de la galerie");
+        }
+        return apply(propertyId, current, ordered, ordered.isEmpty() ? null : ordered.get(0));
+    }
+
+    /**
+     * Ordre partiel sans contrôle de version (PUT /photos/reorder) : les photos citées d'abord,
+     * les autres ensuite dans leur ordre actuel ; la couverture ne change pas
+     */
+    public PhotoGalleryDTO reorderKeepingCover(Integer propertyId, List<Integer> photoIds) {
+        List<Row> current = load(propertyId, true);
+
+        LinkedHashSet<Integer> ordered = new LinkedHashSet<>(validate(propertyId, current, photoIds));
+        current.forEach(row -> ordered.add(row.photoId()));
+        Integer coverId = current.stream().filter(Row::isCover).map(Row::photoId).findFirst().orElse(null);
+        return apply(propertyId, current, new ArrayList<>(ordered), coverId);
+    }
+
+    /**
+     * Met une photo en couverture (en tête), les autres gardent leur ordre relatif
+     */
+    public PhotoGalleryDTO setCover(Integer propertyId, Integer photoId, String expectedVersion) {
+        List<Row> current = load(propertyId, true);
+        checkVersion(current, expectedVersion);
+        if (current.stream().noneMatch(row -> row.photoId().equals(photoId))) {
+            throw new IllegalArgumentException("Photo not found: " + photoId);
+        }
+
+        List<Integer> ordered = new ArrayList<>(current.size());
+        ordered.add(photoId);
+        current.stream().map(Row::photoId).filter(id -> !id.equals(photoId)).forEach(ordered::add);
+        return apply(propertyId, current, ordered, photoId);
+    }
+
+    // ======================
+    // === INTERNE ===
+    // ======================
+
+    private static void checkVersion(List<Row> current, String expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(version(current))) {
+            throw new IllegalStateException("La galerie a été modifiée, recharger l'ordre des photos");
+        }
+    }
+
+    // Photos citées, sans doublon et toutes rattachées à la property
+    private static List<Integer> validate(Integer propertyId, List<Row> current, List<Integer> photoIds) {
+        Set<Integer> known = new HashSet<>();
+        current.forEach(row -> known.add(row.photoId()));
+
+        LinkedHashSet<Integer> ordered = new LinkedHashSet<>();
+        for (Integer photoId : photoIds) {
+            if (!known.contains(photoId)) {
+                throw new IllegalArgumentException("Photo " + photoId + " absente de la property " + propertyId);
+            }
+            if (!ordered.add(photoId)) {
+                throw new IllegalArgumentException("Photo " + photoId + " en double");
+            }
+        }
+        return new ArrayList<>(ordered);
+    }
+
+    // Un seul UPDATE pour toute la galerie, uniquement si l'ordre ou la couverture change (coverId null = aucune)
+    private PhotoGalleryDTO apply(Integer propertyId, List<Row> current, List<Integer> ordered, Integer coverId) {
+        List<Row> target = new ArrayList<>(ordered.size());
+        for (int i = 0; i < ordered.size(); i++) {
+            target.add(new Row(ordered.get(i), i + 1, ordered.get(i).equals(coverId)));
+        }
+        if (new HashSet<>(target).equals(new HashSet<>(current))) {
+            return toDTO(target);
+        }
+
+        StringBuilder sql = new StringBuilder("UPDATE property_photos SET display_order = CASE photo_id");
+        List<Object> args = new ArrayList<>();
+        for (Row row : target) {
+            sql.append(" WHEN ? THEN ?");
+            args.add(row.photoId());
+            args.add(row.displayOrder());
+        }
+        sql.append(" END, is_cover = (photo_id <=> ?) WHERE property_id = ? AND photo_id IN (");
+        args.add(coverId);
+        args.add(propertyId);
+        sql.append(String.join(", ", Collections.nCopies(ordered.size(), "?"))).append(')');
+        args.addAll(ordered);
+
+        jdbcTemplate.update(sql.toString(), args.toArray());
+        eventPublisher.publishEvent(new PropertyContentChangedEvent(propertyId));
+        return toDTO(target);
+    }
+
+    // forUpdate : verrouille les lignes de la galerie (et les insertions concurrentes) jusqu'au commit
+    private List<Row> load(Integer propertyId, boolean forUpdate) {
+        return jdbcTemplate.query(forUpdate ? SELECT_GALLERY + " FOR UPDATE" : SELECT_GALLERY,
+                (rs, i) -> new Row(rs.getInt(1), rs.getInt(2), rs.getBoolean(3)),
+                propertyId);
+    }
+
+    private static PhotoGalleryDTO toDTO(List<Row> rows) {
+        return new PhotoGalleryDTO(version(rows), rows.stream()
+                .map(row -> new PhotoGalleryDTO.PhotoOrder(row.photoId(), row.displayOrder(), row.isCover()))
+                .toList());
+    }
+
+    /** Empreinte indépendante de l'ordre de lecture : lignes triées par photoId */
+    static String version(List<Row> rows) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        rows.stream()
+                .sorted(Comparator.comparing(Row::photoId))
+                .forEach(row -> hasher.putInt(row.photoId()).putInt(row.displayOrder()).putBoolean(row.isCover()));
+        return "g-" + hasher.hash();
+    }
+
+    // display_order NULL lu comme 0 (même règle que l'ancien tri)
+    record Row(Integer photoId, int displayOrder, boolean isCover) {}
+}
@@ -1,14 +1,23 @@
 // src/main/java/com/realestate/listing/service/PriceHistoryService.java
 package com.realestate.listing.service;
 
+import com.realestate.listing.dto.PriceSeriesDTO;
 import com.realestate.listing.entity.PriceHistory;
+import com.realestate.listing.entity.PriceHistoryBucket;
 import com.realestate.listing.entity.Property;
+import com.realestate.listing.event.PropertyContentChangedEvent;
+import com.realestate.listing.repository.PriceHistoryBucketRepository;
 import com.realestate.listing.repository.PriceHistoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +28,15 @@ public class PriceHistoryService {
     @Autowired
     private PriceHistoryRepository priceHistoryRepository;
 
+    @Autowired
+    private PriceHistoryBucketRepository bucketRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${listing.price-history.series.max-points:2000}")
+    private int maxSeriesPoints;
+
     // === CRUD ===
     public List<PriceHistory> getAllPriceHistories() {
         return priceHistoryRepository.findAll();
@@ -29,6 +47,9 @@ public class PriceHistoryService {
     }
 
     public PriceHistory createPriceHistory(PriceHistory priceHistory) {
+        eventPublisher.publishEvent(priceHistory.getProperty() != null
+                ? new PropertyContentChangedEvent(priceHistory.getProperty().getPropertyId())
+                : PropertyContentChangedEvent.unknownProperty());
         return priceHistoryRepository.save(priceHistory);
     }
 
@@ -37,21 +58,64 @@ public class PriceHistoryService {
                 .orElseThrow(() -> new IllegalArgumentException("Historique de prix non trouvé avec l'ID : " + id));
 
         updatedPriceHistory.setHistoryId(id);
+        eventPublisher.publishEvent(new PropertyContentChangedEvent(existing.getProperty().getPropertyId()));
         return priceHistoryRepository.save(updatedPriceHistory);
     }
 
     public void deletePriceHistory(Integer id) {
-        if (!priceHistoryRepository.existsById(id)) {
-            throw new IllegalArgumentException("Historique de prix non trouvé avec l'ID : " + id);
-        }
+        PriceHistory existing = priceHistoryRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Historique de prix non trouvé avec l'ID : " + id));
+        eventPublisher.publishEvent(new PropertyContentChangedEvent(existing.getProperty().getPropertyId()));
         priceHistoryRepository.deleteById(id);
     }
 
-    // === RECHERCHE PAR PROPRIÉTÉ (triée par date décroissante) ===
+    // === RECHERCHE PAR PROPRIÉTÉ (triée par date décroissante, changements non encore compactés) ===
     public List<PriceHistory> getByPropertyId(Integer propertyId) {
         return priceHistoryRepository.findByProperty_PropertyIdOrderByChangedAtDesc(propertyId);
     }
 
+    /**
+     * Série ré-échantillonnée en `points` intervalles égaux sur [from, to] (jours inclus) :
+     * changements bruts récents + agrégats jour / semaine laissés par PriceHistoryCompactionJob.
+     * Un agrégat compte dans l'intervalle où il commence : la résolution effective ne descend
+     * pas sous la granularité stockée (jour, puis semaine au-delà de daily-days).
+     */
+    @Transactional(readOnly = true)
+    public PriceSeriesDTO getSeries(Integer propertyId, String priceType, LocalDate from, LocalDate to, int points) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from doit précéder to");
+        }
+        if (points < 1 || points > maxSeriesPoints) {
+            throw new IllegalArgumentException("points doit être compris entre 1 et " + maxSeriesPoints);
+        }
+        String type = priceType == null ? "" : priceType;
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        long width = Math.max(1, (Duration.between(start, end).getSeconds() + points - 1) / points);
+
+        SeriesAccumulator series = new SeriesAccumulator(points);
+        // Semaine commencée avant from : rattachée au premier intervalle
+        for (PriceHistoryBucket bucket : bucketRepository
+                .findByPropertyIdAndPriceTypeAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(
+                        propertyId, type, from.minusDays(PriceHistoryBucket.Granularity.WEEK.days() - 1), to.plusDays(1))) {
+            if (!bucket.getBucketStart().plusDays(bucket.getGranularity().days()).isAfter(from)) continue;
+            series.add(index(bucket.getBucketStart().atStartOfDay(), start, width, points),
+                    bucket.getMinPrice(), bucket.getMaxPrice(), bucket.getSumPrice(), bucket.getChangeCount(),
+                    bucket.getLastPrice(), bucket.getLastChangedAt());
+        }
+        for (Object[] row : priceHistoryRepository.findRawPoints(propertyId, type, start, end)) {
+            double price = (Double) row[0];
+            LocalDateTime changedAt = (LocalDateTime) row[1];
+            series.add(index(changedAt, start, width, points), price, price, price, 1, price, changedAt);
+        }
+        return new PriceSeriesDTO(propertyId, priceType, start, end, width, series.toPoints(start, width));
+    }
+
+    // Supprime les agrégats compactés (les changements bruts suivent la property en cascade)
+    public void deleteCompactedHistory(Integer propertyId) {
+        bucketRepository.deleteByPropertyId(propertyId);
+    }
+
 
     @Transactional
     public void recordPriceChange(Property property, Double oldPrice, Double newPrice, String priceType) {
@@ -66,5 +130,62 @@ public class PriceHistoryService {
                 .build();
 
         priceHistoryRepository.save(history);
+        eventPublisher.publishEvent(new PropertyContentChangedEvent(property.getPropertyId()));
+    }
+
+    // ======================
+    // === RÉ-ÉCHANTILLONNAGE ===
+    // ======================
+
+    private static int index(LocalDateTime time, LocalDateTime start, long width, int points) {
+        long offset = Duration.between(start, time).getSeconds();
+        return (int) Math.max(0, Math.min(points - 1, offset / width));
+    }
+
+    // min / max / somme / nombre / dernier prix par intervalle
+    private static final class SeriesAccumulator {
+        final double[] min;
+        final double[] max;
+        final double[] sum;
+        final int[] count;
+        final double[] last;
+        final LocalDateTime[] lastAt;
+
+        SeriesAccumulator(int points) {
+            min = new double[points];
+            max = new double[points];
+            sum = new double[points];
+            count = new int[points];
+            last = new double[points];
+            lastAt = new LocalDateTime[points];
+        }
+
+        void add(int i, double minPrice, double maxPrice, double sumPrice, int changes,
+                 double lastPrice, LocalDateTime changedAt) {
+            if (changes <= 0) return;
+            if (count[i] == 0) {
+                min[i] = minPrice;
+                max[i] = maxPrice;
+            } else {
+                min[i] = Math.min(min[i], minPrice);
+                max[i] = Math.max(max[i], maxPrice);
+            }
+            sum[i] += sumPrice;
+            count[i] += changes;
+            if (lastAt[i] == null || !changedAt.isBefore(lastAt[i])) {
+                last[i] = lastPrice;
+                lastAt[i] = changedAt;
+            }
+        }
+
+        List<PriceSeriesDTO.Point> toPoints(LocalDateTime start, long width) {
+            List<PriceSeriesDTO.Point> points = new ArrayList<>();
+            for (int i = 0; i < count.length; i++) {
+                if (count[i] == 0) continue;
+                points.add(new PriceSeriesDTO.Point(start.plusSeconds(i * width),
+                        min[i], max[i], sum[i] / count[i], last[i], count[i]));
+            }
+            return points;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,31 +1,72 @@
 package com.realestate.listing.service;
 
-import com.realestate.listing.client.AIServiceClient;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.realestate.listing.entity.Property;
+import com.realestate.listing.prediction.EthRateCache;
+import com.realestate.listing.prediction.PriceFeatures;
+import com.realestate.listing.prediction.PricePredictor;
+import com.realestate.listing.prediction.PropertyFeatureStore;
+import com.realestate.listing.prediction.PropertyPricingFeatures;
 import com.realestate.listing.repository.PropertyRepository;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service pour interagir avec le AI Service (Price Prediction)
- * Prépare les données et appelle le modèle ML
+ * Prépare les données et appelle le modèle ML via PricePredictor (cache + micro-lots)
+ * Les prix des propriétés d'un hôte sont précalculés en arrière-plan à l'ouverture de ses annonces
+ * Note moyenne et occupation : PropertyFeatureStore ; cours ETH : EthRateCache (aucun appel synchrone)
  */
 @Service
 public class PricePredictionService {
 
     private static final Logger logger = LoggerFactory.getLogger(PricePredictionService.class);
 
+    // Nouvelle propriété, ou note / occupation encore inconnues du store
+    private static final double DEFAULT_AVG_RATING = 4.0;
+    private static final double DEFAULT_OCCUPANCY_RATE = 0.7;
+
+    // Propriétés dont l'hôte gère le prix
+    private static final Set<Property.PropertyStatus> HOST_STATUSES =
+            EnumSet.of(Property.PropertyStatus.DRAFT, Property.PropertyStatus.ACTIVE);
+
     @Autowired
-    private AIServiceClient aiServiceClient;
+    private PricePredictor pricePredictor;
 
     @Autowired
     private PropertyRepository propertyRepository;
 
+    @Autowired
+    private PropertyFeatureStore featureStore;
+
+    @Autowired
+    private EthRateCache ethRateCache;
+
+    // Hôtes à précalculer, et hôtes déjà précalculés (pendant la durée de vie du cache de prédictions)
+    private final Queue<Integer> pendingWarmups = new ConcurrentLinkedQueue<>();
+    private Cache<Integer, Boolean> recentlyWarmed;
+
+    @Value("${listing.pricing.prediction.cache-ttl-minutes:360}")
+    private long cacheTtlMinutes;
+
+    @PostConstruct
+    void init() {
+        recentlyWarmed = CacheBuilder.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(cacheTtlMinutes / 2 + 1, TimeUnit.MINUTES)
+                .build();
+    }
+
     /**
      * 💰 Suggérer le prix optimal d'une propriété
      *
@@ -35,35 +76,20 @@ public class PricePredictionService {
     public Map<String, Object> suggestOptimalPrice(Integer propertyId) {
         logger.info("🤖 Requesting price prediction for property {}", propertyId);
 
-        try {
-            // 1. Récupérer la propriété
-            Property property = propertyRepository.findById(propertyId)
-                    .orElseThrow(() -> new RuntimeException("Property not found: " + propertyId));
+        // 1. Caractéristiques de la propriété (une requête agrégée, sans charger l'entité)
+        Object[] row = propertyRepository.findPricingFeatures(propertyId).stream().findFirst()
+                .orElseThrow(() -> new RuntimeException("Property not found: " + propertyId));
 
-            // 2. Préparer les données pour le modèle AI
-            Map<String, Object> aiRequest = new HashMap<>();
-            aiRequest.put("surface", property.getSurfaceArea() != null ? property.getSurfaceArea() : 80.0);
-            aiRequest.put("rooms", property.getBedrooms() != null ? property.getBedrooms() : 2);
-            aiRequest.put("amenities_count", calculateAmenitiesCount(property));
-            aiRequest.put("avg_rating", calculateAvgRating(propertyId)); // TODO: Implémenter avec reviews
-            aiRequest.put("occupancy_rate", calculateOccupancyRate(propertyId)); // TODO: Implémenter
-
-            logger.info("📤 Sending to AI Service: {}", aiRequest);
-
-            // 3. Appeler le AI Service
-            Map<String, Object> prediction = aiServiceClient.predictPrice(aiRequest);
+        try {
+            // 2. Prédiction (cache, sinon micro-lot vers /price/predict/batch)
+            Map<String, Object> prediction = pricePredictor.predict(toFeatures(row));
 
             logger.info("📥 AI Prediction received: {} ETH ({}€)",
                     prediction.get("predicted_price_eth"),
                     prediction.get("predicted_price_eur"));
 
-            // 4. Enrichir avec les données de la propriété
-            Map<String, Object> response = new HashMap<>(prediction);
-            response.put("property_id", propertyId);
-            response.put("current_price_eth", convertEurToEth(property.getPricePerNight()));
-            response.put("current_price_eur", property.getPricePerNight());
-
-            return response;
+            // 3. Enrichir avec les données de la propriété
+            return enrich(row, prediction);
 
         } catch (Exception e) {
             logger.error("❌ Failed to predict price for property {}", propertyId, e);
@@ -71,6 +97,51 @@ public class PricePredictionService {
         }
     }
 
+    /**
+     * 💰 Suggérer le prix de toutes les propriétés d'un hôte (brouillons et actives)
+     * Toutes les prédictions manquantes partent ensemble en micro-lots
+     *
+     * @return propertyId → prédiction enrichie
+     */
+    public Map<Integer, Map<String, Object>> suggestForHost(Integer userId) {
+        List<Object[]> rows = propertyRepository.findPricingFeaturesByUserId(userId, HOST_STATUSES);
+        try {
+            List<Map<String, Object>> predictions = pricePredictor.predictAll(rows.stream().map(this::toFeatures).toList());
+
+            Map<Integer, Map<String, Object>> result = new LinkedHashMap<>();
+            for (int i = 0; i < rows.size(); i++) {
+                result.put((Integer) rows.get(i)[0], enrich(rows.get(i), predictions.get(i)));
+            }
+            return result;
+
+        } catch (Exception e) {
+            logger.error("❌ Failed to predict prices for host {}", userId, e);
+            throw new RuntimeException("Erreur lors de la prédiction des prix: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Demande le précalcul des prix d'un hôte (non bloquant)
+     * Traité par warmPendingHosts ; ignoré si l'hôte a été précalculé récemment
+     */
+    public void requestHostWarmup(Integer userId) {
+        if (userId != null && recentlyWarmed.getIfPresent(userId) == null) {
+            pendingWarmups.add(userId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${listing.pricing.prediction.warmup-interval-ms:1000}")
+    public void warmPendingHosts() {
+        Integer userId;
+        while ((userId = pendingWarmups.poll()) != null) {
+            if (recentlyWarmed.getIfPresent(userId) != null) continue;
+            recentlyWarmed.put(userId, Boolean.TRUE);
+            List<Object[]> rows = propertyRepository.findPricingFeaturesByUserId(userId, HOST_STATUSES);
+            pricePredictor.prefetch(rows.stream().map(this::toFeatures).toList());
+            logger.debug("🔥 Price warmup for host {} ({} properties)", userId, rows.size());
+        }
+    }
+
     /**
      * 💰 Suggérer le prix pour une NOUVELLE propriété (avant création)
      * Utilisé dans le formulaire de création
@@ -83,22 +154,17 @@ public class PricePredictionService {
         logger.info("🤖 Predicting price for NEW property");
 
         try {
-            Map<String, Object> aiRequest = new HashMap<>();
-            aiRequest.put("surface", surfaceArea != null ? surfaceArea : 80.0);
-            aiRequest.put("rooms", bedrooms != null ? bedrooms : 2);
-            aiRequest.put("amenities_count", amenitiesCount != null ? amenitiesCount : 5);
-            aiRequest.put("avg_rating", 4.0); // Valeur par défaut pour nouvelle propriété
-            aiRequest.put("occupancy_rate", 0.7); // Estimation initiale
-
-            logger.info("📤 Sending to AI Service: {}", aiRequest);
+            // Note et occupation par défaut pour une nouvelle propriété
+            PriceFeatures features = PriceFeatures.of(surfaceArea, bedrooms, amenitiesCount,
+                    DEFAULT_AVG_RATING, DEFAULT_OCCUPANCY_RATE);
 
-            Map<String, Object> prediction = aiServiceClient.predictPrice(aiRequest);
+            Map<String, Object> prediction = pricePredictor.predict(features);
 
             logger.info("📥 Prediction: {} ETH ({}€)",
                     prediction.get("predicted_price_eth"),
                     prediction.get("predicted_price_eur"));
 
-            return prediction;
+            return atMarketRate(prediction);
 
         } catch (Exception e) {
             logger.error("❌ Failed to predict price", e);
@@ -111,43 +177,57 @@ public class PricePredictionService {
     // ============================================================
 
     /**
-     * Compter le nombre d'équipements de la propriété
+     * Ligne [propertyId, userId, surfaceArea, bedrooms, pricePerNight, nbAmenities] → entrées du modèle
+     * Note et occupation : store alimenté par les événements (valeurs par défaut tant qu'elles sont inconnues)
      */
-    private int calculateAmenitiesCount(Property property) {
-        if (property.getAmenities() == null) {
-            return 5; // Valeur par défaut
-        }
-        return property.getAmenities().size();
+    private PriceFeatures toFeatures(Object[] row) {
+        PropertyPricingFeatures live = featureStore.features((Integer) row[0]);
+        return PriceFeatures.of((Double) row[2], (Integer) row[3], ((Number) row[5]).intValue(),
+                live.avgRatingOr(DEFAULT_AVG_RATING), live.occupancyOr(DEFAULT_OCCUPANCY_RATE));
     }
 
-    /**
-     * Calculer la note moyenne (à partir des reviews)
-     * TODO: À implémenter quand tu auras un service de reviews
-     */
-    private double calculateAvgRating(Integer propertyId) {
-        // TODO: Récupérer depuis review-service ou une table reviews
-        // Pour l'instant, valeur par défaut
-        return 4.0;
+    private Map<String, Object> enrich(Object[] row, Map<String, Object> prediction) {
+        Double pricePerNight = (Double) row[4];
+        Map<String, Object> response = atMarketRate(prediction);
+        response.put("property_id", row[0]);
+        response.put("current_price_eth", convertEurToEth(pricePerNight));
+        response.put("current_price_eur", pricePerNight);
+        return response;
     }
 
     /**
-     * Calculer le taux d'occupation
-     * (Nombre de jours réservés / Nombre de jours disponibles)
-     * TODO: À implémenter avec les données de réservation
+     * Le modèle prédit des prix EUR convertis au taux fixe de l'entraînement (eth_eur_rate de la réponse) :
+     * montants ETH recalculés au cours en cache, montants EUR inchangés
      */
-    private double calculateOccupancyRate(Integer propertyId) {
-        // TODO: Calculer depuis booking-service
-        // Formule: (jours réservés / jours disponibles)
-        // Pour l'instant, valeur par défaut
-        return 0.7;
+    private Map<String, Object> atMarketRate(Map<String, Object> prediction) {
+        double marketRate = ethRateCache.eurPerEth();
+        double ratio = prediction.get("eth_eur_rate") instanceof Number modelRate
+                ? modelRate.doubleValue() / marketRate
+                : 1.0;
+
+        Map<String, Object> response = new HashMap<>(prediction);
+        if (prediction.get("predicted_price_eth") instanceof Number eth) {
+            response.put("predicted_price_eth", roundEth(eth.doubleValue() * ratio));
+        }
+        if (prediction.get("confidence_range_eth") instanceof Map<?, ?> range
+                && range.get("min") instanceof Number min && range.get("max") instanceof Number max) {
+            response.put("confidence_range_eth", Map.of(
+                    "min", roundEth(min.doubleValue() * ratio),
+                    "max", roundEth(max.doubleValue() * ratio)));
+        }
+        response.put("eth_eur_rate", marketRate);
+        return response;
     }
 
     /**
-     * Convertir EUR en ETH (taux fixe temporaire)
+     * Convertir EUR en ETH (cours en cache, rafraîchi en arrière-plan)
      */
     private double convertEurToEth(Double priceEur) {
         if (priceEur == null) return 0.0;
-        // Taux de conversion: 1 ETH = 3500 EUR (ajuster selon le marché)
-        return priceEur / 3500.0;
+        return ethRateCache.eurToEth(priceEur);
+    }
+
+    private static double roundEth(double eth) {
+        return Math.round(eth * 10_000) / 10_000.0;
     }
-}
\ No newline at end of file
+}
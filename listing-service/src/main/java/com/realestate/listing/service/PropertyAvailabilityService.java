@@ -1,17 +1,26 @@
 // src/main/java/com/realestate/listing/service/PropertyAvailabilityService.java
 package com.realestate.listing.service;
 
+import com.realestate.listing.availability.BlockIntervals;
+import com.realestate.listing.availability.HoldRegistry;
+import com.realestate.listing.cache.AvailabilityCalendarCache;
+import com.realestate.listing.dto.AvailabilityCalendarDTO;
 import com.realestate.listing.entity.Property;
 import com.realestate.listing.entity.PropertyAvailability;
+import com.realestate.listing.event.AvailabilityChangedEvent;
 import com.realestate.listing.repository.PropertyAvailabilityRepository;
 import com.realestate.listing.repository.PropertyRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 import java.time.LocalDateTime;
 @Service
 @Transactional
@@ -19,31 +28,59 @@ public class PropertyAvailabilityService {
 
     @Autowired private PropertyAvailabilityRepository repo;
     @Autowired private PropertyRepository propertyRepo;
+    @Autowired private AvailabilityCalendarCache calendarCache;
+    @Autowired private ApplicationEventPublisher eventPublisher;
+    @Autowired private HoldRegistry holdRegistry;
 
+    // Taille max d'une clause IN
+    private static final int BATCH_CHUNK_SIZE = 1000;
+
+    /**
+     * Bloque [start, end] : fusionnée avec les périodes de même raison qui chevauchent
+     * ou touchent la plage ; refusée si elle chevauche une période d'une autre raison
+     * ou des dates tenues par un hold
+     */
     public void blockPeriod(Integer propertyId, LocalDate start, LocalDate end, String reason) {
-        Property property = propertyRepo.findById(propertyId)
-                .orElseThrow(() -> new IllegalArgumentException("Property not found"));
+        blockPeriod(propertyId, start, end, reason, null);
+    }
 
-        if (hasConflict(propertyId, start, end)) {
-            throw new IllegalArgumentException("Période déjà bloquée");
+    /**
+     * Idem, sans compter le hold confirmedHoldId (celui qui devient cette période bloquée).
+     * Avant toute lecture : verrou de la property (celui de placeHold) tenu jusqu'à la fin de la
+     * transaction, puis verrou de ligne de la property. Les périodes existantes sont relues en
+     * lecture verrouillante : la transaction a pu lire avant (confirmHold) et son instantané
+     * REPEATABLE READ ne verrait pas un blocage validé entre-temps.
+     */
+    public void blockPeriod(Integer propertyId, LocalDate start, LocalDate end, String reason, Long confirmedHoldId) {
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Date de début doit être avant la fin");
         }
+        lockUntilCompletion(propertyId);
+        if (propertyRepo.lockForAvailability(propertyId) == null) {
+            throw new IllegalArgumentException("Property not found");
+        }
+        Property property = propertyRepo.getReferenceById(propertyId);
 
-        PropertyAvailability block = PropertyAvailability.builder()
-                .property(property)
-                .dateDebut(start)
-                .dateFin(end)
-                .isAvailable(false)
-                .because(reason)
-                .build();
+        if (holdRegistry.hasOverlap(propertyId, start, end, System.currentTimeMillis(), confirmedHoldId)) {
+            throw new IllegalArgumentException("Période tenue par une réservation en cours");
+        }
 
-        repo.save(block);
-    }
-    /*
-    public void unblockPeriod(Integer propertyId, LocalDate start, LocalDate end) {
-        repo.deleteByProperty_PropertyIdAndDateDebutAndDateFin(propertyId, start, end);
+        // Périodes de [start - 1, end + 1] : conflits + voisines contiguës à fusionner
+        List<PropertyAvailability> nearby = repo.findOverlappingBlocksForUpdate(propertyId, start.minusDays(1), end.plusDays(1));
+        boolean conflict = nearby.stream().anyMatch(block ->
+                !Objects.equals(block.getBecause(), reason)
+                        && !block.getDateDebut().isAfter(end) && !block.getDateFin().isBefore(start));
+        if (conflict) {
+            throw new IllegalArgumentException("Période déjà bloquée");
+        }
+
+        apply(property, nearby, BlockIntervals.block(toIntervals(nearby), start, end, reason));
+        eventPublisher.publishEvent(new AvailabilityChangedEvent(propertyId, start, end, true));
     }
-*/
 
+    /**
+     * Débloque [start, end] (toutes raisons) : un seul diff appliqué en lot
+     */
     @Transactional
     public void unblockPeriod(Integer propertyId, LocalDate unblockStart, LocalDate unblockEnd) {
         if (unblockStart.isAfter(unblockEnd)) {
@@ -58,48 +95,147 @@ public class PropertyAvailabilityService {
             throw new IllegalArgumentException("Aucune période bloquée dans cette plage");
         }
 
-        for (PropertyAvailability block : overlapping) {
-            LocalDate blockStart = block.getDateDebut();
-            LocalDate blockEnd = block.getDateFin();
+        Property property = overlapping.get(0).getProperty();
+        apply(property, overlapping, BlockIntervals.unblock(toIntervals(overlapping), unblockStart, unblockEnd));
+        eventPublisher.publishEvent(new AvailabilityChangedEvent(propertyId, unblockStart, unblockEnd, false));
+    }
 
-            // Supprimer le bloc d'origine
-            repo.delete(block);
+    /**
+     * Défragmentation : fusionne les périodes de même raison qui se chevauchent ou se suivent
+     * (les jours bloqués ne changent pas). Retourne le nombre de lignes supprimées.
+     */
+    @Transactional
+    public int defragment(Integer propertyId) {
+        List<PropertyAvailability> blocks = repo.findByProperty_PropertyIdAndIsAvailableFalse(propertyId);
+        if (blocks.size() < 2) return 0;
 
-            // === PARTIE GAUCHE : avant le déblocage ===
-            if (blockStart.isBefore(unblockStart)) {
-                PropertyAvailability left = PropertyAvailability.builder()
-                        .property(block.getProperty())
-                        .dateDebut(blockStart)
-                        .dateFin(unblockStart.minusDays(1))
-                        .isAvailable(false)
-                        .because(block.getBecause())
-                        .build();
-                repo.save(left);
-            }
+        BlockIntervals.Diff diff = BlockIntervals.normalize(toIntervals(blocks));
+        apply(blocks.get(0).getProperty(), blocks, diff);
+        return diff.deletes().size();
+    }
 
-            // === PARTIE DROITE : après le déblocage ===
-            if (blockEnd.isAfter(unblockEnd)) {
-                PropertyAvailability right = PropertyAvailability.builder()
-                        .property(block.getProperty())
-                        .dateDebut(unblockEnd.plusDays(1))
-                        .dateFin(blockEnd)
-                        .isAvailable(false)
-                        .because(block.getBecause())
-                        .build();
-                repo.save(right);
+    // Verrou des holds de la property, rendu au commit / rollback (réentrant : plusieurs blocages par transaction)
+    private void lockUntilCompletion(Integer propertyId) {
+        ReentrantLock lock = holdRegistry.lockFor(propertyId);
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
             }
+        });
+    }
 
-            // Si déblocage total → rien à faire
+    // Diff appliqué en lot : un DELETE ... IN, bornes modifiées sur les entités chargées
+    // (UPDATE au flush, groupés par hibernate.jdbc.batch_size), créations en un saveAll
+    private void apply(Property property, List<PropertyAvailability> loaded, BlockIntervals.Diff diff) {
+        if (diff.isEmpty()) return;
+
+        Map<Integer, PropertyAvailability> byId = new HashMap<>();
+        for (PropertyAvailability block : loaded) {
+            byId.put(block.getAvailabilityId(), block);
+        }
+        for (BlockIntervals.Interval update : diff.updates()) {
+            PropertyAvailability block = byId.get(update.id());
+            block.setDateDebut(update.start());
+            block.setDateFin(update.end());
+        }
+        if (!diff.deletes().isEmpty()) {
+            repo.deleteAllByIdInBatch(diff.deletes());
+        }
+        if (!diff.inserts().isEmpty()) {
+            repo.saveAll(diff.inserts().stream()
+                    .map(insert -> PropertyAvailability.builder()
+                            .property(property)
+                            .dateDebut(insert.start())
+                            .dateFin(insert.end())
+                            .isAvailable(false)
+                            .because(insert.reason())
+                            .build())
+                    .toList());
         }
     }
 
+    private static List<BlockIntervals.Interval> toIntervals(List<PropertyAvailability> blocks) {
+        return blocks.stream()
+                .map(b -> new BlockIntervals.Interval(b.getAvailabilityId(), b.getDateDebut(), b.getDateFin(), b.getBecause()))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Conflit lu en BDD uniquement (jamais le calendrier en mémoire) : appelé par placeHold sous le
+     * verrou de la property, juste après un blockPeriod dont le calendrier n'est peut-être pas encore à jour
+     */
+    @Transactional(readOnly = true)
+    public boolean hasBlockedOverlap(Integer propertyId, LocalDate start, LocalDate end) {
+        return repo.existsByProperty_PropertyIdAndDateDebutLessThanEqualAndDateFinGreaterThanEqual(propertyId, end, start);
+    }
+
     public boolean hasConflict(Integer propertyId, LocalDate start, LocalDate end) {
-        return repo.existsByProperty_PropertyIdAndDateDebutLessThanEqualAndDateFinGreaterThanEqual(
-                propertyId, end, start);
+        // Calendrier en mémoire si la période est dans la fenêtre, sinon BDD
+        return calendarCache.hasConflict(propertyId, start, end)
+                .orElseGet(() -> repo.existsByProperty_PropertyIdAndDateDebutLessThanEqualAndDateFinGreaterThanEqual(
+                        propertyId, end, start));
+    }
+
+    /**
+     * Calendrier de disponibilité encodé (fenêtre du cache : mois courant + N mois)
+     */
+    @Transactional(readOnly = true)
+    public AvailabilityCalendarDTO getCalendar(Integer propertyId) {
+        if (!propertyRepo.existsById(propertyId)) {
+            throw new IllegalArgumentException("Propriété non trouvée");
+        }
+        return calendarCache.getCalendar(propertyId);
+    }
+
+    // ========================================================================
+    // ✅ DISPONIBILITÉ GROUPÉE (recherche locataire, booking-service)
+    // ========================================================================
+
+    /**
+     * IDs bloqués sur [start, end] parmi propertyIds
+     * Calendriers en mémoire si la période est dans leur fenêtre,
+     * sinon une seule requête par tranche de 1000 IDs (au lieu d'une par property)
+     */
+    @Transactional(readOnly = true)
+    public Set<Integer> findBlockedPropertyIds(Collection<Integer> propertyIds, LocalDate start, LocalDate end) {
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Date de début doit être avant la fin");
+        }
+        if (propertyIds == null || propertyIds.isEmpty()) {
+            return Set.of();
+        }
+        if (calendarCache.covers(start, end)) {
+            return calendarCache.findBlocked(propertyIds, start, end);
+        }
+
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(propertyIds));
+        Set<Integer> blocked = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += BATCH_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + BATCH_CHUNK_SIZE, ids.size()));
+            blocked.addAll(repo.findBlockedPropertyIds(chunk, start, end));
+        }
+        return blocked;
+    }
+
+    /**
+     * propertyId → true si la property est libre sur toute la période [start, end]
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, Boolean> checkAvailabilityBatch(Collection<Integer> propertyIds, LocalDate start, LocalDate end) {
+        Set<Integer> blocked = findBlockedPropertyIds(propertyIds, start, end);
+
+        Map<Integer, Boolean> result = new LinkedHashMap<>();
+        for (Integer id : propertyIds) {
+            result.put(id, !blocked.contains(id));
+        }
+        return result;
     }
 
     public List<PropertyAvailability> getBlockedPeriods(Integer propertyId, LocalDate start, LocalDate end) {
-        return repo.findByProperty_PropertyIdAndDateDebutBetween(propertyId, start, end);
+        // Chevauchement (et non début dans la plage) : une période fusionnée peut commencer avant start
+        return repo.findOverlappingBlocks(propertyId, start, end);
     }
     // ========================================================================
     // ✅ NOUVELLES MÉTHODES POUR BOOKING-SERVICE (avec LocalDateTime)
@@ -119,8 +255,9 @@ public class PropertyAvailabilityService {
             throw new IllegalArgumentException("Propriété non trouvée");
         }
 
-        // Utiliser la méthode existante hasConflict
-        return !hasConflict(propertyId, startDate, endDate);
+        // Utiliser la méthode existante hasConflict (+ dates tenues par un hold en cours de paiement)
+        return !hasConflict(propertyId, startDate, endDate)
+                && !holdRegistry.hasOverlap(propertyId, startDate, endDate, System.currentTimeMillis());
     }
 
     /**
@@ -151,7 +288,11 @@ public class PropertyAvailabilityService {
         }
 
         // Supprimer tous les blocs liés à cette réservation
-        repo.deleteAll(blocks);
+        repo.deleteAllInBatch(blocks);
+        for (PropertyAvailability block : blocks) {
+            eventPublisher.publishEvent(new AvailabilityChangedEvent(
+                    propertyId, block.getDateDebut(), block.getDateFin(), false));
+        }
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,327 @@
+package com.realestate.listing.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.realestate.listing.dto.PropertyImportReportDTO;
+import com.realestate.listing.dto.PropertyImportRowDTO;
+import com.realestate.listing.entity.Amenity;
+import com.realestate.listing.importer.CsvRecordReader;
+import com.realestate.listing.importer.ExistingPropertyKeys;
+import com.realestate.listing.importer.PropertyBatchWriter;
+import com.realestate.listing.repository.AmenityRepository;
+import com.realestate.listing.repository.PropertyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * ========================================
+ * IMPORT EN MASSE DE PROPERTIES (NDJSON / CSV)
+ * ========================================
+ * - le fichier est lu en flux, ligne par ligne : la mémoire ne dépend que de la taille des lots
+ * - doublons (titre, ville, adresse) détectés en mémoire : clés existantes chargées une fois
+ *   (ensemble exact, ou filtre de Bloom confirmé en BDD pour les gros inventaires) + clés du fichier
+ * - lignes valides écrites par lots JDBC (PropertyBatchWriter), une transaction par lot ;
+ *   un lot en échec est rejoué ligne par ligne pour isoler les lignes fautives
+ * Les properties sont créées en DRAFT comme via POST /properties/new : absentes des index
+ * de recherche (ACTIVE uniquement) jusqu'à leur publication, pas d'événement à publier.
+ */
+@Service
+public class PropertyImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PropertyImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    // Colonnes CSV multi-valuées (valeurs séparées par '|')
+    private static final Set<String> LIST_COLUMNS = Set.of("amenityIds", "photoUrls");
+
+    @Autowired
+    private PropertyBatchWriter batchWriter;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private AmenityRepository amenityRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${listing.import.batch-size:500}")
+    private int batchSize;
+
+    // Au-delà, les clés existantes passent dans un filtre de Bloom
+    @Value("${listing.import.exact-keys-limit:200000}")
+    private int exactKeysLimit;
+
+    // ======================
+    // === FORMATS ===
+    // ======================
+
+    /** Un objet JSON par ligne */
+    public PropertyImportReportDTO importNdjson(InputStream input, Integer userId) {
+        ImportSession session = new ImportSession(userId);
+        ObjectReader rowReader = objectMapper.readerFor(PropertyImportRowDTO.class);
+
+        long line = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) continue;
+                try {
+                    session.accept(line, rowReader.readValue(text));
+                } catch (JsonProcessingException e) {
+                    session.invalid(line, "JSON invalide : " + e.getOriginalMessage());
+                }
+            }
+        } catch (IOException e) {
+            session.invalid(line + 1, "Lecture interrompue : " + e.getMessage());
+        }
+        return session.finish();
+    }
+
+    /** En-tête = noms des champs de PropertyImportRowDTO, séparateur ',' */
+    public PropertyImportReportDTO importCsv(InputStream input, Integer userId) {
+        ImportSession session = new ImportSession(userId);
+        CsvRecordReader csv = new CsvRecordReader(
+                new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)), ',');
+
+        try {
+            List<String> header = csv.next();
+            if (header == null) return session.finish();
+            header = header.stream().map(String::trim).toList();
+
+            List<String> fields;
+            while ((fields = csv.next()) != null) {
+                long line = csv.recordLine();
+                if (fields.size() == 1 && fields.get(0).isBlank()) continue;
+                if (fields.size() != header.size()) {
+                    session.invalid(line, fields.size() + " colonnes au lieu de " + header.size());
+                    continue;
+                }
+                try {
+                    session.accept(line, objectMapper.treeToValue(toNode(header, fields), PropertyImportRowDTO.class));
+                } catch (JsonProcessingException e) {
+                    session.invalid(line, "Valeur invalide : " + e.getOriginalMessage());
+                }
+            }
+        } catch (IOException e) {
+            session.invalid(csv.recordLine(), "Lecture interrompue : " + e.getMessage());
+        }
+        return session.finish();
+    }
+
+    // Cellules vides ignorées (champ null), colonnes de liste découpées sur '|'
+    private ObjectNode toNode(List<String> header, List<String> fields) {
+        ObjectNode node = objectMapper.createObjectNode();
+        for (int i = 0; i < header.size(); i++) {
+            String value = fields.get(i).trim();
+            if (value.isEmpty()) continue;
+            if (LIST_COLUMNS.contains(header.get(i))) {
+                ArrayNode values = node.putArray(header.get(i));
+                for (String item : value.split("\\|")) {
+                    if (!item.isBlank()) values.add(item.trim());
+                }
+            } else {
+                node.put(header.get(i), value);
+            }
+        }
+        return node;
+    }
+
+    // ======================
+    // === SESSION ===
+    // ======================
+
+    private final class ImportSession {
+
+        private final Integer userId;
+        private final long startedAt = System.currentTimeMillis();
+        private final Set<Integer> amenityIds;
+        private final ExistingPropertyKeys existingKeys;
+        private final Set<String> fileKeys = new HashSet<>();
+
+        private final List<PropertyImportRowDTO> pending = new ArrayList<>();
+        private final List<Long> pendingLines = new ArrayList<>();
+
+        private long rows;
+        private long imported;
+        private long duplicates;
+        private long rejected;
+        private final List<PropertyImportReportDTO.RowError> errors = new ArrayList<>();
+        private boolean errorsTruncated;
+
+        private ImportSession(Integer userId) {
+            this.userId = userId;
+            this.amenityIds = amenityRepository.findAll().stream()
+                    .map(Amenity::getAmenityId)
+                    .collect(Collectors.toSet());
+            this.existingKeys = loadExistingKeys();
+        }
+
+        /** Ligne illisible (JSON/CSV invalide) */
+        void invalid(long line, String message) {
+            rows++;
+            reject(line, null, message);
+        }
+
+        void accept(long line, PropertyImportRowDTO row) {
+            rows++;
+            String error = validate(row);
+            if (error != null) {
+                reject(line, row.getTitle(), error);
+                return;
+            }
+
+            String key = ExistingPropertyKeys.key(row.getTitle(), row.getCity(), row.getAdresseLine());
+            if (key != null) {
+                if (!fileKeys.add(key)) {
+                    duplicate(line, row.getTitle(), "Doublon d'une ligne précédente du fichier");
+                    return;
+                }
+                if (existingKeys.contains(row.getTitle(), row.getCity(), row.getAdresseLine())) {
+                    duplicate(line, row.getTitle(), "Une property avec ce titre, cette ville et cette adresse existe déjà");
+                    return;
+                }
+            }
+
+            pending.add(row);
+            pendingLines.add(line);
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        PropertyImportReportDTO finish() {
+            flush();
+            long elapsed = Math.max(1, System.currentTimeMillis() - startedAt);
+            logger.info("📦 Import user {} : {} lignes, {} importées, {} doublons, {} rejetées en {} ms ({} lignes/s)",
+                    userId, rows, imported, duplicates, rejected, elapsed, rows * 1000 / elapsed);
+            return new PropertyImportReportDTO(rows, imported, duplicates, rejected, List.copyOf(errors), errorsTruncated);
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) return;
+            try {
+                transactionTemplate.executeWithoutResult(status -> batchWriter.insert(pending, userId));
+                imported += pending.size();
+            } catch (DataAccessException | IllegalStateException e) {
+                logger.warn("⚠️ Lot de {} lignes en échec, reprise ligne par ligne : {}", pending.size(), e.getMessage());
+                for (int i = 0; i < pending.size(); i++) {
+                    PropertyImportRowDTO row = pending.get(i);
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> batchWriter.insert(List.of(row), userId));
+                        imported++;
+                    } catch (DataAccessException | IllegalStateException rowError) {
+                        fileKeys.remove(ExistingPropertyKeys.key(row.getTitle(), row.getCity(), row.getAdresseLine()));
+                        reject(pendingLines.get(i), row.getTitle(), "Écriture refusée : " + rootMessage(rowError));
+                    }
+                }
+            }
+            pending.clear();
+            pendingLines.clear();
+        }
+
+        private String validate(PropertyImportRowDTO row) {
+            if (isBlank(row.getTitle())) return "Titre requis";
+            if (isBlank(row.getCity())) return "Ville requise";
+            if (isBlank(row.getCountry())) return "Pays requis";
+            if (row.getLatitude() != null && Math.abs(row.getLatitude()) > 90) return "Latitude invalide";
+            if (row.getLongitude() != null && Math.abs(row.getLongitude()) > 180) return "Longitude invalide";
+            if (isNegative(row.getPricePerNight()) || isNegative(row.getWeekendPricePerNight())
+                    || isNegative(row.getCleaningFee()) || isNegative(row.getPetFee())) {
+                return "Prix négatif";
+            }
+            if (isNegative(row.getMaxGuests()) || isNegative(row.getBedrooms())
+                    || isNegative(row.getBeds()) || isNegative(row.getBathrooms())) {
+                return "Capacité négative";
+            }
+            if (row.getAmenityIds() != null) {
+                for (Integer amenityId : row.getAmenityIds()) {
+                    if (amenityId == null || !amenityIds.contains(amenityId)) return "Amenity inconnue : " + amenityId;
+                }
+            }
+            if (row.getPhotoUrls() != null && row.getPhotoUrls().stream().anyMatch(PropertyImportService::isBlank)) {
+                return "URL de photo vide";
+            }
+            return null;
+        }
+
+        private void duplicate(long line, String title, String message) {
+            duplicates++;
+            addError(line, title, message);
+        }
+
+        private void reject(long line, String title, String message) {
+            rejected++;
+            addError(line, title, message);
+        }
+
+        private void addError(long line, String title, String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new PropertyImportReportDTO.RowError(line, title, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+
+    // Clés de toutes les properties existantes (tous statuts, comme existsByTitleAndCityAndAdresseLine)
+    private ExistingPropertyKeys loadExistingKeys() {
+        long count = propertyRepository.count();
+        ExistingPropertyKeys keys = count <= exactKeysLimit
+                ? ExistingPropertyKeys.exact((int) count)
+                : ExistingPropertyKeys.bloom((int) Math.min(count, Integer.MAX_VALUE),
+                        key -> propertyRepository.existsByNormalizedKey(key[0], key[1], key[2]));
+
+        // Résultat lu en flux (fetchSize MIN_VALUE = streaming MySQL)
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "SELECT title, city, adresse_line FROM property WHERE adresse_line IS NOT NULL",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            return ps;
+        }, (RowCallbackHandler) rs -> keys.add(rs.getString(1), rs.getString(2), rs.getString(3)));
+        return keys;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static boolean isNegative(Number value) {
+        return value != null && value.doubleValue() < 0;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) root = root.getCause();
+        return root.getMessage();
+    }
+}
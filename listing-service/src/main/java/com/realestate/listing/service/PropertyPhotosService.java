@@ -3,8 +3,10 @@ package com.realestate.listing.service;
 
 import com.realestate.listing.entity.Property;
 import com.realestate.listing.entity.PropertyPhoto;
+import com.realestate.listing.event.PropertyContentChangedEvent;
 import com.realestate.listing.repository.PropertyPhotosRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
@@ -19,6 +21,9 @@ public class PropertyPhotosService {
     @Autowired
     private PropertyService propertyService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // === CRUD ===
     public List<PropertyPhoto> getByPropertyId(Integer propertyId) {
         return photosRepository.findByProperty_PropertyId(propertyId);
@@ -28,6 +33,7 @@ public class PropertyPhotosService {
         Property property = propertyService.getPropertyById(propertyId)
                 .orElseThrow(() -> new IllegalArgumentException("Propriété non trouvée"));
         photo.setProperty(property);
+        eventPublisher.publishEvent(new PropertyContentChangedEvent(propertyId));
         return photosRepository.save(photo);
     }
 
@@ -37,14 +43,26 @@ public class PropertyPhotosService {
         existing.setPhotoUrl(updatedPhoto.getPhotoUrl());
         existing.setIsCover(updatedPhoto.getIsCover());
         existing.setDisplayOrder(updatedPhoto.getDisplayOrder());
+        eventPublisher.publishEvent(new PropertyContentChangedEvent(existing.getProperty().getPropertyId()));
         return photosRepository.save(existing);
     }
 
     public void deletePhoto(Integer photoId) {
+        photosRepository.findById(photoId).ifPresent(photo ->
+                eventPublisher.publishEvent(new PropertyContentChangedEvent(photo.getProperty().getPropertyId())));
         photosRepository.deleteById(photoId);
     }
 
+    /**
+     * Photos écrites directement en base par media-service (upload / suppression) :
+     * notification reçue après son commit
+     */
+    public void notifyExternalChange(Integer propertyId) {
+        eventPublisher.publishEvent(new PropertyContentChangedEvent(propertyId));
+    }
+
     public void deleteAllByPropertyId(Integer propertyId) {
         photosRepository.deleteByProperty_PropertyId(propertyId);
+        eventPublisher.publishEvent(new PropertyContentChangedEvent(propertyId));
     }
 }
\ No newline at end of file
@@ -1,9 +1,14 @@
 // src/main/java/com/realestate/listing/service/PropertyRuleService.java
 package com.realestate.listing.service;
 
+import com.realestate.listing.entity.Property;
 import com.realestate.listing.entity.PropertyRule;
+import com.realestate.listing.event.PropertyChangedEvent;
+import com.realestate.listing.repository.PropertyRepository;
 import com.realestate.listing.repository.PropertyRuleRepository;
+import com.realestate.listing.search.PropertyDocument;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +22,12 @@ public class PropertyRuleService {
     @Autowired
     private PropertyRuleRepository ruleRepository;
 
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // === CRUD ===
     public List<PropertyRule> getAllRules() {
         return ruleRepository.findAll();
@@ -31,7 +42,9 @@ public class PropertyRuleService {
         if (ruleRepository.findByProperty_PropertyId(propertyId).isPresent()) {
             throw new IllegalArgumentException("Une règle existe déjà pour la propriété ID : " + propertyId);
         }
-        return ruleRepository.save(rule);
+        PropertyRule saved = ruleRepository.save(rule);
+        publishChange(propertyId, saved);
+        return saved;
     }
 
     public PropertyRule updateRule(Integer id, PropertyRule updatedRule) {
@@ -39,18 +52,33 @@ public class PropertyRuleService {
                 .orElseThrow(() -> new IllegalArgumentException("Règle non trouvée avec l'ID : " + id));
 
         updatedRule.setRuleId(id);
-        return ruleRepository.save(updatedRule);
+        updatedRule.setProperty(existing.getProperty()); // non sérialisée (@JsonIgnore) : garder le rattachement
+        PropertyRule saved = ruleRepository.save(updatedRule);
+        publishChange(existing.getProperty().getPropertyId(), saved);
+        return saved;
     }
 
     public void deleteRule(Integer id) {
-        if (!ruleRepository.existsById(id)) {
-            throw new IllegalArgumentException("Règle non trouvée avec l'ID : " + id);
-        }
+        PropertyRule existing = ruleRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Règle non trouvée avec l'ID : " + id));
+        Integer propertyId = existing.getProperty().getPropertyId();
         ruleRepository.deleteById(id);
+        publishChange(propertyId, null);
     }
 
     // === RECHERCHE PAR PROPRIÉTÉ ===
     public Optional<PropertyRule> getByPropertyId(Integer propertyId) {
         return ruleRepository.findByProperty_PropertyId(propertyId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Règles = filtres de recherche (enfants, animaux, fumeurs, événements) : les index en mémoire
+     * et les caches reçoivent un document à jour, comme pour les écritures de PropertyService
+     */
+    private void publishChange(Integer propertyId, PropertyRule rules) {
+        Property property = propertyRepository.findById(propertyId)
+                .orElseThrow(() -> new IllegalArgumentException("Propriété non trouvée avec l'ID : " + propertyId));
+        property.setRules(rules); // côté inverse du OneToOne : pas mis à jour par save()
+        eventPublisher.publishEvent(new PropertyChangedEvent(propertyId, PropertyDocument.from(property)));
+    }
+}
@@ -1,23 +1,49 @@
 // src/main/java/com/realestate/listing/service/PropertyService.java
 package com.realestate.listing.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realestate.listing.cache.PropertyDetailCache;
+import com.realestate.listing.cache.SearchResultCache;
+import com.realestate.listing.dto.CursorPageDTO;
+import com.realestate.listing.dto.NearbyPropertyDTO;
+import com.realestate.listing.dto.PhotoGalleryDTO;
+import com.realestate.listing.dto.PropertyCardDTO;
+import com.realestate.listing.dto.PropertyFacetsDTO;
+import com.realestate.listing.dto.PropertyFilterDTO;
 import com.realestate.listing.entity.*;
 import com.realestate.listing.entity.Property.PropertyStatus;
+import com.realestate.listing.event.DiscountChangedEvent;
+import com.realestate.listing.event.PropertyChangedEvent;
+import com.realestate.listing.event.PropertyContentChangedEvent;
+import com.realestate.listing.mapper.PropertyDetailMapper;
+import com.realestate.listing.pricing.PriceQuote;
+import com.realestate.listing.pricing.PricingEngine;
 import com.realestate.listing.repository.*;
+import com.realestate.listing.prediction.PropertyFeatureStore;
+import com.realestate.listing.search.FullTextIndex;
+import com.realestate.listing.search.GeoIndex;
+import com.realestate.listing.search.PageCursor;
+import com.realestate.listing.search.PropertyDocument;
+import com.realestate.listing.search.PropertySearchIndex;
+import com.realestate.listing.search.SearchSort;
+import com.realestate.listing.search.TopK;
 import com.realestate.listing.service.PropertyVersionService;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.Objects ;
+import java.util.function.Supplier;
 
 @Service
 @Transactional
@@ -40,7 +66,40 @@ public class PropertyService {
     @Autowired
     private AmenityRepository amenityRepository;
     @Autowired
-    private PropertyPhotosRepository photoRepository;
+    private PhotoGalleryService photoGalleryService;
+    @Autowired
+    private PropertySearchIndex searchIndex;
+    @Autowired
+    private SearchResultCache searchResultCache;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private PricingEngine pricingEngine;
+    @Autowired
+    private GeoIndex geoIndex;
+    @Autowired
+    private FullTextIndex fullTextIndex;
+    @Autowired
+    private PropertyAvailabilityService availabilityService;
+    @Autowired
+    private PropertyDetailCache detailCache;
+    @Autowired
+    private PropertyDetailMapper propertyDetailMapper;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PropertyFeatureStore featureStore;
+
+    // Nombre max de résultats d'une recherche géographique
+    private static final int MAX_GEO_RESULTS = 500;
+    // Nombre max de résultats d'une recherche plein texte
+    private static final int MAX_TEXT_RESULTS = 100;
+    // Profondeur max d'une recherche triée (page × taille)
+    private static final int MAX_RANKED_RESULTS = 1000;
+
+    // Bornes des tranches de prix par nuit des facettes
+    @Value("${listing.facets.price-buckets:50,100,150,200,300,500}")
+    private double[] facetPriceBuckets;
     // ======================
     // === CRUD DE BASE ===
     // ======================
@@ -57,10 +116,69 @@ public class PropertyService {
     public Page<Property> getAllProperties(Pageable pageable) {
         return propertyRepository.findByStatus(Property.PropertyStatus.ACTIVE, pageable);
     }
+
+    /**
+     * Cards des properties ACTIVE (projection : une requête par page, sans N+1 sur les photos)
+     */
+    @Transactional(readOnly = true)
+    public Page<PropertyCardDTO> getActivePropertyCards(Pageable pageable) {
+        return propertyRepository.findCardsByStatus(Property.PropertyStatus.ACTIVE, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PropertyCardDTO> getCardsByUserId(Integer userId) {
+        return propertyRepository.findCardsByUserId(userId);
+    }
+
+    /**
+     * Cards des properties ACTIVE par curseur (propertyId croissant), sans OFFSET
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PropertyCardDTO> getActivePropertyCardsPage(String cursor, Integer size, boolean withTotal) {
+        int afterId = PageCursor.decode(cursor);
+        int limit = PageCursor.clampSize(size);
+
+        // limit + 1 : savoir s'il reste une page sans requête COUNT
+        List<PropertyCardDTO> rows = propertyRepository.findCardsByStatusAfter(
+                Property.PropertyStatus.ACTIVE, afterId, PageRequest.of(0, limit + 1));
+        boolean hasMore = rows.size() > limit;
+        List<PropertyCardDTO> items = hasMore ? rows.subList(0, limit) : rows;
+
+        Long total = null;
+        if (withTotal) {
+            total = searchIndex.isReady() ? searchIndex.size() : propertyRepository.countByStatus(Property.PropertyStatus.ACTIVE);
+        }
+        String next = hasMore ? PageCursor.encode(items.get(items.size() - 1).getPropertyId()) : null;
+        return new CursorPageDTO<>(items, limit, next, total);
+    }
+
     public Optional<Property> getPropertyById(Integer id) {
         return propertyRepository.findById(id);
     }
 
+    /**
+     * JSON d'une vue de la property, sérialisé une fois puis servi depuis PropertyDetailCache
+     */
+    @Transactional(readOnly = true)
+    public Optional<PropertyDetailCache.Entry> getPropertyJson(Integer id, PropertyDetailCache.View view) {
+        return Optional.ofNullable(detailCache.getOrLoad(id, view, () -> propertyRepository.findById(id)
+                .map(property -> PropertyDetailCache.Entry.of(serialize(property, view)))
+                .orElse(null)));
+    }
+
+    private byte[] serialize(Property property, PropertyDetailCache.View view) {
+        Object body = switch (view) {
+            case ENTITY -> property;
+            case DETAIL -> propertyDetailMapper.toDTO(property);
+            case BOOKING -> propertyDetailMapper.toBookingView(property);
+        };
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Erreur de sérialisation de la property " + property.getPropertyId(), e);
+        }
+    }
+
     // PropertyService.java
 
     public Property createProperty(Property property) {
@@ -95,7 +213,9 @@ public class PropertyService {
             property.getHostPreferences().setProperty(property);
         }
 
-        return propertyRepository.save(property);
+        Property saved = propertyRepository.save(property);
+        publishChange(saved);
+        return saved;
     }
 
 
@@ -162,13 +282,11 @@ public class PropertyService {
                 priceHistoryService.recordPriceChange(saved, oldWeekendPrice, saved.getWeekendPricePerNight(), "Weekend price");
             }
 
-            // Créer nouvelle version
-            int nextVersion = propertyVersionService.getCurrentVersion(id)
-                    .map(v -> v.getNumVersion() + 1)
-                    .orElse(1);
-            propertyVersionService.createVersionFromProperty(saved, nextVersion);
+            // Nouvelle version : mise en file, créée par PropertyVersionWorker (rafales regroupées)
+            propertyVersionService.requestVersion(id);
         }
 
+        publishChange(saved);
         return saved;
     }
     public void deleteProperty(Integer id) {
@@ -176,6 +294,8 @@ public class PropertyService {
             throw new IllegalArgumentException("Property not found: " + id);
         }
         propertyRepository.deleteById(id);
+        priceHistoryService.deleteCompactedHistory(id);
+        eventPublisher.publishEvent(PropertyChangedEvent.deleted(id));
     }
 
     // ==========================
@@ -212,18 +332,367 @@ public class PropertyService {
             Boolean childrenAllowed, Boolean babiesAllowed, Boolean petsAllowed,
             Boolean smokingAllowed, Boolean eventsAllowed) {
 
+        // Mêmes règles que l'index : amenities sans doublon (la requête compte les correspondances)
+        List<Integer> amenities = amenityIds == null ? List.of() : amenityIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+
         // ✅ AJOUT : Calculer le nombre d'amenities demandés
-        Integer amenityCount = (amenityIds != null && !amenityIds.isEmpty()) ? amenityIds.size() : null;
+        Integer amenityCount = amenities.isEmpty() ? null : amenities.size();
 
+        // Termes normalisés comme l'index (PropertyDocument.normalize : trim + minuscules)
         return propertyRepository.searchProperties(
-                city, country, propertyType, placeType,
+                PropertyDocument.normalize(city), PropertyDocument.normalize(country),
+                PropertyDocument.normalize(propertyType), PropertyDocument.normalize(placeType),
                 minPrice, maxPrice, bedrooms, bathrooms, beds,
-                maxGuests, instantBooking, amenityIds, amenityCount, // ← Ajout de amenityCount
+                maxGuests, instantBooking, amenities.isEmpty() ? null : amenities, amenityCount, // ← Ajout de amenityCount
                 childrenAllowed, babiesAllowed, petsAllowed,
                 smokingAllowed, eventsAllowed
         );
     }
 
+    /**
+     * Recherche via l'index en mémoire (intersection de bitmaps), IDs mis en cache (SearchResultCache)
+     * Repli sur la requête JPQL tant que l'index n'est pas construit
+     */
+    public List<Property> searchProperties(PropertyFilterDTO filter) {
+        if (!searchIndex.isReady()) {
+            return searchProperties(
+                    filter.getCity(), filter.getCountry(), filter.getPropertyType(), filter.getPlaceType(),
+                    filter.getMinPrice(), filter.getMaxPrice(),
+                    filter.getBedrooms(), filter.getBathrooms(), filter.getBeds(), filter.getMaxGuests(),
+                    filter.getInstantBooking(), filter.getAmenityIds(),
+                    filter.getChildrenAllowed(), filter.getBabiesAllowed(), filter.getPetsAllowed(),
+                    filter.getSmokingAllowed(), filter.getEventsAllowed());
+        }
+        return getByIdsInOrder(searchPropertyIds(filter));
+    }
+
+    /**
+     * IDs des properties correspondant aux filtres, triés par propertyId croissant
+     */
+    public List<Integer> searchPropertyIds(PropertyFilterDTO filter) {
+        if (searchIndex.isReady()) {
+            return searchResultCache.getOrLoad(SearchResultCache.Key.of(filter), () -> searchIndex.search(filter));
+        }
+        return searchProperties(filter).stream()
+                .map(Property::getPropertyId)
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * IDs des properties correspondant aux filtres et libres sur [checkIn, checkOut[,
+     * triés par propertyId croissant (mis en cache par ville et par dates)
+     */
+    public List<Integer> searchAvailablePropertyIds(PropertyFilterDTO filter, LocalDate checkIn, LocalDate checkOut) {
+        if (!checkOut.isAfter(checkIn)) {
+            throw new IllegalArgumentException("Dates invalides");
+        }
+        Supplier<List<Integer>> loader = () -> {
+            List<Integer> ids = searchPropertyIds(filter);
+            Set<Integer> blocked = availabilityService.findBlockedPropertyIds(ids, checkIn, checkOut.minusDays(1));
+            return ids.stream().filter(id -> !blocked.contains(id)).toList();
+        };
+        if (!searchIndex.isReady()) {
+            return loader.get();
+        }
+        return searchResultCache.getOrLoad(SearchResultCache.Key.of(filter, checkIn, checkOut), loader);
+    }
+
+    /**
+     * Properties correspondant aux filtres et libres sur [checkIn, checkOut[
+     */
+    @Transactional(readOnly = true)
+    public List<Property> searchAvailableProperties(PropertyFilterDTO filter, LocalDate checkIn, LocalDate checkOut) {
+        return getByIdsInOrder(searchAvailablePropertyIds(filter, checkIn, checkOut));
+    }
+
+    /**
+     * Recherche filtrée par curseur : seules les cards de la page demandée sont chargées
+     * totalEstimate = nombre exact de correspondances
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PropertyCardDTO> searchPropertyCardsPage(PropertyFilterDTO filter, String cursor,
+                                                                  Integer size, boolean withTotal) {
+        int afterId = PageCursor.decode(cursor);
+        int limit = PageCursor.clampSize(size);
+        List<Integer> ids = searchPropertyIds(filter);
+
+        int from = firstIndexAfter(ids, afterId);
+        int to = Math.min(from + limit, ids.size());
+        List<PropertyCardDTO> items = getCardsByIdsInOrder(ids.subList(from, to));
+
+        String next = to < ids.size() ? PageCursor.encode(ids.get(to - 1)) : null;
+        return new CursorPageDTO<>(items, limit, next, withTotal ? (long) ids.size() : null);
+    }
+
+    /**
+     * Recherche filtrée + disponibilité par curseur : les candidats sont vérifiés
+     * par lots jusqu'à remplir la page (le coût ne dépend pas du nombre de candidats)
+     * totalEstimate = candidats avant vérification de disponibilité (borne haute)
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<Property> searchAvailablePropertiesPage(PropertyFilterDTO filter,
+                                                                 LocalDate checkIn, LocalDate checkOut,
+                                                                 String cursor, Integer size, boolean withTotal) {
+        int afterId = PageCursor.decode(cursor);
+        int limit = PageCursor.clampSize(size);
+        List<Integer> ids = searchPropertyIds(filter);
+
+        List<Integer> page = new ArrayList<>(limit);
+        int next = firstIndexAfter(ids, afterId);
+        while (page.size() < limit && next < ids.size()) {
+            List<Integer> batch = ids.subList(next, Math.min(next + 2 * limit, ids.size()));
+            Set<Integer> blocked = availabilityService.findBlockedPropertyIds(batch, checkIn, checkOut.minusDays(1));
+            for (Integer id : batch) {
+                next++;
+                if (!blocked.contains(id)) {
+                    page.add(id);
+                    if (page.size() == limit) break;
+                }
+            }
+        }
+
+        String nextCursor = next < ids.size() ? PageCursor.encode(ids.get(next - 1)) : null;
+        return new CursorPageDTO<>(getByIdsInOrder(page), limit, nextCursor, withTotal ? (long) ids.size() : null);
+    }
+
+    /**
+     * Recherche filtrée + disponibilité triée côté serveur (prix total, prix/nuit, note, distance, nouveauté)
+     * - clé de tri calculée pour chaque candidat libre à partir de l'index en mémoire
+     *   (prix total : colonnes de prix + réductions, sans PriceQuote par candidat)
+     * - tas borné aux (page + 1) × size meilleurs : seule la page demandée est chargée depuis MySQL
+     * Égalités départagées par propertyId croissant (pages stables)
+     */
+    @Transactional(readOnly = true)
+    public List<Property> searchAvailableRanked(PropertyFilterDTO filter, LocalDate checkIn, LocalDate checkOut,
+                                                LocalDate bookingDate, SearchSort sort,
+                                                Double latitude, Double longitude, int page, Integer size) {
+        if (!checkOut.isAfter(checkIn)) {
+            throw new IllegalArgumentException("Dates invalides");
+        }
+        if (sort == SearchSort.DISTANCE && (latitude == null || longitude == null
+                || Math.abs(latitude) > 90 || Math.abs(longitude) > 180)) {
+            throw new IllegalArgumentException("lat/lng requis pour le tri par distance");
+        }
+        int limit = PageCursor.clampSize(size);
+        if (page < 0 || (long) (page + 1) * limit > MAX_RANKED_RESULTS) {
+            throw new IllegalArgumentException("Page hors limites");
+        }
+        if (!searchIndex.isReady()) {
+            throw new IllegalStateException("Index de recherche en cours de construction");
+        }
+
+        // === 1. Candidats libres ===
+        List<PropertyDocument> candidates = searchIndex.documents(searchAvailablePropertyIds(filter, checkIn, checkOut));
+
+        // === 2. Clé de tri (NaN = en dernier) ===
+        double[] keys = sortKeys(candidates, sort, checkIn, checkOut, bookingDate, latitude, longitude);
+
+        // === 3. Top-K ===
+        TopK<Integer> top = new TopK<>((page + 1) * limit, Comparator
+                .<Integer>comparingDouble(i -> Double.isNaN(keys[i]) ? Double.POSITIVE_INFINITY : keys[i])
+                .thenComparingInt(i -> candidates.get(i).propertyId()));
+        for (int i = 0; i < candidates.size(); i++) {
+            top.offer(i);
+        }
+
+        List<Integer> ranked = top.sorted();
+        List<Integer> pageIds = ranked.subList(Math.min(page * limit, ranked.size()), ranked.size()).stream()
+                .map(i -> candidates.get(i).propertyId())
+                .toList();
+        return getByIdsInOrder(pageIds);
+    }
+
+    // Clé croissante par candidat (les tris décroissants sont négés)
+    private double[] sortKeys(List<PropertyDocument> candidates, SearchSort sort,
+                              LocalDate checkIn, LocalDate checkOut, LocalDate bookingDate,
+                              Double latitude, Double longitude) {
+        int n = candidates.size();
+        double[] keys = new double[n];
+        switch (sort) {
+            case TOTAL_PRICE -> {
+                int[] ids = new int[n];
+                double[] base = new double[n];
+                double[] weekend = new double[n];
+                for (int i = 0; i < n; i++) {
+                    PropertyDocument d = candidates.get(i);
+                    ids[i] = d.propertyId();
+                    base[i] = d.pricePerNight() != null ? d.pricePerNight() : Double.NaN;
+                    weekend[i] = d.weekendPricePerNight() != null ? d.weekendPricePerNight() : Double.NaN;
+                }
+                keys = pricingEngine.totals(ids, base, weekend, checkIn, checkOut, bookingDate);
+                for (int i = 0; i < n; i++) {
+                    if (Double.isNaN(base[i])) keys[i] = Double.NaN;   // sans prix : en dernier
+                }
+            }
+            case PRICE_PER_NIGHT -> {
+                for (int i = 0; i < n; i++) {
+                    Double price = candidates.get(i).pricePerNight();
+                    keys[i] = price != null ? price : Double.NaN;
+                }
+            }
+            case RATING -> {
+                Map<Integer, Double> ratings = averageRatings(candidates);
+                for (int i = 0; i < n; i++) {
+                    Double rating = ratings.get(candidates.get(i).propertyId());
+                    keys[i] = rating != null ? -rating : Double.NaN;
+                }
+            }
+            case DISTANCE -> {
+                for (int i = 0; i < n; i++) {
+                    PropertyDocument d = candidates.get(i);
+                    keys[i] = d.hasLocation()
+                            ? GeoIndex.haversineKm(latitude, longitude, d.latitude(), d.longitude())
+                            : Double.NaN;
+                }
+            }
+            case NEWEST -> {
+                for (int i = 0; i < n; i++) {
+                    keys[i] = -candidates.get(i).propertyId();
+                }
+            }
+        }
+        return keys;
+    }
+
+    // Notes moyennes agrégées localement depuis les événements de review-service (PropertyFeatureStore),
+    // lecture O(1) par candidat sans appel synchrone ; properties sans avis absentes (triées en dernier)
+    private Map<Integer, Double> averageRatings(List<PropertyDocument> candidates) {
+        Map<Integer, Double> ratings = new HashMap<>();
+        for (PropertyDocument candidate : candidates) {
+            Double rating = featureStore.features(candidate.propertyId()).avgRating();
+            if (rating != null) {
+                ratings.put(candidate.propertyId(), rating);
+            }
+        }
+        return ratings;
+    }
+
+    // Position du premier id > afterId dans une liste triée
+    private static int firstIndexAfter(List<Integer> sortedIds, int afterId) {
+        int position = Collections.binarySearch(sortedIds, afterId);
+        return position >= 0 ? position + 1 : -position - 1;
+    }
+
+    /**
+     * Compteurs du panneau de filtres pour la sélection courante, calculés sur l'index en mémoire
+     * (pas de repli GROUP BY : indisponible tant que l'index n'est pas construit)
+     */
+    @Transactional(readOnly = true)
+    public PropertyFacetsDTO getFacets(PropertyFilterDTO filter) {
+        if (!searchIndex.isReady()) {
+            throw new IllegalStateException("Index de recherche en cours de construction");
+        }
+        double[] edges = facetPriceBuckets.clone();
+        Arrays.sort(edges);
+        return searchIndex.facets(filter, edges);
+    }
+
+    // ================================
+    // === RECHERCHE PLEIN TEXTE ===
+    // ================================
+
+    /**
+     * Cards des properties correspondant au texte (titre, description, quartier, amenities),
+     * restreintes aux filtres structurés, triées par pertinence
+     */
+    @Transactional(readOnly = true)
+    public List<PropertyCardDTO> searchByText(String query, PropertyFilterDTO filter, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Texte de recherche requis");
+        }
+        if (!fullTextIndex.isReady()) {
+            throw new IllegalStateException("Index plein texte en cours de construction");
+        }
+        Set<Integer> candidates = new HashSet<>(searchPropertyIds(filter));
+        List<Integer> ranked = fullTextIndex.search(query, candidates, Math.max(1, Math.min(limit, MAX_TEXT_RESULTS)));
+        return getCardsByIdsInOrder(ranked);
+    }
+
+    // ================================
+    // === RECHERCHE GÉOGRAPHIQUE (CARTE) ===
+    // ================================
+
+    /**
+     * Properties ACTIVE dans un rayon (km) autour d'un point, triées par distance
+     */
+    public List<NearbyPropertyDTO> searchNearby(double latitude, double longitude, double radiusKm, int limit) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Coordonnées invalides");
+        }
+        if (radiusKm <= 0) {
+            throw new IllegalArgumentException("Le rayon doit être positif");
+        }
+        checkGeoIndexReady();
+        return geoIndex.findNearby(latitude, longitude, radiusKm, clampGeoLimit(limit));
+    }
+
+    /**
+     * Properties ACTIVE dans le viewport de la carte, triées par distance au centre
+     * (ou au point de référence s'il est fourni)
+     */
+    public List<NearbyPropertyDTO> searchInBoundingBox(double south, double west, double north, double east,
+                                                      Double refLatitude, Double refLongitude, int limit) {
+        if (south > north || south < -90 || north > 90
+                || west < -180 || west > 180 || east < -180 || east > 180) {
+            throw new IllegalArgumentException("Viewport invalide");
+        }
+        checkGeoIndexReady();
+
+        double centerLat = refLatitude != null ? refLatitude : (south + north) / 2;
+        double centerLon;
+        if (refLongitude != null) {
+            centerLon = refLongitude;
+        } else if (west <= east) {
+            centerLon = (west + east) / 2;
+        } else {
+            // Viewport qui traverse l'antiméridien
+            double mid = (west + east + 360) / 2;
+            centerLon = mid > 180 ? mid - 360 : mid;
+        }
+        return geoIndex.findInBoundingBox(south, west, north, east, centerLat, centerLon, clampGeoLimit(limit));
+    }
+
+    private void checkGeoIndexReady() {
+        if (!geoIndex.isReady()) {
+            throw new IllegalStateException("Index géographique en cours de construction");
+        }
+    }
+
+    private int clampGeoLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_GEO_RESULTS));
+    }
+
+    /** Charge les properties par clé primaire en conservant l'ordre des IDs */
+    public List<PropertyCardDTO> getCardsByIdsInOrder(List<Integer> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        Map<Integer, PropertyCardDTO> byId = new HashMap<>();
+        for (PropertyCardDTO card : propertyRepository.findCardsByIds(ids)) {
+            byId.put(card.getPropertyId(), card);
+        }
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public List<Property> getByIdsInOrder(List<Integer> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        Map<Integer, Property> byId = new HashMap<>();
+        for (Property p : propertyRepository.findAllById(ids)) {
+            byId.put(p.getPropertyId(), p);
+        }
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
 
     // ==========================
     // === PRÉVENTION DOUBLON ===
@@ -243,44 +712,21 @@ public class PropertyService {
             boolean isFirstBooking,
             LocalDate bookingDate
     ) {
-        long nights = ChronoUnit.DAYS.between(checkIn, checkOut);
-        if (nights <= 0) throw new IllegalArgumentException("Dates invalides");
-
-        // === PRIX PAR DÉFAUT ===
-        double basePrice = property.getPricePerNight() != null ? property.getPricePerNight() : 0.0;
-        double weekendPrice = property.getWeekendPricePerNight() != null
-                ? property.getWeekendPricePerNight()
-                : basePrice; // ← SI NULL → UTILISE LE PRIX NORMAL
-
-        // === CALCUL PRIX DE BASE ===
-        double baseTotal = 0.0;
-        LocalDate date = checkIn;
-        while (!date.isAfter(checkOut.minusDays(1))) {
-            DayOfWeek day = date.getDayOfWeek();
-            if (day == DayOfWeek.FRIDAY || day == DayOfWeek.SATURDAY) {
-                baseTotal += weekendPrice;
-            } else {
-                baseTotal += basePrice;
-            }
-            date = date.plusDays(1);
-        }
-
-        // === RÉDUCTIONS ===
-        double bestDiscount = 0.0;
-        for (Discount d : property.getDiscounts()) {
-            if (d.getMinNights() != null && nights < d.getMinNights()) continue;
-            boolean applies = switch (d.getDiscountType()) {
-                case "last_minute" -> ChronoUnit.DAYS.between(bookingDate, checkIn) <= 14;
-                case "weekly", "monthly" -> true;
-                default -> false;
-            };
-            if (applies && d.getDiscountPercentage() > bestDiscount) {
-                bestDiscount = d.getDiscountPercentage();
-            }
-        }
+        return pricingEngine.quote(property, checkIn, checkOut, isFirstBooking, bookingDate).totalPrice();
+    }
 
-        // === PRIX FINAL ===
-        return baseTotal * (1 - bestDiscount / 100.0);
+    /**
+     * Prix d'un séjour pour une liste de properties (total, moyenne/nuit, réduction appliquée)
+     * Réductions chargées en une requête pour tout le lot
+     */
+    public List<PriceQuote> calculateTotalPrices(
+            List<Property> properties,
+            LocalDate checkIn,
+            LocalDate checkOut,
+            boolean isFirstBooking,
+            LocalDate bookingDate
+    ) {
+        return pricingEngine.quoteAll(properties, checkIn, checkOut, isFirstBooking, bookingDate);
     }
 
 
@@ -300,6 +746,7 @@ public class PropertyService {
         // 2. Créer Version 1
         propertyVersionService.createVersionFromProperty(property, 1);
 
+        publishChange(property);
         return property;
     }
 
@@ -392,7 +839,9 @@ public class PropertyService {
             }
         });
 
-        return propertyRepository.save(property);
+        Property saved = propertyRepository.save(property);
+        publishChange(saved);
+        return saved;
     }
 
     @Transactional
@@ -405,7 +854,9 @@ public class PropertyService {
 
         property.getAmenities().add(amenity);
 
-        return propertyRepository.save(property);
+        Property saved = propertyRepository.save(property);
+        publishChange(saved);
+        return saved;
     }
 
     /**
@@ -418,7 +869,9 @@ public class PropertyService {
 
         property.getAmenities().removeIf(a -> a.getAmenityId().equals(amenityId));
 
-        return propertyRepository.save(property);
+        Property saved = propertyRepository.save(property);
+        publishChange(saved);
+        return saved;
     }
 
     /**
@@ -442,7 +895,9 @@ public class PropertyService {
         // Ajouter à la property
         property.getDiscounts().add(savedDiscount);
 
-        return propertyRepository.save(property);
+        Property saved = propertyRepository.save(property);
+        publishChange(saved);
+        return saved;
     }
 
     /**
@@ -455,7 +910,9 @@ public class PropertyService {
 
         property.getDiscounts().removeIf(d -> d.getDiscountId().equals(discountId));
 
-        return propertyRepository.save(property);
+        Property saved = propertyRepository.save(property);
+        publishChange(saved);
+        return saved;
     }
 
     /**
@@ -471,59 +928,32 @@ public class PropertyService {
         discount.setMinNights(discountData.getMinNights());
         discount.setDescription(discountData.getDescription());
 
-        return discountRepository.save(discount);
+        Discount saved = discountRepository.save(discount);
+        eventPublisher.publishEvent(new DiscountChangedEvent(discountId));
+        return saved;
     }
 
 
 
 
-    @Transactional
-    public void setPhotoCover(Integer propertyId, Integer photoId) {
-        List<PropertyPhoto> photos = photoRepository.findByProperty_PropertyId(propertyId);
-
-        // Trier par displayOrder actuel
-        photos.sort((a, b) -> {
-            int orderA = a.getDisplayOrder() != null ? a.getDisplayOrder() : 0;
-            int orderB = b.getDisplayOrder() != null ? b.getDisplayOrder() : 0;
-            return Integer.compare(orderA, orderB);
-        });
-
-        // Trouver et retirer la photo cover de la liste
-        PropertyPhoto coverPhoto = null;
-        for (int i = 0; i < photos.size(); i++) {
-            if (photos.get(i).getPhotoId().equals(photoId)) {
-                coverPhoto = photos.remove(i);
-                break;
-            }
-        }
-
-        if (coverPhoto == null) {
-            throw new RuntimeException("Photo not found: " + photoId);
-        }
-
-        // Mettre la cover en premier
-        photos.add(0, coverPhoto);
-
-        // Mettre à jour isCover et displayOrder pour toutes les photos
-        for (int i = 0; i < photos.size(); i++) {
-            PropertyPhoto photo = photos.get(i);
-            photo.setIsCover(i == 0);  // Seule la première est cover
-            photo.setDisplayOrder(i + 1);  // Ordre de 1 à N
-        }
+    /**
+     * Définir une photo comme couverture (un seul UPDATE pour toute la galerie)
+     */
+    public PhotoGalleryDTO setPhotoCover(Integer propertyId, Integer photoId) {
+        return photoGalleryService.setCover(propertyId, photoId, null);
+    }
 
-        photoRepository.saveAll(photos);
+    /**
+     * Réorganiser les photos (un seul UPDATE pour toute la galerie, couverture inchangée)
+     */
+    public PhotoGalleryDTO reorderPhotos(Integer propertyId, List<Integer> photoIds) {
+        return photoGalleryService.reorderKeepingCover(propertyId, photoIds);
     }
 
     /**
-     * Réorganiser les photos
+     * Notifie les index en mémoire (appliqué après le commit)
      */
-    @Transactional
-    public void reorderPhotos(Integer propertyId, List<Integer> photoIds) {
-        for (int i = 0; i < photoIds.size(); i++) {
-            PropertyPhoto photo = photoRepository.findById(photoIds.get(i))
-                    .orElseThrow(() -> new RuntimeException("Photo not found"));
-            photo.setDisplayOrder(i + 1);
-            photoRepository.save(photo);
-        }
+    private void publishChange(Property property) {
+        eventPublisher.publishEvent(new PropertyChangedEvent(property.getPropertyId(), PropertyDocument.from(property)));
     }
-}
\ No newline at end of file
+}
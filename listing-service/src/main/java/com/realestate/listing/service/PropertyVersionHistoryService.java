@@ -0,0 +1,522 @@
+package com.realestate.listing.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.realestate.listing.dto.PropertyVersionDiffDTO;
+import com.realestate.listing.dto.PropertyVersionStateDTO;
+import com.realestate.listing.entity.*;
+import com.realestate.listing.repository.PropertyVersionDeltaRepository;
+import com.realestate.listing.repository.PropertyVersionRepository;
+import com.realestate.listing.snapshot.SnapshotStorage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * ========================================
+ * HISTORIQUE COMPACT DES VERSIONS
+ * ========================================
+ * Seul stockage du contenu des versions : chaque version enregistre les champs modifiés
+ * depuis la précédente (PropertyVersionDelta), avec l'état complet toutes les
+ * checkpoint-interval versions. Plus aucun snapshot complet n'est écrit.
+ * - reconstruire une version = dernier checkpoint + au plus N deltas
+ * - lister toutes les versions d'une property = une passe sur ses deltas
+ * - supprimer / remplacer une version réécrit le delta de la suivante
+ * Les lectures n'écrivent jamais : les versions antérieures à l'historique compact sont
+ * converties par VersionHistoryMigrationJob, et lues depuis leurs snapshots d'ici là.
+ * Une version se désigne par son versionId ; son contenu est toujours reconstruit ici.
+ */
+@Service
+public class PropertyVersionHistoryService {
+
+    private static final int STREAM_PAGE_SIZE = 200;
+
+    @Autowired
+    private PropertyVersionDeltaRepository deltaRepository;
+
+    @Autowired
+    private PropertyVersionRepository versionRepository;
+
+    @Autowired
+    private SnapshotStorage snapshotStorage;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${listing.versions.checkpoint-interval:20}")
+    private int checkpointInterval;
+
+    // ======================
+    // === ÉCRITURE ===
+    // ======================
+
+    /**
+     * Enregistre une version qui vient d'être créée depuis la property (même transaction)
+     */
+    @Transactional
+    public PropertyVersionDelta recordVersion(PropertyVersion version, Property property) {
+        return record(version, stateOf(property));
+    }
+
+    /**
+     * Enregistre une version depuis ses snapshots complets (versions antérieures à l'historique compact)
+     */
+    @Transactional
+    public PropertyVersionDelta recordFromSnapshots(PropertyVersion version) {
+        return record(version, flattenAll(version));
+    }
+
+    /**
+     * Une version va être supprimée : son delta disparaît, celui de la suivante est
+     * recalculé par rapport à la précédente (checkpoint reporté sur la suivante)
+     */
+    @Transactional
+    public void removeVersion(Integer propertyId, Integer numVersion) {
+        PropertyVersionDelta removed = deltaRepository.findByPropertyIdAndNumVersion(propertyId, numVersion).orElse(null);
+        if (removed == null) return; // version pas encore migrée : rien dans l'historique
+
+        deltaRepository.findFirstByPropertyIdAndNumVersionGreaterThanOrderByNumVersionAsc(propertyId, numVersion)
+                .ifPresent(next -> rewrite(next, stateBefore(propertyId, numVersion),
+                        replay(propertyId, next.getNumVersion()), removed.isCheckpoint()));
+        deltaRepository.delete(removed);
+        deltaRepository.flush();
+    }
+
+    /**
+     * Contenu d'une version remplacé par ses snapshots : son delta et celui de la suivante sont réécrits
+     */
+    @Transactional
+    public void replaceVersion(PropertyVersion version) {
+        Integer propertyId = version.getPropertyId();
+        Integer numVersion = version.getNumVersion();
+        PropertyVersionDelta current = deltaRepository.findById(version.getVersionId()).orElse(null);
+        if (current == null) {
+            record(version, flattenAll(version));
+            return;
+        }
+
+        ObjectNode state = flattenAll(version);
+        Optional<PropertyVersionDelta> next =
+                deltaRepository.findFirstByPropertyIdAndNumVersionGreaterThanOrderByNumVersionAsc(propertyId, numVersion);
+        ObjectNode nextState = next.map(d -> replay(propertyId, d.getNumVersion())).orElse(null);
+
+        rewrite(current, stateBefore(propertyId, numVersion), state, false);
+        next.ifPresent(d -> rewrite(d, state, nextState, false));
+    }
+
+    // ======================
+    // === LECTURE ===
+    // ======================
+
+    /**
+     * État de la property à numVersion : dernier checkpoint + deltas suivants
+     */
+    @Transactional(readOnly = true)
+    public Optional<PropertyVersionStateDTO> reconstruct(Integer propertyId, Integer numVersion) {
+        Optional<PropertyVersionDelta> target = deltaRepository.findByPropertyIdAndNumVersion(propertyId, numVersion);
+        if (target.isEmpty()) {
+            // Version pas encore migrée : lecture de ses snapshots
+            return versionRepository.findByPropertyIdAndNumVersion(propertyId, numVersion).map(this::fromSnapshots);
+        }
+        ObjectNode state = replay(propertyId, numVersion);
+        if (state == null) {
+            // Sans checkpoint (chaîne incomplète) : snapshots s'ils existent encore
+            return versionRepository.findByPropertyIdAndNumVersion(propertyId, numVersion).map(this::fromSnapshots);
+        }
+        PropertyVersionDelta delta = target.get();
+        return Optional.of(toState(delta.getVersionId(), propertyId, numVersion, delta.getCreatedAt(), state));
+    }
+
+    /**
+     * État d'une version par son ID (même ID que le delta)
+     */
+    @Transactional(readOnly = true)
+    public Optional<PropertyVersionStateDTO> reconstruct(Integer versionId) {
+        Optional<PropertyVersionDelta> delta = deltaRepository.findById(versionId);
+        if (delta.isPresent()) {
+            return reconstruct(delta.get().getPropertyId(), delta.get().getNumVersion());
+        }
+        return versionRepository.findById(versionId).map(this::fromSnapshots);
+    }
+
+    /**
+     * Toutes les versions d'une property (de la plus récente à la plus ancienne),
+     * reconstruites en une passe sur ses deltas
+     */
+    @Transactional(readOnly = true)
+    public List<PropertyVersionStateDTO> reconstructAll(Integer propertyId) {
+        List<PropertyVersionDelta> deltas = deltaRepository.findByPropertyIdOrderByNumVersionAsc(propertyId);
+
+        // Versions pas encore migrées (sans delta), lues depuis leurs snapshots
+        NavigableMap<Integer, PropertyVersion> pending = new TreeMap<>();
+        if (deltas.size() < versionRepository.countByPropertyId(propertyId)) {
+            Set<Integer> recorded = new HashSet<>();
+            deltas.forEach(d -> recorded.add(d.getVersionId()));
+            for (PropertyVersion version : versionRepository.findByPropertyIdOrderByNumVersionDesc(propertyId)) {
+                if (!recorded.contains(version.getVersionId())) pending.put(version.getNumVersion(), version);
+            }
+        }
+
+        List<PropertyVersionStateDTO> states = new ArrayList<>(deltas.size() + pending.size());
+        ObjectNode state = null;
+        for (PropertyVersionDelta delta : deltas) {
+            while (!pending.isEmpty() && pending.firstKey() < delta.getNumVersion()) {
+                PropertyVersion version = pending.pollFirstEntry().getValue();
+                state = flattenAll(version);
+                states.add(toState(version.getVersionId(), propertyId, version.getNumVersion(), version.getCreatedAt(), state));
+            }
+            if (delta.isCheckpoint()) {
+                state = (ObjectNode) readTree(delta.getStateJson());
+            } else if (state != null) {
+                apply(state, readTree(delta.getChangesJson()));
+            } else {
+                state = replay(propertyId, delta.getNumVersion());
+                if (state == null) continue; // chaîne incomplète
+            }
+            states.add(toState(delta.getVersionId(), propertyId, delta.getNumVersion(), delta.getCreatedAt(), state));
+        }
+        for (PropertyVersion version : pending.values()) {
+            states.add(fromSnapshots(version));
+        }
+
+        Collections.reverse(states);
+        return states;
+    }
+
+    /**
+     * Diffs des versions après afterNumVersion (pagination keyset, ordre croissant)
+     */
+    @Transactional(readOnly = true)
+    public List<PropertyVersionDiffDTO> getDiffs(Integer propertyId, Integer afterNumVersion, int limit) {
+        return deltaRepository.findByPropertyIdAndNumVersionGreaterThanOrderByNumVersionAsc(
+                        propertyId, afterNumVersion != null ? afterNumVersion : 0, PageRequest.of(0, limit))
+                .stream()
+                .map(this::toDiff)
+                .toList();
+    }
+
+    /**
+     * Historique complet en NDJSON (un diff par ligne), lu par pages :
+     * la mémoire ne dépend pas du nombre de versions
+     */
+    public void streamDiffs(Integer propertyId, OutputStream out) throws IOException {
+        int after = 0;
+        while (true) {
+            List<PropertyVersionDelta> page = deltaRepository.findByPropertyIdAndNumVersionGreaterThanOrderByNumVersionAsc(
+                    propertyId, after, PageRequest.of(0, STREAM_PAGE_SIZE));
+            for (PropertyVersionDelta delta : page) {
+                out.write(objectMapper.writeValueAsBytes(toDiff(delta)));
+                out.write('\n');
+                after = delta.getNumVersion();
+            }
+            out.flush();
+            if (page.size() < STREAM_PAGE_SIZE) return;
+        }
+    }
+
+    // ======================
+    // === INTERNE ===
+    // ======================
+
+    private PropertyVersionDelta record(PropertyVersion version, ObjectNode state) {
+        Integer propertyId = version.getPropertyId();
+        Integer numVersion = version.getNumVersion();
+
+        // Checkpoint si la précédente n'est pas dans l'historique : la chaîne ne la traverse jamais
+        PropertyVersion previous = versionRepository
+                .findTopByPropertyIdAndNumVersionLessThanOrderByNumVersionDesc(propertyId, numVersion).orElse(null);
+        boolean previousRecorded = previous != null && deltaRepository.existsById(previous.getVersionId());
+        Integer lastCheckpoint = previousRecorded ? deltaRepository.findLastCheckpoint(propertyId, previous.getNumVersion()) : null;
+        boolean checkpoint = lastCheckpoint == null || numVersion - lastCheckpoint >= checkpointInterval;
+
+        ObjectNode before = previous == null ? objectMapper.createObjectNode()
+                : previousRecorded ? replay(propertyId, previous.getNumVersion())
+                : flattenAll(previous);
+
+        ObjectNode changes = objectMapper.createObjectNode();
+        diff(before, state, changes);
+        PropertyVersionDelta delta = PropertyVersionDelta.builder()
+                .versionId(version.getVersionId())
+                .propertyId(propertyId)
+                .numVersion(numVersion)
+                .createdAt(version.getCreatedAt())
+                .checkpoint(checkpoint)
+                .changedSections(sectionsOf(changes))
+                .changesData(snapshotStorage.encode(changes.toString()))
+                .stateData(checkpoint ? snapshotStorage.encode(state.toString()) : null)
+                .build();
+        return deltaRepository.save(delta);
+    }
+
+    // Delta recalculé entre before et state ; l'état complet est conservé pour un checkpoint
+    private void rewrite(PropertyVersionDelta delta, ObjectNode before, ObjectNode state, boolean forceCheckpoint) {
+        ObjectNode changes = objectMapper.createObjectNode();
+        diff(before, state, changes);
+        boolean checkpoint = delta.isCheckpoint() || forceCheckpoint;
+        delta.setCheckpoint(checkpoint);
+        delta.setChangedSections(sectionsOf(changes));
+        delta.setChangesData(snapshotStorage.encode(changes.toString()));
+        delta.setStateData(checkpoint ? snapshotStorage.encode(state.toString()) : null);
+        deltaRepository.save(delta);
+    }
+
+    // État de la dernière version enregistrée avant numVersion (vide si aucune)
+    private ObjectNode stateBefore(Integer propertyId, Integer numVersion) {
+        ObjectNode state = replay(propertyId, numVersion - 1);
+        return state != null ? state : objectMapper.createObjectNode();
+    }
+
+    // Dernier checkpoint ≤ numVersion + deltas suivants ; null si aucun checkpoint
+    private ObjectNode replay(Integer propertyId, Integer numVersion) {
+        Integer checkpoint = deltaRepository.findLastCheckpoint(propertyId, numVersion);
+        if (checkpoint == null) return null;
+
+        List<PropertyVersionDelta> chain = deltaRepository
+                .findByPropertyIdAndNumVersionBetweenOrderByNumVersionAsc(propertyId, checkpoint, numVersion);
+        ObjectNode state = (ObjectNode) readTree(chain.get(0).getStateJson());
+        for (PropertyVersionDelta delta : chain.subList(1, chain.size())) {
+            apply(state, readTree(delta.getChangesJson()));
+        }
+        return state;
+    }
+
+    private PropertyVersionStateDTO fromSnapshots(PropertyVersion version) {
+        return toState(version.getVersionId(), version.getPropertyId(), version.getNumVersion(),
+                version.getCreatedAt(), flattenAll(version));
+    }
+
+    private PropertyVersionDiffDTO toDiff(PropertyVersionDelta delta) {
+        List<String> sections = delta.getChangedSections() == null || delta.getChangedSections().isEmpty()
+                ? List.of()
+                : List.of(delta.getChangedSections().split(","));
+        return new PropertyVersionDiffDTO(delta.getVersionId(), delta.getNumVersion(), delta.getCreatedAt(),
+                delta.isCheckpoint(), sections, readTree(delta.getChangesJson()));
+    }
+
+    // Ajoute à changes les champs modifiés / retirés (null)
+    private static void diff(ObjectNode before, ObjectNode after, ObjectNode changes) {
+        for (Map.Entry<String, JsonNode> entry : after.properties()) {
+            if (!entry.getValue().equals(before.get(entry.getKey()))) {
+                changes.set(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<String, JsonNode> entry : before.properties()) {
+            if (!after.has(entry.getKey())) {
+                changes.set(entry.getKey(), NullNode.getInstance());
+            }
+        }
+    }
+
+    // "general,photos" : sections des champs modifiés, dans l'ordre de l'état
+    private static String sectionsOf(ObjectNode changes) {
+        Set<String> sections = new LinkedHashSet<>();
+        for (Map.Entry<String, JsonNode> entry : changes.properties()) {
+            sections.add(entry.getKey().substring(0, entry.getKey().indexOf('.')));
+        }
+        return String.join(",", sections);
+    }
+
+    private static void apply(ObjectNode state, JsonNode changes) {
+        for (Map.Entry<String, JsonNode> entry : changes.properties()) {
+            if (entry.getValue().isNull()) {
+                state.remove(entry.getKey());
+            } else {
+                state.set(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Property → champs plats : "general.title", "rules.petsAllowed",
+     * "amenities.<amenityId>" (objet), "photos.<photoUrl>" (objet) ; valeurs null omises.
+     * Champs des sections GeneralDTO, AmenityDTO, PhotoDTO
+     */
+    private ObjectNode stateOf(Property property) {
+        ObjectNode state = objectMapper.createObjectNode();
+        putFields(state, "general.", objectMapper.valueToTree(GeneralDTO.of(property)));
+        if (property.getAmenities() != null) {
+            property.getAmenities().stream()
+                    .map(AmenityDTO::of)
+                    .sorted(Comparator.comparing(AmenityDTO::amenityId, Comparator.nullsLast(Comparator.naturalOrder())))
+                    .forEach(amenity -> putElement(state, "amenities.", objectMapper.valueToTree(amenity), "amenityId"));
+        }
+        if (property.getPhotos() != null) {
+            property.getPhotos().stream()
+                    .map(PhotoDTO::of)
+                    .sorted(Comparator.comparing(PhotoDTO::displayOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+                            .thenComparing(PhotoDTO::photoUrl, Comparator.nullsLast(Comparator.naturalOrder())))
+                    .forEach(photo -> putElement(state, "photos.", objectMapper.valueToTree(photo), "photoUrl"));
+        }
+        PropertyRule rules = property.getRules();
+        putFields(state, "rules.", rules != null
+                ? rulesNode(rules.getChildrenAllowed(), rules.getBabiesAllowed(), rules.getPetsAllowed(),
+                        rules.getSmokingAllowed(), rules.getEventsAllowed(), rules.getCustomRules())
+                // Même contenu que le snapshot de règles vide
+                : rulesNode(false, false, false, false, false, ""));
+        return state;
+    }
+
+    /** Version antérieure à l'historique compact → champs plats, depuis ses snapshots */
+    private ObjectNode flattenAll(PropertyVersion version) {
+        ObjectNode state = objectMapper.createObjectNode();
+        PropertyGeneralSnapshot general = version.getGeneralSnapshot();
+        if (general != null && general.getGeneralJson() != null) {
+            putFields(state, "general.", readTree(general.getGeneralJson()));
+        }
+        PropertyAmenitiesSnapshot amenities = version.getAmenitiesSnapshot();
+        if (amenities != null && amenities.getAmenitiesJson() != null) {
+            for (JsonNode amenity : readTree(amenities.getAmenitiesJson())) {
+                putElement(state, "amenities.", amenity, "amenityId");
+            }
+        }
+        PropertyPhotosSnapshot photos = version.getPhotosSnapshot();
+        if (photos != null && photos.getPhotosJson() != null) {
+            for (JsonNode photo : readTree(photos.getPhotosJson())) {
+                putElement(state, "photos.", photo, "photoUrl");
+            }
+        }
+        PropertyRulesSnapshot rules = version.getRulesSnapshot();
+        if (rules != null) {
+            putFields(state, "rules.", rulesNode(rules.getChildrenAllowed(), rules.getBabiesAllowed(),
+                    rules.getPetsAllowed(), rules.getSmokingAllowed(), rules.getEventsAllowed(), rules.getCustomRules()));
+        }
+        return state;
+    }
+
+    private ObjectNode rulesNode(Boolean childrenAllowed, Boolean babiesAllowed, Boolean petsAllowed,
+                                 Boolean smokingAllowed, Boolean eventsAllowed, String customRules) {
+        return objectMapper.createObjectNode()
+                .put("childrenAllowed", childrenAllowed)
+                .put("babiesAllowed", babiesAllowed)
+                .put("petsAllowed", petsAllowed)
+                .put("smokingAllowed", smokingAllowed)
+                .put("eventsAllowed", eventsAllowed)
+                .put("customRules", customRules);
+    }
+
+    private static void putFields(ObjectNode state, String prefix, JsonNode object) {
+        for (Map.Entry<String, JsonNode> entry : object.properties()) {
+            if (!entry.getValue().isNull()) state.set(prefix + entry.getKey(), entry.getValue());
+        }
+    }
+
+    // Élément de liste clé par un champ (anciens snapshots sans le champ : contenu complet)
+    private static void putElement(ObjectNode state, String prefix, JsonNode element, String field) {
+        JsonNode key = element.get(field);
+        state.set(prefix + (key != null && !key.isNull() ? key.asText() : element.toString()), element);
+    }
+
+    // Champs plats → sections (amenities triées par ID, photos par ordre d'affichage)
+    private PropertyVersionStateDTO toState(Integer versionId, Integer propertyId, Integer numVersion,
+                                            LocalDateTime createdAt, ObjectNode state) {
+        ObjectNode general = objectMapper.createObjectNode();
+        ObjectNode rules = objectMapper.createObjectNode();
+        List<JsonNode> amenities = new ArrayList<>();
+        List<JsonNode> photos = new ArrayList<>();
+
+        for (Map.Entry<String, JsonNode> entry : state.properties()) {
+            String key = entry.getKey();
+            int dot = key.indexOf('.');
+            String section = key.substring(0, dot);
+            String field = key.substring(dot + 1);
+            switch (section) {
+                case "general" -> general.set(field, entry.getValue());
+                case "rules" -> rules.set(field, entry.getValue());
+                case "amenities" -> amenities.add(entry.getValue());
+                case "photos" -> photos.add(entry.getValue());
+                default -> { }
+            }
+        }
+        amenities.sort(Comparator.comparingInt(a -> a.path("amenityId").asInt(Integer.MAX_VALUE)));
+        photos.sort(Comparator.<JsonNode>comparingInt(p -> p.path("displayOrder").asInt(Integer.MAX_VALUE))
+                .thenComparing(p -> p.path("photoUrl").asText()));
+
+        ArrayNode amenitiesNode = objectMapper.createArrayNode().addAll(amenities);
+        ArrayNode photosNode = objectMapper.createArrayNode().addAll(photos);
+        return new PropertyVersionStateDTO(versionId, propertyId, numVersion, createdAt,
+                general, amenitiesNode, photosNode, rules);
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur de lecture de l'historique des versions", e);
+        }
+    }
+
+    // ======================
+    // === SECTIONS ===
+    // ======================
+
+    // Champs enregistrés par section (mêmes noms que les anciens snapshots complets)
+    record GeneralDTO(
+            String title, String description, String propertyType, String placeType,
+            String adresseLine, String city, String country, String postalCode,
+            Double latitude, Double longitude, String neighborhoodDescription,
+            Integer floorNumber, Double surfaceArea,
+            Integer maxGuests, Integer bedrooms, Integer beds, Integer bathrooms,
+            Double weekendPricePerNight, Double pricePerNight,
+            Double cleaningFee, Double petFee, Double platformFeePercentage,
+            Integer minStayNights, Integer maxStayNights, Integer bookingAdvanceDays,
+            String checkInTimeStart, String checkInTimeEnd, String checkOutTime,
+            Boolean instantBooking, String cancellationPolicy
+    ) {
+        static GeneralDTO of(Property property) {
+            return new GeneralDTO(
+                    property.getTitle(),
+                    property.getDescription(),
+                    property.getPropertyType(),
+                    property.getPlaceType(),
+                    property.getAdresseLine(),
+                    property.getCity(),
+                    property.getCountry(),
+                    property.getPostalCode(),
+                    property.getLatitude(),
+                    property.getLongitude(),
+                    property.getNeighborhoodDescription(),
+                    property.getFloorNumber(),
+                    property.getSurfaceArea(),
+                    property.getMaxGuests(),
+                    property.getBedrooms(),
+                    property.getBeds(),
+                    property.getBathrooms(),
+                    property.getWeekendPricePerNight(),
+                    property.getPricePerNight(),
+                    property.getCleaningFee(),
+                    property.getPetFee(),
+                    property.getPlatformFeePercentage(),
+                    property.getMinStayNights(),
+                    property.getMaxStayNights(),
+                    property.getBookingAdvanceDays(),
+                    property.getCheckInTimeStart(),
+                    property.getCheckInTimeEnd(),
+                    property.getCheckOutTime(),
+                    property.getInstantBooking(),
+                    property.getCancellationPolicy()
+            );
+        }
+    }
+
+    record AmenityDTO(Integer amenityId, String name, String category, String icone) {
+        static AmenityDTO of(Amenity a) {
+            return new AmenityDTO(a.getAmenityId(), a.getName(), a.getCategory(), a.getIcone());
+        }
+    }
+
+    record PhotoDTO(String photoUrl, Boolean isCover, Integer displayOrder) {
+        static PhotoDTO of(PropertyPhoto p) {
+            return new PhotoDTO(p.getPhotoUrl(), p.getIsCover(), p.getDisplayOrder());
+        }
+    }
+}
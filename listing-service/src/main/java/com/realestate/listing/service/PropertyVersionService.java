@@ -4,14 +4,13 @@ package com.realestate.listing.service;
 import com.realestate.listing.entity.*;
 import com.realestate.listing.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 @Service
 @Transactional
@@ -19,22 +18,25 @@ public class PropertyVersionService {
 
     @Autowired
     private PropertyVersionRepository versionRepository;
-    @Autowired
-    private PropertyAmenitiesSnapshotService amenitiesSnapshotService;
 
     @Autowired
-    private PropertyRulesSnapshotService rulesSnapshotService;
+    private PendingPropertyVersionRepository pendingRepository;
 
     @Autowired
-    private PropertyPhotosSnapshotService photosSnapshotService;
-    @Autowired
-    private PropertyPhotosSnapshotRepository photosSnapshotRepository;
+    private PropertyRepository propertyRepository;
 
     @Autowired
-    private PropertyGeneralSnapshotService generalSnapshotService;
+    private PropertyVersionHistoryService historyService;
+
     // === CRUD ===
-    public List<PropertyVersion> getAllVersions() {
-        return versionRepository.findAll();
+    /**
+     * Versions par curseur (versionId croissant), sans OFFSET
+     * Seules les lignes de la page sont lues ; le contenu est reconstruit par le controller
+     */
+    @Transactional(readOnly = true)
+    public List<PropertyVersion> getVersionsAfter(int afterVersionId, int limit) {
+        return versionRepository.findByVersionIdGreaterThanOrderByVersionIdAsc(
+                afterVersionId, PageRequest.of(0, limit));
     }
 
     public Optional<PropertyVersion> getVersionById(Integer id) {
@@ -50,10 +52,16 @@ public class PropertyVersionService {
                     "La version " + version.getNumVersion() +
                             " existe déjà pour la propriété ID " + version.getPropertyId());
         }
-        return versionRepository.save(version);
+        PropertyVersion saved = versionRepository.save(version);
+        historyService.recordFromSnapshots(saved);
+        detachSnapshots(saved);
+        return saved;
     }
 
-
+    /**
+     * Nouvelle version de la property : son contenu n'est enregistré que dans l'historique
+     * compact (champs modifiés, état complet aux checkpoints), sans snapshot complet
+     */
     @Transactional
     public PropertyVersion createVersionFromProperty(Property property, int numVersion) {
         PropertyVersion version = PropertyVersion.builder()
@@ -62,52 +70,97 @@ public class PropertyVersionService {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        version.setGeneralSnapshot(generalSnapshotService.getOrCreateSnapshot(property));
+        PropertyVersion saved = versionRepository.save(version);
+        historyService.recordVersion(saved, property);
+        return saved;
+    }
 
-        // === AMENITIES : TOUJOURS un snapshot (même si vide) ===
-        PropertyAmenitiesSnapshot amenitiesSnapshot = amenitiesSnapshotService.getOrCreateSnapshot(property.getAmenities() , version);
-        if (amenitiesSnapshot == null) {
-            // Cas extrême : amenities = null ou vide → snapshot vide
-            amenitiesSnapshot = amenitiesSnapshotService.createEmptySnapshot();
-        }
-        version.setAmenitiesSnapshot(amenitiesSnapshot);
+    // ==========================================
+    // === PIPELINE ASYNCHRONE (coalescence) ===
+    // ==========================================
+
+    /**
+     * Demande une nouvelle version, dans la transaction de la modification.
+     * La version est créée plus tard par PropertyVersionWorker : une seule
+     * pour toute une rafale de modifications de la même property.
+     */
+    public void requestVersion(Integer propertyId) {
+        pendingRepository.save(PendingPropertyVersion.builder()
+                .propertyId(propertyId)
+                .enqueuedAt(LocalDateTime.now())
+                .build());
+    }
 
-        // === PHOTOS : TOUJOURS un snapshot ===
-        List<PropertyPhoto> photos = new ArrayList<>(property.getPhotos());
-        PropertyPhotosSnapshot photosSnapshot = photosSnapshotService.getOrCreateSnapshot(photos , version);
-        if (photosSnapshot == null) {
-            photosSnapshot = photosSnapshotService.createEmptySnapshot();
+    /**
+     * Crée UNE version (état courant de la property) pour les modifications en attente
+     * jusqu'à lastPendingId. Empty si elles ont déjà été traitées par un autre appel.
+     * Verrou de la ligne property en premier : le numéro de version est lu après le commit
+     * d'un flush concurrent (worker / ensureCurrent), jamais en double.
+     */
+    @Transactional
+    public Optional<PropertyVersion> flushPending(Integer propertyId, Long lastPendingId) {
+        if (lastPendingId == null) return Optional.empty();
+        if (propertyRepository.lockForVersioning(propertyId) == null) {
+            pendingRepository.deleteUpTo(propertyId, lastPendingId); // property supprimée
+            return Optional.empty();
         }
-        version.setPhotosSnapshot(photosSnapshot);
+        if (pendingRepository.deleteUpTo(propertyId, lastPendingId) == 0) {
+            return Optional.empty();
+        }
+        return propertyRepository.findById(propertyId)
+                .map(property -> createVersionFromProperty(property, nextVersionNumber(propertyId)));
+    }
 
-        // === RULES : TOUJOURS un snapshot ===
-        PropertyRulesSnapshot rulesSnapshot = rulesSnapshotService.getOrCreateSnapshot(property.getRules() , version);
-        if (rulesSnapshot == null) {
-            rulesSnapshot = rulesSnapshotService.createEmptySnapshot();
+    /**
+     * Version garantie à jour (booking-service) : les modifications en attente
+     * sont versionnées immédiatement, sans attendre le worker
+     */
+    @Transactional
+    public Optional<PropertyVersion> ensureCurrentVersion(Integer propertyId) {
+        // Verrou avant toute lecture : la file et la dernière version sont lues à jour
+        if (propertyRepository.lockForVersioning(propertyId) == null) {
+            return getCurrentVersion(propertyId);
+        }
+        Long lastPendingId = pendingRepository.findLastPendingId(propertyId);
+        if (lastPendingId != null) {
+            Optional<PropertyVersion> created = flushPending(propertyId, lastPendingId);
+            if (created.isPresent()) return created;
         }
-        version.setRulesSnapshot(rulesSnapshot);
+        return getCurrentVersion(propertyId);
+    }
 
-        return versionRepository.save(version);
+    public int nextVersionNumber(Integer propertyId) {
+        return getCurrentVersion(propertyId)
+                .map(v -> v.getNumVersion() + 1)
+                .orElse(1);
     }
 
     public PropertyVersion updateVersion(Integer id, PropertyVersion updatedVersion) {
         PropertyVersion existing = versionRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Version non trouvée avec l'ID : " + id));
 
+        // Position dans l'historique inchangée : seul le contenu est remplacé
         updatedVersion.setVersionId(id);
-        return versionRepository.save(updatedVersion);
+        updatedVersion.setPropertyId(existing.getPropertyId());
+        updatedVersion.setNumVersion(existing.getNumVersion());
+        PropertyVersion saved = versionRepository.save(updatedVersion);
+        if (hasSnapshots(saved)) {
+            historyService.replaceVersion(saved);
+            detachSnapshots(saved);
+        }
+        return saved;
     }
 
     public void deleteVersion(Integer id) {
-        if (!versionRepository.existsById(id)) {
-            throw new IllegalArgumentException("Version non trouvée avec l'ID : " + id);
-        }
+        PropertyVersion existing = versionRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Version non trouvée avec l'ID : " + id));
+        historyService.removeVersion(existing.getPropertyId(), existing.getNumVersion());
         versionRepository.deleteById(id);
     }
 
     // === RECHERCHES PAR PROPRIÉTÉ ===
 
-    /** Toutes les versions d'une propriété (du plus récent au plus ancien) */
+    /** Toutes les versions d'une propriété (du plus récent au plus ancien), sans leur contenu */
     public List<PropertyVersion> getAllByPropertyId(Integer propertyId) {
         return versionRepository.findByPropertyIdOrderByNumVersionDesc(propertyId);
     }
@@ -123,25 +176,17 @@ public class PropertyVersionService {
         return versionRepository.findTopByPropertyIdOrderByNumVersionDesc(propertyId);
     }
 
-    @Transactional(readOnly = true)
-    public Optional<PropertyVersion> getVersionByIdWithSnapshots(Integer id) {
-        return versionRepository.findById(id)
-                .map(version -> {
-                    // Force l'initialisation des lazy proxies
-                    if (version.getGeneralSnapshot() != null) {
-                        version.getGeneralSnapshot().getGeneralJson();
-                    }
-                    if (version.getAmenitiesSnapshot() != null) {
-                        version.getAmenitiesSnapshot().getAmenitiesJson();
-                    }
-                    if (version.getPhotosSnapshot() != null) {
-                        version.getPhotosSnapshot().getPhotosJson();
-                    }
-                    if (version.getRulesSnapshot() != null) {
-                        version.getRulesSnapshot().getChildrenAllowed();
-                    }
-                    return version;
-                });
+    // Contenu dans l'historique compact : plus de référence aux snapshots complets
+    private static void detachSnapshots(PropertyVersion version) {
+        version.setGeneralSnapshot(null);
+        version.setAmenitiesSnapshot(null);
+        version.setPhotosSnapshot(null);
+        version.setRulesSnapshot(null);
+    }
+
+    private static boolean hasSnapshots(PropertyVersion version) {
+        return version.getGeneralSnapshot() != null || version.getAmenitiesSnapshot() != null
+                || version.getPhotosSnapshot() != null || version.getRulesSnapshot() != null;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.realestate.listing.service;
+
+import com.realestate.listing.repository.PendingPropertyVersionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * ========================================
+ * WORKER DES VERSIONS EN FILE
+ * ========================================
+ * Une property est versionnée quand ses modifications se sont calmées
+ * (aucune depuis coalesce-window-ms) ou, en cas de rafale continue,
+ * quand la plus ancienne attend depuis max-delay-ms.
+ */
+@Component
+public class PropertyVersionWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(PropertyVersionWorker.class);
+
+    @Autowired
+    private PendingPropertyVersionRepository pendingRepository;
+
+    @Autowired
+    private PropertyVersionService versionService;
+
+    @Value("${listing.versions.coalesce-window-ms:5000}")
+    private long coalesceWindowMs;
+
+    @Value("${listing.versions.max-delay-ms:60000}")
+    private long maxDelayMs;
+
+    @Scheduled(fixedDelayString = "${listing.versions.poll-interval-ms:1000}")
+    public void flushReadyVersions() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime quietSince = now.minusNanos(coalesceWindowMs * 1_000_000);
+        LocalDateTime overdueSince = now.minusNanos(maxDelayMs * 1_000_000);
+
+        for (Object[] row : pendingRepository.summarizePending()) {
+            Integer propertyId = (Integer) row[0];
+            LocalDateTime first = (LocalDateTime) row[1];
+            LocalDateTime last = (LocalDateTime) row[2];
+            Long lastPendingId = (Long) row[3];
+
+            if (last.isAfter(quietSince) && first.isAfter(overdueSince)) {
+                continue; // rafale en cours
+            }
+            try {
+                versionService.flushPending(propertyId, lastPendingId)
+                        .ifPresent(v -> logger.info("Version {} créée pour la property {}", v.getNumVersion(), propertyId));
+            } catch (Exception e) {
+                logger.error("Échec de la création de version pour la property {}", propertyId, e);
+            }
+        }
+    }
+}
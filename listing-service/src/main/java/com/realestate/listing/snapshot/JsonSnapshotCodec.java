@@ -0,0 +1,31 @@
+package com.realestate.listing.snapshot;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JSON texte en UTF-8, sans transformation
+ */
+public final class JsonSnapshotCodec implements SnapshotCodec {
+
+    public static final byte ID = 0;
+
+    @Override
+    public byte id() {
+        return ID;
+    }
+
+    @Override
+    public String name() {
+        return "json";
+    }
+
+    @Override
+    public byte[] encodePayload(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String decodePayload(byte[] data, int offset, int length) {
+        return new String(data, offset, length, StandardCharsets.UTF_8);
+    }
+}
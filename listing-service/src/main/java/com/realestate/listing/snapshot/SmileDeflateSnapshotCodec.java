@@ -0,0 +1,98 @@
+package com.realestate.listing.snapshot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Smile (JSON binaire : noms de champs et chaînes répétées partagés) + Deflate
+ * avec un dictionnaire prédéfini contenant les noms de champs des snapshots.
+ * Le dictionnaire fait partie du format : le modifier impose un nouveau codec (nouvel id).
+ */
+public final class SmileDeflateSnapshotCodec implements SnapshotCodec {
+
+    public static final byte ID = 1;
+
+    // Noms de champs des sections general, amenities et photos (les plus fréquents en fin de dictionnaire)
+    private static final byte[] DICTIONARY = String.join("",
+            "cancellationPolicy", "checkInTimeStart", "checkInTimeEnd", "checkOutTime",
+            "minStayNights", "maxStayNights", "bookingAdvanceDays", "instantBooking",
+            "cleaningFee", "petFee", "platformFeePercentage",
+            "neighborhoodDescription", "floorNumber", "surfaceArea", "postalCode",
+            "adresseLine", "latitude", "longitude",
+            "maxGuests", "bedrooms", "beds", "bathrooms", "weekendPricePerNight", "pricePerNight",
+            "title", "description", "propertyType", "placeType", "city", "country",
+            "amenityId", "name", "category", "icone",
+            "photoUrl", "isCover", "displayOrder", "https://"
+    ).getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final ObjectMapper smileMapper = new ObjectMapper(SmileFactory.builder()
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+            .build());
+
+    @Override
+    public byte id() {
+        return ID;
+    }
+
+    @Override
+    public String name() {
+        return "smile-deflate";
+    }
+
+    @Override
+    public byte[] encodePayload(String json) throws IOException {
+        JsonNode tree = jsonMapper.readTree(json);
+        byte[] smile = smileMapper.writeValueAsBytes(tree);
+
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setDictionary(DICTIONARY);
+            deflater.setInput(smile);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(smile.length);
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public String decodePayload(byte[] data, int offset, int length) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, length);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length * 4);
+            byte[] buffer = new byte[1024];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0) {
+                    if (inflater.needsDictionary()) {
+                        inflater.setDictionary(DICTIONARY);
+                    } else if (inflater.needsInput()) {
+                        throw new IOException("Snapshot compressé tronqué");
+                    }
+                }
+                out.write(buffer, 0, n);
+            }
+            return jsonMapper.writeValueAsString(smileMapper.readTree(out.toByteArray()));
+        } catch (DataFormatException e) {
+            throw new IOException("Snapshot compressé invalide", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.realestate.listing.snapshot;
+
+import java.io.IOException;
+
+/**
+ * Format de stockage du JSON d'un snapshot de version
+ * Chaque valeur stockée commence par l'octet id() du codec qui l'a écrite :
+ * la relecture ne dépend donc pas du codec configuré pour l'écriture.
+ * Le hash du snapshot est toujours calculé sur le JSON, jamais sur les octets encodés.
+ */
+public interface SnapshotCodec {
+
+    /** Octet d'en-tête (ne jamais réutiliser l'id d'un codec retiré) */
+    byte id();
+
+    /** Nom utilisé dans listing.snapshots.codec */
+    String name();
+
+    byte[] encodePayload(String json) throws IOException;
+
+    String decodePayload(byte[] data, int offset, int length) throws IOException;
+}
@@ -0,0 +1,54 @@
+package com.realestate.listing.snapshot;
+
+import java.util.List;
+
+/**
+ * Registre des codecs de snapshot : relecture par l'octet d'en-tête
+ * (utilisé directement par les entités, sans dépendre du contexte Spring)
+ */
+public final class SnapshotCodecs {
+
+    private static final List<SnapshotCodec> CODECS = List.of(
+            new JsonSnapshotCodec(),
+            new SmileDeflateSnapshotCodec()
+    );
+
+    private SnapshotCodecs() {
+    }
+
+    public static SnapshotCodec byName(String name) {
+        return CODECS.stream()
+                .filter(codec -> codec.name().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Codec de snapshot inconnu : " + name));
+    }
+
+    /** En-tête (id du codec) + contenu encodé */
+    public static byte[] encode(SnapshotCodec codec, String json) {
+        try {
+            byte[] payload = codec.encodePayload(json);
+            byte[] data = new byte[payload.length + 1];
+            data[0] = codec.id();
+            System.arraycopy(payload, 0, data, 1, payload.length);
+            return data;
+        } catch (Exception e) {
+            throw new RuntimeException("Erreur d'encodage du snapshot (" + codec.name() + ")", e);
+        }
+    }
+
+    public static String decode(byte[] data) {
+        if (data == null) return null;
+        if (data.length == 0) throw new IllegalArgumentException("Snapshot encodé vide");
+
+        for (SnapshotCodec codec : CODECS) {
+            if (codec.id() == data[0]) {
+                try {
+                    return codec.decodePayload(data, 1, data.length - 1);
+                } catch (Exception e) {
+                    throw new RuntimeException("Erreur de décodage du snapshot (" + codec.name() + ")", e);
+                }
+            }
+        }
+        throw new IllegalArgumentException("Codec de snapshot inconnu : " + data[0]);
+    }
+}
@@ -0,0 +1,22 @@
+package com.realestate.listing.snapshot;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Encode le JSON de l'historique des versions (deltas et checkpoints) avec le codec configuré
+ * (listing.snapshots.codec). Les anciens snapshots complets ne sont plus écrits, seulement relus.
+ */
+@Component
+public class SnapshotStorage {
+
+    private final SnapshotCodec codec;
+
+    public SnapshotStorage(@Value("${listing.snapshots.codec:smile-deflate}") String codecName) {
+        this.codec = SnapshotCodecs.byName(codecName);
+    }
+
+    public byte[] encode(String json) {
+        return SnapshotCodecs.encode(codec, json);
+    }
+}
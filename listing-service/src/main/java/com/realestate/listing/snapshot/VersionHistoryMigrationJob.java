@@ -0,0 +1,175 @@
+package com.realestate.listing.snapshot;
+
+import com.realestate.listing.entity.PropertyVersion;
+import com.realestate.listing.repository.PropertyRepository;
+import com.realestate.listing.repository.PropertyVersionDeltaRepository;
+import com.realestate.listing.repository.PropertyVersionRepository;
+import com.realestate.listing.service.PropertyVersionHistoryService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ========================================
+ * MIGRATION VERS L'HISTORIQUE COMPACT
+ * ========================================
+ * Convertit par lots de properties les versions qui référencent des snapshots complets :
+ * deltas (et checkpoints) enregistrés depuis les snapshots, puis références remises à null.
+ * Une fois toutes les versions converties, les snapshots qui ne sont plus référencés sont supprimés.
+ * Les lectures de l'historique n'écrivent jamais : ce job est le seul rattrapage.
+ */
+@Component
+public class VersionHistoryMigrationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(VersionHistoryMigrationJob.class);
+
+    // colonne de property_version → table de snapshots
+    private static final String[][] SNAPSHOT_COLUMNS = {
+            {"general_snapshot_id", "property_general_snapshot"},
+            {"amenities_snapshot_id", "property_amenities_snapshots"},
+            {"photos_snapshot_id", "property_photos_snapshots"},
+            {"rules_snapshot_id", "property_rules_snapshots"}
+    };
+
+    @Autowired
+    private PropertyVersionRepository versionRepository;
+
+    @Autowired
+    private PropertyVersionDeltaRepository deltaRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private PropertyVersionHistoryService historyService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${listing.versions.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${listing.versions.migration.batch-size:100}")
+    private int batchSize;
+
+    @Value("${listing.versions.migration.purge-snapshots:true}")
+    private boolean purgeSnapshots;
+
+    // Dernière property traitée dans le passage en cours (pagination keyset)
+    private Integer cursor = 0;
+    private boolean failures = false;
+
+    // Plus rien à migrer depuis le démarrage : le job ne requête plus la BDD
+    private volatile boolean done = false;
+
+    /**
+     * Les colonnes de snapshots ont été créées NOT NULL (ddl-auto update ne les modifie pas) :
+     * les nouvelles versions n'en ont plus
+     */
+    @PostConstruct
+    void relaxSnapshotColumns() {
+        try {
+            for (String[] column : SNAPSHOT_COLUMNS) {
+                String nullable = jdbcTemplate.query("""
+                        SELECT IS_NULLABLE FROM information_schema.COLUMNS
+                        WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'property_version' AND COLUMN_NAME = ?
+                        """, rs -> rs.next() ? rs.getString(1) : null, column[0]);
+                if ("NO".equals(nullable)) {
+                    jdbcTemplate.execute("ALTER TABLE property_version MODIFY " + column[0] + " INT NULL");
+                    logger.info("property_version.{} rendue nullable", column[0]);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Impossible de rendre les colonnes de snapshots nullables : {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${listing.versions.migration.interval-ms:10000}",
+            fixedDelayString = "${listing.versions.migration.interval-ms:10000}")
+    public synchronized void migrateBatch() {
+        if (!enabled || done) return;
+
+        List<Integer> propertyIds;
+        try {
+            propertyIds = versionRepository.findPropertyIdsWithSnapshotsAfter(cursor, PageRequest.of(0, batchSize));
+        } catch (Exception e) {
+            logger.error("Échec de la migration de l'historique des versions", e);
+            return;
+        }
+
+        if (propertyIds.isEmpty()) {
+            endOfPass();
+            return;
+        }
+
+        int migrated = 0;
+        for (Integer propertyId : propertyIds) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> migrate(propertyId));
+                migrated++;
+            } catch (Exception e) {
+                failures = true;
+                logger.error("Échec de la migration des versions de la property {}", propertyId, e);
+            }
+            cursor = propertyId;
+        }
+        logger.info("Versions de {} properties converties en historique compact", migrated);
+    }
+
+    // Toutes les versions d'une property, dans l'ordre : la chaîne de deltas est continue
+    private void migrate(Integer propertyId) {
+        propertyRepository.lockForVersioning(propertyId); // pas de nouvelle version pendant la conversion
+
+        List<PropertyVersion> versions = new ArrayList<>(versionRepository.findByPropertyIdOrderByNumVersionDesc(propertyId));
+        Collections.reverse(versions);
+        for (PropertyVersion version : versions) {
+            if (!deltaRepository.existsById(version.getVersionId())) {
+                historyService.recordFromSnapshots(version);
+            }
+        }
+        versionRepository.detachSnapshots(propertyId);
+    }
+
+    private void endOfPass() {
+        if (failures) {
+            // Nouvel essai des properties en échec au passage suivant, sans purge
+            cursor = 0;
+            failures = false;
+            return;
+        }
+        if (purgeSnapshots) {
+            try {
+                Integer purged = transactionTemplate.execute(status -> purgeUnreferencedSnapshots());
+                logger.info("{} snapshots complets supprimés", purged);
+            } catch (Exception e) {
+                logger.error("Échec de la suppression des snapshots complets", e);
+                return;
+            }
+        }
+        done = true;
+        logger.info("Migration de l'historique des versions terminée");
+    }
+
+    private int purgeUnreferencedSnapshots() {
+        int purged = 0;
+        for (String[] column : SNAPSHOT_COLUMNS) {
+            purged += jdbcTemplate.update("DELETE FROM " + column[1] + " WHERE snapshot_id NOT IN ("
+                    + "SELECT " + column[0] + " FROM property_version WHERE " + column[0] + " IS NOT NULL)");
+        }
+        return purged;
+    }
+}
@@ -0,0 +1,76 @@
+package com.realestate.listing.availability;
+
+import com.realestate.listing.availability.BlockIntervals.Diff;
+import com.realestate.listing.availability.BlockIntervals.Interval;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Algèbre d'intervalles : fusion au blocage, découpe au déblocage, défragmentation
+ */
+class BlockIntervalsTest {
+
+    private static final String OWNER = "Propriétaire";
+
+    @Test
+    void blockMergesOverlappingAndAdjacentPeriodsOfSameReason() {
+        Interval first = interval(1, 1, 5, OWNER);
+        Interval adjacent = interval(2, 11, 15, OWNER);
+        Interval otherReason = interval(3, 6, 8, "Réservation #7");
+
+        // [6, 10] touche [1, 5] et [11, 15] : une seule ligne [1, 15], la première réutilisée
+        Diff diff = BlockIntervals.block(List.of(adjacent, otherReason, first), day(6), day(10), OWNER);
+
+        assertEquals(List.of(2), diff.deletes());
+        assertEquals(List.of(interval(1, 1, 15, OWNER)), diff.updates());
+        assertTrue(diff.inserts().isEmpty());
+    }
+
+    @Test
+    void blockInsideExistingPeriodIsANoOp() {
+        assertTrue(BlockIntervals.block(List.of(interval(1, 1, 10, OWNER)), day(3), day(4), OWNER).isEmpty());
+
+        Diff separate = BlockIntervals.block(List.of(interval(1, 1, 4, OWNER)), day(6), day(8), OWNER);
+        assertEquals(List.of(new Interval(null, day(6), day(8), OWNER)), separate.inserts());
+    }
+
+    @Test
+    void unblockDeletesTrimsAndSplits() {
+        Diff diff = BlockIntervals.unblock(List.of(
+                interval(1, 1, 20, OWNER),     // déborde des deux côtés → coupée
+                interval(2, 8, 9, OWNER),      // couverte → supprimée
+                interval(3, 12, 25, "Autre"),  // déborde à droite → raccourcie
+                interval(4, 30, 31, OWNER)),   // hors plage
+                day(5), day(15));
+
+        assertEquals(List.of(2), diff.deletes());
+        assertEquals(List.of(interval(1, 1, 4, OWNER), interval(3, 16, 25, "Autre")), diff.updates());
+        assertEquals(List.of(new Interval(null, day(16), day(20), OWNER)), diff.inserts());
+    }
+
+    @Test
+    void normalizeCollapsesEachReasonIntoContinuousRuns() {
+        Diff diff = BlockIntervals.normalize(List.of(
+                interval(3, 6, 12, OWNER),
+                interval(1, 1, 5, OWNER),
+                interval(2, 3, 4, OWNER),
+                interval(4, 20, 22, OWNER),
+                interval(5, 1, 30, "Autre")));
+
+        assertEquals(List.of(2, 3), diff.deletes().stream().sorted().toList());
+        assertEquals(List.of(interval(1, 1, 12, OWNER)), diff.updates());
+        assertTrue(diff.inserts().isEmpty());
+    }
+
+    private static Interval interval(int id, int start, int end, String reason) {
+        return new Interval(id, day(start), day(end), reason);
+    }
+
+    private static LocalDate day(int dayOfMonth) {
+        return LocalDate.of(2026, 7, dayOfMonth);
+    }
+}
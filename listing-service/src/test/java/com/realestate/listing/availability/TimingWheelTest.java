@@ -0,0 +1,58 @@
+package com.realestate.listing.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Roue temporelle des holds : expiration après l'échéance seulement, tours multiples, retards
+ */
+class TimingWheelTest {
+
+    // 8 slots de 100 ms : un tour = 800 ms
+    private final TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+    private final List<String> expired = new ArrayList<>();
+
+    @Test
+    void expiresOnlyOnceDeadlineTickHasElapsed() {
+        wheel.schedule("a", 250);
+
+        assertEquals(0, wheel.advance(250, expired::add));
+        assertEquals(1, wheel.advance(300, expired::add));
+        assertEquals(List.of("a"), expired);
+        assertEquals(0, wheel.advance(1000, expired::add));
+    }
+
+    @Test
+    void keepsDeadlinesBeyondOneRotationUntilTheirLap() {
+        wheel.schedule("far", 850); // même slot que le tick 0
+
+        assertEquals(0, wheel.advance(300, expired::add));
+        assertEquals(0, wheel.advance(800, expired::add));
+        assertEquals(1, wheel.advance(900, expired::add));
+        assertEquals(List.of("far"), expired);
+    }
+
+    @Test
+    void pastDeadlineExpiresOnNextTick() {
+        wheel.advance(300, expired::add);
+        wheel.schedule("late", 50);
+
+        assertEquals(1, wheel.advance(400, expired::add));
+        assertEquals(List.of("late"), expired);
+    }
+
+    @Test
+    void lagOfSeveralRotationsExpiresEverythingOnce() {
+        for (int i = 0; i < 20; i++) {
+            wheel.schedule("h" + i, i * 100L + 10);
+        }
+
+        assertEquals(20, wheel.advance(100_000, expired::add));
+        assertEquals(20, expired.size());
+        assertEquals(0, wheel.advance(200_000, expired::add));
+    }
+}
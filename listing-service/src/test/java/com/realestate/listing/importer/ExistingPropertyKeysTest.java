@@ -0,0 +1,44 @@
+package com.realestate.listing.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clés anti-doublon : ensemble exact et filtre de Bloom décident de la même façon
+ */
+class ExistingPropertyKeysTest {
+
+    @Test
+    void exactAndBloomAgreeOnNormalizedDuplicates() {
+        ExistingPropertyKeys exact = ExistingPropertyKeys.exact(1);
+        List<String[]> confirmed = new ArrayList<>();
+        ExistingPropertyKeys bloom = ExistingPropertyKeys.bloom(1, key -> {
+            confirmed.add(key);
+            // Confirmation BDD simulée sur les champs normalisés
+            return ExistingPropertyKeys.key(key[0], key[1], key[2])
+                    .equals(ExistingPropertyKeys.key("Villa Azur", "Nice", "3 rue des Fleurs"));
+        });
+        exact.add("Villa Azur", "Nice", "3 rue des Fleurs");
+        bloom.add("Villa Azur", "Nice", "3 rue des Fleurs");
+
+        assertTrue(exact.contains("  villa AZUR ", "NICE", "3 Rue des fleurs"));
+        assertTrue(bloom.contains("  villa AZUR ", "NICE", "3 Rue des fleurs"));
+        assertArrayEquals(new String[]{"villa azur", "nice", "3 rue des fleurs"}, confirmed.get(0));
+
+        assertFalse(exact.contains("Villa Azur", "Cannes", "3 rue des Fleurs"));
+        assertFalse(bloom.contains("Villa Azur", "Cannes", "3 rue des Fleurs"));
+    }
+
+    @Test
+    void noCheckWithoutAddress() {
+        ExistingPropertyKeys exact = ExistingPropertyKeys.exact(1);
+        exact.add("Villa Azur", "Nice", null);
+
+        assertNull(ExistingPropertyKeys.key("Villa Azur", "Nice", null));
+        assertFalse(exact.contains("Villa Azur", "Nice", null));
+    }
+}
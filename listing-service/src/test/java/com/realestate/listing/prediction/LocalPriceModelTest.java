@@ -0,0 +1,143 @@
+package com.realestate.listing.prediction;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compare le modèle local aux réponses ai-service enregistrées dans l'export
+ * - fixture : petit modèle à 2 arbres (src/test/resources/price-model), cas limites float32 compris.
+ *   Écrite à la main, pas exportée : export_price_model demande scikit-learn et le modèle entraîné,
+ *   absents du build Maven. Réponses calculées avec les formules de /price/predict (features en
+ *   float32, arrondi à 4 décimales, fourchette ±10 %, EUR = int(ETH × 3500), seuils de recommandation)
+ * - export réel (réponses enregistrées par ai-service) :
+ *   mvn test -Dtest=LocalPriceModelTest -Dprice.model.path=../ai-service/models/price_prediction_model.json
+ */
+class LocalPriceModelTest {
+
+    private static final String FIXTURE = "/price-model/price_prediction_model.json";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    private LocalPriceModel localPriceModel;
+
+    @BeforeEach
+    void setUp() {
+        localPriceModel = new LocalPriceModel();
+        ReflectionTestUtils.setField(localPriceModel, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(localPriceModel, "toleranceEth", 0.0001);
+    }
+
+    @Test
+    void fixtureReproducesRecordedResponses() throws IOException {
+        assertReproducesRecordedResponses(readFixture(), 0.0);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "price.model.path", matches = ".+")
+    void exportedModelReproducesRecordedResponses() throws IOException {
+        PriceModelArtifact artifact = objectMapper.readValue(
+                Path.of(System.getProperty("price.model.path")).toFile(), PriceModelArtifact.class);
+        assertReproducesRecordedResponses(artifact, 0.0001);
+    }
+
+    @Test
+    void encodesFeaturesInArtifactOrder() throws IOException {
+        Path file = write(Files.readString(fixturePath()), 1);
+        ReflectionTestUtils.setField(localPriceModel, "path", file.toString());
+        localPriceModel.reloadIfChanged();
+
+        // 85 m², note 4.4, occupation 0.72 → même feuilles que le 5e échantillon
+        Map<String, Object> prediction = localPriceModel.predict(PriceFeatures.of(85.0, 3, 8, 4.4, 0.72));
+        assertEquals(0.2175, prediction.get("predicted_price_eth"));
+        assertEquals(761, prediction.get("predicted_price_eur"));
+    }
+
+    @Test
+    void hotSwapKeepsCurrentModelWhenExportDoesNotMatch() throws IOException {
+        String valid = Files.readString(fixturePath());
+        Path file = write(valid, 1);
+        ReflectionTestUtils.setField(localPriceModel, "path", file.toString());
+
+        localPriceModel.reloadIfChanged();
+        assertTrue(localPriceModel.isReady());
+        assertEquals("fixture", localPriceModel.version());
+
+        // Réponse enregistrée falsifiée : le fichier est refusé, l'ancien modèle reste en service
+        write(valid.replace("\"exported_at\": \"fixture\"", "\"exported_at\": \"tampered\"")
+                .replaceFirst("\"predicted_price_eth\": 0.23,", "\"predicted_price_eth\": 0.31,"), 2);
+        localPriceModel.reloadIfChanged();
+        assertEquals("fixture", localPriceModel.version());
+
+        // Nouvel export cohérent : adopté sans redémarrage
+        write(valid.replace("\"exported_at\": \"fixture\"", "\"exported_at\": \"v2\""), 3);
+        localPriceModel.reloadIfChanged();
+        assertEquals("v2", localPriceModel.version());
+    }
+
+    @Test
+    void rejectsInconsistentTrees() throws IOException {
+        String cyclic = Files.readString(fixturePath()).replaceFirst("\"left\": \\[\\s*1,", "\"left\": [0,");
+        try (InputStream in = new ByteArrayInputStream(cyclic.getBytes())) {
+            assertThrows(IllegalArgumentException.class, () -> localPriceModel.load(in));
+        }
+        assertFalse(localPriceModel.isReady());
+    }
+
+    // ======================
+    // === HELPERS ===
+    // ======================
+
+    private void assertReproducesRecordedResponses(PriceModelArtifact artifact, double toleranceEth) {
+        PriceModel model = artifact.toModel();
+        PriceFeatureEncoder encoder = PriceFeatureEncoder.of(artifact.featureNames());
+        double[] x = new double[PriceFeatureEncoder.MAX_FEATURES];
+
+        assertFalse(artifact.samples().isEmpty());
+        for (PriceModelArtifact.Sample sample : artifact.samples()) {
+            encoder.encode(sample.input(), x);
+            Map<String, Object> local = LocalPriceModel.response(model.score(x));
+            if (toleranceEth == 0.0) {
+                assertEquals(sample.output(), local, "entrée " + sample.input());
+            } else {
+                double expected = ((Number) sample.output().get("predicted_price_eth")).doubleValue();
+                assertEquals(expected, (double) local.get("predicted_price_eth"), toleranceEth + 1e-12,
+                        "entrée " + sample.input());
+            }
+        }
+    }
+
+    private PriceModelArtifact readFixture() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream(FIXTURE)) {
+            return objectMapper.readValue(in, PriceModelArtifact.class);
+        }
+    }
+
+    private Path fixturePath() {
+        return Path.of(getClass().getResource(FIXTURE).getPath());
+    }
+
+    // Date de modification explicite : le rechargement détecte le changement même dans la même seconde
+    private Path write(String content, int generation) throws IOException {
+        Path file = dir.resolve("price_prediction_model.json");
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(1_000_000L * generation));
+        return file;
+    }
+}
@@ -0,0 +1,96 @@
+package com.realestate.listing.pricing;
+
+import com.realestate.listing.entity.Discount;
+import com.realestate.listing.entity.Property;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Moteur de prix : comptage des nuits de week-end et règles de réduction de l'ancien calcul
+ */
+class PricingEngineTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2026, 6, 1);
+
+    private final PricingEngine pricingEngine = new PricingEngine();
+
+    @Test
+    void weekendNightsMatchesDayByDayCount() {
+        for (int start = 0; start < 7; start++) {
+            LocalDate checkIn = MONDAY.plusDays(start);
+            for (long nights = 0; nights <= 30; nights++) {
+                long expected = 0;
+                for (long i = 0; i < nights; i++) {
+                    DayOfWeek day = checkIn.plusDays(i).getDayOfWeek();
+                    if (day == DayOfWeek.FRIDAY || day == DayOfWeek.SATURDAY) expected++;
+                }
+                assertEquals(expected, PricingEngine.weekendNights(checkIn, nights), checkIn + " + " + nights);
+            }
+        }
+    }
+
+    @Test
+    void weekendNightsArePricedAtWeekendRate() {
+        // Lundi → lundi : 5 nuits semaine à 100, vendredi et samedi à 150
+        PriceQuote quote = pricingEngine.quote(property(), MONDAY, MONDAY.plusDays(7), false, MONDAY.minusDays(60));
+
+        assertEquals(5 * 100 + 2 * 150, quote.totalPrice(), 1e-9);
+        assertEquals(0.0, quote.discountPercentage());
+        assertEquals("Aucune", quote.discountType());
+    }
+
+    @Test
+    void firstBookingDiscountIsShownButNotAppliedToTotal() {
+        Property property = property(
+                discount("first_booking", 20.0, null),
+                discount("weekly", 10.0, 7));
+
+        PriceQuote quote = pricingEngine.quote(property, MONDAY, MONDAY.plusDays(7), true, MONDAY.minusDays(60));
+
+        assertEquals((5 * 100 + 2 * 150) * 0.9, quote.totalPrice(), 1e-9);
+        assertEquals(20.0, quote.discountPercentage());
+        assertEquals("first_booking", quote.discountType());
+    }
+
+    @Test
+    void lastMinuteAndMinNightsFollowBookingDate() {
+        Property property = property(
+                discount("last_minute", 15.0, null),
+                discount("monthly", 30.0, 28));
+
+        PriceQuote early = pricingEngine.quote(property, MONDAY, MONDAY.plusDays(3), false, MONDAY.minusDays(15));
+        PriceQuote late = pricingEngine.quote(property, MONDAY, MONDAY.plusDays(3), false, MONDAY.minusDays(14));
+
+        assertEquals(300.0, early.totalPrice(), 1e-9);
+        assertEquals(300.0 * 0.85, late.totalPrice(), 1e-9);
+        assertEquals("last_minute", late.discountType());
+    }
+
+    @Test
+    void rejectsEmptyStay() {
+        assertThrows(IllegalArgumentException.class,
+                () -> pricingEngine.quote(property(), MONDAY, MONDAY, false, MONDAY));
+    }
+
+    private static Property property(Discount... discounts) {
+        Property property = new Property();
+        property.setPropertyId(1);
+        property.setPricePerNight(100.0);
+        property.setWeekendPricePerNight(150.0);
+        property.setDiscounts(Set.of(discounts));
+        return property;
+    }
+
+    private static Discount discount(String type, double percentage, Integer minNights) {
+        Discount discount = new Discount();
+        discount.setDiscountType(type);
+        discount.setDiscountPercentage(percentage);
+        discount.setMinNights(minNights);
+        return discount;
+    }
+}
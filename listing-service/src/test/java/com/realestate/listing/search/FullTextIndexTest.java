@@ -0,0 +1,90 @@
+package com.realestate.listing.search;
+
+import com.realestate.listing.entity.Amenity;
+import com.realestate.listing.entity.Property;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Index plein texte : pondération des champs (BM25), analyse, préfixe, filtres, reprise du disque
+ */
+class FullTextIndexTest {
+
+    @TempDir
+    Path dir;
+
+    private static final List<PropertyDocument> DOCUMENTS = List.of(
+            document(1, "Villa avec piscine", "Grande maison", null, Property.PropertyStatus.ACTIVE),
+            document(2, "Appartement centre", "Piscine commune dans la résidence", null, Property.PropertyStatus.ACTIVE),
+            document(3, "Studio calme", null, "Piscines", Property.PropertyStatus.ACTIVE),
+            document(4, "Piscine privée", null, null, Property.PropertyStatus.ARCHIVED));
+
+    @Test
+    void ranksTitleAboveAmenityAboveDescription() {
+        FullTextIndex index = index();
+
+        // Titre (3.0) > amenity au pluriel (1.5) > description (1.0) ; property archivée absente
+        assertEquals(List.of(1, 3, 2), index.search("piscine", null, 10));
+        assertEquals(List.of(1), index.search("piscine", null, 1));
+        assertEquals(List.of(3, 2), index.search("PISCINES", Set.of(2, 3), 10));
+    }
+
+    @Test
+    void normalizesAccentsStopWordsAndPrefixes() {
+        FullTextIndex index = index();
+
+        assertEquals(List.of(2), index.search("residence", null, 10));
+        assertEquals(List.of(), index.search("dans la", null, 10));
+        assertEquals(List.of(1, 3, 2), index.search("pisc", null, 10));
+        assertEquals(List.of(3), index.search("studio cal", null, 10));
+    }
+
+    @Test
+    void upsertReplacesTextAndArchivingRemoves() {
+        FullTextIndex index = index();
+
+        index.upsert(document(2, "Loft lumineux", null, null, Property.PropertyStatus.ACTIVE));
+        index.upsert(document(1, "Villa avec piscine", "Grande maison", null, Property.PropertyStatus.ARCHIVED));
+
+        assertEquals(List.of(3), index.search("piscine", null, 10));
+        assertEquals(List.of(2), index.search("lumineux", null, 10));
+    }
+
+    @Test
+    void reloadsPersistedTermsAfterRestart() {
+        FullTextIndex first = index();
+        first.upsert(document(5, "Chalet montagne", null, null, Property.PropertyStatus.ACTIVE));
+        first.flush();
+
+        FullTextIndex restarted = new FullTextIndex(dir.toString());
+        restarted.rebuild(DOCUMENTS);
+
+        assertTrue(restarted.isReady());
+        assertEquals(List.of(1, 3, 2), restarted.search("piscine", null, 10));
+        assertEquals(List.of(), restarted.search("chalet", null, 10)); // absente de la BDD au redémarrage
+    }
+
+    private FullTextIndex index() {
+        FullTextIndex index = new FullTextIndex(dir.toString());
+        index.rebuild(DOCUMENTS);
+        return index;
+    }
+
+    private static PropertyDocument document(int id, String title, String description, String amenity,
+                                             Property.PropertyStatus status) {
+        Property property = Property.builder()
+                .propertyId(id)
+                .status(status)
+                .title(title)
+                .description(description)
+                .amenities(amenity != null ? Set.of(Amenity.builder().amenityId(id).name(amenity).build()) : Set.of())
+                .build();
+        return PropertyDocument.from(property);
+    }
+}
@@ -0,0 +1,75 @@
+package com.realestate.listing.search;
+
+import com.realestate.listing.dto.NearbyPropertyDTO;
+import com.realestate.listing.entity.Property;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Index géographique : rayon, viewport (antiméridien compris), mises à jour
+ */
+class GeoIndexTest {
+
+    private final GeoIndex geoIndex = new GeoIndex();
+
+    @BeforeEach
+    void setUp() {
+        geoIndex.rebuild(List.of(
+                document(1, 48.8566, 2.3522, Property.PropertyStatus.ACTIVE),     // Paris
+                document(2, 48.8049, 2.1204, Property.PropertyStatus.ACTIVE),     // Versailles, ~18 km
+                document(3, 45.7640, 4.8357, Property.PropertyStatus.ACTIVE),     // Lyon, ~390 km
+                document(4, 48.8600, 2.3400, Property.PropertyStatus.ARCHIVED),   // hors index
+                document(5, -17.5, 179.9, Property.PropertyStatus.ACTIVE),        // Fidji, est
+                document(6, -17.6, -179.9, Property.PropertyStatus.ACTIVE)));     // Fidji, ouest
+    }
+
+    @Test
+    void radiusSearchMatchesHaversineAndSortsByDistance() {
+        List<NearbyPropertyDTO> nearby = geoIndex.findNearby(48.8566, 2.3522, 25, 10);
+
+        assertEquals(List.of(1, 2), ids(nearby));
+        assertEquals(0.0, nearby.get(0).distanceKm());
+        assertEquals(Math.round(GeoIndex.haversineKm(48.8566, 2.3522, 48.8049, 2.1204) * 100.0) / 100.0,
+                nearby.get(1).distanceKm());
+
+        assertEquals(List.of(1), ids(geoIndex.findNearby(48.8566, 2.3522, 25, 1)));
+        assertEquals(List.of(1, 2, 3), ids(geoIndex.findNearby(48.8566, 2.3522, 500, 10)));
+    }
+
+    @Test
+    void radiusAndViewportCrossTheAntimeridian() {
+        assertEquals(List.of(5, 6), ids(geoIndex.findNearby(-17.55, 179.95, 50, 10)));
+
+        // west > east : viewport à cheval sur ±180°
+        assertEquals(List.of(5, 6), ids(geoIndex.findInBoundingBox(-18, 179, -17, -179, -17.5, 179.9, 10)));
+        assertEquals(List.of(1, 2), ids(geoIndex.findInBoundingBox(48, 2, 49, 3, 48.8566, 2.3522, 10)));
+    }
+
+    @Test
+    void upsertMovesAndRemoveDropsProperties() {
+        geoIndex.upsert(document(3, 48.85, 2.35, Property.PropertyStatus.ACTIVE));   // déplacée à Paris
+        geoIndex.remove(2);
+
+        assertEquals(List.of(1, 3), ids(geoIndex.findNearby(48.8566, 2.3522, 25, 10)));
+
+        geoIndex.upsert(document(1, 48.8566, 2.3522, Property.PropertyStatus.ARCHIVED));
+        assertEquals(List.of(3), ids(geoIndex.findNearby(48.8566, 2.3522, 25, 10)));
+    }
+
+    private static List<Integer> ids(List<NearbyPropertyDTO> results) {
+        return results.stream().map(NearbyPropertyDTO::propertyId).toList();
+    }
+
+    private static PropertyDocument document(int id, double latitude, double longitude, Property.PropertyStatus status) {
+        Property property = new Property();
+        property.setPropertyId(id);
+        property.setStatus(status);
+        property.setLatitude(latitude);
+        property.setLongitude(longitude);
+        return PropertyDocument.from(property);
+    }
+}
@@ -0,0 +1,44 @@
+package com.realestate.listing.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Curseur de pagination : aller-retour, jetons invalides, taille de page
+ */
+class PageCursorTest {
+
+    @Test
+    void roundTripsLastPropertyId() {
+        for (int id : new int[]{1, 42, Integer.MAX_VALUE}) {
+            String cursor = PageCursor.encode(id);
+            assertFalse(cursor.contains("="));
+            assertEquals(id, PageCursor.decode(cursor));
+        }
+        assertEquals(0, PageCursor.decode(null));
+        assertEquals(0, PageCursor.decode(" "));
+    }
+
+    @Test
+    void rejectsForgedOrCorruptedCursors() {
+        String withoutPrefix = Base64.getUrlEncoder().encodeToString("42".getBytes(StandardCharsets.UTF_8));
+        String notANumber = Base64.getUrlEncoder().encodeToString("p1:abc".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(withoutPrefix));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(notANumber));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("%%%"));
+    }
+
+    @Test
+    void clampsPageSize() {
+        assertEquals(PageCursor.DEFAULT_PAGE_SIZE, PageCursor.clampSize(null));
+        assertEquals(PageCursor.DEFAULT_PAGE_SIZE, PageCursor.clampSize(0));
+        assertEquals(PageCursor.DEFAULT_PAGE_SIZE, PageCursor.clampSize(-5));
+        assertEquals(7, PageCursor.clampSize(7));
+        assertEquals(PageCursor.MAX_PAGE_SIZE, PageCursor.clampSize(10_000));
+    }
+}
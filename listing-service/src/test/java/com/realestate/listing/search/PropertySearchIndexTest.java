@@ -0,0 +1,80 @@
+package com.realestate.listing.search;
+
+import com.realestate.listing.dto.PropertyFilterDTO;
+import com.realestate.listing.entity.Amenity;
+import com.realestate.listing.entity.Property;
+import com.realestate.listing.entity.PropertyRule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Index bitmap : mêmes règles de filtre que searchProperties, mises à jour incrémentales
+ */
+class PropertySearchIndexTest {
+
+    private final PropertySearchIndex searchIndex = new PropertySearchIndex();
+
+    @BeforeEach
+    void setUp() {
+        searchIndex.rebuild(List.of(
+                document(1, "Paris", 80.0, 2, true, Property.PropertyStatus.ACTIVE, 1, 2),
+                document(2, " PARIS ", 150.0, 4, false, Property.PropertyStatus.ACTIVE, 1),
+                document(3, "Lyon", 100.0, 3, null, Property.PropertyStatus.ACTIVE, 2),
+                document(4, "Paris", 90.0, 2, true, Property.PropertyStatus.ARCHIVED, 1, 2)));
+    }
+
+    @Test
+    void filtersMatchRepositoryRules() {
+        assertEquals(List.of(1, 2, 3), searchIndex.search(new PropertyFilterDTO()));
+        assertEquals(List.of(1, 2), searchIndex.search(PropertyFilterDTO.builder().city("paris").build()));
+        assertEquals(List.of(), searchIndex.search(PropertyFilterDTO.builder().city("Nice").build()));
+
+        // Prix bornes incluses, chambres = minimum
+        assertEquals(List.of(1, 3), searchIndex.search(PropertyFilterDTO.builder().minPrice(80.0).maxPrice(100.0).build()));
+        assertEquals(List.of(2, 3), searchIndex.search(PropertyFilterDTO.builder().bedrooms(3).build()));
+
+        // Amenities : toutes requises ; règle absente ≠ false
+        assertEquals(List.of(1), searchIndex.search(PropertyFilterDTO.builder().amenityIds(List.of(1, 2)).build()));
+        assertEquals(List.of(2), searchIndex.search(PropertyFilterDTO.builder().petsAllowed(false).build()));
+    }
+
+    @Test
+    void upsertAndRemoveKeepBitmapsConsistent() {
+        searchIndex.upsert(document(1, "Paris", 80.0, 2, true, Property.PropertyStatus.ARCHIVED, 1, 2));
+        searchIndex.upsert(document(3, "Paris", 120.0, 3, null, Property.PropertyStatus.ACTIVE, 2));
+        searchIndex.remove(2);
+
+        assertEquals(List.of(3), searchIndex.search(PropertyFilterDTO.builder().city("Paris").build()));
+        assertEquals(List.of(), searchIndex.search(PropertyFilterDTO.builder().maxPrice(100.0).build()));
+
+        // Ordinal libéré réutilisé par une nouvelle property
+        searchIndex.upsert(document(5, "Lyon", 60.0, 1, true, Property.PropertyStatus.ACTIVE, 1));
+        assertEquals(2, searchIndex.size());
+        assertEquals(List.of(5), searchIndex.search(PropertyFilterDTO.builder().city("lyon").amenityIds(List.of(1)).build()));
+        assertEquals(List.of(5, 3), searchIndex.documents(List.of(5, 2, 3)).stream()
+                .map(PropertyDocument::propertyId).toList());
+    }
+
+    private static PropertyDocument document(int id, String city, Double price, Integer bedrooms,
+                                             Boolean petsAllowed, Property.PropertyStatus status, int... amenityIds) {
+        Property property = Property.builder()
+                .propertyId(id)
+                .status(status)
+                .city(city)
+                .country("France")
+                .PricePerNight(price)
+                .bedrooms(bedrooms)
+                .amenities(Arrays.stream(amenityIds)
+                        .mapToObj(amenityId -> Amenity.builder().amenityId(amenityId).build())
+                        .collect(Collectors.toSet()))
+                .rules(petsAllowed != null ? PropertyRule.builder().petsAllowed(petsAllowed).build() : null)
+                .build();
+        return PropertyDocument.from(property);
+    }
+}
@@ -0,0 +1,55 @@
+package com.realestate.listing.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tas borné du tri côté serveur : mêmes k premiers qu'un tri complet
+ */
+class TopKTest {
+
+    @Test
+    void keepsTheKBestInOrder() {
+        List<Integer> values = new Random(42).ints(1000, 0, 500).boxed().toList();
+        TopK<Integer> top = new TopK<>(25, Comparator.naturalOrder());
+        values.forEach(top::offer);
+
+        assertEquals(values.stream().sorted().limit(25).toList(), top.sorted());
+    }
+
+    @Test
+    void tieBreakerGivesStablePages() {
+        // Clés égales deux à deux, départagées par l'indice comme dans searchAvailableRanked
+        double[] keys = IntStream.range(0, 100).mapToDouble(i -> i / 2).toArray();
+        Comparator<Integer> order = Comparator.<Integer>comparingDouble(i -> keys[i]).thenComparingInt(i -> i);
+
+        TopK<Integer> firstPage = new TopK<>(10, order);
+        TopK<Integer> twoPages = new TopK<>(20, order);
+        for (int i = 99; i >= 0; i--) {
+            firstPage.offer(i);
+            twoPages.offer(i);
+        }
+
+        assertEquals(IntStream.range(0, 10).boxed().toList(), firstPage.sorted());
+        assertEquals(firstPage.sorted(), twoPages.sorted().subList(0, 10));
+    }
+
+    @Test
+    void returnsEverythingWhenFewerThanK() {
+        TopK<String> top = new TopK<>(10, Comparator.reverseOrder());
+        List.of("b", "c", "a").forEach(top::offer);
+
+        assertEquals(List.of("c", "b", "a"), top.sorted());
+    }
+
+    @Test
+    void rejectsNonPositiveK() {
+        assertThrows(IllegalArgumentException.class, () -> new TopK<>(0, Comparator.<Integer>naturalOrder()));
+    }
+}
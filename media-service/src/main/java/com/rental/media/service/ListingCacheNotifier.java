@@ -0,0 +1,51 @@
+package com.rental.media.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Prévient listing-service qu'une photo de propriété a été écrite dans property_photos
+ * (ses fiches JSON en cache sont invalidées)
+ *
+ * Envoyé après le commit ; en cas d'échec, le TTL du cache de listing-service prend le relais
+ */
+@Component
+@Slf4j
+public class ListingCacheNotifier {
+
+    private final RestClient restClient;
+
+    public ListingCacheNotifier(@Value("${listing.service.url:http://localhost:8082}") String listingServiceUrl) {
+        this.restClient = RestClient.builder().baseUrl(listingServiceUrl).build();
+    }
+
+    public void photosChanged(Integer propertyId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(propertyId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                send(propertyId);
+            }
+        });
+    }
+
+    private void send(Integer propertyId) {
+        try {
+            restClient.post()
+                    .uri("/api/properties/{propertyId}/photos/changed", propertyId)
+                    .retrieve()
+                    .toBodilessEntity();
+        } catch (RestClientException e) {
+            log.warn("⚠️ listing-service non prévenu du changement de photos de la propriété {} : {}",
+                    propertyId, e.getMessage());
+        }
+    }
+}
@@ -39,6 +39,7 @@ public class MediaService {
     private final ImageValidator imageValidator;
     private final ImageCompressionService compressionService;
     private final JdbcTemplate jdbcTemplate;
+    private final ListingCacheNotifier listingCacheNotifier;
 
     @Value("${aws.s3.properties-bucket}")
     private String propertiesBucket;
@@ -101,6 +102,7 @@ public class MediaService {
                 request.getIsCover(),
                 request.getDisplayOrder()
         );
+        listingCacheNotifier.photosChanged(request.getEntityId());
 
         // 9. Construire l'URL
         String imageUrl = buildImageUrl(s3Key);
@@ -260,13 +262,16 @@ public class MediaService {
      */
     @Transactional
     public void deletePropertyPhoto(Integer photoId) {
-        // 1. Récupérer la clé S3
-        String sql = "SELECT photo_url FROM property_photos WHERE photo_id = ?";
-        String s3Key = jdbcTemplate.queryForObject(sql, String.class, photoId);
+        // 1. Récupérer la clé S3 et la propriété
+        String sql = "SELECT photo_url, property_id FROM property_photos WHERE photo_id = ?";
+        Object[] photo = jdbcTemplate.query(sql,
+                rs -> rs.next() ? new Object[]{rs.getString("photo_url"), rs.getInt("property_id")} : null,
+                photoId);
 
-        if (s3Key == null) {
+        if (photo == null || photo[0] == null) {
             throw new ImageUploadException("Photo non trouvée");
         }
+        String s3Key = (String) photo[0];
 
         // 2. Supprimer fichier
         if ("local".equalsIgnoreCase(appMode)) {
@@ -278,6 +283,7 @@ public class MediaService {
         // 3. Supprimer de la base
         String deleteSql = "DELETE FROM property_photos WHERE photo_id = ?";
         jdbcTemplate.update(deleteSql, photoId);
+        listingCacheNotifier.photosChanged((Integer) photo[1]);
 
         log.info("✅ Photo {} supprimée avec succès", photoId);
     }